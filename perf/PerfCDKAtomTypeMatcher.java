@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+import org.openscience.cdk.Atom;
+import org.openscience.cdk.AtomContainer;
+import org.openscience.cdk.Bond;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.atomtype.CDKAtomTypeMatcher;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+
+/**
+ * Throughput of CDKAtomTypeMatcher on a chain of pyrroles, typing the whole
+ * molecule at once (findMatchingAtomTypes) against typing each atom on its
+ * own (findMatchingAtomType).
+ *
+ * Usage: PerfCDKAtomTypeMatcher [rings] [runs]
+ */
+public class PerfCDKAtomTypeMatcher {
+
+	CDKAtomTypeMatcher matcher;
+	IAtomContainer mol;
+
+	public PerfCDKAtomTypeMatcher(int rings) {
+		matcher = CDKAtomTypeMatcher.getInstance(DefaultChemObjectBuilder.getInstance());
+		mol = makePolyPyrrole(rings);
+		System.out.println("Atoms: " + mol.getAtomCount() + ", bonds: " + mol.getBondCount());
+	}
+
+	public void run(int runs) throws Exception {
+		// warm up
+		for (int i = 0; i < Math.max(1, runs / 5); i++) {
+			matcher.findMatchingAtomTypes(mol);
+			for (IAtom atom : mol.atoms())
+				matcher.findMatchingAtomType(mol, atom);
+		}
+
+		long[] whole   = new long[runs];
+		long[] perAtom = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			long t0 = System.nanoTime();
+			matcher.findMatchingAtomTypes(mol);
+			long t1 = System.nanoTime();
+			for (IAtom atom : mol.atoms())
+				matcher.findMatchingAtomType(mol, atom);
+			long t2 = System.nanoTime();
+			whole[i]   = t1 - t0;
+			perAtom[i] = t2 - t1;
+		}
+		report("findMatchingAtomTypes", whole);
+		report("findMatchingAtomType (each atom)", perAtom);
+	}
+
+	private void report(String name, long[] times) {
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		long median = sorted[sorted.length / 2];
+		System.out.println(name + " median (ms): " + median / 1e6
+		                   + ", atoms/s: " + (int) (1e9 * mol.getAtomCount() / median));
+	}
+
+	/** A chain of pyrroles, the nitrogen of each ring is bonded to the previous ring. */
+	private static IAtomContainer makePolyPyrrole(int n) {
+		IAtomContainer mol = new AtomContainer();
+		IAtom prev = null;
+		for (int i = 0; i < n; i++) {
+			IAtom[] ring = {new Atom("N"), new Atom("C"), new Atom("C"), new Atom("C"), new Atom("C")};
+			for (IAtom atom : ring) {
+				atom.setImplicitHydrogenCount(1);
+				mol.addAtom(atom);
+			}
+			mol.addBond(new Bond(ring[0], ring[1], IBond.Order.SINGLE));
+			mol.addBond(new Bond(ring[1], ring[2], IBond.Order.DOUBLE));
+			mol.addBond(new Bond(ring[2], ring[3], IBond.Order.SINGLE));
+			mol.addBond(new Bond(ring[3], ring[4], IBond.Order.DOUBLE));
+			mol.addBond(new Bond(ring[4], ring[0], IBond.Order.SINGLE));
+			if (prev != null) {
+				mol.addBond(new Bond(prev, ring[0], IBond.Order.SINGLE));
+				ring[0].setImplicitHydrogenCount(0);
+				prev.setImplicitHydrogenCount(0);
+			}
+			prev = ring[2];
+		}
+		return mol;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int rings = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+		int runs  = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		new PerfCDKAtomTypeMatcher(rings).run(runs);
+	}
+}
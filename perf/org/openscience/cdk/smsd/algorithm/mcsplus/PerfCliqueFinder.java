@@ -0,0 +1,100 @@
+package org.openscience.cdk.smsd.algorithm.mcsplus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.smiles.SmilesParser;
+
+/**
+ * Time BKKCKCF and BitSetCliqueFinder on the compatibility graph of two
+ * molecules (by default two steroids) and on a random graph with c- and
+ * d-edges. Each finder is run a number of times to warm up and then timed
+ * over the given number of runs.
+ *
+ * Usage: PerfCliqueFinder [runs] [query smiles] [target smiles]
+ */
+public class PerfCliqueFinder {
+
+	List<Integer> nodes, cEdges, dEdges;
+
+	public PerfCliqueFinder(String query, String target) throws Exception {
+		SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+		IAtomContainer ac1 = sp.parseSmiles(query);
+		IAtomContainer ac2 = sp.parseSmiles(target);
+		GenerateCompatibilityGraph gcg = new GenerateCompatibilityGraph(ac1, ac2, true);
+		nodes  = gcg.getCompGraphNodes();
+		cEdges = gcg.getCEgdes();
+		dEdges = gcg.getDEgdes();
+		System.out.println("Query: " + query);
+		System.out.println("Target: " + target);
+		System.out.println("Nodes: " + nodes.size() / 3
+		                   + ", c-edges: " + cEdges.size() / 2
+		                   + ", d-edges: " + dEdges.size() / 2);
+	}
+
+	/** A random graph of n vertices, pairs are c- or d-edges with the given probabilities. */
+	public PerfCliqueFinder(int n, double pc, double pd, long seed) {
+		Random rand = new Random(seed);
+		nodes  = new ArrayList<Integer>();
+		cEdges = new ArrayList<Integer>();
+		dEdges = new ArrayList<Integer>();
+		for (int u = 1; u <= n; u++) {
+			nodes.addAll(Arrays.asList(u, u, u));
+			for (int v = u + 1; v <= n; v++) {
+				double p = rand.nextDouble();
+				if (p < pc)
+					cEdges.addAll(Arrays.asList(u, v));
+				else if (p < pc + pd)
+					dEdges.addAll(Arrays.asList(u, v));
+			}
+		}
+		System.out.println("Random graph, nodes: " + n
+		                   + ", c-edges: " + cEdges.size() / 2
+		                   + ", d-edges: " + dEdges.size() / 2);
+	}
+
+	public void run(int runs) {
+		// warm up
+		for (int i = 0; i < Math.max(1, runs / 5); i++) {
+			new BKKCKCF(nodes, cEdges, dEdges);
+			new BitSetCliqueFinder(nodes, cEdges, dEdges);
+		}
+
+		long[] bkkckcf = new long[runs];
+		long[] bitset  = new long[runs];
+		int cliques = 0, size = 0;
+		for (int i = 0; i < runs; i++) {
+			long t0 = System.nanoTime();
+			new BKKCKCF(nodes, cEdges, dEdges);
+			long t1 = System.nanoTime();
+			BitSetCliqueFinder finder = new BitSetCliqueFinder(nodes, cEdges, dEdges);
+			long t2 = System.nanoTime();
+			bkkckcf[i] = t1 - t0;
+			bitset[i]  = t2 - t1;
+			cliques    = finder.getMaxCliqueSet().size();
+			size       = finder.getBestCliqueSize();
+		}
+		System.out.println("Maximum cliques: " + cliques + " of size " + size);
+		report("BKKCKCF", bkkckcf);
+		report("BitSetCliqueFinder", bitset);
+	}
+
+	private static void report(String name, long[] times) {
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		System.out.println(name + " median (ms): " + sorted[sorted.length / 2] / 1e6
+		                   + ", min (ms): " + sorted[0] / 1e6);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		String query  = args.length > 2 ? args[1] : "CC12CCC3C(CCC4=CC(=O)CCC34C)C1CCC2O";
+		String target = args.length > 2 ? args[2] : "CC12CCC3c4ccc(O)cc4CCC3C1CCC2O";
+		new PerfCliqueFinder(query, target).run(runs);
+		new PerfCliqueFinder(60, 0.3, 0.2, 42).run(runs);
+	}
+}
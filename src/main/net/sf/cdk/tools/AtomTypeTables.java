@@ -0,0 +1,77 @@
+/* Copyright (C) 2026  The Chemistry Development Kit (CDK) project
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * All we ask is that proper credit is given for our work, which includes
+ * - but is not limited to - adding the above copyright notice to the beginning
+ * of your source code files, and to any copyright notice that you may distribute
+ * with programs based on this work.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package net.sf.cdk.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openscience.cdk.config.AtomTypeFactory;
+import org.openscience.cdk.config.BinaryAtomTypeConfigurator;
+import org.openscience.cdk.interfaces.IAtomType;
+import org.openscience.cdk.interfaces.IChemObjectBuilder;
+
+/**
+ * Precompiles atom type lists (resources on the classpath) into the binary
+ * tables read by the {@link BinaryAtomTypeConfigurator}, used by the
+ * atomtype-tables target of the build. The arguments are the class name of
+ * the {@link IChemObjectBuilder} to read the lists with, the output directory
+ * and then the resource names of the lists - the tables are written to the
+ * same path (with the {@link BinaryAtomTypeConfigurator#EXTENSION}) in the
+ * output directory.
+ *
+ * @author agent
+ */
+public class AtomTypeTables {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3)
+            throw new IllegalArgumentException("usage: AtomTypeTables {builder} {output dir} {atom type list}...");
+
+        IChemObjectBuilder builder = (IChemObjectBuilder) Class.forName(args[0]).getMethod("getInstance").invoke(null);
+        File               outDir  = new File(args[1]);
+
+        for (String list : Arrays.asList(args).subList(2, args.length)) {
+            InputStream in = AtomTypeTables.class.getClassLoader().getResourceAsStream(list);
+            if (in == null)
+                throw new IOException("atom type list not found: " + list);
+            String format = list.substring(list.lastIndexOf('.') + 1);
+            List<IAtomType> types = Arrays.asList(AtomTypeFactory.getInstance(in, format, builder).getAllAtomTypes());
+            if (types.isEmpty())
+                throw new IOException("no atom types were read from: " + list);
+
+            File table = new File(outDir, list + "." + BinaryAtomTypeConfigurator.EXTENSION);
+            table.getParentFile().mkdirs();
+            OutputStream out = new FileOutputStream(table);
+            try {
+                BinaryAtomTypeConfigurator.write(types, out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
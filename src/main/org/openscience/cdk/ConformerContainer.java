@@ -328,6 +328,23 @@ public class ConformerContainer implements List<IAtomContainer> {
         return atomContainer;
     }
 
+    /**
+     * Get a copy of the coordinates of the specified conformer, indexed by
+     * atom. Unlike {@link #get(int)} the atoms of the underlying molecule are
+     * not updated.
+     *
+     * @param i The position of the requested conformer
+     * @return the coordinates of the conformer
+     */
+    @TestMethod("testGetCoordinates_int")
+    public Point3d[] getCoordinates(int i) {
+        Point3d[] stored = coordinates.get(i);
+        Point3d[] copy   = new Point3d[stored.length];
+        for (int j = 0; j < stored.length; j++)
+            copy[j] = new Point3d(stored[j]);
+        return copy;
+    }
+
     @TestMethod("testSet_int_IAtomContainer")
     public IAtomContainer set(int i, IAtomContainer atomContainer) {
         if (!title.equals(atomContainer.getProperty(CDKConstants.TITLE)))
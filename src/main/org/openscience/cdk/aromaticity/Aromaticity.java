@@ -29,12 +29,14 @@ import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.graph.CycleFinder;
+import org.openscience.cdk.graph.Cycles;
 import org.openscience.cdk.graph.GraphUtil;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
 import org.openscience.cdk.ringsearch.RingSearch;
 
+import java.util.Arrays;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -103,6 +105,9 @@ public final class Aromaticity {
     /** The method to find cycles which will be tested for aromaticity. */
     private final CycleFinder cycles;
 
+    /** Aromatic bonds of ring systems seen before (optional). */
+    private final RingSystemCache cache;
+
     /**
      * Create an aromaticity model using the specified electron donation {@code
      * model} which is tested on the {@code cycles}. The {@code model} defines
@@ -152,6 +157,37 @@ public final class Aromaticity {
                        CycleFinder      cycles) {
         this.model  = checkNotNull(model);
         this.cycles = checkNotNull(cycles);
+        this.cache  = null;
+    }
+
+    /**
+     * Create an aromaticity model which remembers the aromatic bonds of each
+     * ring system in the provided {@code cache}. When a ring system (with the
+     * same electron contributions) has been seen before the cycles are not
+     * perceived again. The cache can only be used with one electron donation
+     * model and cycle finder but may be shared by several threads.
+     *
+     * <blockquote><pre>
+     * RingSystemCache cache       = new RingSystemCache(10000);
+     * Aromaticity     aromaticity = new Aromaticity(ElectronDonation.cdk(),
+     *                                               Cycles.cdkAromaticSet(),
+     *                                               cache);
+     * </pre></blockquote>
+     *
+     * @param model  electron donation model
+     * @param cycles cycles to test
+     * @param cache  cache of aromatic ring systems
+     * @throws IllegalArgumentException the cache is used by a different model
+     * @see RingSystemCache
+     */
+    @TestMethod("cached")
+    public Aromaticity(ElectronDonation model,
+                       CycleFinder      cycles,
+                       RingSystemCache  cache) {
+        this.model  = checkNotNull(model);
+        this.cycles = checkNotNull(cycles);
+        this.cache  = checkNotNull(cache);
+        cache.bind(model, cycles);
     }
 
     /**
@@ -182,15 +218,40 @@ public final class Aromaticity {
         final EdgeToBondMap bondMap = EdgeToBondMap.withSpaceFor(molecule);
         final int[][]       graph   = GraphUtil.toAdjList(molecule, bondMap);
 
-        // initial ring/cycle search and get the contribution from each atom 
-        final RingSearch ringSearch = new RingSearch(molecule, graph);
-        final int[]      electrons  = model.contribution(molecule, ringSearch);
+        // initial ring/cycle search
+        return findBonds(molecule, graph, bondMap, new RingSearch(molecule, graph));
+    }
+
+    /**
+     * Find the bonds of a {@code molecule} which this model determined were
+     * aromatic using an adjacency list, bond map and ring search which have
+     * already been computed - for example, when the atom types were perceived
+     * with the same ring search.
+     *
+     * @param molecule   the molecule to apply the model to
+     * @param graph      adjacency list of the molecule
+     * @param bondMap    bonds of the adjacency list
+     * @param ringSearch ring search of the graph
+     * @return the set of bonds which are aromatic
+     * @throws CDKException a problem occurred with the cycle perception - one
+     *                      can retry with a simpler cycle set
+     * @see GraphUtil#toAdjList(IAtomContainer, EdgeToBondMap)
+     */
+    @TestMethod("benzene_ringSearch")
+    public Set<IBond> findBonds(IAtomContainer molecule, int[][] graph,
+                                EdgeToBondMap bondMap, RingSearch ringSearch) throws CDKException {
+
+        // get the contribution from each atom
+        final int[] electrons = model.contribution(molecule, ringSearch);
 
         final Set<IBond> bonds = Sets.newHashSetWithExpectedSize(molecule.getBondCount());
 
+        if (cache != null)
+            return findCachedBonds(molecule, graph, bondMap, ringSearch, electrons, bonds);
+
         // for each cycle if the electron sum is valid add the bonds of the 
         // cycle to the set or aromatic bonds
-        for (final int[] cycle : cycles.find(molecule).paths()) {
+        for (final int[] cycle : Cycles.find(cycles, molecule, graph, bondMap, ringSearch).paths()) {
             if (checkElectronSum(cycle, electrons)) {
                 for (int i = 1; i < cycle.length; i++) {
                     bonds.add(bondMap.get(cycle[i], cycle[i-1]));
@@ -201,6 +262,81 @@ public final class Aromaticity {
         return bonds;
     }
 
+    /**
+     * Find the aromatic bonds using the cached results of each ring system.
+     * If any ring system was not cached the cycles of the molecule are
+     * perceived and the ring systems which were missing are stored - every
+     * cycle belongs to a single ring system and so the aromatic bonds of each
+     * system are independent.
+     *
+     * @param molecule   the molecule
+     * @param graph      adjacency list of the molecule
+     * @param bondMap    bonds of the adjacency list
+     * @param ringSearch ring search of the graph
+     * @param electrons  electron contribution of each atom
+     * @param bonds      set to add the aromatic bonds to
+     * @return the set of aromatic bonds
+     * @throws CDKException a problem occurred with the cycle perception
+     */
+    private Set<IBond> findCachedBonds(IAtomContainer molecule, int[][] graph, EdgeToBondMap bondMap,
+                                       RingSearch ringSearch, int[] electrons,
+                                       Set<IBond> bonds) throws CDKException {
+
+        final int[][] isolated = ringSearch.isolated();
+        final int[][] fused    = ringSearch.fused();
+
+        final RingSystemCache.RingSystem[] systems = new RingSystemCache.RingSystem[isolated.length + fused.length];
+        final int[][]                      edges   = new int[systems.length][];
+
+        boolean complete = true;
+        for (int k = 0; k < systems.length; k++) {
+            int[] vertices = k < isolated.length ? isolated[k] : fused[k - isolated.length];
+            systems[k] = new RingSystemCache.RingSystem(graph, vertices, electrons);
+            edges[k]   = cache.find(systems[k]);
+            if (edges[k] == null)
+                complete = false;
+        }
+
+        if (complete) {
+            for (int[] systemEdges : edges)
+                for (int i = 0; i < systemEdges.length; i += 2)
+                    bonds.add(bondMap.get(systemEdges[i], systemEdges[i + 1]));
+            return bonds;
+        }
+
+        // ring system of each vertex
+        final int[] system = new int[graph.length];
+        Arrays.fill(system, -1);
+        for (int k = 0; k < systems.length; k++)
+            for (int v : systems[k].vertices)
+                system[v] = k;
+
+        final int[][] found  = new int[systems.length][8];
+        final int[]   nFound = new int[systems.length];
+
+        for (final int[] cycle : Cycles.find(cycles, molecule, graph, bondMap, ringSearch).paths()) {
+            if (checkElectronSum(cycle, electrons)) {
+                for (int i = 1; i < cycle.length; i++) {
+                    int u = cycle[i - 1], v = cycle[i];
+                    int k = system[u];
+                    if (bonds.add(bondMap.get(u, v)) && k >= 0) {
+                        if (nFound[k] + 2 > found[k].length)
+                            found[k] = Arrays.copyOf(found[k], 2 * found[k].length);
+                        found[k][nFound[k]++] = u;
+                        found[k][nFound[k]++] = v;
+                    }
+                }
+            }
+        }
+
+        for (int k = 0; k < systems.length; k++) {
+            if (edges[k] == null)
+                cache.put(systems[k], Arrays.copyOf(found[k], nFound[k]));
+        }
+
+        return bonds;
+    }
+
     /**
      * Apply this aromaticity model to a molecule. Any existing aromaticity
      * flags are removed - even if no aromatic bonds were found. This follows
@@ -228,8 +364,35 @@ public final class Aromaticity {
      */
     @TestMethod("clearFlags_quinone")
     public boolean apply(IAtomContainer molecule) throws CDKException {
+        return apply(molecule, findBonds(molecule));
+    }
+
+    /**
+     * Apply this aromaticity model to a molecule using an adjacency list, bond
+     * map and ring search which have already been computed. Any existing
+     * aromaticity flags are removed, see {@link #apply(IAtomContainer)}.
+     *
+     * @param molecule   the molecule to apply the model to
+     * @param graph      adjacency list of the molecule
+     * @param bondMap    bonds of the adjacency list
+     * @param ringSearch ring search of the graph
+     * @return the model found the molecule was aromatic
+     * @throws CDKException a problem occurred with the cycle perception
+     */
+    @TestMethod("benzene_ringSearch")
+    public boolean apply(IAtomContainer molecule, int[][] graph,
+                         EdgeToBondMap bondMap, RingSearch ringSearch) throws CDKException {
+        return apply(molecule, findBonds(molecule, graph, bondMap, ringSearch));
+    }
 
-        Set<IBond> bonds = findBonds(molecule);
+    /**
+     * Set the aromaticity flags of a molecule.
+     *
+     * @param molecule the molecule
+     * @param bonds    the aromatic bonds
+     * @return the molecule has aromatic bonds
+     */
+    private static boolean apply(IAtomContainer molecule, Set<IBond> bonds) {
 
         // clear existing flags
         molecule.setFlag(ISAROMATIC, false);
@@ -0,0 +1,432 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.aromaticity;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.graph.CycleFinder;
+import org.openscience.cdk.graph.GraphUtil;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of the aromatic bonds of ring systems (isolated and fused
+ * rings) for an {@link Aromaticity} model. The same scaffolds (e.g. benzene,
+ * indole, quinoline) appear many times in a library, when a ring system with
+ * the same connectivity and electron contributions has been seen before the
+ * cycle perception is skipped.
+ *
+ * <blockquote><pre>
+ * RingSystemCache cache       = new RingSystemCache(10000);
+ * Aromaticity     aromaticity = new Aromaticity(ElectronDonation.cdk(),
+ *                                               Cycles.cdkAromaticSet(),
+ *                                               cache);
+ * for (IAtomContainer container : containers) {
+ *     AtomContainerManipulator.percieveAtomTypesAndConfigureAtoms(container);
+ *     aromaticity.apply(container);
+ * }
+ * double hitRate = cache.hitRate();
+ * </pre></blockquote>
+ *
+ * A ring system is located by a hash of iteratively refined vertex
+ * invariants, a candidate entry is only used if an isomorphism (which
+ * preserves the electron contributions) to the ring system is found - a hash
+ * collision can not produce a wrong result. The least recently used entries
+ * are evicted when the capacity is reached. The cache is thread-safe and can
+ * be used by several threads applying the same model. As the aromatic bonds
+ * depend on the model, a cache can only be used with a single electron
+ * donation model and cycle finder (the same instances).
+ *
+ * Note that if the cycle set of the model is not unique (e.g. a minimum cycle
+ * basis of a system with alternative choices) the perceived bonds already
+ * depend on the order of the atoms, the cache then reproduces the result of
+ * the first ordering seen.
+ *
+ * @author agent
+ * @cdk.module standard
+ * @cdk.githash
+ * @cdk.keyword aromaticity
+ * @cdk.keyword cache
+ * @see Aromaticity
+ */
+@TestClass("org.openscience.cdk.aromaticity.RingSystemCacheTest")
+public final class RingSystemCache {
+
+    /** The ring systems, least recently used first. */
+    private final Map<Long, CachedRingSystem> entries;
+
+    /** Number of lookups which did and did not find an entry. */
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    /** The model and cycles the cache is used for. */
+    private ElectronDonation model;
+    private CycleFinder      cycles;
+
+    /**
+     * Create a cache for at most <i>capacity</i> ring systems.
+     *
+     * @param capacity maximum number of ring systems to store
+     */
+    @TestMethod("eviction")
+    public RingSystemCache(final int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.entries = new LinkedHashMap<Long, CachedRingSystem>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Long, CachedRingSystem> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Associate the cache with an electron donation model and cycle finder.
+     *
+     * @param model  electron donation model
+     * @param cycles cycle finder
+     * @throws IllegalArgumentException the cache is already used by a
+     *                                  different model
+     */
+    synchronized void bind(ElectronDonation model, CycleFinder cycles) {
+        if (this.model == null) {
+            this.model  = model;
+            this.cycles = cycles;
+        } else if (this.model != model || this.cycles != cycles) {
+            throw new IllegalArgumentException("ring system cache is used by a different aromaticity model");
+        }
+    }
+
+    /**
+     * Find the aromatic edges of a ring system.
+     *
+     * @param system the ring system
+     * @return aromatic edges as pairs of vertices of the molecule, null if not
+     *         cached
+     */
+    int[] find(RingSystem system) {
+        CachedRingSystem entry;
+        synchronized (entries) {
+            entry = entries.get(system.hash);
+        }
+        int[] mapping = entry != null ? entry.isomorphism(system) : null;
+        if (mapping == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        int[] edges = new int[entry.edges.length];
+        for (int i = 0; i < edges.length; i++)
+            edges[i] = system.vertices[mapping[entry.edges[i]]];
+        return edges;
+    }
+
+    /**
+     * Store the aromatic edges of a ring system.
+     *
+     * @param system the ring system
+     * @param edges  aromatic edges as pairs of vertices of the molecule
+     */
+    void put(RingSystem system, int[] edges) {
+        CachedRingSystem entry = new CachedRingSystem(system, edges);
+        synchronized (entries) {
+            entries.put(system.hash, entry);
+        }
+    }
+
+    /**
+     * Number of lookups which found an entry.
+     *
+     * @return number of hits
+     */
+    @TestMethod("benzene,eviction")
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of lookups which did not find an entry.
+     *
+     * @return number of misses
+     */
+    @TestMethod("benzene,eviction")
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Fraction of the lookups which found an entry.
+     *
+     * @return the hit rate (0 if there were no lookups)
+     */
+    @TestMethod("benzene")
+    public double hitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0 : h / (double) total;
+    }
+
+    /**
+     * Number of ring systems currently stored.
+     *
+     * @return number of entries
+     */
+    @TestMethod("benzene,eviction")
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Remove all entries and reset the statistics.
+     */
+    @TestMethod("eviction")
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * A ring system of a molecule - the subgraph, the electron contribution of
+     * each vertex and the refined invariants.
+     */
+    static final class RingSystem {
+
+        /** Vertices of the molecule in the ring system. */
+        final int[]   vertices;
+
+        /** Subgraph of the ring system. */
+        final int[][] graph;
+
+        /** Electron contribution of each vertex. */
+        final int[]   labels;
+
+        /** Refined invariant of each vertex. */
+        final long[]  invariants;
+
+        /** Number of edges and the hash of the system. */
+        final int  m;
+        final long hash;
+
+        /**
+         * Create the ring system of the provided vertices.
+         *
+         * @param graph     adjacency list of the molecule
+         * @param vertices  vertices of the ring system
+         * @param electrons electron contribution of each vertex in the
+         *                  molecule
+         */
+        RingSystem(int[][] graph, int[] vertices, int[] electrons) {
+            this.vertices = vertices;
+            this.graph    = GraphUtil.subgraph(graph, vertices);
+
+            final int n = vertices.length;
+            this.labels     = new int[n];
+            this.invariants = new long[n];
+
+            int degreeSum = 0;
+            for (int i = 0; i < n; i++) {
+                labels[i]     = electrons[vertices[i]];
+                invariants[i] = mix(((long) labels[i] << 32) | this.graph[i].length);
+                degreeSum += this.graph[i].length;
+            }
+            this.m = degreeSum / 2;
+
+            // refine until the number of classes no longer increases
+            long[] next    = new long[n];
+            int    classes = count(invariants);
+            for (int round = 0; round < n; round++) {
+                for (int i = 0; i < n; i++) {
+                    long sum = 0;
+                    for (int j : this.graph[i])
+                        sum += mix(invariants[j]);
+                    next[i] = mix(invariants[i] * 31 + sum);
+                }
+                System.arraycopy(next, 0, invariants, 0, n);
+                int refined = count(invariants);
+                if (refined == classes)
+                    break;
+                classes = refined;
+            }
+
+            long[] sorted = invariants.clone();
+            Arrays.sort(sorted);
+            long h = mix(((long) n << 32) | m);
+            for (long x : sorted)
+                h = mix(h * 31 + x);
+            this.hash = h;
+        }
+
+        private static int count(long[] xs) {
+            long[] sorted = xs.clone();
+            Arrays.sort(sorted);
+            int count = sorted.length > 0 ? 1 : 0;
+            for (int i = 1; i < sorted.length; i++)
+                if (sorted[i] != sorted[i - 1])
+                    count++;
+            return count;
+        }
+
+        /** 64-bit finalizer of MurmurHash3. */
+        private static long mix(long x) {
+            x ^= x >>> 33;
+            x *= 0xff51afd7ed558ccdL;
+            x ^= x >>> 33;
+            x *= 0xc4ceb9fe1a85ec53L;
+            x ^= x >>> 33;
+            return x;
+        }
+    }
+
+    /**
+     * A stored ring system and its aromatic edges.
+     */
+    private static final class CachedRingSystem {
+
+        /** Subgraph, labels and invariants of the ring system. */
+        private final int[][] graph;
+        private final int[]   labels;
+        private final long[]  invariants;
+        private final int     m;
+
+        /** Aromatic edges as pairs of vertices in the subgraph. */
+        private final int[] edges;
+
+        /** Breadth-first order of the vertices and the parent of each. */
+        private final int[] order, parent;
+
+        private CachedRingSystem(RingSystem system, int[] molEdges) {
+            this.graph      = system.graph;
+            this.labels     = system.labels;
+            this.invariants = system.invariants;
+            this.m          = system.m;
+
+            // vertices of the molecule to the subgraph
+            this.edges = new int[molEdges.length];
+            for (int i = 0; i < molEdges.length; i++) {
+                for (int j = 0; j < system.vertices.length; j++) {
+                    if (system.vertices[j] == molEdges[i]) {
+                        edges[i] = j;
+                        break;
+                    }
+                }
+            }
+
+            // ring systems are connected
+            final int n = graph.length;
+            this.order  = new int[n];
+            this.parent = new int[n];
+            boolean[] visited = new boolean[n];
+            int head = 0, tail = 0;
+            if (n > 0) {
+                order[tail++] = 0;
+                parent[0]     = -1;
+                visited[0]    = true;
+            }
+            while (head < tail) {
+                int v = order[head++];
+                for (int w : graph[v]) {
+                    if (!visited[w]) {
+                        visited[w]    = true;
+                        parent[w]     = v;
+                        order[tail++] = w;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Find an isomorphism from this entry to the ring system which
+         * preserves the electron contributions.
+         *
+         * @param system a ring system
+         * @return mapping of the vertices of the entry to the vertices of the
+         *         system, null if there is no isomorphism
+         */
+        private int[] isomorphism(RingSystem system) {
+            final int n = graph.length;
+            if (system.graph.length != n || system.m != m)
+                return null;
+            int[]     mapping = new int[n];
+            boolean[] used    = new boolean[n];
+            Arrays.fill(mapping, -1);
+            return map(system, mapping, used, 0) ? mapping : null;
+        }
+
+        private boolean map(RingSystem system, int[] mapping, boolean[] used, int depth) {
+
+            if (depth == order.length)
+                return true;
+
+            final int u = order[depth];
+
+            // candidates are adjacent to the image of the parent
+            int[] candidates;
+            if (parent[u] < 0) {
+                candidates = new int[system.graph.length];
+                for (int i = 0; i < candidates.length; i++)
+                    candidates[i] = i;
+            } else {
+                candidates = system.graph[mapping[parent[u]]];
+            }
+
+            for (int v : candidates) {
+                if (used[v] || !compatible(system, u, v, mapping))
+                    continue;
+                mapping[u] = v;
+                used[v]    = true;
+                if (map(system, mapping, used, depth + 1))
+                    return true;
+                mapping[u] = -1;
+                used[v]    = false;
+            }
+
+            return false;
+        }
+
+        /**
+         * Check whether the vertex u of the entry can be mapped to the vertex
+         * v of the system, the adjacencies to mapped vertices must be
+         * preserved.
+         */
+        private boolean compatible(RingSystem system, int u, int v, int[] mapping) {
+            if (invariants[u] != system.invariants[v]
+                    || labels[u] != system.labels[v]
+                    || graph[u].length != system.graph[v].length)
+                return false;
+            for (int w : graph[u]) {
+                if (mapping[w] >= 0 && !adjacent(system.graph, v, mapping[w]))
+                    return false;
+            }
+            return true;
+        }
+
+        private static boolean adjacent(int[][] graph, int v, int w) {
+            for (int x : graph[v])
+                if (x == w)
+                    return true;
+            return false;
+        }
+    }
+}
@@ -103,14 +103,16 @@ public class AtomTypeCharges implements IChargeCalculator {
 		Matcher mat_p = null;
 		Matcher mat_n = null;
 		String hoseCode = "";
+		String[] hoseCodes;
+
+		try {
+			hoseCodes = hcg.getHOSECodes(ac, 3, false);
+		} catch (CDKException ex1) {
+			throw new CDKException("Could not build HOSECodes due to " + ex1.toString(), ex1);
+		}
 
 		for (int i = 0; i < ac.getAtomCount(); i++) {
-			try {
-				hoseCode = hcg.getHOSECode(ac, ac.getAtom(i), 3);
-			} catch (CDKException ex1) {
-				throw new CDKException("Could not build HOSECode from atom " + i + " due to " + ex1.toString(), ex1);
-			}
-			hoseCode=removeAromaticityFlagsFromHoseCode(hoseCode);
+			hoseCode=removeAromaticityFlagsFromHoseCode(hoseCodes[i]);
 
 			matOC = pOC.matcher(hoseCode);
 			matOP = pOP.matcher(hoseCode);
@@ -24,7 +24,8 @@
 package org.openscience.cdk.charges;
 
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.List;
 
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
@@ -32,6 +33,7 @@ import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.tools.ParallelTasks;
 
 /**
  * <p>The calculation of the Gasteiger Marsili (PEOE) partial charges is based on 
@@ -57,6 +59,27 @@ public class GasteigerMarsiliPartialCharges implements IChargeCalculator {
     private double MX_DAMP = 0.5;
     private double MX_ITERATIONS = 20;
     private int STEP_SIZE = 5;
+
+    /** Parameter types, indices into the parameter tables. */
+    private static final int H = 0, C_SP3 = 1, C_SP2 = 2, C_SP = 3, N_SP3 = 4, N_SP2 = 5, N_SP = 6,
+                             O_SP3 = 7, O_SP2 = 8, SI = 9, P = 10, S = 11, F = 12, CL = 13, BR = 14,
+                             I = 15, NONE = 16;
+
+    /** The a, b and c parameters of each type (Si is not correctly parametrised). */
+    private static final double[] A = {7.17, 7.98, 8.79, 10.39, 11.54, 12.87, 17.68, 14.18, 17.07,
+                                       8.10, 8.90, 10.14, 14.66, 12.31, 11.44, 9.88, 0};
+    private static final double[] B = {6.24, 9.18, 9.32, 9.45, 10.82, 11.15, 12.70, 12.92, 13.79,
+                                       7.92, 8.32, 9.13, 13.85, 10.84, 9.63, 7.95, 0};
+    private static final double[] C = {-0.56, 1.88, 1.51, 0.73, 1.36, 0.85, -0.27, 1.39, 0.47,
+                                       1.78, 1.58, 1.38, 2.31, 1.512, 1.31, 0.945, 0};
+
+    /** The electronegativity of the cation (a + b + c) of each type, 1 if not parametrised. */
+    private static final double[] DENOMINATOR = new double[A.length];
+
+    static {
+        for (int t = 0; t < A.length; t++)
+            DENOMINATOR[t] = A[t] == 0 && B[t] == 0 && C[t] == 0 ? 1 : A[t] + B[t] + C[t];
+    }
     /** Flag is set if the formal charge of a chemobject is changed due to resonance.*/
 
 
@@ -145,75 +168,72 @@ public class GasteigerMarsiliPartialCharges implements IChargeCalculator {
     @TestMethod("testAssignGasteigerMarsiliSigmaPartialCharges_IAtomContainer_Boolean")
     public IAtomContainer assignGasteigerMarsiliSigmaPartialCharges(IAtomContainer ac, boolean setCharge) throws Exception {
 
-//		if (setCharge) {
-//			atomTypeCharges.setCharges(ac); // not necessary initial charge
-//		}
         /*add the initial charge to 0. According results of Gasteiger*/
         for(int i = 0; i < ac.getAtomCount(); i++)
             ac.getAtom(i).setCharge(0.0);
-        double[] gasteigerFactors = assignGasteigerSigmaMarsiliFactors(ac);//a,b,c,deoc,chi,q
-        double alpha = 1.0;
-        double q;
-        double deoc;
 
-        IAtom[] atoms = null;
-        int atom1 = 0;
-        int atom2 = 0;
+        final int   n    = ac.getAtomCount();
+        final int[] from = new int[ac.getBondCount()];
+        final int[] to   = new int[ac.getBondCount()];
+        final int[] type = parameterTypes(ac, from, to);
+
+        double[] q = new double[n];
+        relax(type, from, to, q);
+
+        for (int i = 0; i < n; i++) {
+        	ac.getAtom(i).setCharge(q[i]);
+        }
+        return ac;
+    }
+
+    /**
+     * Relax the charges by the partial equalisation of orbital
+     * electronegativity. The molecule is described by the parameter type of
+     * each atom and the two atom indices of each bond, no atom or bond objects
+     * are accessed.
+     *
+     * @param type parameter type of each atom
+     * @param from the first atom index of each bond
+     * @param to   the second atom index of each bond
+     * @param q    the initial charges, updated with the relaxed charges
+     */
+    private void relax(int[] type, int[] from, int[] to, double[] q) {
+
+        final int      n     = type.length;
+        final double[] chi   = new double[n];
+        final double[] q_old = new double[n];
+        double         alpha = 1.0;
 
-        double[] q_old = new double[ac.getAtomCount()];
-        for(int i = 0 ; i < q_old.length ; i++)
+        // as the reference implementation, only the first old charge is set
+        if (n > 0)
             q_old[0] = 20.0;
 
-        out:
         for (int i = 0; i < MX_ITERATIONS; i++) {
             alpha *= MX_DAMP;
             boolean isDifferent = false;
-            for (int j = 0; j < ac.getAtomCount(); j++) {
-                q = gasteigerFactors[STEP_SIZE * j + j + 5];
-                double difference = Math.abs(q_old[j])-Math.abs(q);
-                if(Math.abs(difference) > 0.001)
+            for (int j = 0; j < n; j++) {
+                double difference = Math.abs(q_old[j]) - Math.abs(q[j]);
+                if (Math.abs(difference) > 0.001)
                     isDifferent = true;
-                q_old[j] = q;
-
-                gasteigerFactors[STEP_SIZE * j + j + 4] = gasteigerFactors[STEP_SIZE * j + j + 2] * q * q + gasteigerFactors[STEP_SIZE * j + j + 1] * q + gasteigerFactors[STEP_SIZE * j + j];
-//				logger.debug("g4: "+gasteigerFactors[STEP_SIZE * j + j + 4]);
+                q_old[j] = q[j];
+                chi[j] = C[type[j]] * q[j] * q[j] + B[type[j]] * q[j] + A[type[j]];
             }
-            if(!isDifferent)/* automatically break the maximum iterations*/
-                break out;
-
-//            bonds = ac.getBonds();
-            Iterator<IBond> bonds = ac.bonds().iterator();
-            while (bonds.hasNext()) {
-                IBond bond = (IBond) bonds.next();
-                
-                atom1 = ac.getAtomNumber(bond.getAtom(0));
-                atom2 = ac.getAtomNumber(bond.getAtom(1));
-
-                if (gasteigerFactors[STEP_SIZE * atom1 + atom1 + 4] >= gasteigerFactors[STEP_SIZE * atom2 + atom2 + 4]) {
-                    if (ac.getAtom(atom2).getSymbol().equals("H")) {
-                        deoc = DEOC_HYDROGEN;
-                    } else {
-                        deoc = gasteigerFactors[STEP_SIZE * atom2 + atom2 + 3];
-                    }
+            if (!isDifferent)/* automatically break the maximum iterations*/
+                break;
+
+            for (int j = 0; j < from.length; j++) {
+                int    atom1 = from[j], atom2 = to[j];
+                double deoc;
+                if (chi[atom1] >= chi[atom2]) {
+                    deoc = type[atom2] == H ? DEOC_HYDROGEN : DENOMINATOR[type[atom2]];
                 } else {
-                    if (ac.getAtom(atom1).getSymbol().equals("H")) {
-                        deoc = DEOC_HYDROGEN;
-                    } else {
-                        deoc = gasteigerFactors[STEP_SIZE * atom1 + atom1 + 3];
-                    }
+                    deoc = type[atom1] == H ? DEOC_HYDROGEN : DENOMINATOR[type[atom1]];
                 }
-
-                q = (gasteigerFactors[STEP_SIZE * atom1 + atom1 + 4] - gasteigerFactors[STEP_SIZE * atom2 + atom2 + 4]) / deoc;
-//				logger.debug("qq: "+q);
-                gasteigerFactors[STEP_SIZE * atom1 + atom1 + 5] -= (q*alpha);
-                gasteigerFactors[STEP_SIZE * atom2 + atom2 + 5] += (q*alpha);
+                double dq = (chi[atom1] - chi[atom2]) / deoc;
+                q[atom1] -= (dq * alpha);
+                q[atom2] += (dq * alpha);
             }
         }
-
-        for (int i = 0; i < ac.getAtomCount(); i++) {
-        	ac.getAtom(i).setCharge(gasteigerFactors[STEP_SIZE * i + i + 5]);
-        }
-        return ac;
     }
 
     @TestMethod("testCalculateCharges_IAtomContainer")
@@ -228,6 +248,25 @@ public class GasteigerMarsiliPartialCharges implements IChargeCalculator {
         }
     }
 
+    /**
+     * Calculate the Gasteiger-Marsili sigma charges of many molecules in
+     * parallel. Each molecule is handled as {@link #calculateCharges(IAtomContainer)}.
+     *
+     * @param containers the molecules
+     * @param nThreads   number of threads to use
+     * @throws CDKException the charges of a molecule could not be calculated
+     *                      or the calculation was interrupted
+     */
+    @TestMethod("testCalculateCharges_List_Int,testCalculateCharges_List_Int_unsupported")
+    public void calculateCharges(final List<IAtomContainer> containers, int nThreads) throws CDKException {
+
+        ParallelTasks.forEach(containers.size(), nThreads, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) throws CDKException {
+                calculateCharges(containers.get(i));
+            }
+        });
+    }
+
     /**
      *  Get the StepSize attribute of the GasteigerMarsiliPartialCharges
      *  object
@@ -260,109 +299,92 @@ public class GasteigerMarsiliPartialCharges implements IChargeCalculator {
     public double[] assignGasteigerSigmaMarsiliFactors(IAtomContainer ac) throws CDKException {
         //a,b,c,denom,chi,q
         double[] gasteigerFactors = new double[(ac.getAtomCount() * (STEP_SIZE+1))];
-        String AtomSymbol = "";
-        double[] factors = new double[]{0.0, 0.0, 0.0};
+        int[] type = parameterTypes(ac, new int[ac.getBondCount()], new int[ac.getBondCount()]);
         for (int i = 0; i < ac.getAtomCount(); i++) {
-            factors[0] = 0.0;
-            factors[1] = 0.0;
-            factors[2] = 0.0;
-            AtomSymbol = ac.getAtom(i).getSymbol();
-            if (AtomSymbol.equals("H")) {
-                factors[0] = 7.17;
-                factors[1] = 6.24;
-                factors[2] = -0.56;
-            } else if (AtomSymbol.equals("C")) {
-                if ((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.SINGLE)&&
-                (ac.getAtom(i).getFormalCharge() != -1)){
-                    factors[0] = 7.98;
-                    factors[1] = 9.18;
-                    factors[2] = 1.88;
-                } else if (ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.DOUBLE
-                        ||((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.SINGLE)
-                           && ac.getAtom(i).getFormalCharge() == -1)) {
-                    factors[0] = 8.79;/*8.79*//*8.81*/
-                    factors[1] = 9.32;/*9.32*//*9.34*/
-                    factors[2] = 1.51;/*1.51*//*1.52*/
-                } else if (ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.TRIPLE ||
-                		ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.QUADRUPLE) {
-                    factors[0] = 10.39;/*10.39*/
-                    factors[1] = 9.45;/*9.45*/
-                    factors[2] = 0.73;
-                }
-            } else if(AtomSymbol.equals("N")){
-                if((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.SINGLE) &&
-                (ac.getAtom(i).getFormalCharge() != -1)) {
-                    factors[0] = 11.54;
-                    factors[1] = 10.82;
-                    factors[2] = 1.36;
-                } else if ((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.DOUBLE)
-                        ||((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.SINGLE)&& 
-                        	ac.getAtom(i).getFormalCharge() == -1)) {
-                    factors[0] = 12.87;
-                    factors[1] = 11.15;
-                    factors[2] = 0.85;
-                } else if (ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.TRIPLE
-                    || ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.QUADRUPLE) {
-                    factors[0] = 17.68;/*15.68*/
-                    factors[1] = 12.70;/*11.70*/
-                    factors[2] = -0.27;/*-0.27*/
-                }
-            } else if (AtomSymbol.equals("O")) {
-                if ((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.SINGLE) &&
-                (ac.getAtom(i).getFormalCharge() != -1)){
-                    factors[0] = 14.18;
-                    factors[1] = 12.92;
-                    factors[2] = 1.39;
-                } else if((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.DOUBLE)
-                    ||((ac.getMaximumBondOrder(ac.getAtom(i)) == IBond.Order.SINGLE)
-                    	&& ac.getAtom(i).getFormalCharge() == -1)){
-                    factors[0] = 17.07;/* paramaters aren'T correct parametrized. */
-                    factors[1] = 13.79;
-                    factors[2] = 0.47;/*0.47*/
-                }
-            } else if (AtomSymbol.equals("Si")) {// <--not correct
-                factors[0] = 8.10;// <--not correct
-                factors[1] = 7.92;// <--not correct
-                factors[2] = 1.78;// <--not correct
-            } else if (AtomSymbol.equals("P")) {
-                factors[0] = 8.90;
-                factors[1] = 8.32;
-                factors[2] = 1.58;
-            } else if (AtomSymbol.equals("S") /*&& ac.getMaximumBondOrder(ac.getAtomAt(i)) == 1*/) {
-                factors[0] = 10.14;/*10.14*/
-                factors[1] = 9.13;/*9.13*/
-                factors[2] = 1.38;/*1.38*/
-            } else if (AtomSymbol.equals("F")) {
-                factors[0] = 14.66;
-                factors[1] = 13.85;
-                factors[2] = 2.31;
-            } else if (AtomSymbol.equals("Cl")) {
-                factors[0] = 12.31;/*11.0*//*12.31*/
-                factors[1] = 10.84;/*9.69*//*10.84*/
-                factors[2] = 1.512;/*1.35*//*1.512*/
-            } else if (AtomSymbol.equals("Br")) {
-                factors[0] = 11.44;/*10.08*//*11.2*/
-                factors[1] = 9.63;/*8.47*//*9.4*/
-                factors[2] = 1.31;/*1.16*//*1.29*/
-            } else if (AtomSymbol.equals("I")) {
-                factors[0] = 9.88;/*9.90*/
-                factors[1] = 7.95;/*7.96*/
-                factors[2] = 0.945;/*0.96*/
-            } else {
-                throw new CDKException("Partial charge not-supported for element: '" + AtomSymbol + "'.");
-            }
-
-            gasteigerFactors[STEP_SIZE * i + i] = factors[0];
-            gasteigerFactors[STEP_SIZE * i + i + 1] = factors[1];
-            gasteigerFactors[STEP_SIZE * i + i + 2] = factors[2];
+            gasteigerFactors[STEP_SIZE * i + i] = A[type[i]];
+            gasteigerFactors[STEP_SIZE * i + i + 1] = B[type[i]];
+            gasteigerFactors[STEP_SIZE * i + i + 2] = C[type[i]];
+            gasteigerFactors[STEP_SIZE * i + i + 3] = DENOMINATOR[type[i]];
             gasteigerFactors[STEP_SIZE * i + i + 5] = ac.getAtom(i).getCharge();
-            if (factors[0] == 0 && factors[1] == 0 && factors[2] == 0) {
-                gasteigerFactors[STEP_SIZE * i + i + 3] = 1;
-            } else {
-                gasteigerFactors[STEP_SIZE * i + i + 3] = factors[0] + factors[1] + factors[2];
-            }
         }
         return gasteigerFactors;
     }
-}
 
+    /**
+     * Determine the parameter type of each atom and the atom indices of each
+     * bond. The type depends on the element, the maximum bond order and
+     * whether the atom is an anion.
+     *
+     * @param ac   the molecule
+     * @param from filled with the first atom index of each bond
+     * @param to   filled with the second atom index of each bond
+     * @return the parameter type of each atom
+     * @throws CDKException an element is not parametrised or a bond has an
+     *                      atom which is not in the molecule
+     */
+    private static int[] parameterTypes(IAtomContainer ac, int[] from, int[] to) throws CDKException {
+
+        final int           n        = ac.getAtomCount();
+        final IBond.Order[] maxOrder = new IBond.Order[n];
+        Arrays.fill(maxOrder, IBond.Order.SINGLE);
+
+        for (int j = 0; j < from.length; j++) {
+            IBond bond = ac.getBond(j);
+            from[j] = ac.getAtomNumber(bond.getAtom(0));
+            to[j]   = ac.getAtomNumber(bond.getAtom(1));
+            if (from[j] < 0 || to[j] < 0)
+                throw new CDKException("bond at index " + j + " contained an atom not present in the molecule");
+            for (IAtom atom : bond.atoms()) {
+                int i = atom == bond.getAtom(0) ? from[j] : atom == bond.getAtom(1) ? to[j] : ac.getAtomNumber(atom);
+                if (bond.getOrder().numeric() > maxOrder[i].numeric())
+                    maxOrder[i] = bond.getOrder();
+            }
+        }
+
+        int[] type = new int[n];
+        for (int i = 0; i < n; i++)
+            type[i] = parameterType(ac.getAtom(i), maxOrder[i]);
+        return type;
+    }
+
+    /**
+     * The parameter type of an atom.
+     *
+     * @param atom     the atom
+     * @param maxOrder the maximum order of the bonds to the atom
+     * @return the parameter type
+     * @throws CDKException the element is not parametrised
+     */
+    private static int parameterType(IAtom atom, IBond.Order maxOrder) throws CDKException {
+        String  symbol = atom.getSymbol();
+        Integer charge = atom.getFormalCharge();
+        boolean anion  = charge != null && charge == -1;
+        boolean single = maxOrder == IBond.Order.SINGLE;
+        boolean triple = maxOrder == IBond.Order.TRIPLE || maxOrder == IBond.Order.QUADRUPLE;
+        boolean planar = maxOrder == IBond.Order.DOUBLE || (single && anion);
+        if ("H".equals(symbol)) {
+            return H;
+        } else if ("C".equals(symbol)) {
+            return single && !anion ? C_SP3 : planar ? C_SP2 : triple ? C_SP : NONE;
+        } else if ("N".equals(symbol)) {
+            return single && !anion ? N_SP3 : planar ? N_SP2 : triple ? N_SP : NONE;
+        } else if ("O".equals(symbol)) {
+            return single && !anion ? O_SP3 : planar ? O_SP2 : NONE;
+        } else if ("Si".equals(symbol)) {
+            return SI;
+        } else if ("P".equals(symbol)) {
+            return P;
+        } else if ("S".equals(symbol)) {
+            return S;
+        } else if ("F".equals(symbol)) {
+            return F;
+        } else if ("Cl".equals(symbol)) {
+            return CL;
+        } else if ("Br".equals(symbol)) {
+            return BR;
+        } else if ("I".equals(symbol)) {
+            return I;
+        }
+        throw new CDKException("Partial charge not-supported for element: '" + symbol + "'.");
+    }
+}
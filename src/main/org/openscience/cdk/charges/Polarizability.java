@@ -187,9 +187,9 @@ public class Polarizability {
         double bond;
 
         polarizabilitiy += getKJPolarizabilityFactor(acH, atom);
+        int atomIndex = atomContainer.getAtomNumber(atom);
         for (int i = 0; i < acH.getAtomCount(); i++) {
             if (acH.getAtom(i) != atom) {
-                int atomIndex = atomContainer.getAtomNumber(atom);
                 bond = distanceMatrix[atomIndex][i];
                 if (bond == 1) {
                     polarizabilitiy += getKJPolarizabilityFactor(acH, acH.getAtom(i));
@@ -94,6 +94,7 @@ public class AtomTypeFactory {
     private final static String TXT_EXTENSION = "txt";
     private final static String XML_EXTENSION = "xml";
     private final static String OWL_EXTENSION = "owl";
+    private final static String BIN_EXTENSION = BinaryAtomTypeConfigurator.EXTENSION;
     
     private static ILoggingTool logger =
         LoggingToolFactory.createLoggingTool(AtomTypeFactory.class);
@@ -125,7 +126,8 @@ public class AtomTypeFactory {
      *
      * @see #getInstance(String, IChemObjectBuilder)
      * @param  ins                    InputStream containing the data
-     * @param  format                 String representing the possible formats ('xml' and 'txt')
+     * @param  format                 String representing the possible formats ('xml', 'txt', 'owl' and
+     *                                'bin' - a precompiled table, see {@link BinaryAtomTypeConfigurator})
      * @param  builder                IChemObjectBuilder used to make IChemObject instances
      * @return                        The AtomTypeFactory for the given data file
      */
@@ -183,7 +185,15 @@ public class AtomTypeFactory {
 	{
 		logger.info("Reading config file from ", fileName);
 
-		InputStream ins;
+		// use the precompiled table of the list if it was built
+		InputStream ins = this.getClass().getClassLoader().getResourceAsStream(fileName + "." + BIN_EXTENSION);
+		if (ins != null) {
+		    logger.debug("reading precompiled table of ", fileName);
+		    readConfiguration(ins, BIN_EXTENSION, builder);
+		    if (!atomTypes.isEmpty())
+		        return;
+		}
+
 		{
 			//try to see if this is a resource
 			ins = this.getClass().getClassLoader().getResourceAsStream(fileName);
@@ -230,6 +240,8 @@ public class AtomTypeFactory {
                 return (IAtomTypeConfigurator) this.getClass().getClassLoader().
                  loadClass("org.openscience.cdk.config.OWLBasedAtomTypeConfigurator").
                  newInstance();
+            } else if (format.equals(BIN_EXTENSION)) {
+                return new BinaryAtomTypeConfigurator();
             }
 		} catch (Exception exc) {
 			logger.error("Could not get instance of AtomTypeConfigurator for format ", format);
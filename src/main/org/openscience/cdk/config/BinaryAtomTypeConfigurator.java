@@ -0,0 +1,278 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.config;
+
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.interfaces.IAtomType;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.IChemObjectBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an atom type list which has been precompiled into a compact binary
+ * table. Parsing the XML/OWL atom type lists requires a SAX parser and is
+ * relatively slow for the first use of a list, reading the precompiled table
+ * is a sequence of primitive reads. The tables are created at build time
+ * from the original lists (see the atomtype-tables target of the build) and
+ * are used by the {@link AtomTypeFactory} when present - the resource name is that of the
+ * list with the {@link #EXTENSION} appended.
+ *
+ * <blockquote><pre>
+ * // precompile
+ * OutputStream out = new FileOutputStream("cdk-atom-types.owl.bin");
+ * BinaryAtomTypeConfigurator.write(types, out);
+ *
+ * // read
+ * IAtomTypeConfigurator configurator = new BinaryAtomTypeConfigurator();
+ * configurator.setInputStream(new FileInputStream("cdk-atom-types.owl.bin"));
+ * List&lt;IAtomType&gt; types = configurator.readAtomTypes(builder);
+ * </pre></blockquote>
+ *
+ * The table stores all fields of the atom types and the properties with
+ * {@link Integer}, {@link Double}, {@link String} or {@link Boolean} values.
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ */
+@TestClass("org.openscience.cdk.config.BinaryAtomTypeConfiguratorTest")
+public class BinaryAtomTypeConfigurator implements IAtomTypeConfigurator {
+
+    /** Extension (appended to the list name) of a precompiled table. */
+    public static final String EXTENSION = "bin";
+
+    /** Identifies the table format ('CDKT') and its version. */
+    private static final int MAGIC = 0x43444B54, VERSION = 2;
+
+    /** Bits indicating the fields which are set. */
+    private static final int ID            = 1,
+                             NAME          = 1 << 1,
+                             SYMBOL        = 1 << 2,
+                             ATOMIC_NUMBER = 1 << 3,
+                             EXACT_MASS    = 1 << 4,
+                             ABUNDANCE     = 1 << 5,
+                             MASS_NUMBER   = 1 << 6,
+                             CHARGE        = 1 << 7,
+                             HYBRIDIZATION = 1 << 8,
+                             NEIGHBOURS    = 1 << 9,
+                             MAX_ORDER     = 1 << 10,
+                             ORDER_SUM     = 1 << 11,
+                             VALENCY       = 1 << 12,
+                             RADIUS        = 1 << 13;
+
+    /** Type tags of the property values. */
+    private static final byte INTEGER_VALUE = 'I',
+                              DOUBLE_VALUE  = 'D',
+                              STRING_VALUE  = 'S',
+                              BOOLEAN_VALUE = 'B';
+
+    private InputStream ins = null;
+
+    @TestMethod("roundTrip")
+    public BinaryAtomTypeConfigurator() {
+    }
+
+    /** {@inheritDoc} */ @Override
+    @TestMethod("roundTrip")
+    public void setInputStream(InputStream ins) {
+        this.ins = ins;
+    }
+
+    /**
+     * Reads the atom types from a precompiled table.
+     *
+     * @param builder IChemObjectBuilder used to construct the IAtomType's.
+     * @return A List with read IAtomType's.
+     * @throws IOException the stream was not set or was not a precompiled
+     *                     table
+     */
+    @TestMethod("roundTrip,invalid")
+    @Override public List<IAtomType> readAtomTypes(IChemObjectBuilder builder) throws IOException {
+        if (ins == null)
+            throw new IOException("no input stream was set");
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(ins));
+        try {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION)
+                throw new IOException("not a precompiled atom type table");
+
+            IAtomType.Hybridization[] hybridizations = IAtomType.Hybridization.values();
+            IBond.Order[]             orders         = IBond.Order.values();
+
+            int             n     = in.readInt();
+            List<IAtomType> types = new ArrayList<IAtomType>(n);
+
+            for (int i = 0; i < n; i++) {
+
+                int    set    = in.readInt();
+                String id     = (set & ID) != 0 ? in.readUTF() : null;
+                String name   = (set & NAME) != 0 ? in.readUTF() : null;
+                String symbol = (set & SYMBOL) != 0 ? in.readUTF() : null;
+
+                IAtomType type = builder.newInstance(IAtomType.class, symbol != null ? symbol : "R");
+                type.setSymbol(symbol);
+                type.setID(id);
+                type.setAtomTypeName(name);
+                type.setAtomicNumber((set & ATOMIC_NUMBER) != 0 ? in.readInt() : null);
+                type.setExactMass((set & EXACT_MASS) != 0 ? in.readDouble() : null);
+                type.setNaturalAbundance((set & ABUNDANCE) != 0 ? in.readDouble() : null);
+                type.setMassNumber((set & MASS_NUMBER) != 0 ? in.readInt() : null);
+                type.setFormalCharge((set & CHARGE) != 0 ? in.readInt() : null);
+                type.setHybridization((set & HYBRIDIZATION) != 0 ? hybridizations[in.readByte()] : null);
+                type.setFormalNeighbourCount((set & NEIGHBOURS) != 0 ? in.readInt() : null);
+                type.setMaxBondOrder((set & MAX_ORDER) != 0 ? orders[in.readByte()] : null);
+                type.setBondOrderSum((set & ORDER_SUM) != 0 ? in.readDouble() : null);
+                type.setValency((set & VALENCY) != 0 ? in.readInt() : null);
+                type.setCovalentRadius((set & RADIUS) != 0 ? in.readDouble() : null);
+
+                int       flagBits = in.readInt();
+                boolean[] flags    = new boolean[CDKConstants.MAX_FLAG_INDEX + 1];
+                for (int j = 0; j < flags.length; j++)
+                    flags[j] = (flagBits & (1 << j)) != 0;
+                type.setFlags(flags);
+
+                int nProperties = in.readShort();
+                for (int j = 0; j < nProperties; j++) {
+                    String key = in.readUTF();
+                    type.setProperty(key, readValue(in));
+                }
+
+                types.add(type);
+            }
+            return types;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write the atom types to a compact binary table which can be read by
+     * this configurator.
+     *
+     * @param types the atom types
+     * @param out   where to write the table
+     * @throws IOException a property of an atom type could not be stored or
+     *                     the table could not be written
+     */
+    @TestMethod("roundTrip,unsupportedProperty")
+    public static void write(List<IAtomType> types, OutputStream out) throws IOException {
+        DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out));
+        dout.writeInt(MAGIC);
+        dout.writeShort(VERSION);
+        dout.writeInt(types.size());
+        for (IAtomType type : types) {
+
+            int set = 0;
+            if (type.getID() != null) set |= ID;
+            if (type.getAtomTypeName() != null) set |= NAME;
+            if (type.getSymbol() != null) set |= SYMBOL;
+            if (type.getAtomicNumber() != null) set |= ATOMIC_NUMBER;
+            if (type.getExactMass() != null) set |= EXACT_MASS;
+            if (type.getNaturalAbundance() != null) set |= ABUNDANCE;
+            if (type.getMassNumber() != null) set |= MASS_NUMBER;
+            if (type.getFormalCharge() != null) set |= CHARGE;
+            if (type.getHybridization() != null) set |= HYBRIDIZATION;
+            if (type.getFormalNeighbourCount() != null) set |= NEIGHBOURS;
+            if (type.getMaxBondOrder() != null) set |= MAX_ORDER;
+            if (type.getBondOrderSum() != null) set |= ORDER_SUM;
+            if (type.getValency() != null) set |= VALENCY;
+            if (type.getCovalentRadius() != null) set |= RADIUS;
+
+            dout.writeInt(set);
+            if ((set & ID) != 0) dout.writeUTF(type.getID());
+            if ((set & NAME) != 0) dout.writeUTF(type.getAtomTypeName());
+            if ((set & SYMBOL) != 0) dout.writeUTF(type.getSymbol());
+            if ((set & ATOMIC_NUMBER) != 0) dout.writeInt(type.getAtomicNumber());
+            if ((set & EXACT_MASS) != 0) dout.writeDouble(type.getExactMass());
+            if ((set & ABUNDANCE) != 0) dout.writeDouble(type.getNaturalAbundance());
+            if ((set & MASS_NUMBER) != 0) dout.writeInt(type.getMassNumber());
+            if ((set & CHARGE) != 0) dout.writeInt(type.getFormalCharge());
+            if ((set & HYBRIDIZATION) != 0) dout.writeByte(type.getHybridization().ordinal());
+            if ((set & NEIGHBOURS) != 0) dout.writeInt(type.getFormalNeighbourCount());
+            if ((set & MAX_ORDER) != 0) dout.writeByte(type.getMaxBondOrder().ordinal());
+            if ((set & ORDER_SUM) != 0) dout.writeDouble(type.getBondOrderSum());
+            if ((set & VALENCY) != 0) dout.writeInt(type.getValency());
+            if ((set & RADIUS) != 0) dout.writeDouble(type.getCovalentRadius());
+
+            boolean[] flags    = type.getFlags();
+            int       flagBits = 0;
+            for (int j = 0; j < flags.length; j++)
+                if (flags[j]) flagBits |= 1 << j;
+            dout.writeInt(flagBits);
+
+            Map<Object, Object> properties = type.getProperties();
+            dout.writeShort(properties.size());
+            for (Map.Entry<Object, Object> e : properties.entrySet()) {
+                if (!(e.getKey() instanceof String))
+                    throw new IOException("atom type " + type.getAtomTypeName() + " has a property key which is not a string");
+                dout.writeUTF((String) e.getKey());
+                writeValue(dout, type, e.getValue());
+            }
+        }
+        dout.flush();
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case INTEGER_VALUE:
+                return in.readInt();
+            case DOUBLE_VALUE:
+                return in.readDouble();
+            case STRING_VALUE:
+                return in.readUTF();
+            case BOOLEAN_VALUE:
+                return in.readBoolean();
+            default:
+                throw new IOException("unknown property value type: " + tag);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, IAtomType type, Object value) throws IOException {
+        if (value instanceof Integer) {
+            out.writeByte(INTEGER_VALUE);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_VALUE);
+            out.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN_VALUE);
+            out.writeBoolean((Boolean) value);
+        } else {
+            throw new IOException("atom type " + type.getAtomTypeName()
+                                          + " has a property value which can not be stored: " + value);
+        }
+    }
+}
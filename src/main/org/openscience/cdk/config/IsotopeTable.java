@@ -0,0 +1,314 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.config;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A compact table of the isotope data in the precompiled <i>isotopes.dat</i>
+ * resource. The isotopes are stored in primitive arrays grouped by atomic
+ * number, an isotope is referred to by its index in the table. Lookups of the
+ * exact mass, natural abundance and major isotope do not create any objects -
+ * {@link Isotopes} should be used when {@link
+ * org.openscience.cdk.interfaces.IIsotope} instances are required.
+ *
+ * <blockquote><pre>
+ * IsotopeTable table = IsotopeTable.getInstance();
+ * int          c13   = table.indexOf(6, 13);
+ * double       mass  = table.getExactMass(c13);
+ * for (int i = table.begin(17); i &lt; table.end(17); i++) {
+ *     // chlorine isotopes
+ *     table.getMassNumber(i);
+ *     table.getNaturalAbundance(i);
+ * }
+ * </pre></blockquote>
+ *
+ * The abundances follow the convention of the data file, see {@link
+ * Isotopes#getMajorIsotope(int)}. The table is loaded on first use.
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ * @cdk.keyword isotope
+ * @see Isotopes
+ */
+@TestClass("org.openscience.cdk.config.IsotopeTableTest")
+public final class IsotopeTable {
+
+    /** Location of the precompiled isotope data. */
+    private static final String ISOTOPE_DATA = "org/openscience/cdk/config/data/isotopes.dat";
+
+    private static IsotopeTable instance = null;
+
+    /** Isotopes of the atomic number z are at the indices offsets[z] to offsets[z+1]. */
+    private final int[] offsets;
+
+    /** Index of the major isotope of each atomic number (-1 if none). */
+    private final int[] major;
+
+    /** Natural mass of each atomic number. */
+    private final double[] naturalMass;
+
+    /** Data of each isotope. */
+    private final int[]    atomicNumbers, massNumbers;
+    private final double[] exactMasses, abundances;
+
+    /**
+     * Access the isotope table, the data is loaded on the first invocation.
+     *
+     * @return the isotope table
+     * @throws IOException the data file could not be read
+     */
+    @TestMethod("getInstance")
+    public static synchronized IsotopeTable getInstance() throws IOException {
+        if (instance == null) {
+            InputStream in = IsotopeTable.class.getClassLoader().getResourceAsStream(ISOTOPE_DATA);
+            if (in == null)
+                throw new IOException("could not find " + ISOTOPE_DATA);
+            try {
+                instance = new IsotopeTable(in);
+            } finally {
+                in.close();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Load the table from the binary data - a count followed by a record of
+     * each isotope (see net.sf.cdk.tools.bodr.BODRIsotopeDumper).
+     *
+     * @param in input stream of the binary data
+     * @throws IOException the data could not be read
+     */
+    IsotopeTable(InputStream in) throws IOException {
+
+        ByteBuffer          bin = ByteBuffer.allocate(Math.max(4, in.available()));
+        ReadableByteChannel ch  = Channels.newChannel(in);
+        while (bin.hasRemaining() && ch.read(bin) >= 0) {
+            if (!bin.hasRemaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(2 * bin.capacity());
+                bin.flip();
+                grown.put(bin);
+                bin = grown;
+            }
+        }
+        bin.flip();
+
+        final int n = bin.getInt();
+
+        int[]    zs     = new int[n];
+        int[]    as     = new int[n];
+        double[] masses = new double[n];
+        double[] abunds = new double[n];
+        int      maxZ   = 0;
+
+        for (int i = 0; i < n; i++) {
+            zs[i]     = bin.get() & 0xff;
+            as[i]     = bin.getShort();
+            masses[i] = bin.getDouble();
+            abunds[i] = bin.get() == 1 ? bin.getDouble() : 0.0;
+            maxZ      = Math.max(maxZ, zs[i]);
+        }
+
+        // group by atomic number, the order of the file is kept for isotopes
+        // of the same element
+        offsets = new int[maxZ + 2];
+        for (int i = 0; i < n; i++)
+            offsets[zs[i] + 1]++;
+        for (int z = 0; z <= maxZ; z++)
+            offsets[z + 1] += offsets[z];
+
+        int[] fill = Arrays.copyOf(offsets, maxZ + 1);
+        atomicNumbers = new int[n];
+        massNumbers   = new int[n];
+        exactMasses   = new double[n];
+        abundances    = new double[n];
+        for (int i = 0; i < n; i++) {
+            int j = fill[zs[i]]++;
+            atomicNumbers[j] = zs[i];
+            massNumbers[j]   = as[i];
+            exactMasses[j]   = masses[i];
+            abundances[j]    = abunds[i];
+        }
+
+        // the first isotope with the highest abundance, and the abundance
+        // weighted mass (as IsotopeFactory.getNaturalMass)
+        major       = new int[maxZ + 1];
+        naturalMass = new double[maxZ + 1];
+        for (int z = 0; z <= maxZ; z++) {
+            major[z] = offsets[z] < offsets[z + 1] ? offsets[z] : -1;
+            double summedAbundances = 0, summedWeightedAbundances = 0;
+            for (int i = offsets[z]; i < offsets[z + 1]; i++) {
+                if (abundances[i] > abundances[major[z]])
+                    major[z] = i;
+                summedAbundances += abundances[i];
+                summedWeightedAbundances += abundances[i] * exactMasses[i];
+                naturalMass[z] = summedWeightedAbundances / summedAbundances;
+            }
+        }
+    }
+
+    /**
+     * Number of isotopes in the table.
+     *
+     * @return number of isotopes
+     */
+    @TestMethod("size")
+    public int size() {
+        return atomicNumbers.length;
+    }
+
+    /**
+     * Index of the first isotope of the given atomic number.
+     *
+     * @param atomicNumber the atomic number
+     * @return index of the first isotope
+     * @see #end(int)
+     */
+    @TestMethod("chlorine,unknown")
+    public int begin(int atomicNumber) {
+        return known(atomicNumber) ? offsets[atomicNumber] : 0;
+    }
+
+    /**
+     * Index after the last isotope of the given atomic number.
+     *
+     * @param atomicNumber the atomic number
+     * @return index after the last isotope
+     * @see #begin(int)
+     */
+    @TestMethod("chlorine,unknown")
+    public int end(int atomicNumber) {
+        return known(atomicNumber) ? offsets[atomicNumber + 1] : 0;
+    }
+
+    /**
+     * Index of the isotope with the given atomic and mass number.
+     *
+     * @param atomicNumber the atomic number
+     * @param massNumber   the mass number
+     * @return index of the isotope, -1 if not found
+     */
+    @TestMethod("indexOf,unknown")
+    public int indexOf(int atomicNumber, int massNumber) {
+        for (int i = begin(atomicNumber), end = end(atomicNumber); i < end; i++)
+            if (massNumbers[i] == massNumber)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Index of the most abundant (major) isotope of the given atomic number.
+     *
+     * @param atomicNumber the atomic number
+     * @return index of the major isotope, -1 if not found
+     * @see Isotopes#getMajorIsotope(int)
+     */
+    @TestMethod("major,unknown")
+    public int majorIndexOf(int atomicNumber) {
+        return known(atomicNumber) ? major[atomicNumber] : -1;
+    }
+
+    /**
+     * Atomic number of the isotope at the given index.
+     *
+     * @param index isotope index
+     * @return the atomic number
+     */
+    @TestMethod("indexOf")
+    public int getAtomicNumber(int index) {
+        return atomicNumbers[index];
+    }
+
+    /**
+     * Mass number of the isotope at the given index.
+     *
+     * @param index isotope index
+     * @return the mass number
+     */
+    @TestMethod("indexOf,chlorine")
+    public int getMassNumber(int index) {
+        return massNumbers[index];
+    }
+
+    /**
+     * Exact mass of the isotope at the given index.
+     *
+     * @param index isotope index
+     * @return the exact mass
+     */
+    @TestMethod("indexOf,chlorine")
+    public double getExactMass(int index) {
+        return exactMasses[index];
+    }
+
+    /**
+     * Natural abundance of the isotope at the given index.
+     *
+     * @param index isotope index
+     * @return the natural abundance (0 if not abundant)
+     */
+    @TestMethod("indexOf,chlorine")
+    public double getNaturalAbundance(int index) {
+        return abundances[index];
+    }
+
+    /**
+     * Exact mass of the major isotope of the given atomic number.
+     *
+     * @param atomicNumber the atomic number
+     * @return the exact mass
+     * @throws IllegalArgumentException no isotopes of the atomic number are
+     *                                  known
+     */
+    @TestMethod("major,unknown")
+    public double getMajorIsotopeMass(int atomicNumber) {
+        int i = majorIndexOf(atomicNumber);
+        if (i < 0)
+            throw new IllegalArgumentException("no isotopes for atomic number " + atomicNumber);
+        return exactMasses[i];
+    }
+
+    /**
+     * Natural mass of the given atomic number, the average of the isotope
+     * masses weighted by abundance.
+     *
+     * @param atomicNumber the atomic number
+     * @return the natural mass, 0 if no isotopes are known
+     * @see IsotopeFactory#getNaturalMass(org.openscience.cdk.interfaces.IElement)
+     */
+    @TestMethod("naturalMass")
+    public double getNaturalMass(int atomicNumber) {
+        return known(atomicNumber) ? naturalMass[atomicNumber] : 0;
+    }
+
+    private boolean known(int atomicNumber) {
+        return atomicNumber >= 0 && atomicNumber < major.length;
+    }
+}
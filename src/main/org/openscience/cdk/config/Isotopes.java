@@ -24,10 +24,6 @@
 package org.openscience.cdk.config;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -63,27 +59,16 @@ public class Isotopes extends IsotopeFactory {
 	}
 
 	private Isotopes() throws IOException {
-		String configFile = "org/openscience/cdk/config/data/isotopes.dat";
 		isotopes = new HashMap<String, List<IIsotope>>();
-        InputStream ins = this.getClass().getClassLoader().getResourceAsStream(configFile);
-        int streamSize = ins.available();
-		ReadableByteChannel fcIn = Channels.newChannel(ins);
-		ByteBuffer bin = ByteBuffer.allocate(streamSize);
-		fcIn.read(bin);
-		fcIn.close(); ins.close();
-		bin.position(0);
-        int isotopeCount = bin.getInt();
-        for (int i = 0; i < isotopeCount; i++) {
-            int atomicNum    = (int)bin.get();
-            int massNum      = (int)bin.getShort();
-            double exactMass = bin.getDouble();
-            double natAbund  = bin.get() == 1 ? bin.getDouble() : 0.0;
-            IIsotope isotope = new BODRIsotope(
-                PeriodicTable.getSymbol(atomicNum),
-                atomicNum, massNum,
-                exactMass, natAbund
-            );
-            add(isotope);
+		IsotopeTable table = IsotopeTable.getInstance();
+		for (int i = 0; i < table.size(); i++) {
+			int atomicNum = table.getAtomicNumber(i);
+			IIsotope isotope = new BODRIsotope(
+				PeriodicTable.getSymbol(atomicNum),
+				atomicNum, table.getMassNumber(i),
+				table.getExactMass(i), table.getNaturalAbundance(i)
+			);
+			add(isotope);
 		}
         majorIsotopes = new HashMap<String, IIsotope>();
 	}
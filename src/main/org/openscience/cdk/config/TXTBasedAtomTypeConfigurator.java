@@ -23,7 +23,6 @@
  */
 package org.openscience.cdk.config;
 
-import java.awt.Color;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -41,7 +40,8 @@ import org.openscience.cdk.interfaces.IChemObjectBuilder;
  * AtomType list configurator that uses the AtomTypes originally
  * defined in Jmol v5. This class was added to be able to port
  * Jmol to CDK. The AtomType's themselves seems have a computational
- * background, but this is not clear. 
+ * background, but this is not clear. The colour of a type is stored as
+ * the raw RGB int in the org.openscience.cdk.renderer.color property.
  *
  * @cdk.module core
  * @cdk.githash
@@ -131,8 +131,8 @@ public class TXTBasedAtomTypeConfigurator implements IAtomTypeConfigurator {
                         atomType.setAtomicNumber(atomicNumber);
                         atomType.setExactMass(mass);
                         atomType.setCovalentRadius(covalent);
-                        Color color = new Color(colorR, colorG, colorB);
-                        atomType.setProperty("org.openscience.cdk.renderer.color", color);
+                        atomType.setProperty("org.openscience.cdk.renderer.color",
+                                             colorR << 16 | colorG << 8 | colorB);
                         atomTypes.add(atomType);
                     } else {
                         throw new IOException("AtomTypeTable.ReadAtypes: " + 
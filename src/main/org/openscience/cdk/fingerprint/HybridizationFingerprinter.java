@@ -23,19 +23,16 @@
  */
 package org.openscience.cdk.fingerprint;
 
-import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.exception.CDKException;
-import org.openscience.cdk.graph.PathTools;
+import org.openscience.cdk.graph.GraphUtil;
+import org.openscience.cdk.graph.PathEnumerator;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IAtomType.Hybridization;
@@ -168,73 +165,30 @@ public class HybridizationFingerprinter implements IFingerprinter {
      */
     protected int[] findPathes(IAtomContainer container, int searchDepth) {
 
-        List<StringBuffer> allPaths = new ArrayList<StringBuffer>();
+        int[][] graph = GraphUtil.toAdjList(container);
+        int[][] bonds = PathEnumerator.bondIndices(container, graph);
 
-        Map<IAtom,Map<IAtom, IBond>> cache 
-            = new HashMap<IAtom, Map<IAtom,IBond>>();
-        
-        for (IAtom startAtom : container.atoms()) {
-                List<List<IAtom>> p = PathTools.getPathsOfLengthUpto(
-                    container, startAtom, searchDepth
-                );
-                for (List<IAtom> path : p) {
-                    StringBuffer sb = new StringBuffer();
-                    IAtom x = path.get(0);
-
-                    // TODO if we ever get more than 255 elements, this will
-                    // fail maybe we should use 0 for pseudo atoms and
-                    // malformed symbols?
-                    if (x instanceof IPseudoAtom)
-                        sb.append('0');
-                    else {
-                        Integer atnum = PeriodicTable.getAtomicNumber(x.getSymbol());
-                        if (atnum != null) sb.append((char) atnum.intValue());
-                        else sb.append('0');
-                    }
+        char[][] startTokens = new char[container.getAtomCount()][];
+        char[][] atomTokens  = new char[container.getAtomCount()][];
+        char[][] bondTokens  = new char[container.getBondCount()][];
 
-                    for (int i = 1; i < path.size(); i++) {
-                        final IAtom[] y = {path.get(i)};
-                        Map<IAtom, IBond> m = cache.get( x );
-                        final IBond[] b = { m != null ? m.get( y[0] ) : null };
-                        if ( b[0] == null ) {
-                            b[0] = container.getBond(x, y[0]);
-                            cache.put(
-                                x, 
-                                new HashMap<IAtom, IBond>() {
-                                  static final long serialVersionUID = 1L;
-                                  { put(y[0], b[0]); }
-                                }
-                            );
-                        }
-                        sb.append(getBondSymbol(b[0]));
-                        sb.append(convertSymbol(y[0].getSymbol()));
-                        x = y[0];
-                    }
+        for (int i = 0; i < container.getAtomCount(); i++) {
+            IAtom atom = container.getAtom(i);
+            atomTokens[i] = String.valueOf(convertSymbol(atom.getSymbol())).toCharArray();
 
-                    // we store the lexicographically lower one of the
-                    // string and its reverse
-                    StringBuffer revForm = new StringBuffer(sb);
-                    revForm.reverse();
-                    if (sb.toString().compareTo(revForm.toString()) <= 0)
-                        allPaths.add(sb);
-                    else allPaths.add(revForm);
-                }
+            // TODO if we ever get more than 255 elements, this will
+            // fail maybe we should use 0 for pseudo atoms and
+            // malformed symbols?
+            Integer atnum = atom instanceof IPseudoAtom ? null
+                                                        : PeriodicTable.getAtomicNumber(atom.getSymbol());
+            startTokens[i] = new char[]{atnum != null ? (char) atnum.intValue() : '0'};
         }
-        // now lets clean stuff up
-        Set<String> cleanPath = new HashSet<String>();
-        for (StringBuffer s : allPaths) {
-            if (cleanPath.contains( s.toString() )) continue;
-            String s2 = s.reverse().toString();
-            if (cleanPath.contains(s2)) continue;
-            cleanPath.add(s2);
-        }
-
-        // convert paths to hashes
-        int[] hashes = new int[cleanPath.size()];
-        int i= 0;
-        for (String s: cleanPath) hashes[i++] = s.hashCode();
+        for (int i = 0; i < container.getBondCount(); i++)
+            bondTokens[i] = getBondSymbol(container.getBond(i)).toCharArray();
 
-        return hashes;
+        return PathHasher.hash(graph, bonds,
+                               startTokens, atomTokens, bondTokens,
+                               searchDepth);
     }
 
     /**
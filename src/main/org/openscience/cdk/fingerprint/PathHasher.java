@@ -0,0 +1,243 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.fingerprint;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.graph.GraphUtil;
+import org.openscience.cdk.graph.PathEnumerator;
+
+import java.util.Arrays;
+
+/**
+ * Hash the paths of a molecule for the path based fingerprinters. Each path is
+ * encoded as the sequence of the tokens of its atoms and bonds, the hash of a
+ * path is the {@link String#hashCode()} of the lexicographically greater of
+ * the encoding and its reverse. The hash values are therefore identical to
+ * those of building the path strings but are computed incrementally (as the
+ * {@link PathEnumerator} extends each path) in a reused character buffer.
+ *
+ * @author agent
+ * @cdk.module standard
+ * @cdk.githash
+ */
+@TestClass("org.openscience.cdk.fingerprint.PathHasherTest")
+final class PathHasher implements PathEnumerator.Visitor {
+
+    /** Multiplier of the String hash function. */
+    private static final int MULTIPLIER = 31;
+
+    /** Token of an atom at the start of a path, and elsewhere in a path. */
+    private final char[][] startTokens, atomTokens;
+
+    /** Token of each bond (by bond index). */
+    private final char[][] bondTokens;
+
+    /** Encoding of the current path. */
+    private final char[] buffer;
+
+    /** Encoding length, forward and reverse hash at each depth. */
+    private final int[] ends, forward, reverse;
+
+    /** Powers of the multiplier. */
+    private final int[] powers;
+
+    /** The hashes of the paths. */
+    private int[] hashes = new int[64];
+    private int   size   = 0;
+
+    /**
+     * Create a path hasher for the given tokens.
+     *
+     * @param startTokens token of each atom at the start of a path
+     * @param atomTokens  token of each atom when not at the start of a path
+     * @param bondTokens  token of each bond
+     * @param maxDepth    maximum number of bonds in a path
+     */
+    PathHasher(char[][] startTokens, char[][] atomTokens, char[][] bondTokens, int maxDepth) {
+        this.startTokens = startTokens;
+        this.atomTokens  = atomTokens;
+        this.bondTokens  = bondTokens;
+
+        int depth = Math.min(maxDepth, Math.max(0, atomTokens.length - 1));
+        int maxAtom = maxLength(atomTokens), maxBond = maxLength(bondTokens);
+        int capacity = Math.max(maxLength(startTokens), maxAtom) + depth * (maxAtom + maxBond);
+
+        this.buffer  = new char[capacity];
+        this.powers  = new int[capacity + 1];
+        this.ends    = new int[depth + 1];
+        this.forward = new int[depth + 1];
+        this.reverse = new int[depth + 1];
+
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++)
+            powers[i] = powers[i - 1] * MULTIPLIER;
+    }
+
+    /**
+     * Hash all paths of up to <i>maxDepth</i> bonds in the given graph.
+     *
+     * @param graph       adjacency list of the molecule
+     * @param bonds       bond index of each adjacency
+     * @param startTokens token of each atom at the start of a path
+     * @param atomTokens  token of each atom when not at the start of a path
+     * @param bondTokens  token of each bond
+     * @param maxDepth    maximum number of bonds in a path
+     * @return the unique path hashes
+     */
+    @TestMethod("equivalence")
+    static int[] hash(int[][] graph, int[][] bonds,
+                      char[][] startTokens, char[][] atomTokens, char[][] bondTokens,
+                      int maxDepth) {
+        PathHasher     hasher     = new PathHasher(startTokens, atomTokens, bondTokens, maxDepth);
+        PathEnumerator enumerator = new PathEnumerator(graph, bonds, maxDepth);
+        for (int v = 0; v < graph.length; v++)
+            enumerator.enumerate(v, hasher);
+        return hasher.hashes();
+    }
+
+    /**
+     * Hash all paths of up to <i>maxDepth</i> bonds in the given graph. If
+     * more then <i>limit</i> paths start from any atom an exception is thrown.
+     *
+     * @param graph       adjacency list of the molecule
+     * @param bonds       bond index of each adjacency
+     * @param startTokens token of each atom at the start of a path
+     * @param atomTokens  token of each atom when not at the start of a path
+     * @param bondTokens  token of each bond
+     * @param maxDepth    maximum number of bonds in a path
+     * @param limit       maximum number of paths from each atom
+     * @return the unique path hashes
+     * @throws CDKException too many paths
+     * @see GraphUtil#toAdjList(org.openscience.cdk.interfaces.IAtomContainer)
+     * @see PathEnumerator#bondIndices(org.openscience.cdk.interfaces.IAtomContainer, int[][])
+     */
+    @TestMethod("limit")
+    static int[] hash(int[][] graph, int[][] bonds,
+                      char[][] startTokens, char[][] atomTokens, char[][] bondTokens,
+                      int maxDepth, int limit) throws CDKException {
+        PathHasher     hasher     = new PathHasher(startTokens, atomTokens, bondTokens, maxDepth);
+        PathEnumerator enumerator = new PathEnumerator(graph, bonds, maxDepth);
+        for (int v = 0; v < graph.length; v++) {
+            if (enumerator.enumerate(v, hasher, limit) > limit)
+                throw new CDKException("Too many paths generate. We're working making this faster but for now try generating paths with a smaller length");
+        }
+        return hasher.hashes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @TestMethod("equivalence")
+    @Override public boolean visit(int[] path, int[] labels, int depth) {
+
+        int len, fwd, rev;
+
+        if (depth == 0) {
+            len = fwd = rev = 0;
+            for (char c : startTokens[path[0]]) {
+                fwd = fwd * MULTIPLIER + c;
+                rev += c * powers[len];
+                buffer[len++] = c;
+            }
+        } else {
+            len = ends[depth - 1];
+            fwd = forward[depth - 1];
+            rev = reverse[depth - 1];
+            for (char c : bondTokens[labels[depth]]) {
+                fwd = fwd * MULTIPLIER + c;
+                rev += c * powers[len];
+                buffer[len++] = c;
+            }
+            for (char c : atomTokens[path[depth]]) {
+                fwd = fwd * MULTIPLIER + c;
+                rev += c * powers[len];
+                buffer[len++] = c;
+            }
+        }
+
+        ends[depth]    = len;
+        forward[depth] = fwd;
+        reverse[depth] = rev;
+
+        // the hash of the greater of the encoding and its reverse
+        if (len > 0)
+            add(compareToReverse(len) > 0 ? fwd : rev);
+
+        return true;
+    }
+
+    /**
+     * Compare the encoding of the current path to its reverse.
+     *
+     * @param len length of the encoding
+     * @return &lt; 0, 0 or &gt; 0 if the encoding is less than, equal or
+     *         greater than its reverse
+     */
+    private int compareToReverse(int len) {
+        for (int i = 0, j = len - 1; i < j; i++, j--) {
+            if (buffer[i] != buffer[j])
+                return buffer[i] - buffer[j];
+        }
+        return 0;
+    }
+
+    /**
+     * Add a hash value.
+     *
+     * @param hash the hash value
+     */
+    private void add(int hash) {
+        if (size == hashes.length)
+            hashes = Arrays.copyOf(hashes, size * 2);
+        hashes[size++] = hash;
+    }
+
+    /**
+     * The unique hash values of the paths which have been visited.
+     *
+     * @return unique hash values, sorted
+     */
+    @TestMethod("equivalence")
+    int[] hashes() {
+        int[] unique = Arrays.copyOf(hashes, size);
+        Arrays.sort(unique);
+        int n = 0;
+        for (int i = 0; i < unique.length; i++) {
+            if (n == 0 || unique[n - 1] != unique[i])
+                unique[n++] = unique[i];
+        }
+        return Arrays.copyOf(unique, n);
+    }
+
+    /**
+     * Length of the longest token.
+     *
+     * @param tokens the tokens
+     * @return maximum length
+     */
+    private static int maxLength(char[][] tokens) {
+        int max = 0;
+        for (char[] token : tokens)
+            max = Math.max(max, token.length);
+        return max;
+    }
+}
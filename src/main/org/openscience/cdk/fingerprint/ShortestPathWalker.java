@@ -30,6 +30,7 @@ import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.graph.AllPairsShortestPaths;
+import org.openscience.cdk.graph.GraphUtil;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
@@ -57,6 +58,9 @@ public final class ShortestPathWalker {
     /* list of encoded pseudo atoms */
     private final List<String> pseudoAtoms;
 
+    /* lookup of the bond between two atom indices */
+    private final GraphUtil.EdgeToBondMap bondMap;
+
     /* maximum number of shortest paths, when there is more then one path */
     private static final int MAX_SHORTEST_PATHS = 5;
 
@@ -67,6 +71,8 @@ public final class ShortestPathWalker {
     public ShortestPathWalker(IAtomContainer container) {
         this.container   = container;
         this.pseudoAtoms = new ArrayList<String>(5);
+        this.bondMap     = GraphUtil.EdgeToBondMap.withSpaceFor(container);
+        GraphUtil.toAdjList(container, bondMap);
         this.paths       = Collections.unmodifiableSet(traverse());
     }
 
@@ -161,8 +167,7 @@ public final class ShortestPathWalker {
 
             // if we are not at the last index, add the connecting bond
             if(i < n){
-                IBond bond = container.getBond(container.getAtom(path[i]),
-                                               container.getAtom(path[i + 1]));
+                IBond bond = bondMap.get(path[i], path[i + 1]);
                 sb.append(getBondSymbol(bond));
             }
 
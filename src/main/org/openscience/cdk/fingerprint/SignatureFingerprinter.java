@@ -28,9 +28,9 @@ import java.util.Map;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.exception.CDKException;
-import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.signature.AtomSignature;
+import org.openscience.cdk.signature.MoleculeSignature;
 
 /**
  * An implementation of a {@link AtomSignature}-based fingerprint.
@@ -68,10 +68,8 @@ public class SignatureFingerprinter implements IFingerprinter {
     @TestMethod("testGetRawFingerprint")
     public Map<String, Integer> getRawFingerprint(IAtomContainer atomContainer) throws CDKException {
     	Map<String, Integer> map = new HashMap<String,Integer>();
-    	for (IAtom atom : atomContainer.atoms()) {
-            String signature = new AtomSignature(
-            	atom, signatureDepth, atomContainer
-            ).toCanonicalString();
+    	MoleculeSignature molSig = new MoleculeSignature(atomContainer);
+    	for (String signature : molSig.signatureStringsForVertices(signatureDepth, 1)) {
             if (map.containsKey(signature)) {
             	map.put(signature, map.get(signature)+1);
             } else {
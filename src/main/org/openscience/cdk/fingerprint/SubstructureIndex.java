@@ -0,0 +1,521 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.fingerprint;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.IChemObjectBuilder;
+import org.openscience.cdk.interfaces.IPseudoAtom;
+import org.openscience.cdk.isomorphism.UniversalIsomorphismTester;
+import org.openscience.cdk.isomorphism.matchers.IQueryAtom;
+import org.openscience.cdk.isomorphism.matchers.SymbolAndChargeQueryAtom;
+import org.openscience.cdk.isomorphism.matchers.SymbolChargeIDQueryAtom;
+import org.openscience.cdk.isomorphism.matchers.SymbolQueryAtom;
+import org.openscience.cdk.isomorphism.matchers.smarts.AliphaticSymbolAtom;
+import org.openscience.cdk.isomorphism.matchers.smarts.AromaticSymbolAtom;
+import org.openscience.cdk.isomorphism.matchers.smarts.LogicalOperatorAtom;
+import org.openscience.cdk.ringsearch.RingSearch;
+import org.openscience.cdk.smiles.smarts.SMARTSQueryTool;
+import org.openscience.cdk.smiles.smarts.parser.SMARTSParser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index for substructure screening. Each molecule added to the
+ * index is described by small atom environments - the element, the element
+ * with a ring flag, the element with a minimum degree, the bonded element
+ * pairs and the element triples about each atom (depth 2). Every environment
+ * maps to a posting list of the molecule ids it was found in. The posting
+ * lists are stored as delta encoded variable length integers.
+ *
+ * <p/>
+ * A query is screened by intersecting the posting lists of the environments
+ * which are defined by the query. Only atoms with a known element contribute
+ * to the environments of a query (e.g. the SMARTS atom {@code [C,N]} is
+ * ignored) and the environments of a target atom only include features which
+ * can not be lost when a query is embedded (the degree is a lower bound).
+ * The screen therefore never removes a true match, the candidates are then
+ * verified with a complete substructure search.
+ *
+ * <blockquote><pre>
+ * SubstructureIndex index = new SubstructureIndex();
+ * for (IAtomContainer container : molecules)
+ *     index.add(container);
+ *
+ * // ids of the molecules which contain a carboxylic acid
+ * List&lt;Integer&gt; hits = index.search("C(=O)[OH]", molecules);
+ *
+ * // store and reload the index
+ * index.save(out);
+ * SubstructureIndex reloaded = SubstructureIndex.load(in);
+ * </pre></blockquote>
+ *
+ * The index does not keep the molecules, the same list (in order of addition)
+ * must be provided when searching. An index can be built incrementally but
+ * is not thread safe.
+ *
+ * @author agent
+ * @cdk.module fingerprint
+ * @cdk.githash
+ * @cdk.keyword substructure search
+ * @cdk.keyword screening
+ */
+@TestClass("org.openscience.cdk.fingerprint.SubstructureIndexTest")
+public final class SubstructureIndex {
+
+    /** Identifies a stored index. */
+    private static final int MAGIC   = 0x43444b49;
+    private static final int VERSION = 1;
+
+    /** The degree of an atom is only described up to this value. */
+    private static final int MAX_DEGREE = 4;
+
+    /** Environment to posting list. */
+    private final Map<String, Postings> postings;
+
+    /** Number of molecules in the index. */
+    private int size;
+
+    /**
+     * Create a new empty index.
+     */
+    @TestMethod("add")
+    public SubstructureIndex() {
+        this(new HashMap<String, Postings>(), 0);
+    }
+
+    private SubstructureIndex(Map<String, Postings> postings, int size) {
+        this.postings = postings;
+        this.size     = size;
+    }
+
+    /**
+     * Add a molecule to the index. The molecule is assigned the next id,
+     * ids are sequential and start at 0.
+     *
+     * @param container a molecule
+     * @return the id of the molecule
+     */
+    @TestMethod("add")
+    public int add(IAtomContainer container) {
+        int id = size++;
+        for (String environment : environments(container, false)) {
+            Postings list = postings.get(environment);
+            if (list == null)
+                postings.put(environment, list = new Postings());
+            list.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * The number of molecules in the index.
+     *
+     * @return number of molecules
+     */
+    @TestMethod("add")
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The number of distinct environments (posting lists) in the index.
+     *
+     * @return number of environments
+     */
+    @TestMethod("add")
+    public int environmentCount() {
+        return postings.size();
+    }
+
+    /**
+     * The ids of the molecules which may contain the query. The query may be
+     * a query container or a plain molecule. The ids are sorted.
+     *
+     * @param query the query structure
+     * @return candidate ids
+     */
+    @TestMethod("candidates")
+    public int[] candidates(IAtomContainer query) {
+
+        Set<String> environments = environments(query, true);
+
+        if (environments.isEmpty()) {
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++)
+                ids[i] = i;
+            return ids;
+        }
+
+        List<Postings> lists = new ArrayList<Postings>(environments.size());
+        for (String environment : environments) {
+            Postings list = postings.get(environment);
+            if (list == null)
+                return new int[0];
+            lists.add(list);
+        }
+
+        // start with the shortest list, the candidates can only shrink
+        Collections.sort(lists, new Comparator<Postings>() {
+            @Override public int compare(Postings a, Postings b) {
+                return a.count < b.count ? -1 : a.count > b.count ? 1 : 0;
+            }
+        });
+
+        int[] ids = lists.get(0).decode();
+        int n = ids.length;
+        for (int i = 1; i < lists.size() && n > 0; i++)
+            n = lists.get(i).retain(ids, n);
+
+        return Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * The ids of the molecules which may match the SMARTS pattern.
+     *
+     * @param smarts a SMARTS pattern
+     * @param builder chem object builder for the query
+     * @return candidate ids
+     * @throws CDKException the SMARTS pattern could not be parsed
+     */
+    @TestMethod("candidatesSmarts")
+    public int[] candidates(String smarts, IChemObjectBuilder builder) throws CDKException {
+        return candidates(SMARTSParser.parse(smarts, builder));
+    }
+
+    /**
+     * Find the ids of the molecules which contain the query. The candidates
+     * from the index are verified with the {@link UniversalIsomorphismTester}.
+     *
+     * @param query     query structure
+     * @param molecules the molecules in the order they were added
+     * @return ids of the molecules which contain the query
+     * @throws CDKException the substructure search failed
+     */
+    @TestMethod("search")
+    public List<Integer> search(IAtomContainer query, List<IAtomContainer> molecules) throws CDKException {
+        checkMolecules(molecules);
+        UniversalIsomorphismTester uit = new UniversalIsomorphismTester();
+        List<Integer> hits = new ArrayList<Integer>();
+        for (int id : candidates(query)) {
+            if (uit.isSubgraph(molecules.get(id), query))
+                hits.add(id);
+        }
+        return hits;
+    }
+
+    /**
+     * Find the ids of the molecules which match the SMARTS pattern. The
+     * candidates from the index are verified with the {@link
+     * SMARTSQueryTool}.
+     *
+     * @param smarts    a SMARTS pattern
+     * @param molecules the molecules in the order they were added
+     * @return ids of the molecules which match the pattern
+     * @throws CDKException the pattern was invalid or matching failed
+     */
+    @TestMethod("searchSmarts")
+    public List<Integer> search(String smarts, List<IAtomContainer> molecules) throws CDKException {
+        checkMolecules(molecules);
+        List<Integer> hits = new ArrayList<Integer>();
+        if (molecules.isEmpty())
+            return hits;
+        IChemObjectBuilder builder = molecules.get(0).getBuilder();
+        SMARTSQueryTool sqt = new SMARTSQueryTool(smarts, builder);
+        for (int id : candidates(smarts, builder)) {
+            if (sqt.matches(molecules.get(id)))
+                hits.add(id);
+        }
+        return hits;
+    }
+
+    /**
+     * Write the index to the output stream. The stream is not closed.
+     *
+     * @param out output stream
+     * @throws IOException the index could not be written
+     */
+    @TestMethod("saveAndLoad")
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream dout = new DataOutputStream(out);
+        dout.writeInt(MAGIC);
+        dout.writeInt(VERSION);
+        dout.writeInt(size);
+        dout.writeInt(postings.size());
+        for (Map.Entry<String, Postings> e : postings.entrySet()) {
+            Postings list = e.getValue();
+            dout.writeUTF(e.getKey());
+            dout.writeInt(list.count);
+            dout.writeInt(list.last);
+            dout.writeInt(list.length);
+            dout.write(list.data, 0, list.length);
+        }
+        dout.flush();
+    }
+
+    /**
+     * Read an index which was written with {@link #save(OutputStream)}. The
+     * stream is not closed.
+     *
+     * @param in input stream
+     * @return the index
+     * @throws IOException the index could not be read or was not an index
+     */
+    @TestMethod("saveAndLoad,loadInvalid")
+    public static SubstructureIndex load(InputStream in) throws IOException {
+        DataInputStream din = new DataInputStream(in);
+        if (din.readInt() != MAGIC)
+            throw new IOException("not a substructure index");
+        int version = din.readInt();
+        if (version != VERSION)
+            throw new IOException("unsupported substructure index version: " + version);
+        int size = din.readInt();
+        int n = din.readInt();
+        Map<String, Postings> postings = new HashMap<String, Postings>(2 * n);
+        for (int i = 0; i < n; i++) {
+            String   key  = din.readUTF();
+            Postings list = new Postings();
+            list.count  = din.readInt();
+            list.last   = din.readInt();
+            list.length = din.readInt();
+            list.data   = new byte[Math.max(list.length, 4)];
+            din.readFully(list.data, 0, list.length);
+            postings.put(key, list);
+        }
+        return new SubstructureIndex(postings, size);
+    }
+
+    private void checkMolecules(List<IAtomContainer> molecules) {
+        if (molecules.size() != size)
+            throw new IllegalArgumentException("expected " + size + " molecules, the index was built from a different list");
+    }
+
+    /**
+     * The environments of a molecule or query. When describing a query only
+     * atoms with a known element are included and the degree is only emitted
+     * at its value, a target includes every degree up to its value.
+     *
+     * @param container a molecule or query
+     * @param query     whether the container is a query
+     * @return the environments
+     */
+    static Set<String> environments(IAtomContainer container, boolean query) {
+
+        int n = container.getAtomCount();
+
+        String[] symbols = new String[n];
+        for (int i = 0; i < n; i++)
+            symbols[i] = query ? querySymbol(container.getAtom(i)) : symbol(container.getAtom(i));
+
+        // index of each atom, the first occurrence as getAtomNumber
+        Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * n);
+        for (int i = n - 1; i >= 0; i--)
+            atomIndex.put(container.getAtom(i), i);
+
+        int[][] graph = new int[n][4];
+        int[]   degree = new int[n];
+        for (IBond bond : container.bonds()) {
+            if (bond.getAtomCount() != 2)
+                continue;
+            Integer ui = atomIndex.get(bond.getAtom(0));
+            Integer vi = atomIndex.get(bond.getAtom(1));
+            if (ui == null || vi == null || ui.equals(vi))
+                continue;
+            int u = ui, v = vi;
+            // hydrogens in a query may be implicit in the target
+            if (query && ("H".equals(symbols[u]) || "H".equals(symbols[v])))
+                continue;
+            graph[u] = append(graph[u], degree[u]++, v);
+            graph[v] = append(graph[v], degree[v]++, u);
+        }
+
+        for (int u = 0; u < n; u++)
+            graph[u] = Arrays.copyOf(graph[u], degree[u]);
+
+        RingSearch ringSearch = new RingSearch(container, graph);
+
+        Set<String> environments = new HashSet<String>();
+        for (int u = 0; u < n; u++) {
+
+            String symbol = symbols[u];
+            if (symbol == null || (query && "H".equals(symbol)))
+                continue;
+
+            environments.add(symbol);
+            if (ringSearch.cyclic(u))
+                environments.add(symbol + "@");
+
+            int d = Math.min(degree[u], MAX_DEGREE);
+            if (query) {
+                if (d > 0)
+                    environments.add(symbol + ";D" + d);
+            } else {
+                for (int k = 1; k <= d; k++)
+                    environments.add(symbol + ";D" + k);
+            }
+
+            for (int j = 0; j < graph[u].length; j++) {
+                String a = symbols[graph[u][j]];
+                if (a == null)
+                    continue;
+                if (u < graph[u][j])
+                    environments.add(pair(symbol, a));
+                for (int k = j + 1; k < graph[u].length; k++) {
+                    String b = symbols[graph[u][k]];
+                    if (b != null)
+                        environments.add(triple(a, symbol, b));
+                }
+            }
+        }
+        return environments;
+    }
+
+    /** The symbol of a target atom, {@code *} if unknown. */
+    private static String symbol(IAtom atom) {
+        String symbol = atom.getSymbol();
+        return symbol != null ? symbol : "*";
+    }
+
+    /**
+     * The element which must be matched by a query atom, null if the
+     * element is not known (or may be one of several).
+     */
+    private static String querySymbol(IAtom atom) {
+        if (!(atom instanceof IQueryAtom))
+            return atom instanceof IPseudoAtom ? null : atom.getSymbol();
+        if (atom instanceof SymbolQueryAtom
+                || atom instanceof SymbolAndChargeQueryAtom
+                || atom instanceof SymbolChargeIDQueryAtom
+                || atom instanceof AliphaticSymbolAtom
+                || atom instanceof AromaticSymbolAtom)
+            return atom.getSymbol();
+        if (atom instanceof LogicalOperatorAtom) {
+            LogicalOperatorAtom operator = (LogicalOperatorAtom) atom;
+            if (!"and".equals(operator.getOperator()) || operator.getRight() == null)
+                return null;
+            String symbol = querySymbol(operator.getLeft());
+            return symbol != null ? symbol : querySymbol(operator.getRight());
+        }
+        return null;
+    }
+
+    private static String pair(String a, String b) {
+        return a.compareTo(b) <= 0 ? a + "-" + b : b + "-" + a;
+    }
+
+    private static String triple(String a, String centre, String b) {
+        return a.compareTo(b) <= 0 ? a + "-" + centre + "-" + b : b + "-" + centre + "-" + a;
+    }
+
+    private static int[] append(int[] vs, int n, int v) {
+        if (n == vs.length)
+            vs = Arrays.copyOf(vs, n * 2);
+        vs[n] = v;
+        return vs;
+    }
+
+    /**
+     * A sorted list of molecule ids stored as the variable length encoded
+     * differences between consecutive ids.
+     */
+    private static final class Postings {
+
+        private byte[] data = new byte[4];
+        private int    length, count, last = -1;
+
+        /** Append an id, the id must be larger than the last. */
+        void add(int id) {
+            if (id == last)
+                return;
+            int delta = id - last;
+            if (length + 5 > data.length)
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            while ((delta & ~0x7f) != 0) {
+                data[length++] = (byte) ((delta & 0x7f) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = id;
+            count++;
+        }
+
+        /** Decode all ids. */
+        int[] decode() {
+            int[] ids = new int[count];
+            int   id  = -1, pos = 0;
+            for (int i = 0; i < count; i++) {
+                int delta = 0, shift = 0, b;
+                do {
+                    b = data[pos++];
+                    delta |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                ids[i] = id += delta;
+            }
+            return ids;
+        }
+
+        /**
+         * Retain the first {@code n} (sorted) ids which are also in this
+         * list, the retained ids are moved to the front.
+         *
+         * @return the number of ids retained
+         */
+        int retain(int[] ids, int n) {
+            int id = -1, pos = 0, decoded = 0, kept = 0;
+            for (int i = 0; i < n; i++) {
+                int x = ids[i];
+                while (id < x && decoded < count) {
+                    int delta = 0, shift = 0, b;
+                    do {
+                        b = data[pos++];
+                        delta |= (b & 0x7f) << shift;
+                        shift += 7;
+                    } while ((b & 0x80) != 0);
+                    id += delta;
+                    decoded++;
+                }
+                if (id == x)
+                    ids[kept++] = x;
+                else if (id < x)
+                    break;
+            }
+            return kept;
+        }
+    }
+}
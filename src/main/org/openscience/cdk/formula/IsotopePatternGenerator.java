@@ -25,14 +25,14 @@ import java.util.Iterator;
 import java.util.Set;
 
 import org.openscience.cdk.annotations.TestClass;
-import org.openscience.cdk.config.Isotopes;
-import org.openscience.cdk.config.IsotopeFactory;
+import org.openscience.cdk.config.IsotopeTable;
 import org.openscience.cdk.interfaces.IChemObjectBuilder;
 import org.openscience.cdk.interfaces.IIsotope;
 import org.openscience.cdk.interfaces.IMolecularFormula;
 import org.openscience.cdk.tools.ILoggingTool;
 import org.openscience.cdk.tools.LoggingToolFactory;
 import org.openscience.cdk.tools.manipulator.MolecularFormulaManipulator;
+import org.openscience.cdk.tools.periodictable.PeriodicTable;
 
 /**
  * Generates all Combinatorial chemical isotopes given a structure.
@@ -49,7 +49,7 @@ import org.openscience.cdk.tools.manipulator.MolecularFormulaManipulator;
 public class IsotopePatternGenerator{
 
 	private IChemObjectBuilder builder = null;
-	private IsotopeFactory isoFactory;
+	private IsotopeTable isotopeTable;
 	private IsotopePattern abundance_Mass = null;
 	
 	private ILoggingTool logger =
@@ -86,7 +86,7 @@ public class IsotopePatternGenerator{
     	
 		if(builder==null){
 			try {
-				isoFactory = Isotopes.getInstance();
+				isotopeTable = IsotopeTable.getInstance();
 				builder = molFor.getBuilder();
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -104,9 +104,10 @@ public class IsotopePatternGenerator{
 		for(IIsotope isos : molecularFormula.isotopes()){
 			String elementSymbol = isos.getSymbol();
 			atomCount = tokens.get(elementSymbol);
+			Integer atomicNumber = PeriodicTable.getAtomicNumber(elementSymbol);
 			
 			for (int i = 0; i < atomCount; i++) {
-				if (!calculateAbundanceAndMass(elementSymbol)) {
+				if (!calculateAbundanceAndMass(atomicNumber != null ? atomicNumber : -1)) {
 				}
 			}
 		}
@@ -125,17 +126,15 @@ public class IsotopePatternGenerator{
 	 * process of adding the new isotopes, remove those that has an abundance
 	 * less than setup parameter minAbundance, and remove duplicated masses.
 	 * 
-	 * @param elementSymbol  The chemical element symbol
+	 * @param atomicNumber   The atomic number of the chemical element
 	 * @return               
 	 */
-	private boolean calculateAbundanceAndMass(String elementSymbol) {
+	private boolean calculateAbundanceAndMass(int atomicNumber) {
 
-		IIsotope[] isotopes = isoFactory.getIsotopes(elementSymbol);
+		int begin = isotopeTable.begin(atomicNumber);
+		int end   = isotopeTable.end(atomicNumber);
 
-		if (isotopes == null)
-			return false;
-
-		if (isotopes.length == 0)
+		if (begin == end)
 			return false;
 
 		double mass, previousMass, abundance, totalAbundance, newAbundance;
@@ -144,9 +143,9 @@ public class IsotopePatternGenerator{
 		IsotopePattern currentISOPattern = new IsotopePattern();
 
 		// Generate isotopes for the current atom (element)
-		for (int i = 0; i < isotopes.length; i++) {
-			mass = isotopes[i].getExactMass();
-			abundance = isotopes[i].getNaturalAbundance();
+		for (int i = begin; i < end; i++) {
+			mass = isotopeTable.getExactMass(i);
+			abundance = isotopeTable.getNaturalAbundance(i);
 			currentISOPattern.addIsotope(new IsotopeContainer(mass, abundance));
 		}
 
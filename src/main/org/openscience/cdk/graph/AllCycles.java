@@ -110,6 +110,25 @@ public final class AllCycles {
     public AllCycles(final int[][] graph,
                      final int maxCycleSize,
                      final int maxDegree) {
+        this(graph, maxCycleSize, new CycleBudget(maxDegree));
+    }
+
+    /**
+     * Compute all simple cycles up to given <i>maxCycleSize</i> in the provided
+     * <i>graph</i> within the limits of the given <i>budget</i>. The budget is
+     * checked before each vertex is removed from the path graph, if it is
+     * exceeded (or cancelled) the computation stops and {@link #completed()}
+     * will return false. The outcome is recorded in the budget's counters.
+     *
+     * @param graph        adjacency list representation of a graph
+     * @param maxCycleSize the maximum cycle size to perceive
+     * @param budget       limits on the work to perform
+     * @see CycleBudget
+     */
+    @TestMethod("budget,cancelled")
+    public AllCycles(final int[][] graph,
+                     final int maxCycleSize,
+                     final CycleBudget budget) {
 
         // get the order in which we remove vertices, the rank tells us
         // the index in the ordered array of each vertex
@@ -122,17 +141,21 @@ public final class AllCycles {
                 : new JumboPathGraph(graph, rank, maxCycleSize);
 
         // perceive the cycles by removing the vertices in order
-        int removed = 0;
+        int  removed = 0;
+        long work    = 0;
         for (final int v : vertices) {
 
-            if (pGraph.degree(v) > maxDegree)
+            final int degree = pGraph.degree(v);
+            if (!budget.admit(degree, work))
                 break; // or could throw exception...
 
             pGraph.remove(v, cycles);
+            work += CycleBudget.cost(degree);
             removed++;
         }
 
         completed = removed == graph.length;
+        budget.record(completed, cycles.size(), work);
     }
 
     /**
@@ -0,0 +1,458 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.ILonePair;
+import org.openscience.cdk.interfaces.ISingleElectron;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Label the connected components of a graph. Each vertex (atom) is assigned
+ * an integer component id, the components are numbered from 0 in the order of
+ * their lowest vertex. The labelling is done with a union-find (disjoint set
+ * forest) over the edges of the adjacency list ({@link GraphUtil#toAdjList})
+ * and does not copy any atoms or bonds. Each component can be accessed as a
+ * {@link Fragment}, a view on the atoms and bonds of the original container.
+ *
+ * <blockquote><pre>
+ * ConnectedComponents cc = new ConnectedComponents(container);
+ *
+ * int[] ids = cc.components(); // component id of each atom
+ *
+ * // largest fragment (salt stripping)
+ * ConnectedComponents.Fragment largest = cc.fragment(cc.largest());
+ * for (IAtom atom : largest.atoms()) {
+ *     ...
+ * }
+ * </pre></blockquote>
+ *
+ * @author agent
+ * @cdk.module standard
+ * @cdk.githash
+ * @cdk.keyword connectivity
+ * @cdk.keyword union-find
+ * @see ConnectivityChecker
+ * @see org.openscience.cdk.group.DisjointSetForest
+ */
+@TestClass("org.openscience.cdk.graph.ConnectedComponentsTest")
+public final class ConnectedComponents {
+
+    /** The container, may be null if the components of a graph were labelled. */
+    private final IAtomContainer container;
+
+    /** Component id of each vertex and each edge (if a container was given). */
+    private final int[] vertexComponent, edgeComponent;
+
+    /** Number of vertices/edges in each component. */
+    private final int[] vertexCount, edgeCount;
+
+    /**
+     * Label the connected components of a graph given as an adjacency list -
+     * see {@link GraphUtil#toAdjList(IAtomContainer)}. The components
+     * labelled from a graph do not provide {@link Fragment}s.
+     *
+     * @param graph adjacency list representation of a graph
+     */
+    @TestMethod("adjacencyList")
+    public ConnectedComponents(int[][] graph) {
+        final int n = graph.length;
+        this.container       = null;
+        this.vertexComponent = new int[n];
+        this.vertexCount     = label(forest(graph), vertexComponent);
+        this.edgeComponent   = new int[0];
+        this.edgeCount       = new int[vertexCount.length];
+    }
+
+    /**
+     * Label the connected components of a molecule.
+     *
+     * @param container a molecule, may be disconnected
+     * @throws IllegalArgumentException a bond contained an atom not in the
+     *                                  container
+     */
+    @TestMethod("disconnected,connected,empty")
+    public ConnectedComponents(IAtomContainer container) {
+        final int[][] graph = GraphUtil.toAdjList(container);
+        final int     n     = graph.length;
+        final int     m     = container.getBondCount();
+
+        this.container       = container;
+        this.vertexComponent = new int[n];
+        this.vertexCount     = label(forest(graph), vertexComponent);
+
+        // a bond is in the component of its atoms
+        final Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * n);
+        for (int v = n - 1; v >= 0; v--)
+            atomIndex.put(container.getAtom(v), v);
+        this.edgeComponent = new int[m];
+        this.edgeCount     = new int[vertexCount.length];
+        for (int i = 0; i < m; i++) {
+            edgeComponent[i] = vertexComponent[atomIndex.get(container.getBond(i).getAtom(0))];
+            edgeCount[edgeComponent[i]]++;
+        }
+    }
+
+    /**
+     * The component id of each atom (vertex). The ids range from 0 to
+     * {@link #numberOfComponents()} - 1.
+     *
+     * @return component id of each atom
+     */
+    @TestMethod("disconnected,adjacencyList")
+    public int[] components() {
+        return vertexComponent.clone();
+    }
+
+    /**
+     * The component id of the atom (vertex) at index <i>v</i>.
+     *
+     * @param v an atom index
+     * @return the component id
+     */
+    @TestMethod("disconnected")
+    public int component(int v) {
+        return vertexComponent[v];
+    }
+
+    /**
+     * Number of connected components.
+     *
+     * @return number of components
+     */
+    @TestMethod("disconnected,connected,empty")
+    public int numberOfComponents() {
+        return vertexCount.length;
+    }
+
+    /**
+     * The number of atoms (vertices) in the specified component.
+     *
+     * @param component component id
+     * @return number of atoms
+     */
+    @TestMethod("disconnected")
+    public int size(int component) {
+        return vertexCount[component];
+    }
+
+    /**
+     * The component with the most atoms, if there is a tie the component with
+     * the lowest id is returned.
+     *
+     * @return id of the largest component, -1 if there were no atoms
+     */
+    @TestMethod("disconnected,empty")
+    public int largest() {
+        int max = -1;
+        for (int i = 0; i < vertexCount.length; i++) {
+            if (max < 0 || vertexCount[i] > vertexCount[max])
+                max = i;
+        }
+        return max;
+    }
+
+    /**
+     * Access a view of a connected component of the container. The view does
+     * not copy the atoms or bonds.
+     *
+     * @param component component id
+     * @return view of the fragment
+     * @throws UnsupportedOperationException the components were labelled
+     *                                       from an adjacency list
+     */
+    @TestMethod("fragment,fragmentToAtomContainer")
+    public Fragment fragment(int component) {
+        if (container == null)
+            throw new UnsupportedOperationException("fragments require the components of an atom container");
+        if (component < 0 || component >= vertexCount.length)
+            throw new IndexOutOfBoundsException("no component " + component);
+        return new Fragment(component);
+    }
+
+    /**
+     * Union the endpoints of each edge of a graph.
+     *
+     * @param graph adjacency list representation of a graph
+     * @return the forest
+     */
+    private static int[] forest(final int[][] graph) {
+        final int[] forest = newForest(graph.length);
+        for (int v = 0; v < graph.length; v++) {
+            for (final int w : graph[v]) {
+                if (w > v)
+                    union(forest, v, w);
+            }
+        }
+        return forest;
+    }
+
+    /**
+     * Create an empty forest, each element is a root of size 1.
+     *
+     * @param n number of elements
+     * @return the forest
+     */
+    private static int[] newForest(int n) {
+        final int[] forest = new int[n];
+        for (int i = 0; i < n; i++)
+            forest[i] = -1;
+        return forest;
+    }
+
+    /**
+     * Find the root of the element <i>x</i>, roots are stored as the negated
+     * size of the set. The path is halved as we go up the tree.
+     *
+     * @param forest the forest
+     * @param x      an element
+     * @return the root of x
+     */
+    private static int find(final int[] forest, int x) {
+        while (forest[x] >= 0) {
+            final int p = forest[x];
+            if (forest[p] >= 0)
+                forest[x] = forest[p];
+            x = p;
+        }
+        return x;
+    }
+
+    /**
+     * Union the sets containing <i>x</i> and <i>y</i>, the smaller set is
+     * attached to the larger.
+     *
+     * @param forest the forest
+     * @param x      an element
+     * @param y      another element
+     */
+    private static void union(final int[] forest, final int x, final int y) {
+        final int xRoot = find(forest, x);
+        final int yRoot = find(forest, y);
+        if (xRoot == yRoot)
+            return;
+        if (forest[xRoot] < forest[yRoot]) {
+            forest[xRoot] += forest[yRoot];
+            forest[yRoot] = xRoot;
+        } else {
+            forest[yRoot] += forest[xRoot];
+            forest[xRoot] = yRoot;
+        }
+    }
+
+    /**
+     * Assign sequential component ids to each element of the forest, in order
+     * of the lowest element of each set.
+     *
+     * @param forest the forest
+     * @param ids    the component id of each element (filled by this method)
+     * @return the size of each component
+     */
+    private static int[] label(final int[] forest, final int[] ids) {
+        final int n = forest.length;
+        final int[] rootId = new int[n];
+        int nComponents = 0;
+        for (int v = 0; v < n; v++) {
+            if (forest[v] < 0)
+                nComponents++;
+        }
+        final int[] sizes = new int[nComponents];
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            final int root = find(forest, v);
+            if (rootId[root] == 0) {
+                rootId[root] = ++next;
+                sizes[next - 1] = -forest[root];
+            }
+            ids[v] = rootId[root] - 1;
+        }
+        return sizes;
+    }
+
+    /**
+     * A view on a single connected component of the container. Access to the
+     * atoms and bonds of the fragment is provided without copying them into a
+     * new container, the index of the atoms/bonds in the view is the relative
+     * order in the original container. When a separate container is required
+     * use {@link #toAtomContainer()}.
+     */
+    public final class Fragment {
+
+        /** The component id. */
+        private final int component;
+
+        /** Indices of the atoms and bonds in the original container. */
+        private final int[] atoms, bonds;
+
+        private Fragment(int component) {
+            this.component = component;
+            this.atoms     = indices(vertexComponent, component, vertexCount[component]);
+            this.bonds     = indices(edgeComponent, component, edgeCount[component]);
+        }
+
+        /**
+         * The component id of this fragment.
+         *
+         * @return component id
+         */
+        public int component() {
+            return component;
+        }
+
+        /**
+         * Number of atoms in the fragment.
+         *
+         * @return number of atoms
+         */
+        public int getAtomCount() {
+            return atoms.length;
+        }
+
+        /**
+         * Number of bonds in the fragment.
+         *
+         * @return number of bonds
+         */
+        public int getBondCount() {
+            return bonds.length;
+        }
+
+        /**
+         * Access the atom at index <i>i</i> of the fragment.
+         *
+         * @param i index in the fragment
+         * @return the atom
+         */
+        public IAtom getAtom(int i) {
+            return container.getAtom(atoms[i]);
+        }
+
+        /**
+         * Access the bond at index <i>i</i> of the fragment.
+         *
+         * @param i index in the fragment
+         * @return the bond
+         */
+        public IBond getBond(int i) {
+            return container.getBond(bonds[i]);
+        }
+
+        /**
+         * The index of the atom at index <i>i</i> in the original container.
+         *
+         * @param i index in the fragment
+         * @return index in the container
+         */
+        public int atomIndex(int i) {
+            return atoms[i];
+        }
+
+        /**
+         * The atoms of the fragment, the list is an unmodifiable view.
+         *
+         * @return atoms of the fragment
+         */
+        public List<IAtom> atoms() {
+            return new AbstractList<IAtom>() {
+                @Override public IAtom get(int i) {
+                    return getAtom(i);
+                }
+
+                @Override public int size() {
+                    return atoms.length;
+                }
+            };
+        }
+
+        /**
+         * The bonds of the fragment, the list is an unmodifiable view.
+         *
+         * @return bonds of the fragment
+         */
+        public List<IBond> bonds() {
+            return new AbstractList<IBond>() {
+                @Override public IBond get(int i) {
+                    return getBond(i);
+                }
+
+                @Override public int size() {
+                    return bonds.length;
+                }
+            };
+        }
+
+        /**
+         * Copy the fragment into a new container. The atoms and bonds are not
+         * cloned, lone pairs and single electrons on the atoms of the fragment
+         * are included.
+         *
+         * @return a new container with the atoms and bonds of the fragment
+         */
+        public IAtomContainer toAtomContainer() {
+            IAtomContainer fragment = container.getBuilder().newInstance(IAtomContainer.class,
+                                                                         atoms.length,
+                                                                         bonds.length,
+                                                                         0, 0);
+            for (int i : atoms)
+                fragment.addAtom(container.getAtom(i));
+            for (int i : bonds)
+                fragment.addBond(container.getBond(i));
+            Set<IAtom> members = Collections.newSetFromMap(new IdentityHashMap<IAtom, Boolean>(2 * atoms.length));
+            members.addAll(atoms());
+            for (ILonePair lp : container.lonePairs()) {
+                if (members.contains(lp.getAtom()))
+                    fragment.addLonePair(lp);
+            }
+            for (ISingleElectron se : container.singleElectrons()) {
+                if (members.contains(se.getAtom()))
+                    fragment.addSingleElectron(se);
+            }
+            return fragment;
+        }
+    }
+
+    /**
+     * Collect the indices of elements with the given component id.
+     *
+     * @param ids       component id of each element
+     * @param component the component id to collect
+     * @param size      number of elements with the component id
+     * @return indices of the elements
+     */
+    private static int[] indices(int[] ids, int component, int size) {
+        int[] indices = new int[size];
+        int j = 0;
+        for (int i = 0; i < ids.length && j < size; i++) {
+            if (ids[i] == component)
+                indices[j++] = i;
+        }
+        return indices;
+    }
+}
@@ -21,13 +21,19 @@
  */
 package org.openscience.cdk.graph;
 
-import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.*;
+import org.openscience.cdk.tools.ParallelTasks;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Tool class for checking whether the (sub)structure in an
@@ -66,30 +72,16 @@ public class ConnectivityChecker
         // partitioning needed
         if (atomContainer.getAtomCount() < 2) return true;
 
-		IAtomContainer newContainer = atomContainer.getBuilder().newInstance(IAtomContainer.class);
-		IAtomContainer molecule = atomContainer.getBuilder().newInstance(IAtomContainer.class);
-		List<IAtom> sphere = new ArrayList<IAtom>();
-        for (IAtom atom : atomContainer.atoms()) {
-            atom.setFlag(CDKConstants.VISITED, false);
-            newContainer.addAtom(atom);
-        }
-
-        for (IBond bond : atomContainer.bonds()) {
-			bond.setFlag(CDKConstants.VISITED, false);
-			newContainer.addBond(bond);
-		}
-        
-        IAtom atom = newContainer.getAtom(0);
-		sphere.add(atom);
-		atom.setFlag(CDKConstants.VISITED, true);
-		PathTools.breadthFirstSearch(newContainer, sphere, molecule);
-        return molecule.getAtomCount() == atomContainer.getAtomCount();
+        return new ConnectedComponents(atomContainer).numberOfComponents() == 1;
     }
 	
 
 
 	/**
 	 * Partitions the atoms in an AtomContainer into covalently connected components.
+	 * Each component is traversed breadth-first from its first atom, the atoms,
+	 * bonds, lone pairs and single electrons are added in the order they are
+	 * visited.
 	 *
 	 * @param   atomContainer  The AtomContainer to be partitioned into connected components, i.e. molecules
 	 * @return                 A MoleculeSet.
@@ -98,36 +90,97 @@ public class ConnectivityChecker
 	 */
     @TestMethod("testPartitionIntoMolecules_IAtomContainer,testPartitionIntoMoleculesKeepsAtomIDs,testPartitionIntoMolecules_IsConnected_Consistency")
     public static IAtomContainerSet partitionIntoMolecules(IAtomContainer atomContainer) {
-		IAtomContainer newContainer = atomContainer.getBuilder().newInstance(IAtomContainer.class);
-		IAtomContainer molecule;
 		IAtomContainerSet molecules = atomContainer.getBuilder().newInstance(IAtomContainerSet.class);
-		List<IAtom> sphere = new ArrayList<IAtom>();
 
-        for (IAtom atom : atomContainer.atoms()) {
-            atom.setFlag(CDKConstants.VISITED, false);
-            newContainer.addAtom(atom);
-        }
+        int n = atomContainer.getAtomCount();
+        Map<IAtom,Integer> atomIndex = new HashMap<IAtom,Integer>(2 * n);
+        for (int i = 0; i < n; i++)
+            atomIndex.put(atomContainer.getAtom(i), i);
 
+        // bonds, lone pairs and single electrons of each atom in container order
+        List<List<IBond>> bonds = new ArrayList<List<IBond>>(n);
+        List<List<ILonePair>> lonePairs = new ArrayList<List<ILonePair>>(n);
+        List<List<ISingleElectron>> singleElectrons = new ArrayList<List<ISingleElectron>>(n);
+        for (int i = 0; i < n; i++) {
+            bonds.add(new ArrayList<IBond>(4));
+            lonePairs.add(new ArrayList<ILonePair>(0));
+            singleElectrons.add(new ArrayList<ISingleElectron>(0));
+        }
         for (IBond bond : atomContainer.bonds()) {
-            bond.setFlag(CDKConstants.VISITED, false);
-            newContainer.addBond(bond);
+            for (IAtom atom : bond.atoms()) {
+                Integer i = atomIndex.get(atom);
+                if (i != null) bonds.get(i).add(bond);
+            }
         }
-
-        for (IElectronContainer eContainer : atomContainer.electronContainers()) {
-            eContainer.setFlag(CDKConstants.VISITED, false);
-            newContainer.addElectronContainer(eContainer);
+        for (ILonePair lonePair : atomContainer.lonePairs()) {
+            Integer i = atomIndex.get(lonePair.getAtom());
+            if (i != null) lonePairs.get(i).add(lonePair);
+        }
+        for (ISingleElectron singleElectron : atomContainer.singleElectrons()) {
+            Integer i = atomIndex.get(singleElectron.getAtom());
+            if (i != null) singleElectrons.get(i).add(singleElectron);
         }
 
-        while(newContainer.getAtomCount() > 0) {
-			IAtom atom = newContainer.getAtom(0);
-			molecule = atomContainer.getBuilder().newInstance(IAtomContainer.class);
-			sphere.clear();
-			sphere.add(atom);
-			atom.setFlag(CDKConstants.VISITED, true);
-			PathTools.breadthFirstSearch(newContainer, sphere, molecule);
-			molecules.addAtomContainer(molecule);
-			newContainer.remove(molecule);
-		}
+        boolean[] visited = new boolean[n];
+        Set<IBond> visitedBonds = new HashSet<IBond>(2 * atomContainer.getBondCount());
+        int[] queue = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (visited[start])
+                continue;
+            IAtomContainer molecule = atomContainer.getBuilder().newInstance(IAtomContainer.class);
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+            while (head < tail) {
+                int i = queue[head++];
+                molecule.addAtom(atomContainer.getAtom(i));
+                for (ILonePair lonePair : lonePairs.get(i))
+                    molecule.addLonePair(lonePair);
+                for (ISingleElectron singleElectron : singleElectrons.get(i))
+                    molecule.addSingleElectron(singleElectron);
+                for (IBond bond : bonds.get(i)) {
+                    if (visitedBonds.add(bond))
+                        molecule.addBond(bond);
+                    Integer j = atomIndex.get(bond.getConnectedAtom(atomContainer.getAtom(i)));
+                    if (j != null && !visited[j]) {
+                        visited[j] = true;
+                        queue[tail++] = j;
+                    }
+                }
+            }
+            molecules.addAtomContainer(molecule);
+        }
 		return molecules;
 	}
+
+    /**
+     * Compute the {@link FragmentStatistics} (number of fragments, largest
+     * fragment and mass of each fragment) of many molecules in parallel. The
+     * statistics are returned in the same order as the input.
+     *
+     * <blockquote><pre>
+     * List&lt;FragmentStatistics&gt; stats = ConnectivityChecker.fragmentStatistics(containers, 4);
+     * for (int i = 0; i &lt; stats.size(); i++) {
+     *     // keep only the largest fragment (salt stripping)
+     *     IAtomContainer parent = stats.get(i).fragment(stats.get(i).largest()).toAtomContainer();
+     * }
+     * </pre></blockquote>
+     *
+     * @param containers the molecules
+     * @param nThreads   number of threads to use
+     * @return statistics of each molecule
+     * @throws CDKException the computation was interrupted or failed
+     */
+    @TestMethod("testFragmentStatistics,testFragmentStatistics_single")
+    public static List<FragmentStatistics> fragmentStatistics(final List<IAtomContainer> containers,
+                                                              int nThreads) throws CDKException {
+
+        final FragmentStatistics[] stats = new FragmentStatistics[containers.size()];
+        ParallelTasks.forEach(stats.length, nThreads, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) {
+                stats[i] = new FragmentStatistics(containers.get(i));
+            }
+        });
+        return Arrays.asList(stats);
+    }
 }
@@ -0,0 +1,237 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits and progress counters for the perception of all simple cycles. The
+ * limits are applied to each ring system (fused cyclic subgraph) separately -
+ * one complex cage does not prevent the cycles of other systems being found.
+ * Two limits are provided, the <i>maxDegree</i> is the threshold of {@link
+ * AllCycles} and the <i>maxWork</i> bounds the total number of path graph edges
+ * which may be introduced while reducing a single system. A search may also be
+ * cancelled cooperatively (e.g. from another thread) with {@link #cancel()},
+ * the cancellation remains until the budget is {@link #reset()}.
+ *
+ * The counters accumulate over every ring system processed with this budget
+ * and may be inspected at any time. A budget can be shared between threads.
+ *
+ * <blockquote><pre>
+ * CycleBudget budget = new CycleBudget(684, 1000000);
+ *
+ * // all cycles, falling back to the relevant cycles for a ring system
+ * // which exceeds the budget
+ * CycleFinder cf = Cycles.or(Cycles.all(budget), Cycles.relevant());
+ *
+ * for (IAtomContainer m : ms) {
+ *     Cycles cycles = cf.find(m);
+ * }
+ *
+ * budget.ringSystems();        // number of ring systems processed
+ * budget.abortedRingSystems(); // number which exceeded the budget
+ * </pre></blockquote>
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ * @see Cycles#all(CycleBudget)
+ * @see Cycles#or(CycleFinder, CycleFinder)
+ */
+@TestClass("org.openscience.cdk.graph.CycleBudgetTest")
+public final class CycleBudget {
+
+    /** Maximum degree of a vertex in the path graph before removal. */
+    private final int maxDegree;
+
+    /** Maximum number of path edges which may be introduced per ring system. */
+    private final long maxWork;
+
+    /** Cooperative cancellation flag. */
+    private volatile boolean cancelled = false;
+
+    /** Progress counters. */
+    private final AtomicLong systems = new AtomicLong(),
+                             aborted = new AtomicLong(),
+                             cycles  = new AtomicLong(),
+                             work    = new AtomicLong();
+
+    /**
+     * Create a budget which only limits the degree of path graph vertices -
+     * this is equivalent to the threshold of {@link AllCycles}.
+     *
+     * @param maxDegree maximum degree of a vertex in the path graph
+     */
+    public CycleBudget(int maxDegree) {
+        this(maxDegree, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a budget which limits the degree of path graph vertices and the
+     * total work done on each ring system.
+     *
+     * @param maxDegree maximum degree of a vertex in the path graph
+     * @param maxWork   maximum number of path edges introduced per ring system
+     */
+    @TestMethod("invalidWork")
+    public CycleBudget(int maxDegree, long maxWork) {
+        if (maxDegree < 0)
+            throw new IllegalArgumentException("maxDegree must be non-negative");
+        if (maxWork < 0)
+            throw new IllegalArgumentException("maxWork must be non-negative");
+        this.maxDegree = maxDegree;
+        this.maxWork   = maxWork;
+    }
+
+    /**
+     * Request that any search using this budget stops as soon as possible. The
+     * ring system currently being processed is considered to have exceeded
+     * the budget, as will any subsequent ring system. The cancellation is not
+     * reset when a search ends - every later search with this budget (from
+     * any thread) is also aborted until {@link #reset()} is called.
+     */
+    @TestMethod("cancel")
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Clear a cancellation so the budget can be used for further searches.
+     * The counters are not reset.
+     */
+    @TestMethod("reset")
+    public void reset() {
+        cancelled = false;
+    }
+
+    /**
+     * Has the budget been cancelled.
+     *
+     * @return the search was cancelled
+     */
+    @TestMethod("cancel")
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * The maximum degree of a vertex in the path graph.
+     *
+     * @return maximum degree
+     */
+    @TestMethod("limits")
+    public int maxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * The maximum number of path edges which may be introduced when reducing a
+     * single ring system.
+     *
+     * @return maximum work
+     */
+    @TestMethod("limits")
+    public long maxWork() {
+        return maxWork;
+    }
+
+    /**
+     * Number of ring systems which have been processed (completed or not).
+     *
+     * @return ring systems processed
+     */
+    @TestMethod("counters,abortedByWork")
+    public long ringSystems() {
+        return systems.get();
+    }
+
+    /**
+     * Number of ring systems which exceeded the budget or were cancelled.
+     *
+     * @return ring systems which did not complete
+     */
+    @TestMethod("counters,abortedByWork")
+    public long abortedRingSystems() {
+        return aborted.get();
+    }
+
+    /**
+     * Number of cycles found in the ring systems which completed.
+     *
+     * @return number of cycles
+     */
+    @TestMethod("counters")
+    public long cycles() {
+        return cycles.get();
+    }
+
+    /**
+     * Total number of path edges introduced over all ring systems.
+     *
+     * @return work done
+     */
+    @TestMethod("counters")
+    public long work() {
+        return work.get();
+    }
+
+    /**
+     * Internal - the work of removing a vertex of the given degree, this is
+     * the upper bound on new path edges, <i>d</i>(<i>d</i>-1)/2.
+     *
+     * @param degree the degree of the vertex to remove
+     * @return work of the removal
+     */
+    static long cost(int degree) {
+        return ((long) degree * (degree - 1)) / 2;
+    }
+
+    /**
+     * Internal - can a vertex with the given degree be removed when the
+     * specified amount of work has already been done on the current ring
+     * system.
+     *
+     * @param degree the degree of the vertex to remove
+     * @param done   work done so far on this ring system
+     * @return the vertex can be removed
+     */
+    boolean admit(int degree, long done) {
+        return !cancelled && degree <= maxDegree && cost(degree) <= maxWork - done;
+    }
+
+    /**
+     * Internal - record the outcome of processing a ring system.
+     *
+     * @param completed the perception completed
+     * @param nCycles   number of cycles found
+     * @param done      work done on this ring system
+     */
+    void record(boolean completed, int nCycles, long done) {
+        systems.incrementAndGet();
+        work.addAndGet(done);
+        if (completed)
+            cycles.addAndGet(nCycles);
+        else
+            aborted.incrementAndGet();
+    }
+}
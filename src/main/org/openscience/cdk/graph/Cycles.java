@@ -179,6 +179,76 @@ public final class Cycles {
         return CycleComputation.ALL;
     }
 
+    /**
+     * Create a cycle finder which will compute all simple cycles in a molecule
+     * within the limits of the provided <i>budget</i>. The budget is applied to
+     * each ring system separately and records progress counters which can be
+     * inspected during or after perception. The search may be cancelled
+     * cooperatively by calling {@link CycleBudget#cancel()}, for example from
+     * a watchdog thread. If any ring system exceeds the budget an {@link
+     * Intractable} exception is thrown, to fall back to a tractable cycle set
+     * for only that ring system combine the finder with {@link
+     * #or(CycleFinder, CycleFinder)}.
+     *
+     * <blockquote>
+     * <pre>
+     * CycleBudget budget = new CycleBudget(684, 1000000);
+     * CycleFinder cf     = Cycles.all(budget);
+     * for (IAtomContainer m : ms) {
+     *     try {
+     *         Cycles   cycles = cf.find(m);
+     *         IRingSet rings  = cycles.toRingSet();
+     *     } catch (Intractable e) {
+     *         // a ring system exceeded the budget
+     *     }
+     * }
+     * </pre>
+     * </blockquote>
+     *
+     * @param budget limits on the work to perform for each ring system
+     * @return finder for all simple cycles
+     * @see CycleBudget
+     * @see #or(CycleFinder, CycleFinder)
+     */
+    @TestMethod("allWithBudget,allCancelled")
+    public static CycleFinder all(CycleBudget budget) {
+        if (budget == null)
+            throw new NullPointerException("no budget provided");
+        return new AllWithinBudget(budget);
+    }
+
+    /**
+     * Create a cycle finder which will use the <i>auxiliary</i> finder for any
+     * ring system the <i>primary</i> finder was unable to handle. The fallback
+     * is done for each ring system separately, the typical use is to find all
+     * simple cycles and use the relevant cycles for the ring systems where
+     * this was not feasible (e.g. a cage compound attached to some other rings).
+     * If either finder was not provided by this class the fallback is done for
+     * the whole molecule instead.
+     *
+     * <blockquote>
+     * <pre>
+     * CycleFinder cf = Cycles.or(Cycles.all(), Cycles.relevant());
+     * for (IAtomContainer m : ms) {
+     *     Cycles   cycles = cf.find(m); // relevant cycles can't be intractable
+     *     IRingSet rings  = cycles.toRingSet();
+     * }
+     * </pre>
+     * </blockquote>
+     *
+     * @param primary   the cycle finder to use first
+     * @param auxiliary the cycle finder to use if the primary was intractable
+     * @return a finder which falls back to the auxiliary finder
+     */
+    @TestMethod("or,orPerRingSystem")
+    public static CycleFinder or(CycleFinder primary, CycleFinder auxiliary) {
+        if (primary == null || auxiliary == null)
+            throw new NullPointerException("primary and auxiliary finders required");
+        if (primary instanceof RingSystemCycleFinder && auxiliary instanceof RingSystemCycleFinder)
+            return new Fallback((RingSystemCycleFinder) primary, (RingSystemCycleFinder) auxiliary);
+        return new MoleculeFallback(primary, auxiliary);
+    }
+
     /**
      * Create a cycle finder which will compute the minimum cycle basis (MCB) of
      * a molecule.
@@ -569,6 +639,31 @@ public final class Cycles {
         return _invoke(edgeShort(), container);
     }
 
+    /**
+     * Find the cycles of a molecule with the provided finder, reusing an
+     * existing adjacency list, bond map and ring search of the molecule. When
+     * several perceptions are applied to the same molecule (e.g. atom typing
+     * and aromaticity) this avoids rebuilding the graph and ring systems. If
+     * the finder does not partition the ring systems it is simply invoked on
+     * the molecule.
+     *
+     * @param finder     the cycle finding method
+     * @param molecule   the molecule
+     * @param graph      adjacency list of the molecule
+     * @param bondMap    bonds of the adjacency list
+     * @param ringSearch ring search of the graph
+     * @return the cycles of the molecule
+     * @throws Intractable the computation reached a set limit
+     */
+    @TestMethod("findWithRingSearch")
+    public static Cycles find(CycleFinder finder, IAtomContainer molecule,
+                              int[][] graph, EdgeToBondMap bondMap,
+                              RingSearch ringSearch) throws Intractable {
+        if (finder instanceof RingSystemCycleFinder)
+            return findByRingSystem((RingSystemCycleFinder) finder, molecule, graph, bondMap, ringSearch);
+        return finder.find(molecule);
+    }
+
     /**
      * Internal method to wrap cycle computations which <i>should</i> be
      * tractable. That is they currently won't throw the exception - if the
@@ -588,18 +683,35 @@ public final class Cycles {
         }
     }
 
+    /**
+     * Internal - a cycle finder which computes the cycles of each ring system
+     * (biconnected component) separately.
+     */
+    private static interface RingSystemCycleFinder extends CycleFinder {
+
+        /**
+         * Apply cycle perception to the graph (g) - graph is expeced to be
+         * biconnected.
+         *
+         * @param graph the graph (adjacency list)
+         * @return the cycles of the graph
+         * @throws Intractable the computation reached a set limit
+         */
+        int[][] apply(int[][] graph) throws Intractable;
+    }
+
     /** Interbank enumeration of cycle finders. */
-    private static enum CycleComputation implements CycleFinder {
+    private static enum CycleComputation implements RingSystemCycleFinder {
         MCB {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) {
+            @Override public int[][] apply(int[][] graph) {
                 InitialCycles ic = InitialCycles.ofBiconnectedComponent(graph);
                 return new MinimumCycleBasis(ic).paths();
             }
         },
         ESSENTIAL {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) {
+            @Override public int[][] apply(int[][] graph) {
                 InitialCycles ic = InitialCycles.ofBiconnectedComponent(graph);
                 RelevantCycles rc = new RelevantCycles(ic);
                 return new EssentialCycles(rc, ic).paths();
@@ -607,14 +719,14 @@ public final class Cycles {
         },
         RELEVANT {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) {
+            @Override public int[][] apply(int[][] graph) {
                 InitialCycles ic = InitialCycles.ofBiconnectedComponent(graph);
                 return new RelevantCycles(ic).paths();
             }
         },
         ALL {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) throws Intractable {
+            @Override public int[][] apply(int[][] graph) throws Intractable {
                 final int threshold = 684; // see. AllRingsFinder.Threshold.Pubchem_99  
                 AllCycles ac = new AllCycles(graph, graph.length, threshold);
                 if (!ac.completed())
@@ -626,28 +738,28 @@ public final class Cycles {
         },
         TRIPLET_SHORT {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) throws Intractable {
+            @Override public int[][] apply(int[][] graph) throws Intractable {
                 InitialCycles ic = InitialCycles.ofBiconnectedComponent(graph);
                 return new TripletShortCycles(new MinimumCycleBasis(ic), false).paths();
             }
         },
         VERTEX_SHORT {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) throws Intractable {
+            @Override public int[][] apply(int[][] graph) throws Intractable {
                 InitialCycles ic = InitialCycles.ofBiconnectedComponent(graph);
                 return new VertexShortCycles(ic).paths();
             }
         },
         EDGE_SHORT {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) throws Intractable {
+            @Override public int[][] apply(int[][] graph) throws Intractable {
                 InitialCycles ic = InitialCycles.ofBiconnectedComponent(graph);
                 return new EdgeShortCycles(ic).paths();
             }
         },
         CDK_AROMATIC {
             /** {@inheritDoc} */
-            @Override int[][] apply(int[][] graph) throws Intractable {
+            @Override public int[][] apply(int[][] graph) throws Intractable {
                 
                 InitialCycles     ic  = InitialCycles.ofBiconnectedComponent(graph);
                 MinimumCycleBasis mcb = new MinimumCycleBasis(ic);
@@ -663,46 +775,148 @@ public final class Cycles {
             }    
         };
 
-        /**
-         * Apply cycle perception to the graph (g) - graph is expeced to be
-         * biconnected.
-         *
-         * @param graph the graph (adjacency list)
-         * @return the cycles of the graph
-         * @throws Intractable the computation reached a set limit
-         */
-        abstract int[][] apply(int[][] graph) throws Intractable;
+        /** {@inheritDoc} */
+        @Override public Cycles find(IAtomContainer molecule) throws Intractable {
+            return findByRingSystem(this, molecule);
+        }
+    }
+
+    /** All simple cycles, limited by a budget for each ring system. */
+    private static final class AllWithinBudget implements RingSystemCycleFinder {
+
+        private final CycleBudget budget;
+
+        private AllWithinBudget(CycleBudget budget) {
+            this.budget = budget;
+        }
+
+        /** {@inheritDoc} */
+        @Override public int[][] apply(int[][] graph) throws Intractable {
+            AllCycles ac = new AllCycles(graph, graph.length, budget);
+            if (!ac.completed()) {
+                if (budget.isCancelled())
+                    throw new Intractable("Perception of all cycles was cancelled.");
+                throw new Intractable("A ring system exceeded the budget for" +
+                                              " perceiving all cycles and the computation was aborted.");
+            }
+            return ac.paths();
+        }
 
         /** {@inheritDoc} */
         @Override public Cycles find(IAtomContainer molecule) throws Intractable {
+            return findByRingSystem(this, molecule);
+        }
+    }
 
-            EdgeToBondMap bondMap = EdgeToBondMap.withSpaceFor(molecule);
-            int[][] graph = GraphUtil.toAdjList(molecule, bondMap);
-            RingSearch ringSearch = new RingSearch(molecule, graph);
+    /**
+     * Use an auxiliary cycle finder when the primary finder is intractable,
+     * the fallback is applied to each ring system.
+     */
+    private static final class Fallback implements RingSystemCycleFinder {
 
-            List<int[]> walks = new ArrayList<int[]>(6);
+        private final RingSystemCycleFinder primary, auxiliary;
 
-            // all isolated cycles are relevant - all we need to do is walk around
-            // the vertices in the subset 'isolated' 
-            for (int[] isolated : ringSearch.isolated()) {
-                walks.add(GraphUtil.cycle(graph, isolated));
+        private Fallback(RingSystemCycleFinder primary, RingSystemCycleFinder auxiliary) {
+            this.primary   = primary;
+            this.auxiliary = auxiliary;
+        }
+
+        /** {@inheritDoc} */
+        @Override public int[][] apply(int[][] graph) throws Intractable {
+            try {
+                return primary.apply(graph);
+            } catch (Intractable e) {
+                return auxiliary.apply(graph);
             }
+        }
 
-            // each biconnected component which isn't an isolated cycle is processed
-            // separately as a subgraph.
-            for (int[] fused : ringSearch.fused()) {
+        /** {@inheritDoc} */
+        @Override public Cycles find(IAtomContainer molecule) throws Intractable {
+            return findByRingSystem(this, molecule);
+        }
+    }
 
-                // make a subgraph and 'apply' the cycle computation - the walk 
-                // (path) is then lifted to the original graph            
-                for (int[] cycle : apply(GraphUtil.subgraph(graph, fused))) {
-                    walks.add(lift(cycle, fused));
-                }
+    /**
+     * Use an auxiliary cycle finder when the primary finder is intractable,
+     * the fallback is applied to the whole molecule. Used when either finder
+     * does not work on ring systems.
+     */
+    private static final class MoleculeFallback implements CycleFinder {
+
+        private final CycleFinder primary, auxiliary;
+
+        private MoleculeFallback(CycleFinder primary, CycleFinder auxiliary) {
+            this.primary   = primary;
+            this.auxiliary = auxiliary;
+        }
+
+        /** {@inheritDoc} */
+        @Override public Cycles find(IAtomContainer molecule) throws Intractable {
+            try {
+                return primary.find(molecule);
+            } catch (Intractable e) {
+                return auxiliary.find(molecule);
             }
+        }
+    }
+
+    /**
+     * Internal - partition the molecule into ring systems and apply the
+     * provided finder to each one separately. Isolated cycles are not passed
+     * to the finder as every cycle set would contain them.
+     *
+     * @param finder   the cycle finder
+     * @param molecule the molecule to find the cycles of
+     * @return the cycles of the molecule
+     * @throws Intractable the computation reached a set limit
+     */
+    private static Cycles findByRingSystem(RingSystemCycleFinder finder,
+                                           IAtomContainer molecule) throws Intractable {
+        EdgeToBondMap bondMap = EdgeToBondMap.withSpaceFor(molecule);
+        int[][] graph = GraphUtil.toAdjList(molecule, bondMap);
+        return findByRingSystem(finder, molecule, graph, bondMap, new RingSearch(molecule, graph));
+    }
 
-            return new Cycles(walks.toArray(new int[walks.size()][0]),
-                              molecule,
-                              bondMap);
+    /**
+     * Internal - apply the provided finder to each ring system of a graph
+     * which has already been built.
+     *
+     * @param finder     the cycle finder
+     * @param molecule   the molecule to find the cycles of
+     * @param graph      adjacency list of the molecule
+     * @param bondMap    bonds of the adjacency list
+     * @param ringSearch ring search of the graph
+     * @return the cycles of the molecule
+     * @throws Intractable the computation reached a set limit
+     */
+    private static Cycles findByRingSystem(RingSystemCycleFinder finder,
+                                           IAtomContainer molecule,
+                                           int[][] graph,
+                                           EdgeToBondMap bondMap,
+                                           RingSearch ringSearch) throws Intractable {
+
+        List<int[]> walks = new ArrayList<int[]>(6);
+
+        // all isolated cycles are relevant - all we need to do is walk around
+        // the vertices in the subset 'isolated' 
+        for (int[] isolated : ringSearch.isolated()) {
+            walks.add(GraphUtil.cycle(graph, isolated));
+        }
+
+        // each biconnected component which isn't an isolated cycle is processed
+        // separately as a subgraph.
+        for (int[] fused : ringSearch.fused()) {
+
+            // make a subgraph and 'apply' the cycle computation - the walk 
+            // (path) is then lifted to the original graph            
+            for (int[] cycle : finder.apply(GraphUtil.subgraph(graph, fused))) {
+                walks.add(lift(cycle, fused));
+            }
         }
+
+        return new Cycles(walks.toArray(new int[walks.size()][0]),
+                          molecule,
+                          bondMap);
     }
 
     /**
@@ -0,0 +1,187 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.config.Isotopes;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IIsotope;
+import org.openscience.cdk.interfaces.IPseudoAtom;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Summary of the connected components (fragments) of a molecule - the number
+ * of fragments, the number of atoms and the (natural) mass of each fragment.
+ * The mass includes the implicit hydrogens and is used to select the largest
+ * fragment, for example when stripping salts and solvents. The statistics for
+ * many molecules can be computed in parallel with {@link
+ * ConnectivityChecker#fragmentStatistics(java.util.List, int)}.
+ *
+ * <blockquote><pre>
+ * FragmentStatistics stats = new FragmentStatistics(container);
+ * stats.fragmentCount();
+ * stats.mass(stats.largest());
+ * IAtomContainer parent = stats.fragment(stats.largest()).toAtomContainer();
+ * </pre></blockquote>
+ *
+ * @author agent
+ * @cdk.module standard
+ * @cdk.githash
+ * @see ConnectedComponents
+ */
+@TestClass("org.openscience.cdk.graph.FragmentStatisticsTest")
+public final class FragmentStatistics {
+
+    /** The labelled components of the molecule. */
+    private final ConnectedComponents components;
+
+    /** Mass of each fragment. */
+    private final double[] masses;
+
+    /**
+     * Compute the fragment statistics of the provided molecule. Pseudo atoms
+     * and atoms of unknown elements do not contribute to the mass.
+     *
+     * @param container a molecule, may be disconnected
+     */
+    @TestMethod("disconnected,empty")
+    public FragmentStatistics(IAtomContainer container) {
+        this.components = new ConnectedComponents(container);
+        this.masses     = new double[components.numberOfComponents()];
+
+        Map<String, Double> cache    = new HashMap<String, Double>();
+        double              hydrogen = naturalMass("H", cache);
+
+        for (int i = 0; i < container.getAtomCount(); i++) {
+            IAtom   atom   = container.getAtom(i);
+            Integer hCount = atom.getImplicitHydrogenCount();
+            double  mass   = atom instanceof IPseudoAtom ? 0 : naturalMass(atom.getSymbol(), cache);
+            if (hCount != null)
+                mass += hCount * hydrogen;
+            masses[components.component(i)] += mass;
+        }
+    }
+
+    /**
+     * Natural mass of an element, the value is cached as the lookup in the
+     * isotope factory is relatively expensive.
+     *
+     * @param symbol element symbol
+     * @param cache  cached values
+     * @return natural mass, 0 if the element was unknown
+     */
+    private static double naturalMass(String symbol, Map<String, Double> cache) {
+        if (symbol == null)
+            return 0;
+        Double mass = cache.get(symbol);
+        if (mass == null) {
+            // note: only read access to the isotope factory, the major isotope
+            // lookups would modify its state
+            double summedAbundances = 0, summedWeightedAbundances = 0;
+            try {
+                for (IIsotope isotope : Isotopes.getInstance().getIsotopes(symbol)) {
+                    summedAbundances         += isotope.getNaturalAbundance();
+                    summedWeightedAbundances += isotope.getNaturalAbundance() * isotope.getExactMass();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load the isotope data: " + e.getMessage());
+            }
+            mass = summedAbundances > 0 ? summedWeightedAbundances / summedAbundances : 0;
+            cache.put(symbol, mass);
+        }
+        return mass;
+    }
+
+    /**
+     * Number of fragments (connected components).
+     *
+     * @return number of fragments
+     */
+    @TestMethod("disconnected,empty")
+    public int fragmentCount() {
+        return masses.length;
+    }
+
+    /**
+     * Number of atoms in the given fragment.
+     *
+     * @param fragment fragment id
+     * @return number of atoms
+     */
+    @TestMethod("disconnected")
+    public int atomCount(int fragment) {
+        return components.size(fragment);
+    }
+
+    /**
+     * The natural mass of the given fragment including implicit hydrogens.
+     *
+     * @param fragment fragment id
+     * @return mass of the fragment
+     */
+    @TestMethod("disconnected")
+    public double mass(int fragment) {
+        return masses[fragment];
+    }
+
+    /**
+     * The fragment with the most atoms, ties are resolved by the highest mass
+     * and then the lowest id.
+     *
+     * @return id of the largest fragment, -1 if there were no atoms
+     */
+    @TestMethod("disconnected,empty,tie")
+    public int largest() {
+        int max = -1;
+        for (int i = 0; i < masses.length; i++) {
+            if (max < 0
+                    || components.size(i) > components.size(max)
+                    || components.size(i) == components.size(max) && masses[i] > masses[max])
+                max = i;
+        }
+        return max;
+    }
+
+    /**
+     * Access a view of the given fragment.
+     *
+     * @param fragment fragment id
+     * @return view of the fragment
+     */
+    @TestMethod("disconnected")
+    public ConnectedComponents.Fragment fragment(int fragment) {
+        return components.fragment(fragment);
+    }
+
+    /**
+     * The labelled components of the molecule.
+     *
+     * @return connected components
+     */
+    @TestMethod("disconnected")
+    public ConnectedComponents components() {
+        return components;
+    }
+}
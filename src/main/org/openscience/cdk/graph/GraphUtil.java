@@ -26,9 +26,11 @@ package org.openscience.cdk.graph;
 import com.google.common.collect.Maps;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
 
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import static java.util.Arrays.copyOf;
@@ -73,10 +75,12 @@ public class GraphUtil {
         int[][] graph = new int[n][DEFAULT_DEGREE];
         int[] degree = new int[n];
 
+        Map<IAtom, Integer> atomIndex = atomIndex(container);
+
         for (IBond bond : container.bonds()) {
 
-            int v = container.getAtomNumber(bond.getAtom(0));
-            int w = container.getAtomNumber(bond.getAtom(1));
+            int v = indexOf(atomIndex, bond.getAtom(0));
+            int w = indexOf(atomIndex, bond.getAtom(1));
 
             if (v < 0 || w < 0)
                 throw new IllegalArgumentException("bond at index " + container
@@ -122,10 +126,12 @@ public class GraphUtil {
         int[][] graph = new int[n][DEFAULT_DEGREE];
         int[] degree = new int[n];
 
+        Map<IAtom, Integer> atomIndex = atomIndex(container);
+
         for (IBond bond : container.bonds()) {
 
-            int v = container.getAtomNumber(bond.getAtom(0));
-            int w = container.getAtomNumber(bond.getAtom(1));
+            int v = indexOf(atomIndex, bond.getAtom(0));
+            int w = indexOf(atomIndex, bond.getAtom(1));
 
             if (v < 0 || w < 0)
                 throw new IllegalArgumentException("bond at index " + container
@@ -151,6 +157,34 @@ public class GraphUtil {
         return graph;
     }
 
+    /**
+     * Index the atoms of the container once, a bond lookup is then constant
+     * time rather than a scan of the atoms. If an atom occurs more than once
+     * it has the index of its first occurrence, as {@link
+     * IAtomContainer#getAtomNumber(IAtom)}.
+     *
+     * @param container the molecule
+     * @return the index of each atom
+     */
+    private static Map<IAtom, Integer> atomIndex(IAtomContainer container) {
+        Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * container.getAtomCount());
+        for (int i = container.getAtomCount() - 1; i >= 0; i--)
+            atomIndex.put(container.getAtom(i), i);
+        return atomIndex;
+    }
+
+    /**
+     * Look up the index of an atom, -1 if the atom is not indexed.
+     *
+     * @param atomIndex the index of each atom
+     * @param atom      an atom
+     * @return index of the atom
+     */
+    private static int indexOf(Map<IAtom, Integer> atomIndex, IAtom atom) {
+        Integer i = atomIndex.get(atom);
+        return i != null ? i : -1;
+    }
+
     /**
      * Create a subgraph by specifying the vertices from the original {@literal
      * graph} to {@literal include} in the subgraph. The provided vertices also
@@ -0,0 +1,214 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+
+/**
+ * Enumerate the simple paths of a graph up to a maximum depth (number of
+ * edges). The graph is provided as an adjacency list with an integer label
+ * for each adjacency (e.g. the bond index or a bond type). Paths are
+ * enumerated depth-first with an explicit stack, no objects are created
+ * during the enumeration. Each path is passed to a {@link Visitor} which
+ * receives the vertices and edge labels of the path - as each path extends
+ * the previous path at <i>depth</i> - 1 a visitor can compute properties
+ * (e.g. a hash code) incrementally.
+ *
+ * <blockquote><pre>
+ * IAtomContainer container = ...;
+ * int[][]        graph     = GraphUtil.toAdjList(container);
+ * PathEnumerator pe        = new PathEnumerator(graph,
+ *                                               PathEnumerator.bondIndices(container, graph),
+ *                                               8);
+ * for (int v = 0; v &lt; graph.length; v++) {
+ *     pe.enumerate(v, new PathEnumerator.Visitor() {
+ *         public boolean visit(int[] path, int[] labels, int depth) {
+ *             // path[0..depth] are the vertices
+ *             // labels[1..depth] are the edge labels, labels[i]
+ *             // connects path[i-1] and path[i]
+ *             return true; // continue extending this path
+ *         }
+ *     });
+ * }
+ * </pre></blockquote>
+ *
+ * An instance reuses its internal stack and is therefore not thread-safe,
+ * separate instances should be used for concurrent enumeration.
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ * @cdk.keyword path
+ * @see PathTools
+ */
+@TestClass("org.openscience.cdk.graph.PathEnumeratorTest")
+public final class PathEnumerator {
+
+    /** Adjacency list and the label of each adjacency. */
+    private final int[][] graph, labels;
+
+    /** Maximum number of edges in a path. */
+    private final int maxDepth;
+
+    /** Stack of the current path - vertices, edge labels and neighbour index. */
+    private final int[] path, edges, next;
+
+    /** Vertices currently on the path. */
+    private final boolean[] visited;
+
+    /**
+     * Visit each path as it is enumerated.
+     */
+    public static interface Visitor {
+
+        /**
+         * Visit the path of the given <i>depth</i>. The vertices of the path
+         * are path[0..depth] and the labels of the edges are labels[1..depth]
+         * where labels[i] is the label of the edge between path[i-1] and
+         * path[i]. The arrays are reused and should not be modified or stored.
+         *
+         * @param path   vertices of the path
+         * @param labels edge labels of the path
+         * @param depth  number of edges in the path
+         * @return whether the path should be extended further
+         */
+        boolean visit(int[] path, int[] labels, int depth);
+    }
+
+    /**
+     * Create a path enumerator for the provided graph and adjacency labels.
+     *
+     * @param graph    adjacency list representation of a graph
+     * @param labels   the label of each adjacency, labels[v][i] labels the
+     *                 edge to graph[v][i]
+     * @param maxDepth maximum number of edges in a path
+     */
+    @TestMethod("depth,labels")
+    public PathEnumerator(int[][] graph, int[][] labels, int maxDepth) {
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("maxDepth must be non-negative");
+        if (labels.length != graph.length)
+            throw new IllegalArgumentException("a label is required for each adjacency");
+        this.graph    = graph;
+        this.labels   = labels;
+        this.maxDepth = Math.min(maxDepth, Math.max(0, graph.length - 1));
+        this.path     = new int[this.maxDepth + 1];
+        this.edges    = new int[this.maxDepth + 1];
+        this.next     = new int[this.maxDepth + 1];
+        this.visited  = new boolean[graph.length];
+    }
+
+    /**
+     * Enumerate all simple paths starting from the vertex <i>start</i>.
+     *
+     * @param start   the start vertex
+     * @param visitor the visitor which receives each path
+     * @return number of paths enumerated (including the path of length 0)
+     */
+    @TestMethod("depth,labels,prune")
+    public int enumerate(int start, Visitor visitor) {
+        return enumerate(start, visitor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Enumerate the simple paths starting from the vertex <i>start</i>. If
+     * the number of paths exceeds the <i>limit</i> the enumeration stops and
+     * a value larger then the limit is returned.
+     *
+     * @param start   the start vertex
+     * @param visitor the visitor which receives each path
+     * @param limit   maximum number of paths to enumerate
+     * @return number of paths enumerated (including the path of length 0)
+     */
+    @TestMethod("limit")
+    public int enumerate(int start, Visitor visitor, int limit) {
+
+        int count = 1;
+        int d     = 0;
+
+        path[0]        = start;
+        edges[0]       = -1;
+        next[0]        = 0;
+        visited[start] = true;
+
+        if (!visitor.visit(path, edges, 0) || count > limit) {
+            visited[start] = false;
+            return count;
+        }
+
+        while (d >= 0) {
+            final int u = path[d];
+            if (d < maxDepth && next[d] < graph[u].length) {
+                final int j = next[d]++;
+                final int w = graph[u][j];
+                if (visited[w])
+                    continue;
+                path[++d]  = w;
+                edges[d]   = labels[u][j];
+                next[d]    = 0;
+                visited[w] = true;
+                boolean extend = visitor.visit(path, edges, d);
+                if (++count > limit) {
+                    while (d >= 0)
+                        visited[path[d--]] = false;
+                    return count;
+                }
+                if (!extend) {
+                    visited[w] = false;
+                    d--;
+                }
+            } else {
+                visited[u] = false;
+                d--;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Label each adjacency of the graph with the index of the bond in the
+     * container. The graph must have been created with {@link
+     * GraphUtil#toAdjList(IAtomContainer)} - the adjacencies are listed in
+     * bond order.
+     *
+     * @param container the molecule
+     * @param graph     adjacency list of the molecule
+     * @return bond index of each adjacency
+     */
+    @TestMethod("bondIndices")
+    public static int[][] bondIndices(IAtomContainer container, int[][] graph) {
+        int[][] labels = new int[graph.length][];
+        int[]   degree = new int[graph.length];
+        for (int v = 0; v < graph.length; v++)
+            labels[v] = new int[graph[v].length];
+        for (int i = 0; i < container.getBondCount(); i++) {
+            IBond bond = container.getBond(i);
+            int   v    = container.getAtomNumber(bond.getAtom(0));
+            int   w    = container.getAtomNumber(bond.getAtom(1));
+            labels[v][degree[v]++] = i;
+            labels[w][degree[w]++] = i;
+        }
+        return labels;
+    }
+}
@@ -533,26 +533,28 @@ public class PathTools {
      * @return A <code>List</code> containing all the paths between the specified atoms
      */
     @TestMethod("testGetAllPaths_IAtomContainer_IAtom_IAtom")
-    public static List<List<IAtom>> getAllPaths(IAtomContainer atomContainer, IAtom start, IAtom end) {
-        List<List<IAtom>> allPaths = new ArrayList<List<IAtom>>();
+    public static List<List<IAtom>> getAllPaths(final IAtomContainer atomContainer, IAtom start, IAtom end) {
+        final List<List<IAtom>> allPaths = new ArrayList<List<IAtom>>();
         if (start.equals(end)) return allPaths;
-        findPathBetween(allPaths, atomContainer, start, end, new ArrayList<IAtom>());
-        return allPaths;
-    }
 
-    private static void findPathBetween(List<List<IAtom>> allPaths, IAtomContainer atomContainer, IAtom start, IAtom end, List<IAtom> path) {
-        if (start == end) {
-            path.add(start);
-            allPaths.add(new ArrayList<IAtom>(path));
-            path.remove(path.size() - 1);
-            return;
-        }
-        if (path.contains(start))
-            return;
-        path.add(start);
-        List<IAtom> nbrs = atomContainer.getConnectedAtomsList(start);
-        for (IAtom nbr : nbrs) findPathBetween(allPaths, atomContainer, nbr, end, path);
-        path.remove(path.size() - 1);
+        final int s = atomContainer.getAtomNumber(start);
+        final int e = atomContainer.getAtomNumber(end);
+        if (s < 0 || e < 0) return allPaths;
+
+        // the vertices are used as the labels, no bond information is needed
+        int[][] graph = GraphUtil.toAdjList(atomContainer);
+        new PathEnumerator(graph, graph, graph.length - 1).enumerate(s, new PathEnumerator.Visitor() {
+            @Override public boolean visit(int[] path, int[] labels, int depth) {
+                if (path[depth] != e)
+                    return true;
+                List<IAtom> atoms = new ArrayList<IAtom>(depth + 1);
+                for (int i = 0; i <= depth; i++)
+                    atoms.add(atomContainer.getAtom(path[i]));
+                allPaths.add(atoms);
+                return false;
+            }
+        });
+        return allPaths;
     }
 
     /**
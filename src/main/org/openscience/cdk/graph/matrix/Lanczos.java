@@ -0,0 +1,334 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph.matrix;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Extremal eigenvalues of a real symmetric matrix by the thick-restart
+ * Lanczos method {@cdk.cite WU2000}. The matrix is only accessed through
+ * matrix-vector products ({@link Operator}) and so does not need to be stored
+ * densely, see {@link SparseMatrix}. At most <i>m</i> (32 or four times the
+ * number of values requested) Lanczos vectors are stored. When the basis is
+ * full the Ritz vectors at both ends of the spectrum are kept and the
+ * iteration is restarted from the residual. The cost of each iteration is
+ * <i>O</i>(<i>nnz</i> + <i>mn</i>) and the memory <i>O</i>(<i>mn</i>).
+ * Convergence is checked when the basis is full with the residual bound
+ * &beta;|<i>s<sub>m</sub></i>| of each wanted Ritz pair.
+ *
+ * Note that the Krylov subspace contains a single vector of each eigenspace,
+ * an eigenvalue of higher multiplicity is found only once. If all the
+ * eigenvalues (with multiplicity) are required a dense decomposition should be
+ * used.
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ * @cdk.keyword eigenvalue
+ * @cdk.keyword Lanczos
+ * @see SparseMatrix
+ */
+@TestClass("org.openscience.cdk.graph.matrix.LanczosTest")
+public final class Lanczos {
+
+    /** Default relative tolerance of the residual of the Ritz pairs. */
+    private static final double DEFAULT_TOLERANCE = 1e-10;
+
+    /** Minimum number of Lanczos vectors stored. */
+    private static final int MIN_BASIS = 32;
+
+    /** Machine epsilon. */
+    private static final double EPS = Math.pow(2.0, -52.0);
+
+    /** Seed of the (deterministic) random start vector. */
+    private static final long SEED = 0x1f2e3d4cL;
+
+    /**
+     * A real symmetric linear operator.
+     */
+    public static interface Operator {
+
+        /**
+         * Order of the operator.
+         *
+         * @return number of rows (and columns)
+         */
+        int size();
+
+        /**
+         * Compute <i>y</i> = <i>Ax</i>.
+         *
+         * @param x the vector to multiply
+         * @param y the result (overwritten)
+         */
+        void multiply(double[] x, double[] y);
+    }
+
+    /** Non-instantiable. */
+    private Lanczos() {
+    }
+
+    /**
+     * Find the <i>nExtremal</i> lowest and highest eigenvalues of a
+     * symmetric operator.
+     *
+     * @param operator  a real symmetric operator
+     * @param nExtremal number of lowest and highest values required
+     * @return the lowest and highest Ritz values in ascending order
+     */
+    @TestMethod("path,star,empty,dense")
+    public static double[] eigenvalues(Operator operator, int nExtremal) {
+        int n = operator.size();
+        return eigenvalues(operator, nExtremal, Math.max(1000, 20 * n), DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Find the <i>nExtremal</i> lowest and highest eigenvalues of a
+     * symmetric operator. The iteration stops when the residual of each of
+     * the Ritz pairs is less than the relative <i>tolerance</i>, when an
+     * invariant subspace is found (the values are then exact) or when
+     * <i>maxIterations</i> matrix-vector products have been done.
+     *
+     * @param operator      a real symmetric operator
+     * @param nExtremal     number of lowest and highest values required
+     * @param maxIterations maximum number of matrix-vector products
+     * @param tolerance     relative tolerance
+     * @return the lowest and highest Ritz values in ascending order, all the
+     *         values if the Krylov subspace has dimension 2 &times;
+     *         <i>nExtremal</i> or less
+     */
+    @TestMethod("restart,iterations")
+    public static double[] eigenvalues(Operator operator, int nExtremal, int maxIterations, double tolerance) {
+
+        if (nExtremal < 1)
+            throw new IllegalArgumentException("at least one extremal value is required");
+
+        final int n = operator.size();
+        if (n == 0)
+            return new double[0];
+
+        maxIterations = Math.max(1, maxIterations);
+
+        // the basis, the projection of the operator on the basis and the
+        // number of Ritz vectors kept at each end of the spectrum on restart
+        final int        m     = Math.min(n, Math.max(MIN_BASIS, 4 * nExtremal));
+        final double[][] basis = new double[m][n];
+        final double[][] t     = new double[m][m];
+        final int        keep  = Math.max(nExtremal, m / 4);
+        double[][]       ritz  = null;
+
+        // deterministic random start, a uniform vector would be orthogonal to
+        // eigenvectors of many symmetric molecules
+        double[] next   = new double[n];
+        Random   random = new Random(SEED);
+        for (int i = 0; i < n; i++)
+            next[i] = random.nextDouble() - 0.5;
+        scale(next, 1 / norm(next));
+
+        double[] w          = new double[n];
+        double   anorm      = 0;
+        int      iterations = 0;
+        int      k          = 0; // number of Ritz vectors kept
+
+        while (true) {
+
+            // extend the basis, the projection of the residual on the basis
+            // is removed twice (twice is enough)
+            int     dim       = k;
+            double  beta      = 0;
+            boolean invariant = false;
+            while (dim < m && iterations < maxIterations) {
+                double[] v = basis[dim];
+                System.arraycopy(next, 0, v, 0, n);
+                operator.multiply(v, w);
+                iterations++;
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int i = 0; i <= dim; i++) {
+                        double h = dot(basis[i], w);
+                        axpy(-h, basis[i], w);
+                        t[i][dim] += h;
+                    }
+                }
+                for (int i = 0; i < dim; i++)
+                    t[dim][i] = t[i][dim];
+                beta  = norm(w);
+                anorm = Math.max(anorm, Math.abs(t[dim][dim]) + beta);
+                dim++;
+                if (beta <= EPS * Math.max(1, anorm) * dim) {
+                    invariant = true;
+                    break;
+                }
+                for (int i = 0; i < n; i++)
+                    next[i] = w[i] / beta;
+            }
+
+            // Ritz pairs of the projection
+            double[][] s     = new double[dim][dim];
+            double[]   theta = symmetricEigenvalues(t, dim, s);
+
+            // all values of the subspace, or the extremal values
+            if (dim <= 2 * nExtremal)
+                return theta;
+            int[] wanted = new int[2 * nExtremal];
+            for (int i = 0; i < nExtremal; i++) {
+                wanted[i] = i;
+                wanted[2 * nExtremal - 1 - i] = dim - 1 - i;
+            }
+
+            // residual bound of each wanted pair
+            boolean converged = true;
+            for (int i : wanted) {
+                if (beta * Math.abs(s[dim - 1][i]) > tolerance * Math.max(1, Math.abs(theta[i])))
+                    converged = false;
+            }
+
+            if (converged || invariant || dim == n || iterations >= maxIterations) {
+                double[] values = new double[wanted.length];
+                for (int i = 0; i < wanted.length; i++)
+                    values[i] = theta[wanted[i]];
+                return values;
+            }
+
+            // restart with the Ritz vectors at each end of the spectrum, the
+            // projection is then diagonal and the iteration continues from
+            // the residual
+            k = Math.min(2 * keep, dim - 1);
+            if (ritz == null)
+                ritz = new double[k][n];
+            for (int i = 0; i < k; i++) {
+                int col = i < k / 2 ? i : dim - k + i;
+                Arrays.fill(ritz[i], 0);
+                for (int j = 0; j < dim; j++)
+                    axpy(s[j][col], basis[j], ritz[i]);
+            }
+            for (double[] row : t)
+                Arrays.fill(row, 0);
+            for (int i = 0; i < k; i++) {
+                double[] tmp = basis[i];
+                basis[i] = ritz[i];
+                ritz[i]  = tmp;
+                t[i][i]  = theta[i < k / 2 ? i : dim - k + i];
+            }
+        }
+    }
+
+    /**
+     * Eigenvalues and eigenvectors of a (small) dense symmetric matrix by the
+     * cyclic Jacobi method.
+     *
+     * @param a       a symmetric matrix, only the leading <i>dim</i> &times;
+     *                <i>dim</i> entries are used (not modified)
+     * @param dim     order of the matrix
+     * @param vectors the eigenvectors as columns (filled by this method)
+     * @return the eigenvalues in ascending order
+     */
+    @TestMethod("jacobi")
+    static double[] symmetricEigenvalues(double[][] a, int dim, double[][] vectors) {
+
+        double[][] b = new double[dim][];
+        double[][] v = new double[dim][dim];
+        for (int i = 0; i < dim; i++) {
+            b[i] = Arrays.copyOf(a[i], dim);
+            v[i][i] = 1;
+        }
+
+        for (int sweep = 0; sweep < 64; sweep++) {
+            double off = 0, total = 0;
+            for (int p = 0; p < dim; p++) {
+                for (int q = 0; q < dim; q++) {
+                    total += b[p][q] * b[p][q];
+                    if (p != q)
+                        off += b[p][q] * b[p][q];
+                }
+            }
+            if (off <= EPS * EPS * total)
+                break;
+            for (int p = 0; p < dim - 1; p++) {
+                for (int q = p + 1; q < dim; q++) {
+                    if (b[p][q] == 0)
+                        continue;
+                    // rotation which annihilates the entry (p,q)
+                    double tau = (b[q][q] - b[p][p]) / (2 * b[p][q]);
+                    double tan = (tau >= 0 ? 1 : -1) / (Math.abs(tau) + Math.hypot(1, tau));
+                    double cos = 1 / Math.hypot(1, tan);
+                    double sin = tan * cos;
+                    for (int r = 0; r < dim; r++) {
+                        double brp = b[r][p], brq = b[r][q];
+                        b[r][p] = cos * brp - sin * brq;
+                        b[r][q] = sin * brp + cos * brq;
+                        double vrp = v[r][p], vrq = v[r][q];
+                        v[r][p] = cos * vrp - sin * vrq;
+                        v[r][q] = sin * vrp + cos * vrq;
+                    }
+                    for (int r = 0; r < dim; r++) {
+                        double bpr = b[p][r], bqr = b[q][r];
+                        b[p][r] = cos * bpr - sin * bqr;
+                        b[q][r] = sin * bpr + cos * bqr;
+                    }
+                }
+            }
+        }
+
+        // sort the values (and vectors) in ascending order
+        Integer[] order = new Integer[dim];
+        for (int i = 0; i < dim; i++)
+            order[i] = i;
+        final double[][] diag = b;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override public int compare(Integer i, Integer j) {
+                return Double.compare(diag[i][i], diag[j][j]);
+            }
+        });
+        double[] values = new double[dim];
+        for (int i = 0; i < dim; i++) {
+            values[i] = b[order[i]][order[i]];
+            for (int r = 0; r < dim; r++)
+                vectors[r][i] = v[r][order[i]];
+        }
+        return values;
+    }
+
+    private static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++)
+            sum += x[i] * y[i];
+        return sum;
+    }
+
+    private static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+
+    private static void scale(double[] x, double a) {
+        for (int i = 0; i < x.length; i++)
+            x[i] *= a;
+    }
+
+    /** y = y + ax */
+    private static void axpy(double a, double[] x, double[] y) {
+        for (int i = 0; i < x.length; i++)
+            y[i] += a * x[i];
+    }
+}
@@ -0,0 +1,262 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph.matrix;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.tools.manipulator.BondManipulator;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A square matrix stored in compressed sparse row (CSR) format. The dense
+ * graph matrices ({@link AdjacencyMatrix}, {@link ConnectionMatrix}) require
+ * <i>O</i>(<i>n</i><sup>2</sup>) memory, the sparse form only stores the
+ * non-zero entries - for a molecule <i>O</i>(<i>n</i> + <i>m</i>). The
+ * matrix-vector product is used by the {@link Lanczos} solver to find extremal
+ * eigenvalues without building a dense matrix.
+ *
+ * <blockquote><pre>
+ * SparseMatrix adjacency = SparseMatrix.adjacency(container);
+ * double[]     spectrum  = Lanczos.eigenvalues(adjacency, 1);
+ * double       lowest    = spectrum[0];
+ * double       highest   = spectrum[spectrum.length - 1];
+ * </pre></blockquote>
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ * @cdk.keyword sparse matrix
+ * @see Lanczos
+ */
+@TestClass("org.openscience.cdk.graph.matrix.SparseMatrixTest")
+public final class SparseMatrix implements Lanczos.Operator {
+
+    /** Order of the matrix. */
+    private final int n;
+
+    /** Offset of each row in the column indices and values. */
+    private final int[] rowPtr;
+
+    /** Column index of each entry, sorted within a row. */
+    private final int[] colIdx;
+
+    /** Value of each entry. */
+    private final double[] values;
+
+    /**
+     * Create an <i>n</i> &times; <i>n</i> sparse matrix from coordinate
+     * (triplet) entries, the entry <i>k</i> is the value at
+     * (rows[k], cols[k]). If the same position is specified more than once
+     * the last value is used - as if assigned to a dense array in order.
+     *
+     * @param n      order of the matrix
+     * @param rows   row of each entry
+     * @param cols   column of each entry
+     * @param values value of each entry
+     * @throws IllegalArgumentException the entry arrays were of different
+     *                                  lengths or a position was out of range
+     */
+    @TestMethod("duplicates,get,outOfRange")
+    public SparseMatrix(int n, int[] rows, int[] cols, double[] values) {
+
+        if (n < 0)
+            throw new IllegalArgumentException("matrix order must be non-negative");
+        if (rows.length != cols.length || rows.length != values.length)
+            throw new IllegalArgumentException("rows, cols and values must have the same length");
+
+        final int nnz = rows.length;
+
+        // counting sort of the entries by row, the order of entries is kept
+        int[] offsets = new int[n + 1];
+        for (int k = 0; k < nnz; k++) {
+            if (rows[k] < 0 || rows[k] >= n || cols[k] < 0 || cols[k] >= n)
+                throw new IllegalArgumentException("entry (" + rows[k] + "," + cols[k] + ") out of range");
+            offsets[rows[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+        int[] order = new int[nnz];
+        int[] fill  = Arrays.copyOf(offsets, n);
+        for (int k = 0; k < nnz; k++)
+            order[fill[rows[k]]++] = k;
+
+        // sort each row by column (stable) and keep the last of duplicates
+        this.n      = n;
+        this.rowPtr = new int[n + 1];
+        int[]    cs = new int[nnz];
+        double[] vs = new double[nnz];
+        int      x  = 0;
+        for (int i = 0; i < n; i++) {
+            int lo = offsets[i], hi = offsets[i + 1];
+            for (int a = lo + 1; a < hi; a++) {
+                int k = order[a], b = a;
+                while (b > lo && cols[order[b - 1]] > cols[k]) {
+                    order[b] = order[b - 1];
+                    b--;
+                }
+                order[b] = k;
+            }
+            rowPtr[i] = x;
+            for (int a = lo; a < hi; a++) {
+                int k = order[a];
+                if (x > rowPtr[i] && cs[x - 1] == cols[k]) {
+                    vs[x - 1] = values[k];
+                } else {
+                    cs[x]   = cols[k];
+                    vs[x++] = values[k];
+                }
+            }
+        }
+        rowPtr[n]   = x;
+        this.colIdx = Arrays.copyOf(cs, x);
+        this.values = Arrays.copyOf(vs, x);
+    }
+
+    /**
+     * Sparse adjacency matrix of a molecule, the entry (i,j) is 1 if the i-th
+     * and j-th atom share a bond.
+     *
+     * @param container the molecule
+     * @return sparse adjacency matrix
+     * @see AdjacencyMatrix
+     */
+    @TestMethod("adjacency")
+    public static SparseMatrix adjacency(IAtomContainer container) {
+        return fromBonds(container, false);
+    }
+
+    /**
+     * Sparse connection matrix of a molecule, the entry (i,j) is the bond
+     * order if the i-th and j-th atom share a bond.
+     *
+     * @param container the molecule
+     * @return sparse connection matrix
+     * @see ConnectionMatrix
+     */
+    @TestMethod("connection")
+    public static SparseMatrix connection(IAtomContainer container) {
+        return fromBonds(container, true);
+    }
+
+    /**
+     * Create a symmetric matrix with an entry for each bond.
+     *
+     * @param container the molecule
+     * @param order     use the bond order as the value (otherwise 1)
+     * @return sparse matrix
+     */
+    private static SparseMatrix fromBonds(IAtomContainer container, boolean order) {
+        int      n      = container.getAtomCount();
+        int      m      = container.getBondCount();
+        int[]    rows   = new int[2 * m];
+        int[]    cols   = new int[2 * m];
+        double[] values = new double[2 * m];
+
+        // index the atoms once rather than a scan of the atoms for each bond
+        Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * n);
+        for (int i = n - 1; i >= 0; i--)
+            atomIndex.put(container.getAtom(i), i);
+
+        for (int k = 0; k < m; k++) {
+            IBond   bond  = container.getBond(k);
+            Integer u     = atomIndex.get(bond.getAtom(0));
+            Integer v     = atomIndex.get(bond.getAtom(1));
+            if (u == null || v == null)
+                throw new IllegalArgumentException("bond at index " + k + " contained an atom not in the molecule");
+            double  value = order ? BondManipulator.destroyBondOrder(bond.getOrder()) : 1;
+            rows[2 * k]       = u;
+            cols[2 * k]       = v;
+            values[2 * k]     = value;
+            rows[2 * k + 1]   = v;
+            cols[2 * k + 1]   = u;
+            values[2 * k + 1] = value;
+        }
+        return new SparseMatrix(n, rows, cols, values);
+    }
+
+    /**
+     * Order of the (square) matrix.
+     *
+     * @return number of rows (and columns)
+     */
+    @TestMethod("adjacency")
+    @Override public int size() {
+        return n;
+    }
+
+    /**
+     * Number of stored entries.
+     *
+     * @return number of entries
+     */
+    @TestMethod("adjacency,duplicates")
+    public int nonZeros() {
+        return rowPtr[n];
+    }
+
+    /**
+     * Access the value at the given position.
+     *
+     * @param i row
+     * @param j column
+     * @return the value, 0 if there is no entry
+     */
+    @TestMethod("get")
+    public double get(int i, int j) {
+        int k = Arrays.binarySearch(colIdx, rowPtr[i], rowPtr[i + 1], j);
+        return k >= 0 ? values[k] : 0;
+    }
+
+    /**
+     * Compute the matrix-vector product <i>y</i> = <i>Ax</i>.
+     *
+     * @param x the vector to multiply
+     * @param y the result (overwritten)
+     */
+    @TestMethod("multiply")
+    @Override public void multiply(double[] x, double[] y) {
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int k = rowPtr[i], end = rowPtr[i + 1]; k < end; k++)
+                sum += values[k] * x[colIdx[k]];
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * Create a dense copy of the matrix.
+     *
+     * @return dense matrix
+     */
+    @TestMethod("connection")
+    public double[][] toArray() {
+        double[][] dense = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++)
+                dense[i][colIdx[k]] = values[k];
+        return dense;
+    }
+}
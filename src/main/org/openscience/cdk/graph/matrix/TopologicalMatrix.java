@@ -2,9 +2,11 @@ package org.openscience.cdk.graph.matrix;
 
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.graph.GraphUtil;
 import org.openscience.cdk.graph.PathTools;
 import org.openscience.cdk.interfaces.IAtomContainer;
-import org.openscience.cdk.graph.matrix.AdjacencyMatrix;
+
+import java.util.Arrays;
 
 /**
  * Calculator for a topological matrix representation of this AtomContainer. An
@@ -19,17 +21,39 @@ import org.openscience.cdk.graph.matrix.AdjacencyMatrix;
 @TestClass("org.openscience.cdk.graph.matrix.TopologicalMatrixTest")
 public class TopologicalMatrix implements IGraphMatrix {
 	
+	/** Distance between atoms which are not connected, as {@link PathTools#computeFloydAPSP(int[][])}. */
+	private static final int UNREACHABLE = 999999999;
+
 	/**
-	 * Returns the topological matrix for the given AtomContainer.
+	 * Returns the topological matrix for the given AtomContainer. The distances
+	 * are found with a breadth-first search from each atom, atoms which are
+	 * not connected have a distance of 999999999.
 	 *
      * @param  container The AtomContainer for which the matrix is calculated
 	 * @return           A topological matrix representating this AtomContainer
 	 */
-	@TestMethod("testTopologicalMatrix_IAtomContainer")
+	@TestMethod("testTopologicalMatrix_IAtomContainer,testTopologicalMatrix_Floyd")
 	public static int[][] getMatrix(IAtomContainer container) {
-			int[][]conMat = AdjacencyMatrix.getMatrix(container);
-			int[][]TopolDistance = PathTools.computeFloydAPSP(conMat);
-		
-	return TopolDistance;
+		int[][] graph    = GraphUtil.toAdjList(container);
+		int     n        = graph.length;
+		int[][] distance = new int[n][n];
+		int[]   queue    = new int[n];
+		for (int s = 0; s < n; s++) {
+			int[] d = distance[s];
+			Arrays.fill(d, UNREACHABLE);
+			d[s] = 0;
+			int head = 0, tail = 0;
+			queue[tail++] = s;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int w : graph[v]) {
+					if (d[w] == UNREACHABLE) {
+						d[w] = d[v] + 1;
+						queue[tail++] = w;
+					}
+				}
+			}
 		}
+		return distance;
 	}
+}
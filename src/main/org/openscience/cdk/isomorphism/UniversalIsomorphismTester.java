@@ -113,6 +113,7 @@ public class UniversalIsomorphismTester {
   final static int ID2 = 1;
   private long start;
   private long timeout=-1;
+  private int maxIteration=-1;
 
   public UniversalIsomorphismTester()
   {
@@ -478,11 +479,17 @@ public class UniversalIsomorphismTester {
 	  // reset result
 	  List<List<RMap>> rMapsList = new ArrayList<List<RMap>>();
 
-	  // build the RGraph corresponding to this problem
-	  RGraph rGraph = buildRGraph(g1, g2); 
-	  // Set time data
+	  // build the RGraph corresponding to this problem, the relationships
+	  // of the nodes are only computed for the nodes the search reaches
+	  RGraph rGraph = new RGraph();
+	  nodeConstructor(rGraph, g1, g2);
+	  rGraph.setFirstGraphSize(g1.getBondCount());
+	  rGraph.setSecondGraphSize(g2.getBondCount());
+	  rGraph.setArcs(new BondArcs(rGraph, g1, g2));
+	  // Set time data and search budget
 	  rGraph.setTimeout(timeout);
 	  rGraph.setStart(start);
+	  rGraph.setMaxIteration(maxIteration);
 	  // parse the RGraph with the given constrains and options
 	  rGraph.parse(c1, c2, findAllStructure, findAllMap);
 	  List<BitSet> solutionList = rGraph.getSolutions();
@@ -829,85 +836,112 @@ public class UniversalIsomorphismTester {
       x.getForbidden().set(i);
     }
 
-    IBond a1;
-    IBond a2;
-    IBond b1;
-    IBond b2;
-
     gr.setFirstGraphSize(ac1.getBondCount());
     gr.setSecondGraphSize(ac2.getBondCount());
 
+    BondArcs arcs = new BondArcs(gr, ac1, ac2);
     for (int i = 0; i < gr.getGraph().size(); i++) {
       RNode x = gr.getGraph().get(i);
-
-      // two nodes are neighbors if their adjacency
-      // relationship in are equivalent in G1 and G2
-      // else they are incompatible.
       for (int j = i + 1; j < gr.getGraph().size(); j++) {
         RNode y = gr.getGraph().get(j);
-
-        a1 = ac1.getBond(x.getRMap().getId1());
-        a2 = ac2.getBond(x.getRMap().getId2());
-
-        b1 = ac1.getBond(y.getRMap().getId1());
-        b2 = ac2.getBond(y.getRMap().getId2());
-
-        if (a2 instanceof IQueryBond) {
-            if (a1.equals(b1) || a2.equals(b2) ||
-                !queryAdjacencyAndOrder(a1, b1, a2, b2)) {
-                x.getForbidden().set(j);
-                y.getForbidden().set(i);
-            } else if (hasCommonAtom(a1, b1)) {
-                x.getExtension().set(j);
-                y.getExtension().set(i);
-            }
-        } else {
-            if (a1.equals(b1) || a2.equals(b2) ||
-                (!getCommonSymbol(a1, b1).equals(getCommonSymbol(a2, b2)))) {
-              x.getForbidden().set(j);
-              y.getForbidden().set(i);
-            } else if (hasCommonAtom(a1, b1)) {
-              x.getExtension().set(j);
-              y.getExtension().set(i);
-            }
+        int relation = arcs.relation(i, j);
+        if (relation == RGraph.Arcs.FORBIDDEN) {
+          x.getForbidden().set(j);
+          y.getForbidden().set(i);
+        } else if (relation == RGraph.Arcs.EXTENSION) {
+          x.getExtension().set(j);
+          y.getExtension().set(i);
         }
       }
     }
   }
 
-
   /**
-   * Determines if two bonds have at least one atom in common.
-   *
-   * @param  a  first bond
-   * @param  b  second bond
-   * @return    the symbol of the common atom or "" if
-   *            the 2 bonds have no common atom
+   * The relationships of {@link RGraph} nodes (bond associations). Two
+   * nodes are neighbors if their adjacency relationship in G1 and G2 are
+   * equivalent, else they are incompatible. The atoms of each bond and the
+   * symbols of the atoms are indexed once so that comparing two nodes does
+   * not need to search the containers.
    */
-  private static boolean hasCommonAtom(IBond a, IBond b) {
-    return a.contains(b.getAtom(0)) || a.contains(b.getAtom(1));
-  }
+  private static final class BondArcs implements RGraph.Arcs {
+
+    private final IAtomContainer ac1, ac2;
+    private final int[] bond1, bond2;           // bond of each node in G1/G2
+    private final int[][] atoms1, atoms2;       // atoms of each bond
+    private final int[] symbols1, symbols2;     // symbol id of each atom
+
+    private BondArcs(RGraph gr, IAtomContainer ac1, IAtomContainer ac2) {
+      this.ac1 = ac1;
+      this.ac2 = ac2;
+      List<RNode> nodes = gr.getGraph();
+      bond1 = new int[nodes.size()];
+      bond2 = new int[nodes.size()];
+      for (int i = 0; i < nodes.size(); i++) {
+        bond1[i] = nodes.get(i).getRMap().getId1();
+        bond2[i] = nodes.get(i).getRMap().getId2();
+      }
+      Map<String, Integer> ids = new HashMap<String, Integer>();
+      symbols1 = symbols(ac1, ids);
+      symbols2 = symbols(ac2, ids);
+      atoms1 = atoms(ac1);
+      atoms2 = atoms(ac2);
+    }
 
-  /**
-   *  Determines if 2 bond have 1 atom in common and returns the common symbol.
-   *
-   * @param  a  first bond
-   * @param  b  second bond
-   * @return    the symbol of the common atom or "" if
-   *            the 2 bonds have no common atom
-   */
-  private static String getCommonSymbol(IBond a, IBond b) {
-    String symbol = "";
+    public int relation(int i, int j) {
+      int a1 = bond1[i], b1 = bond1[j];
+      int a2 = bond2[i], b2 = bond2[j];
+      if (a1 == b1 || a2 == b2)
+        return FORBIDDEN;
+      IBond queryBond = ac2.getBond(a2);
+      if (queryBond instanceof IQueryBond) {
+        if (!queryAdjacencyAndOrder(ac1.getBond(a1), ac1.getBond(b1), queryBond, ac2.getBond(b2)))
+          return FORBIDDEN;
+      } else if (commonSymbol(atoms1[a1], atoms1[b1], symbols1)
+                 != commonSymbol(atoms2[a2], atoms2[b2], symbols2)) {
+        return FORBIDDEN;
+      }
+      return commonAtom(atoms1[a1], atoms1[b1]) >= 0 ? EXTENSION : NONE;
+    }
 
-    if (a.contains(b.getAtom(0))) {
-      symbol = b.getAtom(0).getSymbol();
-    } else if (a.contains(b.getAtom(1))) {
-      symbol = b.getAtom(1).getSymbol();
+    /**
+     * The atom of bond b which is also in bond a, -1 if none.
+     */
+    private static int commonAtom(int[] a, int[] b) {
+      if (b[0] == a[0] || b[0] == a[1])
+        return b[0];
+      if (b[1] == a[0] || b[1] == a[1])
+        return b[1];
+      return -1;
     }
 
-    return symbol;
+    private static int commonSymbol(int[] a, int[] b, int[] symbols) {
+      int atom = commonAtom(a, b);
+      return atom >= 0 ? symbols[atom] : -1;
+    }
+
+    private static int[] symbols(IAtomContainer ac, Map<String, Integer> ids) {
+      int[] symbols = new int[ac.getAtomCount()];
+      for (int i = 0; i < symbols.length; i++) {
+        String symbol = ac.getAtom(i).getSymbol();
+        Integer id = ids.get(symbol);
+        if (id == null)
+          ids.put(symbol, id = ids.size());
+        symbols[i] = id;
+      }
+      return symbols;
+    }
+
+    private static int[][] atoms(IAtomContainer ac) {
+      int[][] atoms = new int[ac.getBondCount()][];
+      for (int i = 0; i < atoms.length; i++) {
+        IBond bond = ac.getBond(i);
+        atoms[i] = new int[]{ac.getAtomNumber(bond.getAtom(0)), ac.getAtomNumber(bond.getAtom(1))};
+      }
+      return atoms;
+    }
   }
 
+
     /**
    *  Determines if 2 bond have 1 atom in common if second is a query AtomContainer.
    *
@@ -1095,6 +1129,17 @@ public class UniversalIsomorphismTester {
   public void setTimeout(long timeout) {
 	  this.timeout = timeout;
   }
+
+  /**
+   * Sets the maximum number of search iterations, the search stops
+   * extending partial solutions once reached and the best solutions found
+   * so far are reported.
+   * @param maxIteration
+   * Maximum number of iterations. -1 to ignore the maximum.
+   */
+  public void setMaxIteration(int maxIteration) {
+	  this.maxIteration = maxIteration;
+  }
   
 }
 
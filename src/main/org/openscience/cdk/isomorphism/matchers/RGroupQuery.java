@@ -55,7 +55,9 @@ import org.openscience.cdk.tools.LoggingToolFactory;
  * to the scaffold with more than one bond.
  * <P>
  * This class can also be used to produce all the valid configurations
- * for the combination of its root,definitions and conditions.
+ * for the combination of its root,definitions and conditions. To match
+ * the query against target structures use the {@link RGroupQueryMatcher},
+ * which does not need to enumerate the configurations.
  * <P>
  * This Javadoc does not contain a code sample how to create a new RGroupQuery
  * from scratch, because a sensible RGroupQuery has quite a few attributes to be set
@@ -0,0 +1,816 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.isomorphism.matchers;
+
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches an {@link RGroupQuery} against target structures without
+ * enumerating its configurations. {@link RGroupQuery#getAllConfigurations()}
+ * produces every combination of substitutes, which grows combinatorially
+ * with the number of R# atoms and substitutes. This matcher maps the root
+ * structure (without the R# atoms) once and then, for each R# atom in turn,
+ * either leaves the position empty or extends the mapping with one of the
+ * substitutes anchored at the attachment points. The occurrence, RestH and
+ * IF..THEN conditions are checked as soon as they are decided so that
+ * invalid combinations are never expanded.
+ *
+ * <blockquote><pre>
+ * RGroupQueryMatcher matcher = new RGroupQueryMatcher(rGroupQuery);
+ * for (IAtomContainer target : targets) {
+ *     if (matcher.matches(target)) {
+ *         // target is an instance of the Markush structure
+ *     }
+ * }
+ *
+ * // stream all matches of a single target
+ * matcher.match(target, new RGroupQueryMatcher.Handler() {
+ *     public boolean match(RGroupQueryMatcher.Match match) {
+ *         RGroup substitute = match.getSubstitute(0);
+ *         return true; // continue
+ *     }
+ * });
+ * </pre></blockquote>
+ *
+ * Atoms and bonds are compared as in the UniversalIsomorphismTester, query
+ * atoms and bonds use their own matches() method, other atoms must have the
+ * same symbol and other bonds the same order (or both be aromatic). A
+ * target matches if it contains one of the configurations as a substructure.
+ * In addition, when RestH is set for an R-group, an attachment atom of an
+ * empty position may not have more non-hydrogen neighbours in the target
+ * than in the configuration.
+ *
+ * @author agent
+ * @cdk.module isomorphism
+ * @cdk.githash
+ * @cdk.keyword Rgroup
+ * @cdk.keyword Markush
+ * @see RGroupQuery
+ */
+@TestClass("org.openscience.cdk.isomorphism.matchers.RGroupQueryMatcherTest")
+public final class RGroupQueryMatcher {
+
+    /**
+     * Receives the matches of a target.
+     */
+    public static interface Handler {
+
+        /**
+         * A match was found.
+         *
+         * @param match the match
+         * @return whether to continue searching
+         */
+        boolean match(Match match);
+    }
+
+    /** The root structure. */
+    private final IAtomContainer root;
+
+    /**
+     * The core (root without R# atoms) atoms in search order, the root atom
+     * mapped before each which it is bonded to (-1 if none) and the other
+     * earlier bonded atoms.
+     */
+    private final int[]     coreOrder, coreParent;
+    private final IBond[]   coreParentBond;
+    private final int[][]   coreBack;
+    private final IBond[][] coreBackBonds;
+
+    /** Number of core neighbours of each root atom. */
+    private final int[]     coreDegree;
+
+    /** The R# atoms (positions), grouped by R-group. */
+    private final List<IAtom> positions;
+
+    /** The R-group (index) of each position. */
+    private final int[] group;
+
+    /**
+     * The root atoms (by attachment order) of each position and the root
+     * bonds they are attached with.
+     */
+    private final int[][]   partners;
+    private final IBond[][] partnerBonds;
+
+    /** Positions attached to each root atom. */
+    private final int[][] attached;
+
+    /** Number of positions of the same R-group after each position. */
+    private final int[] remaining;
+
+    /** Per R-group: substitutes, valid counts, RestH and required R-group. */
+    private final RGroup[][]  substitutes;
+    private final boolean[][] validCount;
+    private final int[]       minCount, maxCount;
+    private final boolean[]   restH;
+    private final int[]       required;
+
+    /** Search patterns of each substitute. */
+    private final Map<RGroup, Pattern> patterns = new IdentityHashMap<RGroup, Pattern>();
+
+    /**
+     * Create a matcher for the R-group query.
+     *
+     * @param query an R-group query
+     * @throws CDKException the R-group definitions were incomplete, an
+     *                      occurrence could not be met or R# atoms were
+     *                      attached to each other
+     */
+    @TestMethod("invalidOccurrence,missingDefinition")
+    public RGroupQueryMatcher(RGroupQuery query) throws CDKException {
+
+        if (!query.areSubstituentsDefined())
+            throw new CDKException("Can not match: missing R# group definitions.");
+
+        this.root = query.getRootStructure();
+
+        Map<IAtom, Integer> index = new IdentityHashMap<IAtom, Integer>();
+        for (int i = 0; i < root.getAtomCount(); i++)
+            index.put(root.getAtom(i), i);
+
+        // R-groups and their positions
+        Map<Integer, RGroupList> definitions = query.getRGroupDefinitions();
+        List<Integer> numbers = new ArrayList<Integer>(definitions.keySet());
+        int nGroups = numbers.size();
+
+        this.substitutes = new RGroup[nGroups][];
+        this.validCount  = new boolean[nGroups][];
+        this.minCount    = new int[nGroups];
+        this.maxCount    = new int[nGroups];
+        this.restH       = new boolean[nGroups];
+        this.required    = new int[nGroups];
+        this.positions   = new ArrayList<IAtom>();
+
+        List<Integer> groupOf = new ArrayList<Integer>();
+        for (int g = 0; g < nGroups; g++) {
+            int r = numbers.get(g);
+            RGroupList list = definitions.get(r);
+            List<IAtom> rAtoms = query.getRgroupQueryAtoms(r);
+            List<Integer> valid = list.matchOccurence(rAtoms.size());
+            if (valid.isEmpty())
+                throw new CDKException("Occurrence '" + list.getOccurrence() + "' defined for Rgroup " + r
+                                               + " results in no subsititute options for this R-group.");
+            validCount[g] = new boolean[rAtoms.size() + 1];
+            for (int count : valid)
+                validCount[g][count] = true;
+            minCount[g] = Collections.min(valid);
+            maxCount[g] = Collections.max(valid);
+            restH[g] = list.isRestH();
+            required[g] = numbers.indexOf(list.getRequiredRGroupNumber());
+            substitutes[g] = list.getRGroups().toArray(new RGroup[list.getRGroups().size()]);
+            for (RGroup substitute : substitutes[g])
+                if (!patterns.containsKey(substitute))
+                    patterns.put(substitute, new Pattern(substitute));
+            for (IAtom rAtom : rAtoms) {
+                positions.add(rAtom);
+                groupOf.add(g);
+            }
+        }
+
+        int nPositions = positions.size();
+        boolean[] isPosition = new boolean[root.getAtomCount()];
+        for (IAtom rAtom : positions)
+            isPosition[index.get(rAtom)] = true;
+
+        this.group        = new int[nPositions];
+        this.remaining    = new int[nPositions];
+        this.partners     = new int[nPositions][];
+        this.partnerBonds = new IBond[nPositions][];
+
+        int[] nAttached = new int[root.getAtomCount()];
+        Map<IAtom, Map<Integer, IBond>> attachmentPoints = query.getRootAttachmentPoints();
+        for (int p = 0; p < nPositions; p++) {
+            IAtom rAtom = positions.get(p);
+            group[p] = groupOf.get(p);
+            for (int q = p + 1; q < nPositions; q++)
+                if (groupOf.get(q) == group[p])
+                    remaining[p]++;
+            Map<Integer, IBond> bonds = attachmentPoints != null ? attachmentPoints.get(rAtom) : null;
+            int n = bonds != null ? bonds.size() : 0;
+            partners[p] = new int[n];
+            partnerBonds[p] = new IBond[n];
+            for (int apo = 0; apo < n; apo++) {
+                IBond bond = bonds.get(apo + 1);
+                IAtom partner = bond.getConnectedAtom(rAtom);
+                int v = index.get(partner);
+                if (isPosition[v])
+                    throw new CDKException("Can not match: R# atoms are attached to each other.");
+                partners[p][apo] = v;
+                partnerBonds[p][apo] = bond;
+                nAttached[v]++;
+            }
+        }
+        this.attached = new int[root.getAtomCount()][];
+        for (int v = 0; v < attached.length; v++)
+            attached[v] = new int[nAttached[v]];
+        Arrays.fill(nAttached, 0);
+        for (int p = 0; p < nPositions; p++)
+            for (int v : partners[p])
+                attached[v][nAttached[v]++] = p;
+
+        // core adjacency, the bonds between atoms which are not R# atoms
+        int nAtoms = root.getAtomCount();
+        List<List<Integer>> adj = new ArrayList<List<Integer>>(nAtoms);
+        List<List<IBond>> adjBonds = new ArrayList<List<IBond>>(nAtoms);
+        for (int i = 0; i < nAtoms; i++) {
+            adj.add(new ArrayList<Integer>());
+            adjBonds.add(new ArrayList<IBond>());
+        }
+        for (IBond bond : root.bonds()) {
+            int u = index.get(bond.getAtom(0)), v = index.get(bond.getAtom(1));
+            if (isPosition[u] || isPosition[v])
+                continue;
+            adj.get(u).add(v);
+            adjBonds.get(u).add(bond);
+            adj.get(v).add(u);
+            adjBonds.get(v).add(bond);
+        }
+        this.coreDegree = new int[nAtoms];
+        for (int i = 0; i < nAtoms; i++)
+            coreDegree[i] = adj.get(i).size();
+
+        // breadth first order of the core, each component starts with the
+        // atom with the most neighbours
+        int nCore = nAtoms - positions.size();
+        this.coreOrder      = new int[nCore];
+        this.coreParent     = new int[nCore];
+        this.coreParentBond = new IBond[nCore];
+        this.coreBack       = new int[nCore][];
+        this.coreBackBonds  = new IBond[nCore][];
+
+        int[] position = new int[nAtoms];
+        Arrays.fill(position, -1);
+        int n = 0;
+        while (n < nCore) {
+            int start = -1;
+            for (int i = 0; i < nAtoms; i++)
+                if (!isPosition[i] && position[i] < 0 && (start < 0 || coreDegree[i] > coreDegree[start]))
+                    start = i;
+            coreParent[n] = -1;
+            coreOrder[n]  = start;
+            position[start] = n++;
+            for (int i = n - 1; i < n; i++) {
+                int u = coreOrder[i];
+                for (int j = 0; j < adj.get(u).size(); j++) {
+                    int v = adj.get(u).get(j);
+                    if (position[v] >= 0)
+                        continue;
+                    coreParent[n]     = u;
+                    coreParentBond[n] = adjBonds.get(u).get(j);
+                    coreOrder[n]      = v;
+                    position[v] = n++;
+                }
+            }
+        }
+        for (int i = 0; i < nCore; i++) {
+            int u = coreOrder[i];
+            List<Integer> back = new ArrayList<Integer>();
+            List<IBond> backBonds = new ArrayList<IBond>();
+            for (int j = 0; j < adj.get(u).size(); j++) {
+                int v = adj.get(u).get(j);
+                if (position[v] < i && v != coreParent[i]) {
+                    back.add(v);
+                    backBonds.add(adjBonds.get(u).get(j));
+                }
+            }
+            coreBack[i] = toIntArray(back);
+            coreBackBonds[i] = backBonds.toArray(new IBond[backBonds.size()]);
+        }
+    }
+
+    /**
+     * The R# atoms of the query in the order the positions of a {@link
+     * Match} are indexed.
+     *
+     * @return the R# atoms
+     */
+    @TestMethod("match")
+    public List<IAtom> getPositions() {
+        return Collections.unmodifiableList(positions);
+    }
+
+    /**
+     * Does the target contain the R-group query. The search stops at the
+     * first match.
+     *
+     * @param target the target structure
+     * @return the target matched
+     * @throws CDKException the target was a query container
+     */
+    @TestMethod("matches,matchesRestH,matchesIfThen")
+    public boolean matches(IAtomContainer target) throws CDKException {
+        final boolean[] found = new boolean[1];
+        match(target, new Handler() {
+            @Override public boolean match(Match match) {
+                found[0] = true;
+                return false;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Find the matches of the R-group query in the target. Each match is
+     * passed to the handler as soon as it is found, the search stops when
+     * the handler returns false.
+     *
+     * @param target  the target structure
+     * @param handler receives the matches
+     * @throws CDKException the target was a query container
+     */
+    @TestMethod("match")
+    public void match(IAtomContainer target, Handler handler) throws CDKException {
+        if (target instanceof IQueryAtomContainer)
+            throw new CDKException("The target must not be an IQueryAtomContainer");
+        State state = new State(target, handler);
+        if (target.getAtomCount() >= coreOrder.length)
+            matchCore(state, 0);
+    }
+
+    private void matchCore(State s, int i) {
+
+        if (i == coreOrder.length) {
+            matchPosition(s, 0);
+            return;
+        }
+
+        int u      = coreOrder[i];
+        int parent = coreParent[i];
+
+        if (parent >= 0) {
+            int tp = s.core[parent];
+            for (int j = 0; j < s.graph[tp].length && !s.stop; j++) {
+                int t = s.graph[tp][j];
+                if (!s.used[t] && bondMatches(coreParentBond[i], s.bonds[tp][j]) && feasibleCore(s, i, u, t)) {
+                    s.assignCore(u, t);
+                    matchCore(s, i + 1);
+                    s.unassignCore(u, t);
+                }
+            }
+        } else {
+            for (int t = 0; t < s.graph.length && !s.stop; t++) {
+                if (!s.used[t] && feasibleCore(s, i, u, t)) {
+                    s.assignCore(u, t);
+                    matchCore(s, i + 1);
+                    s.unassignCore(u, t);
+                }
+            }
+        }
+    }
+
+    private boolean feasibleCore(State s, int i, int u, int t) {
+        if (!atomMatches(root.getAtom(u), s.target.getAtom(t)))
+            return false;
+        for (int j = 0; j < coreBack[i].length; j++) {
+            IBond bond = s.bond(s.core[coreBack[i][j]], t);
+            if (bond == null || !bondMatches(coreBackBonds[i][j], bond))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decide position p, it is either left empty or filled with one of the
+     * substitutes of its R-group.
+     */
+    private void matchPosition(State s, int p) {
+
+        if (p == positions.size()) {
+            if (complete(s) && !s.handler.match(s.toMatch()))
+                s.stop = true;
+            return;
+        }
+
+        int g     = group[p];
+        int count = s.count[g];
+        boolean last = remaining[p] == 0;
+
+        // empty, enough positions must remain to reach the minimum occurrence
+        if (count + remaining[p] >= minCount[g] && (!last || validCount[g][count])) {
+            if (!restH[g] || restHSatisfied(s, p, p))
+                matchPosition(s, p + 1);
+        }
+
+        // substituted, the maximum occurrence must not be exceeded
+        if (!s.stop && count + 1 <= maxCount[g] && (!last || validCount[g][count + 1])) {
+            s.count[g]++;
+            for (RGroup substitute : substitutes[g]) {
+                if (s.stop)
+                    break;
+                Pattern pattern = patterns.get(substitute);
+                s.substitutes[p] = substitute;
+                s.mappings[p] = new int[pattern.size()];
+                Arrays.fill(s.mappings[p], -1);
+                matchSubstitute(s, p, pattern, 0);
+            }
+            s.substitutes[p] = null;
+            s.mappings[p] = null;
+            s.count[g]--;
+        }
+    }
+
+    /**
+     * Extend the mapping with the i'th atom (in search order) of the
+     * substitute at position p.
+     */
+    private void matchSubstitute(State s, int p, Pattern pattern, int i) {
+
+        if (i == pattern.size()) {
+            matchPosition(s, p + 1);
+            return;
+        }
+
+        int[] mapping = s.mappings[p];
+        int   u       = pattern.order[i];
+        int   parent  = pattern.parent[i];
+        int   anchor  = pattern.anchor(u, partners[p].length);
+
+        if (parent >= 0 || anchor >= 0) {
+            int tp = parent >= 0 ? mapping[parent] : s.core[partners[p][anchor]];
+            for (int j = 0; j < s.graph[tp].length && !s.stop; j++) {
+                int t = s.graph[tp][j];
+                if (!s.used[t] && feasibleSubstitute(s, p, pattern, i, u, t)) {
+                    mapping[u] = t;
+                    s.used[t] = true;
+                    matchSubstitute(s, p, pattern, i + 1);
+                    s.used[t] = false;
+                    mapping[u] = -1;
+                }
+            }
+        } else {
+            for (int t = 0; t < s.graph.length && !s.stop; t++) {
+                if (!s.used[t] && feasibleSubstitute(s, p, pattern, i, u, t)) {
+                    mapping[u] = t;
+                    s.used[t] = true;
+                    matchSubstitute(s, p, pattern, i + 1);
+                    s.used[t] = false;
+                    mapping[u] = -1;
+                }
+            }
+        }
+    }
+
+    private boolean feasibleSubstitute(State s, int p, Pattern pattern, int i, int u, int t) {
+        if (!atomMatches(pattern.atoms[u], s.target.getAtom(t)))
+            return false;
+        int[] mapping = s.mappings[p];
+        if (pattern.parent[i] >= 0) {
+            IBond bond = s.bond(mapping[pattern.parent[i]], t);
+            if (bond == null || !bondMatches(pattern.parentBond[i], bond))
+                return false;
+        }
+        for (int j = 0; j < pattern.back[i].length; j++) {
+            IBond bond = s.bond(mapping[pattern.back[i][j]], t);
+            if (bond == null || !bondMatches(pattern.backBonds[i][j], bond))
+                return false;
+        }
+        // the attachment bonds to the root
+        for (int apo = 0; apo < partners[p].length; apo++) {
+            if (pattern.attachment[Math.min(apo, 1)] != u)
+                continue;
+            IBond bond = s.bond(s.core[partners[p][apo]], t);
+            if (bond == null || !bondMatches(partnerBonds[p][apo], bond))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check the RestH condition of the root atoms position p is attached to,
+     * positions after 'decided' may still be substituted.
+     */
+    private boolean restHSatisfied(State s, int p, int decided) {
+        for (int v : partners[p]) {
+            int degree = coreDegree[v];
+            for (int q : attached[v])
+                if (q > decided || s.substitutes[q] != null)
+                    degree++;
+            if (s.heavyDegree[s.core[v]] > degree)
+                return false;
+        }
+        return true;
+    }
+
+    /** Check the RestH and IF..THEN conditions of a complete assignment. */
+    private boolean complete(State s) {
+        for (int p = 0; p < positions.size(); p++) {
+            if (s.substitutes[p] == null && restH[group[p]] && !restHSatisfied(s, p, positions.size()))
+                return false;
+        }
+        for (int g = 0; g < required.length; g++) {
+            if (s.count[g] > 0 && required[g] >= 0 && s.count[required[g]] == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean atomMatches(IAtom query, IAtom atom) {
+        if (query instanceof IQueryAtom)
+            return ((IQueryAtom) query).matches(atom);
+        return query.getSymbol() != null && query.getSymbol().equals(atom.getSymbol());
+    }
+
+    private static boolean bondMatches(IBond query, IBond bond) {
+        if (query instanceof IQueryBond)
+            return ((IQueryBond) query).matches(bond);
+        boolean aromatic = bond.getFlag(CDKConstants.ISAROMATIC);
+        return (query.getOrder() == bond.getOrder() && query.getFlag(CDKConstants.ISAROMATIC) == aromatic)
+                || (aromatic && query.getFlag(CDKConstants.ISAROMATIC));
+    }
+
+    private static int[] toIntArray(List<Integer> values) {
+        int[] xs = new int[values.size()];
+        for (int i = 0; i < xs.length; i++)
+            xs[i] = values.get(i);
+        return xs;
+    }
+
+    /**
+     * A match of the query, the root atoms are mapped to target atoms and
+     * each position is either empty or substituted.
+     */
+    public static final class Match {
+
+        private final int[]    core;
+        private final RGroup[] substitutes;
+        private final int[][]  mappings;
+
+        private Match(int[] core, RGroup[] substitutes, int[][] mappings) {
+            this.core        = core;
+            this.substitutes = substitutes;
+            this.mappings    = mappings;
+        }
+
+        /**
+         * The target atom index of each root atom, R# atoms are -1.
+         *
+         * @return the root atom mapping
+         */
+        @TestMethod("match")
+        public int[] getRootMapping() {
+            return core.clone();
+        }
+
+        /**
+         * The substitute at a position, null if the position is empty.
+         *
+         * @param position the position index
+         * @return the substitute
+         * @see RGroupQueryMatcher#getPositions()
+         */
+        @TestMethod("match")
+        public RGroup getSubstitute(int position) {
+            return substitutes[position];
+        }
+
+        /**
+         * The target atom index of each atom of the substitute at a
+         * position, null if the position is empty.
+         *
+         * @param position the position index
+         * @return the substitute atom mapping
+         */
+        @TestMethod("match")
+        public int[] getSubstituteMapping(int position) {
+            return mappings[position] != null ? mappings[position].clone() : null;
+        }
+    }
+
+    /** The search state for a single target. */
+    private final class State {
+
+        private final IAtomContainer target;
+        private final Handler        handler;
+
+        /** Adjacency list, bonds and number of non-hydrogen neighbours. */
+        private final int[][]   graph;
+        private final IBond[][] bonds;
+        private final int[]     heavyDegree;
+
+        /** Mapped root atoms, used target atoms and R-group counts. */
+        private final int[]     core;
+        private final boolean[] used;
+        private final int[]     count;
+
+        /** The substitute and its atom mapping at each position. */
+        private final RGroup[] substitutes;
+        private final int[][]  mappings;
+
+        private boolean stop;
+
+        private State(IAtomContainer target, Handler handler) {
+            this.target  = target;
+            this.handler = handler;
+
+            int n = target.getAtomCount();
+            Map<IAtom, Integer> index = new IdentityHashMap<IAtom, Integer>(2 * n);
+            for (int i = 0; i < n; i++)
+                index.put(target.getAtom(i), i);
+
+            int[] degree = new int[n];
+            this.graph = new int[n][4];
+            this.bonds = new IBond[n][4];
+            for (IBond bond : target.bonds()) {
+                int u = index.get(bond.getAtom(0)), v = index.get(bond.getAtom(1));
+                add(u, v, bond, degree);
+                add(v, u, bond, degree);
+            }
+            this.heavyDegree = new int[n];
+            for (int u = 0; u < n; u++) {
+                graph[u] = Arrays.copyOf(graph[u], degree[u]);
+                bonds[u] = Arrays.copyOf(bonds[u], degree[u]);
+                for (int v : graph[u])
+                    if (!"H".equals(target.getAtom(v).getSymbol()))
+                        heavyDegree[u]++;
+            }
+
+            this.core = new int[root.getAtomCount()];
+            Arrays.fill(core, -1);
+            this.used        = new boolean[n];
+            this.count       = new int[minCount.length];
+            this.substitutes = new RGroup[positions.size()];
+            this.mappings    = new int[positions.size()][];
+        }
+
+        private void add(int u, int v, IBond bond, int[] degree) {
+            if (degree[u] == graph[u].length) {
+                graph[u] = Arrays.copyOf(graph[u], 2 * degree[u]);
+                bonds[u] = Arrays.copyOf(bonds[u], 2 * degree[u]);
+            }
+            graph[u][degree[u]] = v;
+            bonds[u][degree[u]++] = bond;
+        }
+
+        /** The bond between two target atoms, null if not bonded. */
+        private IBond bond(int u, int v) {
+            for (int j = 0; j < graph[u].length; j++)
+                if (graph[u][j] == v)
+                    return bonds[u][j];
+            return null;
+        }
+
+        private void assignCore(int u, int t) {
+            core[u] = t;
+            used[t] = true;
+        }
+
+        private void unassignCore(int u, int t) {
+            core[u] = -1;
+            used[t] = false;
+        }
+
+        private Match toMatch() {
+            int[][] copies = new int[mappings.length][];
+            for (int p = 0; p < mappings.length; p++)
+                copies[p] = mappings[p] != null ? mappings[p].clone() : null;
+            return new Match(core.clone(), substitutes.clone(), copies);
+        }
+    }
+
+    /**
+     * The search order of a substitute. The substitute is searched from its
+     * first attachment point outwards, each atom is mapped next to an atom
+     * mapped before it (its parent) where possible.
+     */
+    private static final class Pattern {
+
+        private final IAtom[]   atoms;
+        private final int[]     order, parent;
+        private final IBond[]   parentBond;
+        private final int[][]   back;
+        private final IBond[][] backBonds;
+
+        /**
+         * Atom indices of the first and second attachment point (or -1), the
+         * second is used for all but the first attachment bond.
+         */
+        private final int[]     attachment = new int[]{-1, -1};
+
+        private Pattern(RGroup substitute) {
+
+            IAtomContainer container = substitute.getGroup();
+            int n = container.getAtomCount();
+
+            Map<IAtom, Integer> index = new IdentityHashMap<IAtom, Integer>();
+            this.atoms = new IAtom[n];
+            for (int i = 0; i < n; i++) {
+                atoms[i] = container.getAtom(i);
+                index.put(atoms[i], i);
+            }
+            if (substitute.getFirstAttachmentPoint() != null)
+                attachment[0] = index.get(substitute.getFirstAttachmentPoint());
+            if (substitute.getSecondAttachmentPoint() != null)
+                attachment[1] = index.get(substitute.getSecondAttachmentPoint());
+
+            List<List<Integer>> adj = new ArrayList<List<Integer>>(n);
+            List<List<IBond>> adjBonds = new ArrayList<List<IBond>>(n);
+            for (int i = 0; i < n; i++) {
+                adj.add(new ArrayList<Integer>());
+                adjBonds.add(new ArrayList<IBond>());
+            }
+            for (IBond bond : container.bonds()) {
+                int u = index.get(bond.getAtom(0)), v = index.get(bond.getAtom(1));
+                adj.get(u).add(v);
+                adjBonds.get(u).add(bond);
+                adj.get(v).add(u);
+                adjBonds.get(v).add(bond);
+            }
+
+            this.order      = new int[n];
+            this.parent     = new int[n];
+            this.parentBond = new IBond[n];
+            this.back       = new int[n][];
+            this.backBonds  = new IBond[n][];
+
+            int[] position = new int[n];
+            Arrays.fill(position, -1);
+            int m = 0;
+            while (m < n) {
+                int start = -1;
+                if (attachment[0] >= 0 && position[attachment[0]] < 0)
+                    start = attachment[0];
+                else if (attachment[1] >= 0 && position[attachment[1]] < 0)
+                    start = attachment[1];
+                else
+                    for (int i = 0; i < n && start < 0; i++)
+                        if (position[i] < 0)
+                            start = i;
+                parent[m] = -1;
+                order[m]  = start;
+                position[start] = m++;
+                for (int i = m - 1; i < m; i++) {
+                    int u = order[i];
+                    for (int j = 0; j < adj.get(u).size(); j++) {
+                        int v = adj.get(u).get(j);
+                        if (position[v] >= 0)
+                            continue;
+                        parent[m]     = u;
+                        parentBond[m] = adjBonds.get(u).get(j);
+                        order[m]      = v;
+                        position[v] = m++;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                int u = order[i];
+                List<Integer> earlier = new ArrayList<Integer>();
+                List<IBond> earlierBonds = new ArrayList<IBond>();
+                for (int j = 0; j < adj.get(u).size(); j++) {
+                    int v = adj.get(u).get(j);
+                    if (position[v] < i && v != parent[i]) {
+                        earlier.add(v);
+                        earlierBonds.add(adjBonds.get(u).get(j));
+                    }
+                }
+                back[i] = toIntArray(earlier);
+                backBonds[i] = earlierBonds.toArray(new IBond[earlierBonds.size()]);
+            }
+        }
+
+        private int size() {
+            return atoms.length;
+        }
+
+        /**
+         * The first attachment bond of atom u if it is attached to the root,
+         * otherwise -1.
+         */
+        private int anchor(int u, int nPartners) {
+            for (int apo = 0; apo < nPartners; apo++)
+                if (attachment[Math.min(apo, 1)] == u)
+                    return apo;
+            return -1;
+        }
+    }
+}
@@ -28,6 +28,7 @@
 package org.openscience.cdk.isomorphism.mcss;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
@@ -78,12 +79,13 @@ import java.util.List;
   *  both model is performed by the RTools class. In this way the RGraph 
   *  class may be reused in other graph context (conceptual graphs,....)
   *
-  *  <p><b>Important note</b>: This implementation of the algorithm has not been
-  *                      optimized for speed at this stage. It has been
-  *                      written with the goal to clearly retrace the 
-  *                      principle of the underlined search method. There is
-  *                      room for optimization in many ways including the
-  *                      the algorithm itself. 
+  *  <p>The search works on fixed width <code>long[]</code> bit sets, one
+  *  frame per search depth is allocated once and updated in place. The
+  *  relationships of a node (extension and forbidden sets) may be
+  *  computed on demand ({@link #setArcs(Arcs)}) when the node is first
+  *  reached by the search, rather than for all pairs of nodes up front.
+  *  The search may be limited by a number of iterations ({@link
+  *  #setMaxIteration(int)}) or a time out ({@link #setTimeout(long)}).
   *
   *  <p>This algorithm derives from the algorithm described in
   *  {@cdk.cite HAN90} and modified in the thesis of T. Hanser {@cdk.cite HAN93}.
@@ -96,11 +98,37 @@ import java.util.List;
   */
 public class RGraph
 {
+    /**
+     * Computes the relationship of two RGraph nodes on demand. When set, the
+     * extension and forbidden sets of the {@link RNode}s are not used.
+     */
+    public static interface Arcs
+    {
+        /** The nodes are not related. */
+        int NONE      = 0;
+        /** The nodes are neighbors (their associations are adjacent). */
+        int EXTENSION = 1;
+        /** The nodes are incompatible. */
+        int FORBIDDEN = 2;
+
+        /**
+         * The relationship of two different nodes, i &lt; j.
+         *
+         * @param  i  index of the first node
+         * @param  j  index of the second node
+         * @return    {@link #NONE}, {@link #EXTENSION} or {@link #FORBIDDEN}
+         */
+        int relation(int i, int j);
+    }
+
     // an RGraph is a list of RGraph nodes
     // each node keeping track of its
     // neighbors.
     List<RNode> graph = null;
 
+    // relationships computed on demand (optional)
+    Arcs arcs = null;
+
     // maximal number of iterations before
     // search break
     int maxIteration = -1;
@@ -110,8 +138,8 @@ public class RGraph
     int secondGraphSize = 0;
 
     // constrains 
-    BitSet c1 = null;
-    BitSet c2 = null;
+    long[] c1 = null;
+    long[] c2 = null;
     
     // current solution list
     List<BitSet> solutionList = null;
@@ -125,10 +153,23 @@ public class RGraph
     // working variables
     boolean stop = false;
     int nbIteration = 0;
-    BitSet graphBitSet = null;
     
     private long timeout = -1;
     private long start;
+
+    // search state: number of words of the node, G1 and G2 sets, the
+    // mapped ids of each node and the (lazily built) relations of each node
+    private int       words, words1, words2;
+    private int[]     id1, id2;
+    private Projection projection1, projection2;
+    private long[][]  extensions, forbiddens;
+    private long[]    all, potential, potential1, potential2;
+
+    // one frame per depth: traversed, extension and forbidden nodes
+    private long[][]  traversed, extension, forbidden;
+
+    // solutions and their projections on G1 and G2
+    private List<long[][]> solutions = null;
     
     /**
      * Constructor for the RGraph object and creates an empty RGraph.
@@ -137,7 +178,7 @@ public class RGraph
     {
         graph = new ArrayList<RNode>();
         solutionList = new ArrayList<BitSet>();
-        graphBitSet = new BitSet();
+        solutions = new ArrayList<long[][]>();
     }
 
     /**
@@ -187,7 +228,7 @@ public class RGraph
     public void clear()
     {
         graph.clear();
-        graphBitSet.clear();
+        arcs = null;
     }
 
     /**
@@ -206,7 +247,18 @@ public class RGraph
     public void addNode(RNode newNode)
     {
         graph.add(newNode);
-        graphBitSet.set(graph.size() - 1);
+    }
+
+    /**
+     *  Compute the relationships between the nodes on demand, the nodes
+     *  must have been added. The relationships are only computed for
+     *  the nodes the search reaches.
+     *
+     * @param  arcs  computes the relationship of two nodes
+     */
+    public void setArcs(Arcs arcs)
+    {
+        this.arcs = arcs;
     }
 
     /**
@@ -227,36 +279,88 @@ public class RGraph
     {
         // initialize the list of solution
         solutionList.clear();
-        
-        // builds the set of starting nodes
-        // according to the constrains
-        BitSet b = buildB(c1, c2);
-        
+        solutions.clear();
+        stop = false;
+        nbIteration = 0;
+
         // setup options
         setAllStructure(findAllStructure);
         setAllMap(findAllMap);
-        
+
+        prepare(c1, c2);
+
+        // builds the set of starting nodes
+        // according to the constrains
+        buildB(c1, c2, extension[0]);
+
         // parse recursively the RGraph
-        parseRec(new BitSet(b.size()), b, new BitSet(b.size()));
+        parseRec(0);
+
+        for (long[][] solution : solutions)
+            solutionList.add(toBitSet(solution[0]));
     }
-    
+
+    /**
+     * Allocate the search state for the current nodes and constraints.
+     */
+    private void prepare(BitSet c1, BitSet c2)
+    {
+        int n = graph.size();
+        int size1 = Math.max(firstGraphSize, c1.length());
+        int size2 = Math.max(secondGraphSize, c2.length());
+        id1 = new int[n];
+        id2 = new int[n];
+        for (int i = 0; i < n; i++) {
+            RMap rMap = graph.get(i).rMap;
+            id1[i] = rMap.id1;
+            id2[i] = rMap.id2;
+            size1 = Math.max(size1, rMap.id1 + 1);
+            size2 = Math.max(size2, rMap.id2 + 1);
+        }
+        words  = wordsFor(n);
+        words1 = wordsFor(size1);
+        words2 = wordsFor(size2);
+
+        projection1 = new Projection(id1, size1, words);
+        projection2 = new Projection(id2, size2, words);
+
+        this.c1 = toWords(c1, words1);
+        this.c2 = toWords(c2, words2);
+
+        all = new long[words];
+        for (int i = 0; i < n; i++)
+            all[i >> 6] |= 1L << i;
+        potential  = new long[words];
+        potential1 = new long[words1];
+        potential2 = new long[words2];
+
+        extensions = new long[n][];
+        forbiddens = new long[n][];
+
+        // a solution usually has at most one node per element of G1, more
+        // frames are allocated if needed
+        int depth = Math.min(n, size1) + 2;
+        traversed = new long[depth][words];
+        extension = new long[depth][words];
+        forbidden = new long[depth][words];
+    }
+
     /**
      *  Parsing of the RGraph. This is the recursive method
      *  to perform a query. The method will recursively
      *  parse the RGraph thru connected nodes and visiting the
-     *  RGraph using allowed adjacency relationship.
+     *  RGraph using allowed adjacency relationship. The state of
+     *  each depth (node already parsed, possible extension nodes and
+     *  forbidden nodes) is kept in a frame which is updated in place.
      *
-     * @param  traversed  node already parsed
-     * @param  extension  possible extension node (allowed neighbors)
-     * @param  forbiden   node forbidden (set of node incompatible with the current solution)
+     * @param  depth  the current depth
      */
-    private void parseRec(BitSet traversed, BitSet extension, BitSet forbidden)
+    private void parseRec(int depth)
     {
-        BitSet newTraversed = null;
-        BitSet newExtension = null;
-        BitSet newForbidden = null;
-        BitSet potentialNode = null;
-        
+        long[] traversed = this.traversed[depth];
+        long[] extension = this.extension[depth];
+        long[] forbidden = this.forbidden[depth];
+
         // Test whether the timeout is reached. Stop searching.
         if(this.timeout > -1 && (System.currentTimeMillis() - this.start) > this.timeout) {
         	stop = true;
@@ -264,69 +368,110 @@ public class RGraph
 
         // if there is no more extension possible we
         // have reached a potential new solution
-        if(extension.isEmpty())
+        if(isEmpty(extension))
         {
             solution(traversed);
+            return;
         }
-        // carry on with each possible extension
-        else
+
+        // calculates the set of nodes that may still
+        // be reached at this stage (not forbidden)
+        for (int w = 0; w < words; w++)
+            potential[w] = (all[w] & ~forbidden[w]) | traversed[w];
+
+        // checks if we must continue the search
+        // according to the potential node set
+        if(!mustContinue(potential))
+            return;
+
+        // carry on research and update iteration count
+        nbIteration++;
+
+        if (depth + 1 == this.traversed.length)
+            grow();
+
+        boolean first = isEmpty(traversed);
+        long[] newTraversed = this.traversed[depth + 1];
+        long[] newExtension = this.extension[depth + 1];
+        long[] newForbidden = this.forbidden[depth + 1];
+
+        // for each node in the set of possible extension (neighbors of
+        // the current partial solution, include the node to the solution
+        // and parse recursively the RGraph with the new context.
+        for(int x = nextSetBit(extension, 0); x >= 0 && !stop; x = nextSetBit(extension, x + 1))
         {
-            // calculates the set of nodes that may still
-            // be reached at this stage (not forbidden)
-            potentialNode = ((BitSet) graphBitSet.clone());
-            potentialNode.andNot(forbidden);
-            potentialNode.or(traversed);
-
-            // checks if we must continue the search
-            // according to the potential node set
-            if(mustContinue(potentialNode))
-            {
-                // carry on research and update iteration count
-                nbIteration++;
+            buildRelations(x);
+            long[] xForbidden = forbiddens[x];
+            long[] xExtension = extensions[x];
+
+            for (int w = 0; w < words; w++) {
+                // the nodes not compatible with the newly accepted node
+                // are forbidden
+                newForbidden[w] = forbidden[w] | xForbidden[w];
+                // the first node initializes the extension, further nodes
+                // include their neighbors, extension may not contain forbidden nodes
+                newExtension[w] = ((first ? 0 : extension[w]) | xExtension[w]) & ~newForbidden[w];
+                newTraversed[w] = traversed[w];
+            }
 
-                // for each node in the set of possible extension (neighbors of 
-                // the current partial solution, include the node to the solution
-                // and parse recursively the RGraph with the new context.
-                for(int x = extension.nextSetBit(0); x >= 0 && !stop; x = extension.nextSetBit(x + 1))
-                {
-                    // evaluates the new set of forbidden nodes
-                    // by including the nodes not compatible with the
-                    // newly accepted node.
-                    newForbidden = (BitSet) forbidden.clone();
-                    newForbidden.or(((RNode) graph.get(x)).forbidden);
-
-                    // if it is the first time we are here then
-                    // traversed is empty and we initialize the set of
-                    // possible extensions to the extension of the first
-                    // accepted node in the solution.
-                    if(traversed.isEmpty())
-                    {
-                        newExtension = (BitSet) (((RNode) graph.get(x)).extension.clone());
-                    }
-                    // else we simply update the set of solution by
-                    // including the neighbors of the newly accepted node
-                    else
-                    {
-                        newExtension = (BitSet) extension.clone();
-                        newExtension.or(((RNode) graph.get(x)).extension);
-                    }
-                    
-                    // extension my not contain forbidden nodes
-                    newExtension.andNot(newForbidden);
-                    
-                    // create the new set of traversed node
-                    // (update current partial solution)
-                    // and add x to the set of forbidden node
-                    // (a node may only appear once in a solution)
-                    newTraversed = (BitSet) traversed.clone();
-                    newTraversed.set(x);
-                    forbidden.set(x);
-                    
-                    // parse recursively the RGraph
-                    parseRec(newTraversed, newExtension, newForbidden);
-                }
+            // update current partial solution and add x to the set
+            // of forbidden node (a node may only appear once in a solution)
+            newTraversed[x >> 6] |= 1L << x;
+            forbidden[x >> 6] |= 1L << x;
+
+            // parse recursively the RGraph
+            parseRec(depth + 1);
+        }
+    }
+
+    /**
+     * Allocate more frames, only needed when nodes of the same element of
+     * G1 are not incompatible.
+     */
+    private void grow()
+    {
+        int depth = traversed.length;
+        traversed = Arrays.copyOf(traversed, 2 * depth);
+        extension = Arrays.copyOf(extension, 2 * depth);
+        forbidden = Arrays.copyOf(forbidden, 2 * depth);
+        for (int d = depth; d < 2 * depth; d++) {
+            traversed[d] = new long[words];
+            extension[d] = new long[words];
+            forbidden[d] = new long[words];
+        }
+    }
+
+    /**
+     * Build the extension and forbidden sets of a node, if not already
+     * built.
+     *
+     * @param  x  the node
+     */
+    private void buildRelations(int x)
+    {
+        if (extensions[x] != null)
+            return;
+        long[] ext  = new long[words];
+        long[] forb = new long[words];
+        if (arcs != null) {
+            // each node is incompatible with himself
+            forb[x >> 6] |= 1L << x;
+            for (int y = 0; y < graph.size(); y++) {
+                if (y == x)
+                    continue;
+                int relation = x < y ? arcs.relation(x, y) : arcs.relation(y, x);
+                if (relation == Arcs.EXTENSION)
+                    ext[y >> 6] |= 1L << y;
+                else if (relation == Arcs.FORBIDDEN)
+                    forb[y >> 6] |= 1L << y;
             }
+        } else {
+            RNode node = graph.get(x);
+            copy(node.extension, ext);
+            copy(node.forbidden, forb);
         }
+        extensions[x] = ext;
+        forbiddens[x] = forb;
     }
 
     /**
@@ -337,11 +482,11 @@ public class RGraph
      *
      * @param  traversed  new potential solution
      */
-    private void solution(BitSet traversed)
+    private void solution(long[] traversed)
     {
         boolean included = false;
-        BitSet projG1 = projectG1(traversed);
-        BitSet projG2 = projectG2(traversed);
+        long[] projG1 = projection1.project(traversed, new long[words1]);
+        long[] projG2 = projection2.project(traversed, new long[words2]);
 
         // the solution must follows the search constrains
         // (must contain the mandatory elements in G1 an G2)
@@ -351,24 +496,24 @@ public class RGraph
             // at the RGraph level. So we check against all previous solution
             // On the other hand if a previous solution is included in the
             // new one, the previous solution is removed.
-            for(Iterator<BitSet> i = solutionList.listIterator(); i.hasNext() && !included; )
+            for(Iterator<long[][]> i = solutions.iterator(); i.hasNext() && !included; )
             {
-                BitSet sol = i.next();
+                long[][] sol = i.next();
 
-                if(!sol.equals(traversed))
+                if(!Arrays.equals(sol[0], traversed))
                 {
                     // if we asked to save all 'mappings' then keep this mapping
-                    if(findAllMap && (projG1.equals(projectG1(sol)) || projG2.equals(projectG2(sol))))
+                    if(findAllMap && (Arrays.equals(projG1, sol[1]) || Arrays.equals(projG2, sol[2])))
                     {
                         // do nothing
                     }
                     // if the new solution is included mark it as included
-                    else if(isContainedIn(projG1, projectG1(sol)) || isContainedIn(projG2, projectG2(sol)))
+                    else if(isContainedIn(projG1, sol[1]) || isContainedIn(projG2, sol[2]))
                     {
                         included = true;
                     }
                     // if the previous solution is contained in the new one, remove the previous solution
-                    else if(isContainedIn(projectG1(sol), projG1) || isContainedIn(projectG2(sol), projG2))
+                    else if(isContainedIn(sol[1], projG1) || isContainedIn(sol[2], projG2))
                     {
                         i.remove();
                     }
@@ -384,7 +529,7 @@ public class RGraph
             {
                 // if it is really a new solution add it to the 
                 // list of current solution
-                solutionList.add(traversed);
+                solutions.add(new long[][]{traversed.clone(), projG1, projG2});
             }
 
             if(!findAllStructure)
@@ -402,20 +547,18 @@ public class RGraph
      * @param       potentialNode  set of remaining potential nodes
      * @return      true if it is worse to continue the search         
      */
-    private boolean mustContinue(BitSet potentialNode)
+    private boolean mustContinue(long[] potentialNode)
     {
-        boolean result = true;
-        boolean cancel = false;
-        BitSet projG1 = projectG1(potentialNode);
-        BitSet projG2 = projectG2(potentialNode);
-
         // if we reached the maximum number of
         // search iterations than do not continue
         if(maxIteration != -1 && nbIteration >= maxIteration)
         {
             return false;
         }
-        
+
+        long[] projG1 = projection1.project(potentialNode, potential1);
+        long[] projG2 = projection2.project(potentialNode, potential2);
+
         // if constrains may no more be fulfilled then stop.
         if(!isContainedIn(c1, projG1) || !isContainedIn(c2, projG2))
         {
@@ -424,24 +567,21 @@ public class RGraph
         
         // check if the solution potential is not included in an already
         // existing solution
-        for(Iterator<BitSet> i = solutionList.iterator(); i.hasNext() && !cancel; )
+        for(long[][] sol : solutions)
         {
-            BitSet sol = i.next();
-
             // if we want every 'mappings' do not stop
-            if(findAllMap && (projG1.equals(projectG1(sol)) || projG2.equals(projectG2(sol))))
+            if(findAllMap && (Arrays.equals(projG1, sol[1]) || Arrays.equals(projG2, sol[2])))
             {
                 // do nothing
             }
             // if it is not possible to do better than an already existing solution than stop.
-            else if(isContainedIn(projG1, projectG1(sol)) || isContainedIn(projG2, projectG2(sol)))
+            else if(isContainedIn(projG1, sol[1]) || isContainedIn(projG2, sol[2]))
             {
-                result = false;
-                cancel = true;
+                return false;
             }
         }
         
-        return result;
+        return true;
     }
 
     /**
@@ -451,27 +591,19 @@ public class RGraph
      *  defined by the user.
      * @param  c1  constraint in the graph G1
      * @param  c2  constraint in the graph G2
-     * @return     
+     * @param  bs  the set of seed nodes (output)
      */
-    private BitSet buildB(BitSet c1, BitSet c2)
+    private void buildB(BitSet c1, BitSet c2, long[] bs)
     {
-        this.c1 = c1;
-        this.c2 = c2;
-
-        BitSet bs = new BitSet();
-
         // only nodes that fulfill the initial constrains
         // are allowed in the initial extension set : B
-        for(Iterator<RNode> i = graph.iterator(); i.hasNext(); )
+        for(int i = 0; i < graph.size(); i++)
         {
-            RNode rn = i.next();
-
-            if((c1.get(rn.rMap.id1) || c1.isEmpty()) && (c2.get(rn.rMap.id2) || c2.isEmpty()))
+            if((c1.isEmpty() || c1.get(id1[i])) && (c2.isEmpty() || c2.get(id2[i])))
             {
-                bs.set(graph.indexOf(rn));
+                bs[i >> 6] |= 1L << i;
             }
         }
-        return bs;
     }
     
     /**
@@ -601,32 +733,6 @@ public class RGraph
         return projection;
     }
 
-    /**
-     *  Test if set A is contained in  set B.
-     * @param  A  a bitSet 
-     * @param  B  a bitSet 
-     * @return    true if  A is contained in  B 
-     */
-    private boolean isContainedIn(BitSet A, BitSet B)
-    {
-        boolean result = false;
-
-        if(A.isEmpty())
-        {
-            return true;
-        }
-
-        BitSet setA = (BitSet) A.clone();
-        setA.and(B);
-
-        if(setA.equals(A))
-        {
-            result = true;
-        }
-
-        return result;
-    }  
-    
     /**
      * Sets the time in milliseconds until the substructure search will be breaked.
      * @param timeout
@@ -642,6 +748,123 @@ public class RGraph
 	 */
 	public void setStart(long start) {
 		this.start = start;
-	}   
-}
+	}
+
+    /////////////////////////////////
+    // long[] bit set tools
+
+    /**
+     * Projects RGraph sets on G1 or G2. The nodes of each element of G1 (or
+     * G2) are stored as a mask so that an element is found in the projection
+     * at the first word the set and mask have in common, the sets of the
+     * search are dense.
+     */
+    private static final class Projection
+    {
+        private final long[][] masks;
+        private final int[]    first, last;
+
+        private Projection(int[] ids, int size, int words)
+        {
+            masks = new long[size][];
+            first = new int[size];
+            last  = new int[size];
+            for (int x = 0; x < ids.length; x++) {
+                int id = ids[x];
+                if (masks[id] == null) {
+                    masks[id] = new long[words];
+                    first[id] = x >> 6;
+                }
+                masks[id][x >> 6] |= 1L << x;
+                last[id] = x >> 6;
+            }
+        }
 
+        /**
+         *  Projects a RGraph set.
+         * @param  set         RGraph set to project
+         * @param  projection  the projection (output)
+         * @return             the projection
+         */
+        private long[] project(long[] set, long[] projection)
+        {
+            Arrays.fill(projection, 0);
+            for (int id = 0; id < masks.length; id++) {
+                long[] mask = masks[id];
+                if (mask == null)
+                    continue;
+                for (int w = first[id]; w <= last[id]; w++) {
+                    if ((set[w] & mask[w]) != 0) {
+                        projection[id >> 6] |= 1L << id;
+                        break;
+                    }
+                }
+            }
+            return projection;
+        }
+    }
+
+    /**
+     *  Test if set A is contained in set B (of the same width).
+     * @param  a  a set
+     * @param  b  a set
+     * @return    true if A is contained in B
+     */
+    private static boolean isContainedIn(long[] a, long[] b)
+    {
+        for (int w = 0; w < a.length; w++)
+            if ((a[w] & ~b[w]) != 0)
+                return false;
+        return true;
+    }
+
+    private static boolean isEmpty(long[] set)
+    {
+        for (long word : set)
+            if (word != 0)
+                return false;
+        return true;
+    }
+
+    private static int nextSetBit(long[] set, int from)
+    {
+        int w = from >> 6;
+        if (w >= set.length)
+            return -1;
+        long word = set[w] & (-1L << from);
+        while (true) {
+            if (word != 0)
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == set.length)
+                return -1;
+            word = set[w];
+        }
+    }
+
+    private static int wordsFor(int size)
+    {
+        return Math.max(1, (size + 63) >> 6);
+    }
+
+    private static long[] toWords(BitSet set, int words)
+    {
+        long[] result = new long[words];
+        copy(set, result);
+        return result;
+    }
+
+    /** Copy the set bits of a BitSet which fit in the words. */
+    private static void copy(BitSet set, long[] words)
+    {
+        for (int x = set.nextSetBit(0); x >= 0 && x < words.length << 6; x = set.nextSetBit(x + 1))
+            words[x >> 6] |= 1L << x;
+    }
+
+    private static BitSet toBitSet(long[] set)
+    {
+        BitSet bs = new BitSet();
+        for (int x = nextSetBit(set, 0); x >= 0; x = nextSetBit(set, x + 1))
+            bs.set(x);
+        return bs;
+    }
+}
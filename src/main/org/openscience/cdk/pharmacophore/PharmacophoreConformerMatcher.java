@@ -0,0 +1,539 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.pharmacophore;
+
+import org.openscience.cdk.ConformerContainer;
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.smiles.smarts.SMARTSQueryTool;
+import org.openscience.cdk.tools.ParallelTasks;
+
+import javax.vecmath.Point3d;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches a pharmacophore query against conformer ensembles. The
+ * pharmacophore groups of a molecule only depend on its topology, they are
+ * perceived (with SMARTS) once and the per-conformer work is reduced to
+ * computing the group centroids and distances, held in primitive arrays.
+ * The query groups are then assigned by a backtracking search which checks
+ * each distance and angle constraint as soon as all its groups are assigned.
+ *
+ * <blockquote><pre>
+ * PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(query);
+ *
+ * // a single ensemble
+ * boolean[] hits = matcher.matches(conformers);
+ *
+ * // many ensembles, in parallel
+ * List&lt;boolean[]&gt; results = matcher.matches(ensembles, 4);
+ * </pre></blockquote>
+ *
+ * The matches are the same as those of the {@link PharmacophoreMatcher}, a
+ * query group must match a distinct target group with the same symbol and
+ * distances and angles are compared at two decimal places. The matcher does
+ * not modify the query and may be used from several threads.
+ *
+ * @author agent
+ * @cdk.module pcore
+ * @cdk.githash
+ * @cdk.keyword pharmacophore
+ * @cdk.keyword conformer
+ * @see PharmacophoreMatcher
+ */
+@TestClass("org.openscience.cdk.pharmacophore.PharmacophoreConformerMatcherTest")
+public final class PharmacophoreConformerMatcher {
+
+    /** Distinct group symbols of the query and their SMARTS. */
+    private final String[] symbols, smarts;
+
+    /** The group type (index in symbols) of each query atom. */
+    private final int[] type;
+
+    /** The order query atoms are assigned in. */
+    private final int[] order;
+
+    /**
+     * The constraints checked at each depth, distances are pairs of query
+     * atoms (the atom at this depth and an earlier atom) and angles are
+     * triples (start, middle, end).
+     */
+    private final int[][]    distances, angles;
+    private final double[][] distanceBounds, angleBounds;
+
+    /**
+     * Create a matcher for the query.
+     *
+     * @param query the pharmacophore query
+     * @throws CDKException the query contained something other than
+     *                      pharmacophore groups and constraints or groups with
+     *                      the same symbol had different SMARTS
+     */
+    @TestMethod("invalidQuery")
+    public PharmacophoreConformerMatcher(PharmacophoreQuery query) throws CDKException {
+
+        int n = query.getAtomCount();
+
+        Map<String, Integer> types = new HashMap<String, Integer>();
+        List<String> symbols = new ArrayList<String>();
+        List<String> smarts = new ArrayList<String>();
+        this.type = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            IAtom atom = query.getAtom(i);
+            if (!(atom instanceof PharmacophoreQueryAtom))
+                throw new CDKException("query atom " + i + " is not a pharmacophore group");
+            PharmacophoreQueryAtom qatom = (PharmacophoreQueryAtom) atom;
+            Integer t = types.get(qatom.getSymbol());
+            if (t == null) {
+                types.put(qatom.getSymbol(), t = symbols.size());
+                symbols.add(qatom.getSymbol());
+                smarts.add(qatom.getSmarts());
+            } else if (!smarts.get(t).equals(qatom.getSmarts())) {
+                throw new CDKException("pharmacophore groups with the symbol " + qatom.getSymbol()
+                                               + " have different SMARTS");
+            }
+            type[i] = t;
+        }
+
+        this.symbols = symbols.toArray(new String[symbols.size()]);
+        this.smarts  = smarts.toArray(new String[smarts.size()]);
+
+        // constraints as query atom indices and their bounds
+        List<int[]> constraints = new ArrayList<int[]>();
+        List<double[]> bounds = new ArrayList<double[]>();
+        for (IBond bond : query.bonds()) {
+            if (bond instanceof PharmacophoreQueryBond) {
+                PharmacophoreQueryBond qbond = (PharmacophoreQueryBond) bond;
+                constraints.add(new int[]{query.getAtomNumber(bond.getAtom(0)),
+                                          query.getAtomNumber(bond.getAtom(1))});
+                bounds.add(new double[]{qbond.getLower(), qbond.getUpper()});
+            } else if (bond instanceof PharmacophoreQueryAngleBond) {
+                PharmacophoreQueryAngleBond qbond = (PharmacophoreQueryAngleBond) bond;
+                constraints.add(new int[]{query.getAtomNumber(bond.getAtom(0)),
+                                          query.getAtomNumber(bond.getAtom(1)),
+                                          query.getAtomNumber(bond.getAtom(2))});
+                bounds.add(new double[]{qbond.getLower(), qbond.getUpper()});
+            } else {
+                throw new CDKException("query bonds must be distance or angle constraints");
+            }
+        }
+
+        // assign the most constrained atoms first so that a partial
+        // assignment is checked (and pruned) as early as possible
+        int[] degree = new int[n];
+        for (int[] constraint : constraints)
+            for (int v : constraint)
+                degree[v]++;
+
+        this.order = new int[n];
+        int[] depth = new int[n];
+        Arrays.fill(depth, -1);
+        for (int d = 0; d < n; d++) {
+            int best = -1, bestConnected = -1;
+            for (int v = 0; v < n; v++) {
+                if (depth[v] >= 0)
+                    continue;
+                int connected = 0;
+                for (int[] constraint : constraints) {
+                    if (!contains(constraint, v))
+                        continue;
+                    for (int w : constraint)
+                        if (depth[w] >= 0)
+                            connected++;
+                }
+                if (connected > bestConnected || (connected == bestConnected && degree[v] > degree[best])) {
+                    best = v;
+                    bestConnected = connected;
+                }
+            }
+            order[d] = best;
+            depth[best] = d;
+        }
+
+        // a constraint is checked at the depth its last atom is assigned
+        List<List<Integer>> checks = new ArrayList<List<Integer>>(n);
+        for (int d = 0; d < n; d++)
+            checks.add(new ArrayList<Integer>());
+        for (int i = 0; i < constraints.size(); i++) {
+            int d = 0;
+            for (int v : constraints.get(i))
+                d = Math.max(d, depth[v]);
+            checks.get(d).add(i);
+        }
+
+        this.distances      = new int[n][];
+        this.distanceBounds = new double[n][];
+        this.angles         = new int[n][];
+        this.angleBounds    = new double[n][];
+        for (int d = 0; d < n; d++) {
+            List<Integer> pairs = new ArrayList<Integer>(), triples = new ArrayList<Integer>();
+            for (int i : checks.get(d)) {
+                if (constraints.get(i).length == 2)
+                    pairs.add(i);
+                else
+                    triples.add(i);
+            }
+            distances[d]      = new int[2 * pairs.size()];
+            distanceBounds[d] = new double[2 * pairs.size()];
+            for (int j = 0; j < pairs.size(); j++) {
+                System.arraycopy(constraints.get(pairs.get(j)), 0, distances[d], 2 * j, 2);
+                System.arraycopy(bounds.get(pairs.get(j)), 0, distanceBounds[d], 2 * j, 2);
+            }
+            angles[d]      = new int[3 * triples.size()];
+            angleBounds[d] = new double[2 * triples.size()];
+            for (int j = 0; j < triples.size(); j++) {
+                System.arraycopy(constraints.get(triples.get(j)), 0, angles[d], 3 * j, 3);
+                System.arraycopy(bounds.get(triples.get(j)), 0, angleBounds[d], 2 * j, 2);
+            }
+        }
+    }
+
+    /**
+     * Perceive the pharmacophore groups of a molecule. The groups only
+     * depend on the topology and can be reused for every conformer.
+     *
+     * @param container a molecule
+     * @return the pharmacophore groups
+     * @throws CDKException the SMARTS of a group could not be matched
+     */
+    @TestMethod("groups")
+    public Groups groups(IAtomContainer container) throws CDKException {
+
+        SMARTSQueryTool sqt = new SMARTSQueryTool("C", container.getBuilder());
+
+        List<Integer> types = new ArrayList<Integer>();
+        List<int[]> atoms = new ArrayList<int[]>();
+
+        for (int t = 0; t < symbols.length; t++) {
+            Set<String> unique = new HashSet<String>();
+            // '|' separates alternative (multi atom) patterns of a group
+            for (String subSmarts : smarts[t].split("\\|")) {
+                sqt.setSmarts(subSmarts);
+                if (!sqt.matches(container))
+                    continue;
+                for (List<Integer> match : sqt.getUniqueMatchingAtoms()) {
+                    int[] indices = new int[match.size()];
+                    for (int i = 0; i < indices.length; i++)
+                        indices[i] = match.get(i);
+                    int[] sorted = indices.clone();
+                    Arrays.sort(sorted);
+                    if (unique.add(Arrays.toString(sorted))) {
+                        types.add(t);
+                        atoms.add(indices);
+                    }
+                }
+            }
+        }
+
+        int[] type = new int[types.size()];
+        for (int i = 0; i < type.length; i++)
+            type[i] = types.get(i);
+        return new Groups(symbols, type, atoms.toArray(new int[atoms.size()][]));
+    }
+
+    /**
+     * Does the conformer match the query.
+     *
+     * @param groups    the groups of the conformer's molecule
+     * @param conformer a conformer with 3D coordinates
+     * @return the query matched
+     * @throws CDKException the conformer did not have 3D coordinates
+     * @see #groups(IAtomContainer)
+     */
+    @TestMethod("matchesConformers")
+    public boolean matches(Groups groups, IAtomContainer conformer) throws CDKException {
+        return search(groups, distances(groups, coordinates(conformer)), null);
+    }
+
+    /**
+     * Does the molecule match the query. The groups are perceived for this
+     * molecule only, use {@link #matches(ConformerContainer)} for an ensemble.
+     *
+     * @param container a molecule with 3D coordinates
+     * @return the query matched
+     * @throws CDKException the molecule did not have 3D coordinates
+     */
+    @TestMethod("matches")
+    public boolean matches(IAtomContainer container) throws CDKException {
+        return matches(groups(container), container);
+    }
+
+    /**
+     * All assignments of the query groups in the conformer. Each assignment
+     * is indexed by query atom and gives the index of the target group.
+     *
+     * @param groups    the groups of the conformer's molecule
+     * @param conformer a conformer with 3D coordinates
+     * @return the assignments
+     * @throws CDKException the conformer did not have 3D coordinates
+     */
+    @TestMethod("mappings")
+    public List<int[]> getMappings(Groups groups, IAtomContainer conformer) throws CDKException {
+        List<int[]> mappings = new ArrayList<int[]>();
+        search(groups, distances(groups, coordinates(conformer)), mappings);
+        return mappings;
+    }
+
+    /**
+     * Match every conformer of an ensemble. The groups are perceived once.
+     *
+     * @param conformers the conformer ensemble
+     * @return whether each conformer matched
+     * @throws CDKException a conformer did not have 3D coordinates
+     */
+    @TestMethod("matchesConformers")
+    public boolean[] matches(ConformerContainer conformers) throws CDKException {
+        boolean[] hits = new boolean[conformers.size()];
+        if (hits.length == 0)
+            return hits;
+        Groups groups = groups(conformers.get(0));
+        for (int i = 0; i < hits.length; i++)
+            hits[i] = search(groups, distances(groups, conformers.getCoordinates(i)), null);
+        return hits;
+    }
+
+    /**
+     * Match a list of ensembles, the ensembles are distributed over the
+     * given number of threads. An ensemble must not appear twice in the list
+     * (the conformers of an ensemble share their atoms).
+     *
+     * @param ensembles the conformer ensembles
+     * @param nThreads  number of threads to use
+     * @return whether each conformer matched, in the order of the ensembles
+     * @throws CDKException an ensemble could not be matched or the matching
+     *                      was interrupted
+     */
+    @TestMethod("matchesParallel,invalidThreads")
+    public List<boolean[]> matches(final List<ConformerContainer> ensembles, int nThreads) throws CDKException {
+
+        final boolean[][] hits = new boolean[ensembles.size()][];
+        ParallelTasks.forEach(hits.length, nThreads, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) throws CDKException {
+                hits[i] = matches(ensembles.get(i));
+            }
+        });
+        return new ArrayList<boolean[]>(Arrays.asList(hits));
+    }
+
+    /** The coordinates of a conformer, indexed by atom. */
+    private static Point3d[] coordinates(IAtomContainer conformer) {
+        Point3d[] coordinates = new Point3d[conformer.getAtomCount()];
+        for (int i = 0; i < coordinates.length; i++)
+            coordinates[i] = conformer.getAtom(i).getPoint3d();
+        return coordinates;
+    }
+
+    /**
+     * Compute the distances between the group centroids of a conformer.
+     *
+     * @return n x n distance matrix
+     */
+    private static double[] distances(Groups groups, Point3d[] coordinates) throws CDKException {
+
+        int n = groups.size();
+
+        double[] xyz = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            int[] atoms = groups.atoms[i];
+            for (int v : atoms) {
+                Point3d p = coordinates[v];
+                if (p == null)
+                    throw new CDKException("Molecule must have 3D coordinates");
+                xyz[3 * i]     += p.x;
+                xyz[3 * i + 1] += p.y;
+                xyz[3 * i + 2] += p.z;
+            }
+            xyz[3 * i]     /= atoms.length;
+            xyz[3 * i + 1] /= atoms.length;
+            xyz[3 * i + 2] /= atoms.length;
+        }
+
+        double[] distances = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = xyz[3 * i] - xyz[3 * j];
+                double dy = xyz[3 * i + 1] - xyz[3 * j + 1];
+                double dz = xyz[3 * i + 2] - xyz[3 * j + 2];
+                distances[i * n + j] = distances[j * n + i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Search for assignments of the query groups.
+     *
+     * @param mappings the assignments are added to this list, if null the
+     *                 search stops at the first assignment
+     * @return an assignment was found
+     */
+    private boolean search(Groups groups, double[] distances, List<int[]> mappings) {
+        int[]     mapping = new int[order.length];
+        boolean[] used    = new boolean[groups.size()];
+        return search(groups, distances, mapping, used, 0, mappings);
+    }
+
+    private boolean search(Groups groups, double[] distances, int[] mapping, boolean[] used, int d,
+                           List<int[]> mappings) {
+
+        if (d == order.length) {
+            if (mappings != null)
+                mappings.add(mapping.clone());
+            return true;
+        }
+
+        int     n     = groups.size();
+        int     v     = order[d];
+        boolean found = false;
+
+        for (int g : groups.byType[type[v]]) {
+            if (used[g])
+                continue;
+            mapping[v] = g;
+            if (!feasible(distances, n, mapping, d))
+                continue;
+            used[g] = true;
+            found = search(groups, distances, mapping, used, d + 1, mappings) || found;
+            used[g] = false;
+            if (found && mappings == null)
+                return true;
+        }
+        return found;
+    }
+
+    /** Check the constraints which are completed at depth d. */
+    private boolean feasible(double[] distances, int n, int[] mapping, int d) {
+
+        int[]    pairs  = this.distances[d];
+        double[] bounds = this.distanceBounds[d];
+        for (int i = 0, j = 0; i < pairs.length; i += 2, j += 2) {
+            double dist = round(distances[mapping[pairs[i]] * n + mapping[pairs[i + 1]]]);
+            if (dist < bounds[j] || dist > bounds[j + 1])
+                return false;
+        }
+
+        int[] triples = this.angles[d];
+        bounds = this.angleBounds[d];
+        for (int i = 0, j = 0; i < triples.length; i += 3, j += 2) {
+            double angle = round(angle(distances, n,
+                                       mapping[triples[i]], mapping[triples[i + 1]], mapping[triples[i + 2]]));
+            if (angle < bounds[j] || angle > bounds[j + 1])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The angle (degrees) at the middle group, see {@link
+     * PharmacophoreAngleBond#getBondLength()}.
+     */
+    private static double angle(double[] distances, int n, int start, int middle, int end) {
+        double epsilon = 1e-3;
+        double a = distances[end * n + start], b = distances[end * n + middle], c = distances[middle * n + start];
+        double cosangle = (b * b + c * c - a * a) / (2 * b * c);
+        if (-1.0 - epsilon < cosangle && -1.0 + epsilon > cosangle) return 180.0;
+        if (1.0 - epsilon < cosangle && 1.0 + epsilon > cosangle) return 0.0;
+        return Math.acos(cosangle) * 180.0 / Math.PI;
+    }
+
+    /** Round to two decimal places, as the query constraints are. */
+    private static double round(double val) {
+        return (double) Math.round(val * 100) / 100;
+    }
+
+    private static boolean contains(int[] vs, int v) {
+        for (int w : vs)
+            if (w == v)
+                return true;
+        return false;
+    }
+
+    /**
+     * The pharmacophore groups perceived in a molecule. Each group has the
+     * symbol of a query group and the indices of the atoms it covers.
+     */
+    public static final class Groups {
+
+        private final String[] symbols;
+        private final int[]    type;
+        private final int[][]  atoms;
+
+        /** Groups of each type. */
+        private final int[][]  byType;
+
+        private Groups(String[] symbols, int[] type, int[][] atoms) {
+            this.symbols = symbols;
+            this.type    = type;
+            this.atoms   = atoms;
+            int[] count = new int[symbols.length];
+            for (int t : type)
+                count[t]++;
+            this.byType = new int[symbols.length][];
+            for (int t = 0; t < symbols.length; t++)
+                byType[t] = new int[count[t]];
+            Arrays.fill(count, 0);
+            for (int i = 0; i < type.length; i++)
+                byType[type[i]][count[type[i]]++] = i;
+        }
+
+        /**
+         * The number of groups.
+         *
+         * @return number of groups
+         */
+        @TestMethod("groups")
+        public int size() {
+            return type.length;
+        }
+
+        /**
+         * The symbol of a group.
+         *
+         * @param i group index
+         * @return the symbol
+         */
+        @TestMethod("groups")
+        public String getSymbol(int i) {
+            return symbols[type[i]];
+        }
+
+        /**
+         * The indices of the atoms in a group.
+         *
+         * @param i group index
+         * @return atom indices
+         */
+        @TestMethod("groups")
+        public int[] getAtoms(int i) {
+            return atoms[i].clone();
+        }
+    }
+}
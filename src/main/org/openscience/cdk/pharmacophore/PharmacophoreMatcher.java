@@ -138,6 +138,7 @@ import org.openscience.cdk.tools.LoggingToolFactory;
  * @see org.openscience.cdk.pharmacophore.PharmacophoreBond
  * @see org.openscience.cdk.pharmacophore.PharmacophoreQueryAtom
  * @see org.openscience.cdk.pharmacophore.PharmacophoreQueryBond
+ * @see org.openscience.cdk.pharmacophore.PharmacophoreConformerMatcher
  */
 @TestClass("org.openscience.cdk.pharmacophore.PharmacophoreMatcherTest")
 public class PharmacophoreMatcher {
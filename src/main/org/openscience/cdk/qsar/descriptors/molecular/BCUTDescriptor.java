@@ -32,8 +32,10 @@ import org.openscience.cdk.charges.GasteigerPEPEPartialCharges;
 import org.openscience.cdk.charges.Polarizability;
 import org.openscience.cdk.config.Isotopes;
 import org.openscience.cdk.exception.CDKException;
-import org.openscience.cdk.graph.PathTools;
-import org.openscience.cdk.graph.matrix.AdjacencyMatrix;
+import org.openscience.cdk.graph.matrix.Lanczos;
+import org.openscience.cdk.graph.matrix.SparseMatrix;
+import org.openscience.cdk.graph.matrix.TopologicalMatrix;
+import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
 import org.openscience.cdk.qsar.AbstractMolecularDescriptor;
@@ -49,6 +51,10 @@ import org.openscience.cdk.tools.LoggingToolFactory;
 import org.openscience.cdk.tools.LonePairElectronChecker;
 import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import Jama.EigenvalueDecomposition;
 import Jama.Matrix;
 
@@ -136,6 +142,10 @@ public class BCUTDescriptor extends AbstractMolecularDescriptor implements IMole
     private int nlow;
     private boolean checkAromaticity;
 
+    // number of heavy atoms above which the extremal eigenvalues are found
+    // with the Lanczos method instead of a dense decomposition
+    private static final int SPARSE_THRESHOLD = 200;
+
     public BCUTDescriptor() {
         // set the default number of BCUT's
         this.nhigh = 1;
@@ -267,34 +277,20 @@ public class BCUTDescriptor extends AbstractMolecularDescriptor implements IMole
             IAtomContainer local = AtomContainerManipulator.removeHydrogens(atomContainer);
 
             int natom = local.getAtomCount();
+            int nbond = local.getBondCount();
             double[][] matrix = new double[natom][natom];
+
+            /* set the off diagonal entries, non-bonded pairs are 0.001 */
+            double offDiagonal = nbond > 0 ? 0.001 : 0.0;
             for (int i = 0; i < natom; i++) {
-                for (int j = 0; j < natom; j++) {
-                    matrix[i][j] = 0.0;
-                }
+                Arrays.fill(matrix[i], offDiagonal);
             }
-
-            /* set the off diagonal entries */
-            for (int i = 0; i < natom - 1; i++) {
-                for (int j = i + 1; j < natom; j++) {
-                    for (int k = 0; k < local.getBondCount(); k++) {
-                        IBond bond = local.getBond(k);
-                        if (bond.contains(local.getAtom(i)) && bond.contains(local.getAtom(j))) {
-                            if (bond.getFlag(CDKConstants.ISAROMATIC)) matrix[i][j] = 0.15;
-                            else if (bond.getOrder() == CDKConstants.BONDORDER_SINGLE) matrix[i][j] = 0.1;
-                            else if (bond.getOrder() == CDKConstants.BONDORDER_DOUBLE) matrix[i][j] = 0.2;
-                            else if (bond.getOrder() == CDKConstants.BONDORDER_TRIPLE) matrix[i][j] = 0.3;
-
-                            if (local.getConnectedBondsCount(i) == 1 || local.getConnectedBondsCount(j) == 1) {
-                                matrix[i][j] += 0.01;
-                            }
-                            matrix[j][i] = matrix[i][j];
-                        } else {
-                            matrix[i][j] = 0.001;
-                            matrix[j][i] = 0.001;
-                        }
-                    }
-                }
+            int[][] pairs = bondedPairs(local);
+            double[] values = bondValues(local, pairs);
+            for (int k = 0; k < nbond; k++) {
+                int i = pairs[k][0], j = pairs[k][1];
+                matrix[i][j] = values[k];
+                matrix[j][i] = values[k];
             }
 
             /* set the diagonal entries */
@@ -304,6 +300,130 @@ public class BCUTDescriptor extends AbstractMolecularDescriptor implements IMole
             }
             return (matrix);
         }
+
+        /**
+         * The matrix of {@link #evalMatrix(IAtomContainer, double[])} as a
+         * linear operator which is not stored densely. All non-bonded
+         * off-diagonal entries are 0.001, the operator is therefore the sum
+         * of a sparse matrix (the diagonal and the bonded pairs) and the
+         * uniform off-diagonal.
+         */
+        static Lanczos.Operator evalOperator(IAtomContainer atomContainer, double[] vsd) {
+            IAtomContainer local = AtomContainerManipulator.removeHydrogens(atomContainer);
+
+            final int natom = local.getAtomCount();
+            final int nbond = local.getBondCount();
+
+            final double offDiagonal = nbond > 0 ? 0.001 : 0.0;
+
+            int[]    rows   = new int[natom + 2 * nbond];
+            int[]    cols   = new int[natom + 2 * nbond];
+            double[] values = new double[natom + 2 * nbond];
+            int      nnz    = 0;
+
+            for (int i = 0; i < natom; i++) {
+                rows[nnz]     = i;
+                cols[nnz]     = i;
+                values[nnz++] = vsd != null ? vsd[i] : 0.0;
+            }
+
+            int[][] pairs = bondedPairs(local);
+            double[] bondValues = bondValues(local, pairs);
+            for (int k = 0; k < nbond; k++) {
+                int i = pairs[k][0], j = pairs[k][1];
+                rows[nnz] = i; cols[nnz] = j; values[nnz++] = bondValues[k] - offDiagonal;
+                rows[nnz] = j; cols[nnz] = i; values[nnz++] = bondValues[k] - offDiagonal;
+            }
+
+            final SparseMatrix sparse = new SparseMatrix(natom, rows, cols, values);
+
+            return new Lanczos.Operator() {
+                @Override public int size() {
+                    return natom;
+                }
+
+                @Override public void multiply(double[] x, double[] y) {
+                    sparse.multiply(x, y);
+                    double sum = 0;
+                    for (double v : x)
+                        sum += v;
+                    for (int i = 0; i < natom; i++)
+                        y[i] += offDiagonal * (sum - x[i]);
+                }
+            };
+        }
+
+        /**
+         * The atom indices of each bond, the atoms are indexed once rather
+         * than looked up for each bond.
+         */
+        private static int[][] bondedPairs(IAtomContainer local) {
+            int natom = local.getAtomCount();
+            Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * natom);
+            for (int i = natom - 1; i >= 0; i--)
+                atomIndex.put(local.getAtom(i), i);
+            int[][] pairs = new int[local.getBondCount()][];
+            for (int k = 0; k < pairs.length; k++) {
+                IBond bond = local.getBond(k);
+                pairs[k] = new int[]{atomIndex.get(bond.getAtom(0)), atomIndex.get(bond.getAtom(1))};
+            }
+            return pairs;
+        }
+
+        /**
+         * The off-diagonal value of each bond, 0.15 for aromatic bonds and
+         * 0.1, 0.2 and 0.3 for single, double and triple bonds. Bonds to a
+         * terminal atom have 0.01 added.
+         */
+        private static double[] bondValues(IAtomContainer local, int[][] pairs) {
+            int[] degree = new int[local.getAtomCount()];
+            for (int[] pair : pairs) {
+                degree[pair[0]]++;
+                degree[pair[1]]++;
+            }
+            double[] values = new double[pairs.length];
+            for (int k = 0; k < pairs.length; k++) {
+                IBond bond = local.getBond(k);
+                double value = 0.001;
+                if (bond.getFlag(CDKConstants.ISAROMATIC)) value = 0.15;
+                else if (bond.getOrder() == CDKConstants.BONDORDER_SINGLE) value = 0.1;
+                else if (bond.getOrder() == CDKConstants.BONDORDER_DOUBLE) value = 0.2;
+                else if (bond.getOrder() == CDKConstants.BONDORDER_TRIPLE) value = 0.3;
+
+                if (degree[pairs[k][0]] == 1 || degree[pairs[k][1]] == 1) {
+                    value += 0.01;
+                }
+                values[k] = value;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Eigenvalues of the Burden matrix for the given diagonal values. For
+     * large molecules, when only the highest and lowest values are required,
+     * the extremal eigenvalues are found with the Lanczos method.
+     *
+     * @param molecule  the molecule
+     * @param diagvalue diagonal values
+     * @param nheavy    number of heavy atoms
+     * @return eigenvalues in ascending order, null if the matrix had
+     *         undefined values
+     */
+    private double[] burdenEigenvalues(IAtomContainer molecule, double[] diagvalue, int nheavy) {
+        if (nheavy >= SPARSE_THRESHOLD && nhigh <= 1 && nlow <= 1) {
+            for (double value : diagvalue) {
+                if (Double.isNaN(value) || Double.isInfinite(value))
+                    return null;
+            }
+            return Lanczos.eigenvalues(BurdenMatrix.evalOperator(molecule, diagvalue), 1);
+        }
+        double[][] burdenMatrix = BurdenMatrix.evalMatrix(molecule, diagvalue);
+        if (hasUndefined(burdenMatrix))
+            return null;
+        Matrix matrix = new Matrix(burdenMatrix);
+        EigenvalueDecomposition eigenDecomposition = new EigenvalueDecomposition(matrix);
+        return eigenDecomposition.getRealEigenvalues();
     }
 
     /**
@@ -373,12 +493,9 @@ public class BCUTDescriptor extends AbstractMolecularDescriptor implements IMole
             return getDummyDescriptorValue(new CDKException("Could not calculate weight: " + e.getMessage(), e));
         }
 
-        double[][] burdenMatrix = BurdenMatrix.evalMatrix(molecule, diagvalue);
-        if (hasUndefined(burdenMatrix))
+        double[] eval1 = burdenEigenvalues(molecule, diagvalue, nheavy);
+        if (eval1 == null)
             return getDummyDescriptorValue(new CDKException("Burden matrix has undefined values"));
-        Matrix matrix = new Matrix(burdenMatrix);
-        EigenvalueDecomposition eigenDecomposition = new EigenvalueDecomposition(matrix);
-        double[] eval1 = eigenDecomposition.getRealEigenvalues();
 
         // get charge weighted BCUT
         LonePairElectronChecker lpcheck = new LonePairElectronChecker();
@@ -405,15 +522,12 @@ public class BCUTDescriptor extends AbstractMolecularDescriptor implements IMole
             diagvalue[counter] = molecule.getAtom(i).getCharge();
             counter++;
         }
-        burdenMatrix = BurdenMatrix.evalMatrix(molecule, diagvalue);
-        if (hasUndefined(burdenMatrix))
+        double[] eval2 = burdenEigenvalues(molecule, diagvalue, nheavy);
+        if (eval2 == null)
             return getDummyDescriptorValue(new CDKException("Burden matrix has undefined values"));
-        matrix = new Matrix(burdenMatrix);
-        eigenDecomposition = new EigenvalueDecomposition(matrix);
-        double[] eval2 = eigenDecomposition.getRealEigenvalues();
 
 
-        int[][] topoDistance = PathTools.computeFloydAPSP(AdjacencyMatrix.getMatrix(molecule));
+        int[][] topoDistance = TopologicalMatrix.getMatrix(molecule);
 
         // get polarizability weighted BCUT
         Polarizability pol = new Polarizability();
@@ -423,12 +537,9 @@ public class BCUTDescriptor extends AbstractMolecularDescriptor implements IMole
             diagvalue[counter] = pol.calculateGHEffectiveAtomPolarizability(molecule, molecule.getAtom(i), false, topoDistance);
             counter++;
         }
-        burdenMatrix = BurdenMatrix.evalMatrix(molecule, diagvalue);
-        if (hasUndefined(burdenMatrix))
+        double[] eval3 = burdenEigenvalues(molecule, diagvalue, nheavy);
+        if (eval3 == null)
             return getDummyDescriptorValue(new CDKException("Burden matrix has undefined values"));
-        matrix = new Matrix(burdenMatrix);
-        eigenDecomposition = new EigenvalueDecomposition(matrix);
-        double[] eval3 = eigenDecomposition.getRealEigenvalues();
 
         String[] names;
         String[] suffix = {"w", "c", "p"};
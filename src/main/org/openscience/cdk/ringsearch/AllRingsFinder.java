@@ -31,6 +31,7 @@ import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.graph.AllCycles;
+import org.openscience.cdk.graph.CycleBudget;
 import org.openscience.cdk.graph.GraphUtil;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
@@ -80,6 +81,9 @@ public final class AllRingsFinder {
     /** Precomputed threshold - stops the computation running forever. */
     private final Threshold threshold;
 
+    /** Optional budget, used instead of the threshold when provided. */
+    private final CycleBudget budget;
+
     /**
      * Constructor for the AllRingsFinder.
      *
@@ -100,6 +104,29 @@ public final class AllRingsFinder {
     /** Internal constructor. */
     private AllRingsFinder(Threshold threshold) {
         this.threshold = threshold;
+        this.budget    = null;
+    }
+
+    /** Internal constructor. */
+    private AllRingsFinder(CycleBudget budget) {
+        this.threshold = null;
+        this.budget    = budget;
+    }
+
+    /**
+     * Internal - run the all cycles computation using the budget or threshold.
+     *
+     * @param graph        adjacency list of a ring system
+     * @param maxRingSize  maximum ring size to consider
+     * @return the cycles of the ring system
+     * @throws CDKException the threshold or budget was exceeded
+     */
+    private int[][] allCycles(int[][] graph, int maxRingSize) throws CDKException {
+        AllCycles ac = budget != null ? new AllCycles(graph, maxRingSize, budget)
+                                      : new AllCycles(graph, maxRingSize, threshold.value);
+        if (!ac.completed())
+            throw new CDKException("Threshold exceeded for AllRingsFinder");
+        return ac.paths();
     }
 
     /**
@@ -157,14 +184,10 @@ public final class AllRingsFinder {
         // for each set of fused cyclic vertices run the separate search
         for (int[] fused : rs.fused()) {
 
-            AllCycles ac = new AllCycles(GraphUtil.subgraph(graph, fused),
-                                         Math.min(maxRingSize, fused.length),
-                                         threshold.value);
-
-            if (!ac.completed())
-                throw new CDKException("Threshold exceeded for AllRingsFinder");
+            int[][] paths = allCycles(GraphUtil.subgraph(graph, fused),
+                                      Math.min(maxRingSize, fused.length));
 
-            for (int[] path : ac.paths()) {
+            for (int[] path : paths) {
                 IRing ring = toRing(container,
                                     edges, path, fused);
                 ringSet.addAtomContainer(ring);
@@ -207,17 +230,12 @@ public final class AllRingsFinder {
         final EdgeToBondMap edges = EdgeToBondMap.withSpaceFor(atomContainer);
         final int[][]       graph = GraphUtil.toAdjList(atomContainer, edges);
 
-        AllCycles ac = new AllCycles(graph,
-                                     maxRingSize,
-                                     threshold.value);
-
-        if (!ac.completed())
-            throw new CDKException("Threshold exceeded for AllRingsFinder");
+        int[][] paths = allCycles(graph, maxRingSize);
 
         IRingSet ringSet = atomContainer.getBuilder()
                                         .newInstance(IRingSet.class);
 
-        for (int[] path : ac.paths()) {
+        for (int[] path : paths) {
             ringSet.addAtomContainer(toRing(atomContainer, edges, path));
         }
 
@@ -434,5 +452,26 @@ public final class AllRingsFinder {
     public static AllRingsFinder usingThreshold(Threshold threshold) {
         return new AllRingsFinder(threshold);
     }
+
+    /**
+     * Create an {@link AllRingsFinder} instance using the given budget. The
+     * budget limits the work done on each ring system, allows the computation
+     * to be cancelled from another thread and records progress counters.
+     *
+     * <blockquote><pre>
+     * CycleBudget    budget = new CycleBudget(684, 1000000);
+     * AllRingsFinder arf    = AllRingsFinder.usingBudget(budget);
+     * </pre></blockquote>
+     *
+     * @param budget the budget for each ring system
+     * @return instance with the set budget
+     * @see CycleBudget
+     */
+    @TestMethod("testUsingBudget,testUsingBudget_cancelled")
+    public static AllRingsFinder usingBudget(CycleBudget budget) {
+        if (budget == null)
+            throw new NullPointerException("no budget provided");
+        return new AllRingsFinder(budget);
+    }
 }
 
@@ -27,6 +27,8 @@ import java.util.List;
 import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.graph.GraphUtil;
+import org.openscience.cdk.graph.PathEnumerator;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
@@ -83,6 +85,11 @@ public class AtomSignature extends AbstractVertexSignature {
      * The atom container to make signatures from.
      */
     private IAtomContainer molecule;
+
+    /**
+     * Adjacency of the molecule shared between signatures, may be null.
+     */
+    private Adjacency adjacency;
     
     /**
      * Create an atom signature starting at <code>atomIndex</code>.
@@ -131,6 +138,26 @@ public class AtomSignature extends AbstractVertexSignature {
     public AtomSignature(IAtom atom, int height, IAtomContainer molecule) {
         this(molecule.getAtomNumber(atom), height, molecule);
     }
+
+    /**
+     * Create an atom signature starting at <code>atomIndex</code> using the
+     * precomputed adjacency of the molecule. A negative <code>height</code>
+     * creates a signature of maximum height.
+     *
+     * @param atomIndex the index of the atom that roots this signature
+     * @param height    the maximum height of the signature, or -1
+     * @param molecule  the molecule to create the signature from
+     * @param adjacency the adjacency of the molecule
+     */
+    AtomSignature(int atomIndex, int height, IAtomContainer molecule, Adjacency adjacency) {
+        super();
+        this.molecule  = molecule;
+        this.adjacency = adjacency;
+        if (height < 0)
+            super.createMaximumHeight(atomIndex, molecule.getAtomCount());
+        else
+            super.create(atomIndex, molecule.getAtomCount(), height);
+    }
     
     /**
      * Create an atom signature starting at <code>atomIndex</code>, with maximum
@@ -172,6 +199,8 @@ public class AtomSignature extends AbstractVertexSignature {
     @Override /** {@inheritDoc} */
     @TestMethod("getConnectedTest")
     protected int[] getConnected(int vertexIndex) {
+        if (adjacency != null)
+            return adjacency.graph[vertexIndex].clone();
         IAtom atom  = this.molecule.getAtom(vertexIndex);
         List<IAtom> connected = this.molecule.getConnectedAtomsList(atom);
         int[] connectedIndices = new int[connected.size()];
@@ -185,9 +214,20 @@ public class AtomSignature extends AbstractVertexSignature {
     @Override /** {@inheritDoc} */
     @TestMethod("getEdgeLabelTest,getAromaticEdgeLabelTest")
     protected String getEdgeLabel(int vertexIndex, int otherVertexIndex) {
+        if (adjacency != null)
+            return adjacency.edgeLabel(vertexIndex, otherVertexIndex);
         IAtom atomA = this.molecule.getAtom(vertexIndex);
         IAtom atomB = this.molecule.getAtom(otherVertexIndex);
-        IBond bond = this.molecule.getBond(atomA, atomB);
+        return edgeLabel(this.molecule.getBond(atomA, atomB));
+    }
+
+    /**
+     * The edge label of a bond.
+     *
+     * @param bond a bond, may be null
+     * @return the edge label
+     */
+    private static String edgeLabel(IBond bond) {
         if (bond != null) {
             if (bond.getFlag(CDKConstants.ISAROMATIC)) {
                 return "p";
@@ -228,4 +268,48 @@ public class AtomSignature extends AbstractVertexSignature {
         return 0;
     }
 
+    /**
+     * The connected atoms and edge labels of a molecule. The adjacency is
+     * computed once and shared by the signatures of each atom, avoiding
+     * repeated linear scans of the atoms and bonds of the molecule.
+     */
+    static final class Adjacency {
+
+        /** Connected atom indices, listed in bond order. */
+        private final int[][] graph;
+
+        /** The edge label of each adjacency. */
+        private final String[][] labels;
+
+        /**
+         * Compute the adjacency of the molecule.
+         *
+         * @param molecule the molecule
+         */
+        Adjacency(IAtomContainer molecule) {
+            this.graph  = GraphUtil.toAdjList(molecule);
+            this.labels = new String[graph.length][];
+            int[][] bonds = PathEnumerator.bondIndices(molecule, graph);
+            for (int v = 0; v < graph.length; v++) {
+                labels[v] = new String[graph[v].length];
+                for (int j = 0; j < graph[v].length; j++)
+                    labels[v][j] = AtomSignature.edgeLabel(molecule.getBond(bonds[v][j]));
+            }
+        }
+
+        /**
+         * The edge label between two atoms.
+         *
+         * @param v an atom index
+         * @param w another atom index
+         * @return the label of the first bond between the atoms, "" if none
+         */
+        String edgeLabel(int v, int w) {
+            for (int j = 0; j < graph[v].length; j++) {
+                if (graph[v][j] == w)
+                    return labels[v][j];
+            }
+            return "";
+        }
+    }
 }
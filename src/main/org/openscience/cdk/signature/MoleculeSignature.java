@@ -23,12 +23,17 @@
 package org.openscience.cdk.signature;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IChemObjectBuilder;
+import org.openscience.cdk.tools.ParallelTasks;
 
 import signature.AbstractGraphSignature;
 import signature.AbstractVertexSignature;
@@ -87,6 +92,19 @@ import signature.SymmetryClass;
  * - which is just a convenience method equivalent to calling the constructor of
  * an AtomSignature class.
  * 
+ * <p>
+ * The connectivity of the molecule is computed once and shared by all atom
+ * signatures, and the signature string of each atom is memoised for each
+ * height - repeated calls (e.g. for orbits, the canonical string and the
+ * canonical labels) do not rebuild the signatures. The molecule should
+ * therefore not be modified after the signature is created. For large
+ * molecules the atom signatures of a height can be computed in parallel:
+ * </p>
+ * 
+ * <pre>
+ * String[] signatures = moleculeSignature.signatureStringsForVertices(2, 4);
+ * </pre>
+ * 
  * @cdk.module signature
  * @author maclean
  * @cdk.githash
@@ -98,6 +116,18 @@ public class MoleculeSignature extends AbstractGraphSignature {
      * The molecule to use when making atom signatures
      */
     private IAtomContainer molecule;
+
+    /**
+     * The connectivity of the molecule shared by the atom signatures.
+     */
+    private final AtomSignature.Adjacency adjacency;
+
+    /**
+     * Memoised signature strings of each atom indexed by height, the maximum
+     * height is stored as -1.
+     */
+    private final Map<Integer, String[]> signatureStrings =
+        new HashMap<Integer, String[]>();
     
     /**
      * Creates a signature that represents this molecule.
@@ -106,7 +136,8 @@ public class MoleculeSignature extends AbstractGraphSignature {
      */
     public MoleculeSignature(IAtomContainer molecule) {
         super();
-        this.molecule = molecule;
+        this.molecule  = molecule;
+        this.adjacency = new AtomSignature.Adjacency(molecule);
     }
     
     /**
@@ -118,7 +149,8 @@ public class MoleculeSignature extends AbstractGraphSignature {
      */
     public MoleculeSignature(IAtomContainer molecule, int height) {
         super(height);
-        this.molecule = molecule;
+        this.molecule  = molecule;
+        this.adjacency = new AtomSignature.Adjacency(molecule);
     }
 
     @Override /** {@inheritDoc} */
@@ -130,29 +162,104 @@ public class MoleculeSignature extends AbstractGraphSignature {
     @Override /** {@inheritDoc} */
     @TestMethod("getSignatureStringForVertexTest")
     public String signatureStringForVertex(int vertexIndex) {
-        AtomSignature atomSignature;
-        int height = super.getHeight();
-        if (height == -1) {
-            atomSignature = new AtomSignature(vertexIndex, this.molecule);
-        } else {
-            atomSignature = 
-                new AtomSignature(vertexIndex, height, this.molecule);
-        }
-        return atomSignature.toCanonicalString();
+        return signatureStringForVertex(vertexIndex, super.getHeight());
     }
 
     @Override /** {@inheritDoc} */
     @TestMethod("getSignatureStringForVertexTest_height")
     public String signatureStringForVertex(int vertexIndex, int height) {
-        AtomSignature atomSignature = 
-            new AtomSignature(vertexIndex, height, this.molecule);
-        return atomSignature.toCanonicalString();
+        String[] signatures = signatureStrings(height);
+        String signature = signatures[vertexIndex];
+        if (signature == null) {
+            signature = signatureForVertex(vertexIndex, height).toCanonicalString();
+            signatures[vertexIndex] = signature;
+        }
+        return signature;
     }
 
     @Override /** {@inheritDoc} */
     @TestMethod("getSignatureForVertexTest")
     public AbstractVertexSignature signatureForVertex(int vertexIndex) {
-        return new AtomSignature(vertexIndex, this.molecule);
+        return signatureForVertex(vertexIndex, -1);
+    }
+
+    /**
+     * Create the atom signature of the given height for an atom, a negative
+     * height creates a signature of maximum height.
+     *
+     * @param vertexIndex the atom index
+     * @param height the maximum height of the signature, or -1
+     * @return the atom signature
+     */
+    private AtomSignature signatureForVertex(int vertexIndex, int height) {
+        return new AtomSignature(vertexIndex, height, molecule, adjacency);
+    }
+
+    /**
+     * Access the memoised signature strings for a given height.
+     *
+     * @param height the height, or -1 for the maximum height
+     * @return the signature strings, an entry is null if not yet computed
+     */
+    private String[] signatureStrings(int height) {
+        if (height < 0)
+            height = -1;
+        synchronized (signatureStrings) {
+            String[] signatures = signatureStrings.get(height);
+            if (signatures == null) {
+                signatures = new String[getVertexCount()];
+                signatureStrings.put(height, signatures);
+            }
+            return signatures;
+        }
+    }
+
+    /**
+     * Compute the signature strings of all atoms at the given height. The
+     * atom signatures are computed in parallel with the given number of
+     * threads and are memoised for subsequent calls.
+     *
+     * @param height   the maximum height of the signatures, or -1
+     * @param nThreads number of threads to use
+     * @return the signature string of each atom
+     * @throws CDKException the computation was interrupted or failed
+     */
+    @TestMethod("signatureStringsForVerticesTest")
+    public String[] signatureStringsForVertices(final int height, int nThreads) throws CDKException {
+
+        final String[] signatures = signatureStrings(height);
+        // the indices are handed out one at a time, the cost of each
+        // signature depends on the local structure of the atom
+        ParallelTasks.forEach(signatures.length, nThreads, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) {
+                if (signatures[i] == null)
+                    signatures[i] = signatureForVertex(i, height).toCanonicalString();
+            }
+        });
+        return Arrays.copyOf(signatures, signatures.length);
+    }
+
+    /**
+     * Canonical labels of the atoms, from the signature of maximum height
+     * which has the lowest string. The signature strings are memoised.
+     *
+     * @return the canonical labels
+     */
+    @Override
+    @TestMethod("getCanonicalLabelsTest")
+    public int[] getCanonicalLabels() {
+        int n = getVertexCount();
+        int lowest = -1;
+        for (int i = 0; i < n; i++) {
+            if (lowest < 0 || signatureStringForVertex(i, -1)
+                    .compareTo(signatureStringForVertex(lowest, -1)) < 0)
+                lowest = i;
+        }
+        if (lowest < 0)
+            return new int[0];
+        AbstractVertexSignature signature = signatureForVertex(lowest, -1);
+        signature.toCanonicalString();
+        return signature.getCanonicalLabelling(n);
     }
 
     /**
@@ -210,4 +317,25 @@ public class MoleculeSignature extends AbstractGraphSignature {
         }
         return canonicalSignature;
     }
+
+    /**
+     * Make a canonical signature string of a given height, the atom
+     * signatures are computed in parallel.
+     * 
+     * @param height the maximum height to make signatures
+     * @param nThreads number of threads to use
+     * @return the canonical signature string
+     * @throws CDKException the computation was interrupted or failed
+     */
+    @TestMethod("toCanonicalSignatureStringTest_parallel")
+    public String toCanonicalSignatureString(int height, int nThreads) throws CDKException {
+        String canonicalSignature = null;
+        for (String signatureForI : signatureStringsForVertices(height, nThreads)) {
+            if (canonicalSignature == null || 
+                    canonicalSignature.compareTo(signatureForI) < 0) {
+                canonicalSignature = signatureForI;
+            }
+        }
+        return canonicalSignature;
+    }
 }
@@ -0,0 +1,561 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.smsd.interfaces.Algorithm;
+import org.openscience.cdk.smsd.tools.MolHandler;
+import org.openscience.cdk.tools.ParallelTasks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compute the MCS of one query against many targets, or of all pairs in a
+ * collection, on several threads. Each molecule is prepared (hydrogens
+ * removed, cleaned and configured) once and the prepared molecule is reused
+ * for every comparison it takes part in.
+ *
+ * <blockquote><pre>
+ * BatchMCS batch = new BatchMCS(Algorithm.DEFAULT, true, true, true);
+ * batch.setMinSimilarity(0.5); // skip targets which can not reach 0.5
+ *
+ * batch.search(query, targets, 4, new BatchMCS.Listener() {
+ *     public void result(BatchMCS.Result result) {
+ *         if (!result.isPruned())
+ *             System.out.println(result.getTarget() + ": " + result.getSimilarity());
+ *     }
+ * });
+ *
+ * // similarity matrix for clustering
+ * double[][] matrix = batch.matrix(containers, 4);
+ * </pre></blockquote>
+ *
+ * Before a pair is compared, an upper bound of the similarity ({@link
+ * Isomorphism#getTanimotoSimilarity()}) is computed from the number of atoms
+ * of each element and bonds between each pair of elements the molecules have
+ * in common. Pairs whose bound is below the minimum similarity are not
+ * compared. Results are passed to the {@link Listener} on the calling thread
+ * as they complete and the progress ({@link #getCompleted()}, {@link
+ * #getTotal()}) can be read from other threads while the batch runs.
+ *
+ * @author agent
+ * @cdk.module smsd
+ * @cdk.githash
+ * @cdk.keyword MCS
+ * @see Isomorphism
+ */
+@TestClass("org.openscience.cdk.smsd.BatchMCSTest")
+public final class BatchMCS {
+
+    /** Receive the results of a batch as they complete. */
+    public static interface Listener {
+
+        /**
+         * A comparison has completed (or was pruned).
+         *
+         * @param result the result of the comparison
+         */
+        void result(Result result);
+    }
+
+    /** The result of comparing one pair of molecules. */
+    public static final class Result {
+
+        private final int                   query, target;
+        private final IAtomContainer        queryMolecule, targetMolecule;
+        private final Map<Integer, Integer> mapping;
+        private final double                similarity;
+        private final boolean               pruned, timeOut;
+
+        private Result(int query, int target, IAtomContainer queryMolecule, IAtomContainer targetMolecule,
+                       Map<Integer, Integer> mapping, double similarity, boolean pruned, boolean timeOut) {
+            this.query = query;
+            this.target = target;
+            this.queryMolecule = queryMolecule;
+            this.targetMolecule = targetMolecule;
+            this.mapping = mapping;
+            this.similarity = similarity;
+            this.pruned = pruned;
+            this.timeOut = timeOut;
+        }
+
+        /**
+         * Index of the query, 0 when searching a single query.
+         *
+         * @return query index
+         */
+        public int getQuery() {
+            return query;
+        }
+
+        /**
+         * Index of the target.
+         *
+         * @return target index
+         */
+        public int getTarget() {
+            return target;
+        }
+
+        /**
+         * The prepared query the mapping refers to, null if the pair was
+         * pruned.
+         *
+         * @return prepared query
+         */
+        public IAtomContainer getQueryMolecule() {
+            return queryMolecule;
+        }
+
+        /**
+         * The prepared target the mapping refers to, null if the pair was
+         * pruned.
+         *
+         * @return prepared target
+         */
+        public IAtomContainer getTargetMolecule() {
+            return targetMolecule;
+        }
+
+        /**
+         * The first MCS, atom indices of the prepared query to atom indices
+         * of the prepared target. The mapping is empty if the pair was pruned.
+         *
+         * @return the mapping
+         */
+        public Map<Integer, Integer> getMapping() {
+            return mapping;
+        }
+
+        /**
+         * The Tanimoto similarity of the MCS, 0 if the pair was pruned.
+         *
+         * @return the similarity
+         * @see Isomorphism#getTanimotoSimilarity()
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+
+        /**
+         * The pair could not reach the minimum similarity and was not
+         * compared.
+         *
+         * @return the pair was pruned
+         */
+        public boolean isPruned() {
+            return pruned;
+        }
+
+        /**
+         * The comparison timed out, the mapping may not be maximal.
+         *
+         * @return the comparison timed out
+         */
+        public boolean isTimeOut() {
+            return timeOut;
+        }
+    }
+
+    private final Algorithm algorithm;
+    private final boolean   matchBonds, removeHydrogen, cleanAndConfigure;
+
+    /** Pairs whose similarity can not reach this value are pruned. */
+    private double minSimilarity = 0;
+
+    /** Progress of the current batch. */
+    private final AtomicInteger completed = new AtomicInteger(),
+                                pruned    = new AtomicInteger(),
+                                timedOut  = new AtomicInteger();
+    private volatile int     total     = 0;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Create a batch MCS engine.
+     *
+     * @param algorithm         the MCS algorithm to use
+     * @param matchBonds        bond sensitive comparison
+     * @param removeHydrogen    make hydrogens implicit before comparison
+     * @param cleanAndConfigure clean and configure molecules (atom types,
+     *                          aromaticity etc)
+     * @see Isomorphism#init(IAtomContainer, IAtomContainer, boolean, boolean)
+     */
+    @TestMethod("search")
+    public BatchMCS(Algorithm algorithm, boolean matchBonds, boolean removeHydrogen, boolean cleanAndConfigure) {
+        this.algorithm = algorithm;
+        this.matchBonds = matchBonds;
+        this.removeHydrogen = removeHydrogen;
+        this.cleanAndConfigure = cleanAndConfigure;
+    }
+
+    /**
+     * Set the minimum similarity of a pair, pairs whose similarity can not
+     * reach this value are not compared (default 0).
+     *
+     * @param minSimilarity the minimum similarity (0..1)
+     */
+    @TestMethod("prune")
+    public void setMinSimilarity(double minSimilarity) {
+        if (minSimilarity < 0 || minSimilarity > 1)
+            throw new IllegalArgumentException("minimum similarity should be between 0 and 1");
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * Compare a query to each target.
+     *
+     * @param query    the query molecule
+     * @param targets  the target molecules
+     * @param nThreads number of threads to use
+     * @return the result for each target (in order)
+     * @throws CDKException a molecule could not be prepared or the search was
+     *                      interrupted
+     */
+    @TestMethod("search,prune")
+    public List<Result> search(IAtomContainer query, List<IAtomContainer> targets, int nThreads) throws CDKException {
+        final Result[] results = new Result[targets.size()];
+        search(query, targets, nThreads, new Listener() {
+            @Override public void result(Result result) {
+                results[result.getTarget()] = result;
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Compare a query to each target, the results are passed to the listener
+     * (on the calling thread) in the order they complete.
+     *
+     * @param query    the query molecule
+     * @param targets  the target molecules
+     * @param nThreads number of threads to use
+     * @param listener receives the results
+     * @throws CDKException a molecule could not be prepared or the search was
+     *                      interrupted
+     */
+    @TestMethod("search,listener")
+    public void search(IAtomContainer query, final List<IAtomContainer> targets, int nThreads,
+                       Listener listener) throws CDKException {
+
+        final IAtomContainer prepared = prepare(query);
+        final Profile        profile  = new Profile(prepared);
+
+        List<Callable<Result>> tasks = new ArrayList<Callable<Result>>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            final int j = i;
+            tasks.add(new Callable<Result>() {
+                @Override public Result call() throws Exception {
+                    Profile target = new Profile(targets.get(j));
+                    if (prune(profile, target))
+                        return prunedResult(0, j);
+                    return compare(0, j, copy(prepared), prepare(targets.get(j)));
+                }
+            });
+        }
+        run(tasks, nThreads, listener);
+    }
+
+    /**
+     * Compare all pairs of molecules and build the matrix of their
+     * similarities. The diagonal is 1 and pruned pairs have a similarity of 0.
+     *
+     * @param containers the molecules
+     * @param nThreads   number of threads to use
+     * @return the similarity matrix
+     * @throws CDKException a molecule could not be prepared or the search was
+     *                      interrupted
+     */
+    @TestMethod("matrix")
+    public double[][] matrix(List<IAtomContainer> containers, int nThreads) throws CDKException {
+        final double[][] matrix = new double[containers.size()][containers.size()];
+        for (int i = 0; i < matrix.length; i++)
+            matrix[i][i] = 1;
+        matrix(containers, nThreads, new Listener() {
+            @Override public void result(Result result) {
+                matrix[result.getQuery()][result.getTarget()] = result.getSimilarity();
+                matrix[result.getTarget()][result.getQuery()] = result.getSimilarity();
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Compare all pairs of molecules (i &lt; j), the results are passed to
+     * the listener (on the calling thread) in the order they complete.
+     *
+     * @param containers the molecules
+     * @param nThreads   number of threads to use
+     * @param listener   receives the results
+     * @throws CDKException a molecule could not be prepared or the search was
+     *                      interrupted
+     */
+    @TestMethod("matrix")
+    public void matrix(List<IAtomContainer> containers, int nThreads, Listener listener) throws CDKException {
+
+        // prepare each molecule once
+        final IAtomContainer[] prepared = new IAtomContainer[containers.size()];
+        final Profile[]        profiles = new Profile[containers.size()];
+        for (int i = 0; i < prepared.length; i++) {
+            prepared[i] = prepare(containers.get(i));
+            profiles[i] = new Profile(prepared[i]);
+        }
+
+        List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+        for (int i = 0; i < prepared.length; i++) {
+            for (int j = i + 1; j < prepared.length; j++) {
+                final int u = i, v = j;
+                tasks.add(new Callable<Result>() {
+                    @Override public Result call() throws Exception {
+                        if (prune(profiles[u], profiles[v]))
+                            return prunedResult(u, v);
+                        return compare(u, v, copy(prepared[u]), copy(prepared[v]));
+                    }
+                });
+            }
+        }
+        run(tasks, nThreads, listener);
+    }
+
+    /**
+     * Stop the current batch, comparisons which have started are completed.
+     */
+    @TestMethod("cancel")
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Number of comparisons in the current (or last) batch.
+     *
+     * @return number of comparisons
+     */
+    @TestMethod("search,matrix")
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Number of comparisons of the current (or last) batch which have
+     * completed, including those which were pruned.
+     *
+     * @return number of completed comparisons
+     */
+    @TestMethod("search,listener")
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Number of comparisons of the current (or last) batch which were pruned.
+     *
+     * @return number of pruned comparisons
+     */
+    @TestMethod("prune")
+    public int getPruned() {
+        return pruned.get();
+    }
+
+    /**
+     * Number of comparisons of the current (or last) batch which timed out.
+     *
+     * @return number of comparisons which timed out
+     */
+    @TestMethod("search")
+    public int getTimedOut() {
+        return timedOut.get();
+    }
+
+    /**
+     * Run the comparisons, one task per pair so that slow comparisons do not
+     * hold up a whole chunk.
+     */
+    private void run(List<Callable<Result>> tasks, int nThreads, final Listener listener) throws CDKException {
+
+        if (nThreads < 1)
+            throw new IllegalArgumentException("at least one thread is required");
+
+        total = tasks.size();
+        completed.set(0);
+        pruned.set(0);
+        timedOut.set(0);
+        cancelled = false;
+
+        // a comparison which has not started when the batch is cancelled is skipped
+        List<Callable<Result>> pending = new ArrayList<Callable<Result>>(tasks.size());
+        for (final Callable<Result> task : tasks) {
+            pending.add(new Callable<Result>() {
+                @Override public Result call() throws Exception {
+                    return cancelled ? null : task.call();
+                }
+            });
+        }
+
+        ParallelTasks.forEach(pending.iterator(), nThreads, false, new ParallelTasks.Handler<Result>() {
+            @Override public boolean handle(Result result) throws CDKException {
+                if (result != null)
+                    listener.result(result);
+                return !cancelled;
+            }
+        });
+    }
+
+    /** Compare two prepared molecules. */
+    private Result compare(int query, int target, IAtomContainer queryMolecule,
+                           IAtomContainer targetMolecule) throws CDKException {
+        Isomorphism mcs = new Isomorphism(algorithm, matchBonds);
+        mcs.init(new MolHandler(queryMolecule, removeHydrogen, false),
+                 new MolHandler(targetMolecule, removeHydrogen, false));
+        double similarity;
+        try {
+            similarity = mcs.getTanimotoSimilarity();
+        } catch (IOException e) {
+            throw new CDKException("could not compute the similarity: " + e.getMessage(), e);
+        }
+        Map<Integer, Integer> mapping = mcs.getFirstMapping() != null
+                                        ? new TreeMap<Integer, Integer>(mcs.getFirstMapping())
+                                        : Collections.<Integer, Integer>emptyMap();
+        if (mcs.isTimeOut())
+            timedOut.incrementAndGet();
+        completed.incrementAndGet();
+        return new Result(query, target, mcs.getReactantMolecule(), mcs.getProductMolecule(),
+                          mapping, similarity, false, mcs.isTimeOut());
+    }
+
+    private Result prunedResult(int query, int target) {
+        pruned.incrementAndGet();
+        completed.incrementAndGet();
+        return new Result(query, target, null, null, Collections.<Integer, Integer>emptyMap(), 0, true, false);
+    }
+
+    /** The pair can not reach the minimum similarity. */
+    private boolean prune(Profile query, Profile target) {
+        return minSimilarity > 0 && upperBound(query, target) < minSimilarity;
+    }
+
+    /** Prepare a molecule for comparison. */
+    private IAtomContainer prepare(IAtomContainer container) {
+        return new MolHandler(container, removeHydrogen, cleanAndConfigure).getMolecule();
+    }
+
+    /**
+     * Copy a prepared molecule, the comparison (and chemical filters) may
+     * modify the atoms.
+     */
+    private static IAtomContainer copy(IAtomContainer container) throws CDKException {
+        try {
+            return container.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new CDKException("could not copy molecule: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * An upper bound of the Tanimoto similarity of the MCS of two molecules,
+     * see {@link Isomorphism#getTanimotoSimilarity()}.
+     *
+     * @param a profile of the first molecule
+     * @param b profile of the second molecule
+     * @return the upper bound
+     */
+    static double upperBound(Profile a, Profile b) {
+        double bound = ratio(common(a.elements, b.elements), a.atomCount, b.atomCount)
+                + ratio(common(a.bonds, b.bonds), a.bondCount, b.bondCount);
+        if (a.bondCount > 0 && b.bondCount > 0)
+            bound /= 2;
+        return Math.min(1, bound);
+    }
+
+    /**
+     * Tanimoto of a common count, the counts may be underestimated. The value
+     * is rounded up as the similarity is rounded to 4 decimal places.
+     */
+    private static double ratio(int common, int a, int b) {
+        if (common == 0)
+            return 0;
+        int denominator = a + b - common;
+        return denominator <= common ? 1 : Math.ceil(1e4 * common / denominator) / 1e4;
+    }
+
+    /** Number of atoms (or bonds) of each kind two molecules have in common. */
+    private static int common(Map<String, int[]> a, Map<String, int[]> b) {
+        int common = 0;
+        for (Map.Entry<String, int[]> e : a.entrySet()) {
+            int[] count = b.get(e.getKey());
+            if (count != null)
+                common += Math.min(e.getValue()[0], count[0]);
+        }
+        return common;
+    }
+
+    /**
+     * The number of atoms of each element and bonds between each pair of
+     * elements of a molecule. The counts include hydrogens (upper bound of the
+     * common atoms) whilst the totals do not (lower bound of the atoms which
+     * are compared).
+     */
+    static final class Profile {
+
+        private final Map<String, int[]> elements = new HashMap<String, int[]>();
+        private final Map<String, int[]> bonds    = new HashMap<String, int[]>();
+        private int atomCount, bondCount;
+
+        Profile(IAtomContainer container) {
+            for (IAtom atom : container.atoms()) {
+                String symbol = symbol(atom);
+                increment(elements, symbol);
+                if (!"H".equals(symbol))
+                    atomCount++;
+            }
+            for (IBond bond : container.bonds()) {
+                if (bond.getAtomCount() != 2)
+                    continue;
+                String u = symbol(bond.getAtom(0)), v = symbol(bond.getAtom(1));
+                increment(bonds, u.compareTo(v) < 0 ? u + "-" + v : v + "-" + u);
+                if (!"H".equals(u) && !"H".equals(v))
+                    bondCount++;
+            }
+        }
+
+        private static String symbol(IAtom atom) {
+            return atom.getSymbol() != null ? atom.getSymbol().toUpperCase() : "";
+        }
+
+        private static void increment(Map<String, int[]> counts, String key) {
+            int[] count = counts.get(key);
+            if (count == null)
+                counts.put(key, count = new int[1]);
+            count[0]++;
+        }
+    }
+}
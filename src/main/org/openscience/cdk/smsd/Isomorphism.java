@@ -49,7 +49,7 @@ import org.openscience.cdk.smsd.algorithm.vflib.VFlibMCSHandler;
 import org.openscience.cdk.smsd.algorithm.vflib.VFlibSubStructureHandler;
 import org.openscience.cdk.smsd.algorithm.vflib.VFlibTurboHandler;
 import org.openscience.cdk.smsd.filters.ChemicalFilters;
-import org.openscience.cdk.smsd.global.TimeOut;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.interfaces.AbstractMCS;
 import org.openscience.cdk.smsd.interfaces.Algorithm;
 import org.openscience.cdk.smsd.tools.MolHandler;
@@ -182,6 +182,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
     private double bondInSensitiveTimeOut = 1.00;//mins
     private boolean subGraph = false;
     private boolean matchBonds = false;
+    private SearchContext context = null;
 
     /**
      * This is the algorithm factory and entry port for all the MCS algorithm in the Isomorphism
@@ -331,7 +332,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private synchronized void cdkMCSAlgorithm() {
         CDKMCSHandler mcs = null;
-        mcs = new CDKMCSHandler();
+        mcs = new CDKMCSHandler(context);
 
         if (queryMol == null) {
             mcs.set(rMol, pMol);
@@ -352,7 +353,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private synchronized void cdkSubgraphAlgorithm() {
         CDKSubGraphHandler mcs = null;
-        mcs = new CDKSubGraphHandler();
+        mcs = new CDKSubGraphHandler(context);
 
         if (queryMol == null) {
             mcs.set(rMol, pMol);
@@ -374,7 +375,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private synchronized void mcsPlusAlgorithm() {
         MCSPlusHandler mcs = null;
-        mcs = new MCSPlusHandler();
+        mcs = new MCSPlusHandler(context);
 
         if (queryMol == null) {
             mcs.set(rMol, pMol);
@@ -394,7 +395,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private void vfLibMCS() {
         VFlibMCSHandler mcs = null;
-        mcs = new VFlibMCSHandler();
+        mcs = new VFlibMCSHandler(context);
         if (queryMol == null) {
             mcs.set(rMol, pMol);
         } else {
@@ -412,7 +413,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private void subStructureHandler() {
         VFlibSubStructureHandler subGraphTurboSearch = null;
-        subGraphTurboSearch = new VFlibSubStructureHandler();
+        subGraphTurboSearch = new VFlibSubStructureHandler(context);
         if (queryMol == null) {
             subGraphTurboSearch.set(rMol, pMol);
         } else {
@@ -430,7 +431,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private void turboSubStructureHandler() {
         VFlibTurboHandler subGraphTurboSearch = null;
-        subGraphTurboSearch = new VFlibTurboHandler();
+        subGraphTurboSearch = new VFlibTurboHandler(context);
         if (queryMol == null) {
             subGraphTurboSearch.set(rMol, pMol);
         } else {
@@ -554,20 +555,43 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
 
     private void setTime(boolean bondTypeFlag) {
         if (bondTypeFlag) {
-            TimeOut tmo = TimeOut.getInstance();
-            tmo.setTimeOut(getBondSensitiveTimeOut());
+            context = new SearchContext(getBondSensitiveTimeOut());
         } else {
-            TimeOut tmo = TimeOut.getInstance();
-            tmo.setTimeOut(getBondInSensitiveTimeOut());
+            context = new SearchContext(getBondInSensitiveTimeOut());
         }
     }
 
     public boolean isTimeOut() {
-        return TimeOut.getInstance().isTimeOutFlag();
+        return context.isTimeOutFlag();
     }
 
     public void resetTimeOut() {
-        TimeOut.getInstance().setTimeOutFlag(false);
+        context.resetTimeOutFlag();
+    }
+
+    /**
+     * Access the context of the search, the context can be used to cancel
+     * the search from another thread or to inspect the number of nodes
+     * visited.
+     *
+     * @return the search context
+     */
+    @TestMethod("testSearchContext")
+    public SearchContext getSearchContext() {
+        return context;
+    }
+
+    /**
+     * Set the context of the search, replacing the context created from the
+     * bond sensitive/insensitive time out.
+     *
+     * @param context the search context
+     */
+    @TestMethod("testSearchContext")
+    public void setSearchContext(SearchContext context) {
+        if (context == null)
+            throw new NullPointerException("no search context provided");
+        this.context = context;
     }
 
     private void clearMaps() {
@@ -578,13 +602,20 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
     }
 
     /**
-     *
-     * @param reactant
-     * @param product
-     * @param removeHydrogen
-     *
+     * Initialize the query and target molecules which have already been
+     * prepared (e.g. hydrogens removed, cleaned and configured). This allows
+     * the preparation of a molecule to be reused between comparisons.
+     * @param reactant prepared query molecule
+     * @param product prepared target molecule
+     * @throws CDKException
      */
-    private void init(MolHandler reactant, MolHandler product) throws CDKException {
+    @TestMethod("testInit_MolHandler")
+    public void init(MolHandler reactant, MolHandler product) throws CDKException {
+        this.removeHydrogen = reactant.getRemoveHydrogenFlag();
+        setMolecules(reactant, product);
+    }
+
+    private void setMolecules(MolHandler reactant, MolHandler product) throws CDKException {
         this.rMol = reactant;
         this.pMol = product;
         mcsBuilder(reactant, product);
@@ -612,7 +643,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
     @TestMethod("testInit_3args_2")
     public void init(IAtomContainer reactant, IAtomContainer product, boolean removeHydrogen, boolean cleanAndConfigureMolecule) throws CDKException {
         this.removeHydrogen = removeHydrogen;
-        init(new MolHandler(reactant, removeHydrogen, cleanAndConfigureMolecule),
+        setMolecules(new MolHandler(reactant, removeHydrogen, cleanAndConfigureMolecule),
                 new MolHandler(product, removeHydrogen, cleanAndConfigureMolecule));
     }
 
@@ -627,7 +658,7 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
     @TestMethod("testInit_3args_3")
     public void init(String sourceMolFileName, String targetMolFileName, boolean removeHydrogen, boolean cleanAndConfigureMolecule) throws CDKException {
         this.removeHydrogen = removeHydrogen;
-        init(new MolHandler(sourceMolFileName, cleanAndConfigureMolecule, removeHydrogen),
+        setMolecules(new MolHandler(sourceMolFileName, cleanAndConfigureMolecule, removeHydrogen),
                 new MolHandler(targetMolFileName, cleanAndConfigureMolecule, removeHydrogen));
     }
 
@@ -909,6 +940,8 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
     @Override
     public void setBondSensitiveTimeOut(double bondSensitiveTimeOut) {
         this.bondSensitiveTimeOut = bondSensitiveTimeOut;
+        if (context != null && isMatchBonds())
+            context.setTimeOut(bondSensitiveTimeOut);
     }
 
     /**
@@ -927,6 +960,8 @@ public final class Isomorphism extends AbstractMCS implements Serializable {
     @Override
     public void setBondInSensitiveTimeOut(double bondInSensitiveTimeOut) {
         this.bondInSensitiveTimeOut = bondInSensitiveTimeOut;
+        if (context != null && !isMatchBonds())
+            context.setTimeOut(bondInSensitiveTimeOut);
     }
 
     /**
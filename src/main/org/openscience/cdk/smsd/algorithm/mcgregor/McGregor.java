@@ -1,4 +1,3 @@
-
 /* Copyright (C) 2005-2006 Markus Leber
  *               2006-2009 Syed Asad Rahman <asad@ebi.ac.uk>
  *
@@ -25,16 +24,21 @@
 package org.openscience.cdk.smsd.algorithm.mcgregor;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
+import java.util.TreeMap;
 import org.openscience.cdk.annotations.TestClass;
-import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
 import org.openscience.cdk.isomorphism.matchers.IQueryAtomContainer;
-import org.openscience.cdk.smsd.helper.BinaryTree;
+import org.openscience.cdk.smsd.global.SearchContext;
 
 /**
  * Class which reports MCS solutions based on the McGregor algorithm
@@ -45,6 +49,15 @@ import org.openscience.cdk.smsd.helper.BinaryTree;
  *  {@cdk.cite SMSD2009}.
  *  </p>
  *
+ * <p>The search works on primitive arrays: the bonds of each extension
+ * level are atom index pairs with integer labels (element symbols and the
+ * special signs marking mapped atoms), the arcs between the neighbour bonds
+ * of the two molecules are a bit matrix and both the enumeration of the
+ * maximal arc sets and the extension of the mappings use an explicit stack
+ * instead of recursion. Bond match results are computed once per bond pair.
+ * The search can stop once a mapping of a given size was found ({@link
+ * #setTargetMappingSize(int)}).</p>
+ *
  * @cdk.module smsd
  * @cdk.githash
  * @author Syed Asad Rahman <asad@ebi.ac.uk>
@@ -52,48 +65,63 @@ import org.openscience.cdk.smsd.helper.BinaryTree;
 @TestClass("org.openscience.cdk.smsd.algorithm.mcgregor.McGregorTest")
 public final class McGregor {
 
+    /** Label of an atom not (yet) relabelled with a sign. */
+    private static final int X = 0;
+
     private IAtomContainer source = null;
     private IAtomContainer target = null;
-    private BinaryTree last = null;
-    private BinaryTree first = null;
-    private Stack<List<Integer>> bestARCS = null;
-    private List<Integer> modifiedARCS = null;
-    private int bestarcsleft = 0;
     private int globalMCSSize = 0;
     private List<List<Integer>> mappings = null;
-    /*This should be more or equal to all the atom types*/
-    private static final String[] SIGNS = {
-        "$1", "$2", "$3", "$4", "$5", "$6", "$7", "$8", "$9", "$10", "$11", "$12",
-        "$13", "$15", "$16", "$17", "$18", "$19", "$20", "$21", "$22", "$23", "$24",
-        "$25", "$26", "$27", "$28", "$29", "$30", "$31", "$32", "$33", "$34", "$35",
-        "$36", "$37", "$38", "$39", "$40", "$41", "$42", "$43", "$44", "$45", "$46",
-        "$47", "$48", "$49", "$50", "$51", "$52", "$53", "$54", "$55"
-    };
     private boolean newMatrix = false;
     private boolean bondMatch = false;
+    private final SearchContext context;
+
+    /** Stop once a mapping of this size is found, 0 for no limit. */
+    private int targetMappingSize = 0;
+
+    /** Labels of the element symbols, compared ignoring case. */
+    private final Map<String, Integer> labels = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+
+    /** Bond pair match results: 0 unknown, 1 feasible, 2 infeasible. */
+    private byte[][] feasible;
+
+    /** Bond index of each source/target bond (first bond between its atoms). */
+    private int[] sourceBondIds, targetBondIds;
 
     /**
      * Constructor for the McGregor algorithm.
      * @param source
      * @param target
      * @param _mappings
-     * @param shouldMatchBonds 
+     * @param shouldMatchBonds
      */
     public McGregor(IAtomContainer source, IAtomContainer target, List<List<Integer>> _mappings, boolean shouldMatchBonds) {
+        this(source, target, _mappings, shouldMatchBonds, new SearchContext());
+    }
+
+    /**
+     * Constructor for the McGregor algorithm, the extension stops
+     * when the context is cancelled.
+     * @param source
+     * @param target
+     * @param _mappings
+     * @param shouldMatchBonds
+     * @param context time budget and cancellation of the search
+     */
+    public McGregor(IAtomContainer source, IAtomContainer target, List<List<Integer>> _mappings, boolean shouldMatchBonds,
+            SearchContext context) {
 
+        this.context = context;
         setBondMatch(shouldMatchBonds);
         this.source = source;
         this.target = target;
         this.mappings = _mappings;
-        this.bestarcsleft = 0;
 
         if (!_mappings.isEmpty()) {
             this.globalMCSSize = _mappings.get(0).size();
         } else {
             this.globalMCSSize = 0;
         }
-        this.modifiedARCS = new ArrayList<Integer>();
-        this.bestARCS = new Stack<List<Integer>>();
         this.newMatrix = false;
     }
 
@@ -104,21 +132,31 @@ public final class McGregor {
      * @param _mappings
      */
     public McGregor(IQueryAtomContainer source, IAtomContainer target, List<List<Integer>> _mappings) {
+        this(source, target, _mappings, new SearchContext());
+    }
 
-        setBondMatch(true);
-        this.source = source;
-        this.target = target;
-        this.mappings = _mappings;
-        this.bestarcsleft = 0;
+    /**
+     * Constructor for the McGregor algorithm, the extension stops
+     * when the context is cancelled.
+     * @param source
+     * @param target
+     * @param _mappings
+     * @param context time budget and cancellation of the search
+     */
+    public McGregor(IQueryAtomContainer source, IAtomContainer target, List<List<Integer>> _mappings,
+            SearchContext context) {
+        this(source, target, _mappings, true, context);
+    }
 
-        if (!_mappings.isEmpty()) {
-            this.globalMCSSize = _mappings.get(0).size();
-        } else {
-            this.globalMCSSize = 0;
-        }
-        this.modifiedARCS = new ArrayList<Integer>();
-        this.bestARCS = new Stack<List<Integer>>();
-        this.newMatrix = false;
+    /**
+     * Stop the extension once a mapping of (at least) the given number of
+     * atoms has been found. The mappings found up to that point are kept.
+     * @param size mapping size (number of atom pairs), 0 to find all
+     * mappings of the largest size
+     */
+    @TestMethod("testTargetMappingSize")
+    public void setTargetMappingSize(int size) {
+        this.targetMappingSize = size;
     }
 
     /**
@@ -127,141 +165,25 @@ public final class McGregor {
      * @param present_Mapping
      * @throws IOException
      */
+    @TestMethod("testStartMcGregorIteration_Map")
     public void startMcGregorIteration(int largestMappingSize, Map<Integer, Integer> present_Mapping) throws IOException {
 
         this.globalMCSSize = (largestMappingSize / 2);
-        List<String> c_tab1_copy = McGregorChecks.generateCTabCopy(source);
-        List<String> c_tab2_copy = McGregorChecks.generateCTabCopy(target);
-
+        init();
 
         //find mapped atoms of both molecules and store these in mappedAtoms
-        List<Integer> mapped_atoms = new ArrayList<Integer>();
-//        System.out.println("\nMapped Atoms");
+        int[] mappedAtoms = new int[2 * present_Mapping.size()];
+        int n = 0;
         for (Map.Entry<Integer, Integer> map : present_Mapping.entrySet()) {
-//            System.out.println("i:" + map.getKey() + " j:" + map.getValue());
-            mapped_atoms.add(map.getKey());
-            mapped_atoms.add(map.getValue());
+            mappedAtoms[n++] = map.getKey();
+            mappedAtoms[n++] = map.getValue();
         }
-        int mapping_size = present_Mapping.size();
-
-
-        List<Integer> i_bond_neighborsA = new ArrayList<Integer>();
-        List<String> c_bond_neighborsA = new ArrayList<String>();
+        int mappingSize = present_Mapping.size();
 
-        List<Integer> i_bond_setA = new ArrayList<Integer>();
-        List<String> c_bond_setA = new ArrayList<String>();
+        int[] unmappedAtomsA = unmappedAtoms(source.getAtomCount(), mappedAtoms, mappingSize, 0);
+        int[] unmappedAtomsB = unmappedAtoms(target.getAtomCount(), mappedAtoms, mappingSize, 1);
 
-        List<Integer> i_bond_neighborsB = new ArrayList<Integer>();
-        List<Integer> i_bond_setB = new ArrayList<Integer>();
-        List<String> c_bond_neighborsB = new ArrayList<String>();
-        List<String> c_bond_setB = new ArrayList<String>();
-
-        //find unmapped atoms of molecule A
-
-        List<Integer> unmapped_atoms_molA = McGregorChecks.markUnMappedAtoms(true, source, present_Mapping);
-        int counter = 0;
-        int gSetBondNumA = 0;
-        int gSetBondNumB = 0;
-        int gNeighborBondnumA = 0; //number of remaining molecule A bonds after the clique search, which are neighbors of the MCS_1
-        int gNeighborBondNumB = 0; //number of remaining molecule B bonds after the clique search, which are neighbors of the MCS_1
-
-
-
-        QueryProcessor queryProcess = new QueryProcessor(
-                c_tab1_copy,
-                c_tab2_copy,
-                SIGNS,
-                gNeighborBondnumA,
-                gSetBondNumA,
-                i_bond_neighborsA,
-                c_bond_neighborsA,
-                mapping_size,
-                i_bond_setA,
-                c_bond_setA);
-
-
-        if (!(source instanceof IQueryAtomContainer)) {
-            queryProcess.process(
-                    source,
-                    target,
-                    unmapped_atoms_molA,
-                    mapped_atoms,
-                    counter);
-        } else {
-            queryProcess.process(
-                    (IQueryAtomContainer) source,
-                    target,
-                    unmapped_atoms_molA,
-                    mapped_atoms,
-                    counter);
-        }
-
-        c_tab1_copy = queryProcess.getCTab1();
-        c_tab2_copy = queryProcess.getCTab2();
-        gSetBondNumA = queryProcess.getBondNumA();
-        gNeighborBondnumA = queryProcess.getNeighborBondNumA();
-        i_bond_neighborsA = queryProcess.getIBondNeighboursA();
-        c_bond_neighborsA = queryProcess.getCBondNeighborsA();
-
-        //find unmapped atoms of molecule B
-        List<Integer> unmapped_atoms_molB = McGregorChecks.markUnMappedAtoms(false, target, present_Mapping);
-
-//        System.out.println("unmapped_atoms_molB: " + unmapped_atoms_molB.size());
-
-        //Extract bonds which are related with unmapped atoms of molecule B.
-        //In case that unmapped atoms are connected with already mapped atoms, the mapped atoms are labelled with
-        //new special signs -> the result are two vectors: cBondNeighborsA and int_bonds_molB, which contain those
-        //bonds of molecule B, which are relevant for the McGregorBondTypeInSensitive algorithm.
-        //The special signs must be transfered to the corresponding atoms of molecule A
-
-
-        TargetProcessor targetProcess = new TargetProcessor(
-                c_tab1_copy,
-                c_tab2_copy,
-                SIGNS,
-                gNeighborBondNumB,
-                gSetBondNumB,
-                i_bond_neighborsB,
-                c_bond_neighborsB,
-                gNeighborBondnumA,
-                i_bond_neighborsA,
-                c_bond_neighborsA);
-
-
-        targetProcess.process(
-                target,
-                unmapped_atoms_molB,
-                mapping_size,
-                i_bond_setB,
-                c_bond_setB,
-                mapped_atoms,
-                counter);
-
-        c_tab1_copy = targetProcess.getCTab1();
-        c_tab2_copy = targetProcess.getCTab2();
-        gSetBondNumB = targetProcess.getBondNumB();
-        gNeighborBondNumB = targetProcess.getNeighborBondNumB();
-        i_bond_neighborsB = targetProcess.getIBondNeighboursB();
-        c_bond_neighborsB = targetProcess.getCBondNeighborsB();
-
-        boolean dummy = false;
-
-        McgregorHelper mcGregorHelper = new McgregorHelper(dummy,
-                present_Mapping.size(),
-                mapped_atoms,
-                gNeighborBondnumA,
-                gNeighborBondNumB,
-                i_bond_neighborsA,
-                i_bond_neighborsB,
-                c_bond_neighborsA,
-                c_bond_neighborsB,
-                gSetBondNumA,
-                gSetBondNumB,
-                i_bond_setA,
-                i_bond_setB,
-                c_bond_setA,
-                c_bond_setB);
-        iterator(mcGregorHelper);
+        search(start(mappingSize, mappedAtoms, mappingSize, unmappedAtomsA, unmappedAtomsB));
     }
 
     /**
@@ -271,744 +193,889 @@ public final class McGregor {
      * @param comp_graph_nodes
      * @throws IOException
      */
+    @TestMethod("testStartMcGregorIteration_Clique")
     public void startMcGregorIteration(int largestMappingSize, List<Integer> clique_vector, List<Integer> comp_graph_nodes) throws IOException {
+
         this.globalMCSSize = (largestMappingSize / 2);
-        List<String> c_tab1_copy = McGregorChecks.generateCTabCopy(source);
+        init();
 
-        List<String> c_tab2_copy = McGregorChecks.generateCTabCopy(target);
+        int cliqueSize = clique_vector.size();
+        int vecSize = comp_graph_nodes.size();
 
         //find mapped atoms of both molecules and store these in mappedAtoms
-        List<Integer> mapped_atoms = new ArrayList<Integer>();
-
+        IntArray mapped = new IntArray(2 * cliqueSize);
         int mappedAtomCount = 0;
+        for (int a = 0; a < cliqueSize; a++) {
+            //go through all clique nodes
+            int cliqueNumber = clique_vector.get(a);
+            for (int b = 0; b < vecSize; b += 3) {
+                //go through all nodes in the compatibility graph
+                if (cliqueNumber == comp_graph_nodes.get(b + 2)) {
+                    mapped.add(comp_graph_nodes.get(b));
+                    mapped.add(comp_graph_nodes.get(b + 1));
+                    mappedAtomCount++;
+                }
+            }
+        }
+        int[] mappedAtoms = mapped.toArray();
 
+        // the atoms of the first half of the clique are marked as mapped (as
+        // the atoms were by the List based implementation)
+        int[] unmappedAtomsA = unmappedCliqueAtoms(source.getAtomCount(), mappedAtoms, cliqueSize, 0);
+        int[] unmappedAtomsB = unmappedCliqueAtoms(target.getAtomCount(), mappedAtoms, cliqueSize, 1);
 
-        List<Integer> iBondNeighborAtomsA = new ArrayList<Integer>();
-        List<String> cBondNeighborsA = new ArrayList<String>();
+        search(start(mappedAtomCount, mappedAtoms, cliqueSize, unmappedAtomsA, unmappedAtomsB));
+    }
 
-        List<Integer> i_bond_setA = new ArrayList<Integer>();
-        List<String> c_bond_setA = new ArrayList<String>();
+    /**
+     * Returns computed mappings.
+     * @return mappings
+     */
+    public List<List<Integer>> getMappings() {
 
-        List<Integer> iBondNeighborAtomsB = new ArrayList<Integer>();
-        List<Integer> i_bond_setB = new ArrayList<Integer>();
-        List<String> cBondNeighborsB = new ArrayList<String>();
-        List<String> c_bond_setB = new ArrayList<String>();
+        return mappings;
+    }
 
+    /**
+     * Returns MCS size.
+     * @return MCS size
+     */
+    public int getMCSSize() {
 
+        return this.globalMCSSize;
+    }
 
-        int clique_siz = clique_vector.size();
-        int vec_size = comp_graph_nodes.size();
+    /**
+     * Checks if its a new Matrix.
+     * @return the newMatrix
+     */
+    public boolean isNewMatrix() {
+        return newMatrix;
+    }
 
+    /**
+     * set a new Matrix.
+     * @param newMatrix the newMatrix to set
+     */
+    public void setNewMatrix(boolean newMatrix) {
+        this.newMatrix = newMatrix;
+    }
 
-        int cliqueNumber = 0;
+    /**
+     * Index the bonds of both molecules, the bond of an atom pair is the
+     * first bond between the two atoms.
+     */
+    private void init() {
+        if (feasible != null)
+            return;
+        sourceBondIds = bondIds(source);
+        targetBondIds = bondIds(target);
+        feasible = new byte[source.getBondCount()][target.getBondCount()];
+    }
 
-        for (int a = 0; a < clique_siz; a++) {
-            //go through all clique nodes
-            cliqueNumber = clique_vector.get(a);
-            for (int b = 0; b < vec_size; b += 3) {
-                //go through all nodes in the compatibility graph
-                if (cliqueNumber == comp_graph_nodes.get(b + 2)) {
-                    mapped_atoms.add(comp_graph_nodes.get(b));
-                    mapped_atoms.add(comp_graph_nodes.get(b + 1));
-                    mappedAtomCount++;
-                }
-            }
+    private static int[] bondIds(IAtomContainer container) {
+        int[] ids = new int[container.getBondCount()];
+        for (int k = 0; k < ids.length; k++) {
+            IBond bond = container.getBond(k);
+            ids[k] = container.getBondNumber(container.getBond(bond.getAtom(0), bond.getAtom(1)));
         }
+        return ids;
+    }
 
+    /**
+     * The extension level of the initial mapping, the bonds of both molecules
+     * are split into bonds neighbouring the mapping and remaining bonds.
+     */
+    private State start(int mappedAtomCount, int[] mappedAtoms, int mappingSize, int[] unmappedAtomsA,
+            int[] unmappedAtomsB) {
 
-        //find unmapped atoms of molecule A
-        List<Integer> unmapped_atoms_molA =
-                McGregorChecks.markUnMappedAtoms(true, source, mapped_atoms, clique_siz);
+        Bonds tableA = bonds(source, sourceBondIds);
+        Bonds tableB = bonds(target, targetBondIds);
 
-        int counter = 0;
-        int setNumA = 0;
-        int setNumB = 0;
-        int localNeighborBondnumA = 0; //number of remaining molecule A bonds after the clique search, which are neighbors of the MCS_1
-        int localNeighborBondNumB = 0; //number of remaining molecule B bonds after the clique search, which are neighbors of the MCS_1
-
-        //Extract bonds which are related with unmapped atoms of molecule A.
-        //In case that unmapped atoms are connected with already mapped atoms, the mapped atoms are labelled with
-        //new special signs -> the result are two vectors: cBondNeighborsA and int_bonds_molA, which contain those
-        //bonds of molecule A, which are relevant for the McGregorBondTypeInSensitive algorithm.
-        //The special signs must be transfered to the corresponding atoms of molecule B
-
-        QueryProcessor queryProcess = new QueryProcessor(
-                c_tab1_copy,
-                c_tab2_copy,
-                SIGNS,
-                localNeighborBondnumA,
-                setNumA,
-                iBondNeighborAtomsA,
-                cBondNeighborsA,
-                clique_siz,
-                i_bond_setA,
-                c_bond_setA);
-
-
-        queryProcess.process(
-                source,
-                target,
-                unmapped_atoms_molA,
-                mapped_atoms,
-                counter);
-
-        c_tab1_copy = queryProcess.getCTab1();
-        c_tab2_copy = queryProcess.getCTab2();
-        setNumA = queryProcess.getBondNumA();
-        localNeighborBondnumA = queryProcess.getNeighborBondNumA();
-        iBondNeighborAtomsA = queryProcess.getIBondNeighboursA();
-        cBondNeighborsA = queryProcess.getCBondNeighborsA();
-
-        //find unmapped atoms of molecule B
-        List<Integer> unmapped_atoms_molB =
-                McGregorChecks.markUnMappedAtoms(false, target, mapped_atoms, clique_siz);
-
-
-        //Extract bonds which are related with unmapped atoms of molecule B.
-        //In case that unmapped atoms are connected with already mapped atoms, the mapped atoms are labelled with
-        //new special signs -> the result are two vectors: cBondNeighborsA and int_bonds_molB, which contain those
-        //bonds of molecule B, which are relevant for the McGregorBondTypeInSensitive algorithm.
-        //The special signs must be transfered to the corresponding atoms of molecule A
-
-
-
-        TargetProcessor targetProcess = new TargetProcessor(
-                c_tab1_copy,
-                c_tab2_copy,
-                SIGNS,
-                localNeighborBondNumB,
-                setNumB,
-                iBondNeighborAtomsB,
-                cBondNeighborsB,
-                localNeighborBondnumA,
-                iBondNeighborAtomsA,
-                cBondNeighborsA);
-
-
-        targetProcess.process(
-                target,
-                unmapped_atoms_molB,
-                clique_siz,
-                i_bond_setB,
-                c_bond_setB,
-                mapped_atoms,
-                counter);
-
-        c_tab1_copy = targetProcess.getCTab1();
-        c_tab2_copy = targetProcess.getCTab2();
-        setNumB = targetProcess.getBondNumB();
-        localNeighborBondNumB = targetProcess.getNeighborBondNumB();
-        iBondNeighborAtomsB = targetProcess.getIBondNeighboursB();
-        cBondNeighborsB = targetProcess.getCBondNeighborsB();
-
-        boolean dummy = false;
-
-        McgregorHelper mcGregorHelper = new McgregorHelper(dummy,
-                mappedAtomCount,
-                mapped_atoms,
-                localNeighborBondnumA,
-                localNeighborBondNumB,
-                iBondNeighborAtomsA,
-                iBondNeighborAtomsB,
-                cBondNeighborsA,
-                cBondNeighborsB,
-                setNumA,
-                setNumB,
-                i_bond_setA,
-                i_bond_setB,
-                c_bond_setA,
-                c_bond_setB);
-        iterator(mcGregorHelper);
-
-    }
-
-    private int iterator(McgregorHelper mcGregorHelper) throws IOException {
-
-        boolean mappingCheckFlag = mcGregorHelper.isMappingCheckFlag();
-        int mappedAtomCount = mcGregorHelper.getMappedAtomCount();
-        List<Integer> mappedAtoms = new ArrayList<Integer>(mcGregorHelper.getMappedAtomsOrg());
-        int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
-        int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
-
-
-//        //check possible mappings:
-        boolean furtherMappingFlag = McGregorChecks.isFurtherMappingPossible(source, target, mcGregorHelper, isBondMatch());
-
-        if (neighborBondNumA == 0 || neighborBondNumB == 0 || mappingCheckFlag || !furtherMappingFlag) {
-            setFinalMappings(mappedAtoms, mappedAtomCount);
-            return 0;
-        }
-
-        modifiedARCS.clear();
-        int size = neighborBondNumA * neighborBondNumB;
-        for (int i = 0; i < size; i++) {
-            modifiedARCS.add(i, 0);
-        }
-        setModifedArcs(mcGregorHelper);
-        first = new BinaryTree(-1);
-        last = first;
-        last.setEqual(null);
-        last.setNotEqual(null);
-        bestarcsleft = 0;
-
-        startsearch(mcGregorHelper);
-        Stack<List<Integer>> BESTARCS_copy = new Stack<List<Integer>>();
-
-        BESTARCS_copy.addAll(bestARCS);
-        while (!bestARCS.empty()) {
-            bestARCS.pop();
-        }
-        searchAndExtendMappings(BESTARCS_copy, mcGregorHelper);
-
-        //System.out.println("In the iterator Termination");
-        //System.out.println("============+++++++++==============");
-        //System.out.println("Mapped Atoms before iterator Over: " + mappedAtoms);
-        return 0;
-    }
-
-    private void searchAndExtendMappings(
-            Stack<List<Integer>> BESTARCS_copy,
-            McgregorHelper mcGregorHelper) throws IOException {
-        int mappedAtomCount = mcGregorHelper.getMappedAtomCount();
-
-        int setNumA = mcGregorHelper.getSetNumA();
-        int setNumB = mcGregorHelper.getsetNumB();
-        List<Integer> i_bond_setA = mcGregorHelper.getIBondSetA();
-        List<Integer> i_bond_setB = mcGregorHelper.getIBondSetB();
-        List<String> c_bond_setA = mcGregorHelper.getCBondSetA();
-        List<String> c_bond_setB = mcGregorHelper.getCBondSetB();
-
-        while (!BESTARCS_copy.empty()) {
-
-            List<Integer> MARCS_vector = new ArrayList<Integer>(BESTARCS_copy.peek());
-            List<Integer> new_Mapping = findMcGregorMapping(MARCS_vector, mcGregorHelper);
-
-            int newMapingSize = new_Mapping.size() / 2;
-            boolean no_further_MAPPINGS = false;
-            if (mappedAtomCount == newMapingSize) {
-                no_further_MAPPINGS = true;
-            }
+        Bonds neighborsA = new Bonds(tableA.size);
+        Bonds setA = new Bonds(tableA.size);
+        processQuery(tableA, tableB, unmappedAtomsA, mappedAtoms, mappingSize, neighborsA, setA);
 
-            List<Integer> new_i_neighborsA = new ArrayList<Integer>(); //instead of iBondNeighborAtomsA
-            List<Integer> new_i_neighborsB = new ArrayList<Integer>(); //instead of iBondNeighborAtomsB
-            List<String> new_c_neighborsA = new ArrayList<String>(); //instead of cBondNeighborsA
-            List<String> new_c_neighborsB = new ArrayList<String>(); //instead of cBondNeighborsB
-            List<Integer> new_i_bond_setA = new ArrayList<Integer>(); //instead of i_bond_setA
-            List<Integer> new_i_bond_setB = new ArrayList<Integer>(); //instead of i_bond_setB
-            List<String> new_c_bond_setA = new ArrayList<String>(); //instead of c_bond_setA
-            List<String> new_c_bond_setB = new ArrayList<String>(); //instead of c_bond_setB
-            //new values for setNumA + setNumB
-            //new arrays for i_bond_setA + i_bond_setB + c_bond_setB + c_bond_setB
-
-            List<String> c_setA_copy = McGregorChecks.generateCSetCopy(setNumA, c_bond_setA);
-            List<String> c_setB_copy = McGregorChecks.generateCSetCopy(setNumB, c_bond_setB);
-
-            //find unmapped atoms of molecule A
-            List<Integer> unmapped_atoms_molA = new ArrayList<Integer>();
-            int unmapped_numA = 0;
-            boolean atomA_is_unmapped = true;
-
-            for (int a = 0; a < source.getAtomCount(); a++) {
-                for (int b = 0; b < newMapingSize; b++) {
-                    if (a == new_Mapping.get(b * 2 + 0)) {
-                        atomA_is_unmapped = false;
-                    }
+        Bonds neighborsB = new Bonds(tableB.size);
+        Bonds setB = new Bonds(tableB.size);
+        processTarget(tableB, unmappedAtomsB, mappedAtoms, mappingSize, neighborsA, neighborsB, setB);
 
-                }
-                if (atomA_is_unmapped) {
-                    unmapped_atoms_molA.add(unmapped_numA++, a);
-                }
-                atomA_is_unmapped = true;
-            }
+        return new State(false, mappedAtomCount, mappedAtoms, neighborsA, neighborsB, setA, setB);
+    }
 
+    /**
+     * All bonds of the container labelled with the symbols of their atoms.
+     */
+    private Bonds bonds(IAtomContainer container, int[] ids) {
+        Bonds bonds = new Bonds(container.getBondCount());
+        for (int k = 0; k < container.getBondCount(); k++) {
+            IBond bond = container.getBond(k);
+            bonds.add(container.getAtomNumber(bond.getAtom(0)),
+                    container.getAtomNumber(bond.getAtom(1)),
+                    ids[k],
+                    label(bond.getAtom(0).getSymbol()),
+                    label(bond.getAtom(1).getSymbol()),
+                    X, X);
+        }
+        return bonds;
+    }
 
-            //The special signs must be transfered to the corresponding atoms of molecule B
-
-            int counter = 0;
-            //number of remaining molecule A bonds after the clique search, which aren't neighbors
-            int newSetBondNumA = 0; //instead of setNumA
-            int newNeighborNumA = 0; //instead of localNeighborBondnumA
-
-
-            QueryProcessor queryProcess =
-                    new QueryProcessor(
-                    c_setA_copy,
-                    c_setB_copy,
-                    SIGNS,
-                    newNeighborNumA,
-                    newSetBondNumA,
-                    new_i_neighborsA,
-                    new_c_neighborsA,
-                    newMapingSize,
-                    new_i_bond_setA,
-                    new_c_bond_setA);
-
-
-            queryProcess.process(
-                    setNumA,
-                    setNumB,
-                    i_bond_setA,
-                    i_bond_setB,
-                    unmapped_atoms_molA,
-                    new_Mapping,
-                    counter);
-
-            c_setA_copy = queryProcess.getCTab1();
-            c_setB_copy = queryProcess.getCTab2();
-            newSetBondNumA = queryProcess.getBondNumA();
-            newNeighborNumA = queryProcess.getNeighborBondNumA();
-            new_i_neighborsA = queryProcess.getIBondNeighboursA();
-            new_c_neighborsA = queryProcess.getCBondNeighborsA();
-
-            //find unmapped atoms of molecule B
-
-            List<Integer> unmapped_atoms_molB = new ArrayList<Integer>();
-            int unmapped_numB = 0;
-            boolean atomB_is_unmapped = true;
-
-            for (int a = 0; a < target.getAtomCount(); a++) {
-                for (int b = 0; b < newMapingSize; b++) {
-                    if (a == new_Mapping.get(b * 2 + 1)) {
-                        atomB_is_unmapped = false;
-                    }
-                }
-                if (atomB_is_unmapped) {
-                    unmapped_atoms_molB.add(unmapped_numB++, a);
-                }
-                atomB_is_unmapped = true;
-            }
+    private int label(String symbol) {
+        if (symbol == null)
+            return Integer.MAX_VALUE;
+        if (labels.isEmpty())
+            labels.put("X", X);
+        Integer label = labels.get(symbol);
+        if (label == null)
+            labels.put(symbol, label = labels.size());
+        return label;
+    }
 
+    /** Label (negative) of the n-th special sign. */
+    private static int sign(int n) {
+        return -(n + 1);
+    }
 
-            //number of remaining molecule B bonds after the clique search, which aren't neighbors
-            int newSetBondNumB = 0; //instead of setNumB
-            int newNeighborNumB = 0; //instead of localNeighborBondNumB
-
-            TargetProcessor targetProcess = new TargetProcessor(
-                    c_setA_copy,
-                    c_setB_copy,
-                    SIGNS,
-                    newNeighborNumB,
-                    newSetBondNumB,
-                    new_i_neighborsB,
-                    new_c_neighborsB,
-                    newNeighborNumA,
-                    new_i_neighborsA,
-                    new_c_neighborsA);
-
-
-            targetProcess.process(
-                    setNumB,
-                    unmapped_atoms_molB,
-                    newMapingSize,
-                    i_bond_setB,
-                    c_bond_setB,
-                    new_Mapping,
-                    counter,
-                    new_i_bond_setB,
-                    new_c_bond_setB);
-
-            c_setA_copy = targetProcess.getCTab1();
-            c_setB_copy = targetProcess.getCTab2();
-            newSetBondNumB = targetProcess.getBondNumB();
-            newNeighborNumB = targetProcess.getNeighborBondNumB();
-            new_i_neighborsB = targetProcess.getIBondNeighboursB();
-            new_c_neighborsB = targetProcess.getCBondNeighborsB();
-
-//             System.out.println("Mapped Atoms before Iterator2: " + mappedAtoms);
-            McgregorHelper newMH = new McgregorHelper(no_further_MAPPINGS,
-                    newMapingSize,
-                    new_Mapping,
-                    newNeighborNumA,
-                    newNeighborNumB,
-                    new_i_neighborsA,
-                    new_i_neighborsB,
-                    new_c_neighborsA,
-                    new_c_neighborsB,
-                    newSetBondNumA,
-                    newSetBondNumB,
-                    new_i_bond_setA,
-                    new_i_bond_setB,
-                    new_c_bond_setA,
-                    new_c_bond_setB);
-
-            iterator(newMH);
-            BESTARCS_copy.pop();
-//            System.out.println("End of the iterator!!!!");
-        }
-    }
-
-    private List<Integer> findMcGregorMapping(List<Integer> MARCS, McgregorHelper mcGregorHelper) {
-
-        int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
-        int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
-        List<Integer> currentMapping = new ArrayList<Integer>(mcGregorHelper.getMappedAtomsOrg());
-        List<Integer> additional_mapping = new ArrayList<Integer>();
-
-        for (int x = 0; x < neighborBondNumA; x++) {
-            for (int y = 0; y < neighborBondNumB; y++) {
-                if (MARCS.get(x * neighborBondNumB + y) == 1) {
-                    extendMapping(x, y, mcGregorHelper, additional_mapping, currentMapping);
-                }
+    /**
+     * Extend the mapping of the initial level, each level is expanded with
+     * every maximal set of arcs between its neighbour bonds. The levels are
+     * visited depth first (last arc set first).
+     */
+    private void search(State root) {
+
+        Deque<Level> stack = new ArrayDeque<Level>();
+        List<long[]> arcs = expand(root);
+        if (arcs != null)
+            stack.push(new Level(root, arcs));
+
+        while (!stack.isEmpty()) {
+            if (isTargetMappingSizeReached())
+                return;
+            Level level = stack.peek();
+            if (level.next < 0) {
+                stack.pop();
+                continue;
             }
+            State state = extend(level.state, level.arcs.get(level.next--));
+            arcs = expand(state);
+            if (arcs != null)
+                stack.push(new Level(state, arcs));
         }
+    }
 
-
-        int additionalMappingSize = additional_mapping.size();
-        //add McGregorBondTypeInSensitive mapping to the Clique mapping
-        for (int a = 0; a < additionalMappingSize; a += 2) {
-            currentMapping.add(additional_mapping.get(a + 0));
-            currentMapping.add(additional_mapping.get(a + 1));
-        }
-
-//        remove recurring mappings from currentMapping
-
-        List<Integer> unique_MAPPING = McGregorChecks.removeRecurringMappings(currentMapping);
-        return unique_MAPPING;
+    private boolean isTargetMappingSizeReached() {
+        return targetMappingSize > 0 && globalMCSSize >= targetMappingSize && !mappings.isEmpty();
     }
 
-    private void setModifedArcs(McgregorHelper mcGregorHelper) {
-        int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
-        int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
-        List<Integer> iBondNeighborAtomsA = mcGregorHelper.getiBondNeighborAtomsA();
-        List<Integer> iBondNeighborAtomsB = mcGregorHelper.getiBondNeighborAtomsB();
-        List<String> cBondNeighborsA = mcGregorHelper.getcBondNeighborsA();
-        List<String> cBondNeighborsB = mcGregorHelper.getcBondNeighborsB();
-        for (int row = 0; row < neighborBondNumA; row++) {
-            for (int column = 0; column < neighborBondNumB; column++) {
+    /**
+     * Visit a level of the search, a mapping which can not be extended is
+     * stored.
+     *
+     * @return the maximal arc sets to extend the mapping with, null if the
+     * mapping could not be extended
+     */
+    private List<long[]> expand(State state) {
 
-                String G1A = cBondNeighborsA.get(row * 4 + 0);
-                String G2A = cBondNeighborsA.get(row * 4 + 1);
-                String G1B = cBondNeighborsB.get(column * 4 + 0);
-                String G2B = cBondNeighborsB.get(column * 4 + 1);
+        context.visit();
 
+        int neighborBondNumA = state.neighborsA.size;
+        int neighborBondNumB = state.neighborsB.size;
 
-                if (matchGAtoms(G1A, G2A, G1B, G2B)) {
-                    int Index_I = iBondNeighborAtomsA.get(row * 3 + 0);
-                    int Index_IPlus1 = iBondNeighborAtomsA.get(row * 3 + 1);
+        if (neighborBondNumA == 0 || neighborBondNumB == 0 || state.mappingCheckFlag || context.isCancelled()) {
+            setFinalMappings(state.mappedAtoms, state.mappedAtomCount);
+            return null;
+        }
 
-                    IAtom R1_A = source.getAtom(Index_I);
-                    IAtom R2_A = source.getAtom(Index_IPlus1);
-                    IBond reactantBond = source.getBond(R1_A, R2_A);
+        long[] arcs = arcs(state);
+        if (isEmpty(arcs)) {
+            setFinalMappings(state.mappedAtoms, state.mappedAtomCount);
+            return null;
+        }
 
-                    int Index_J = iBondNeighborAtomsB.get(column * 3 + 0);
-                    int Index_JPlus1 = iBondNeighborAtomsB.get(column * 3 + 1);
+        return new ArcSearch(state).search(arcs);
+    }
 
-                    IAtom P1_B = target.getAtom(Index_J);
-                    IAtom P2_B = target.getAtom(Index_JPlus1);
-                    IBond productBond = target.getBond(P1_B, P2_B);
-                    if (McGregorChecks.isMatchFeasible(source, reactantBond, target, productBond, isBondMatch())) {
-                        modifiedARCS.set(row * neighborBondNumB + column, 1);
-                    }
+    /**
+     * The arcs between the neighbour bonds of both molecules, a bond pair is
+     * an arc if the atom labels match and the bonds match.
+     */
+    private long[] arcs(State state) {
+        Bonds a = state.neighborsA, b = state.neighborsB;
+        int words = words(b.size);
+        long[] arcs = new long[a.size * words];
+        for (int row = 0; row < a.size; row++) {
+            int g1A = a.labels[row * 4], g2A = a.labels[row * 4 + 1];
+            for (int column = 0; column < b.size; column++) {
+                int g1B = b.labels[column * 4], g2B = b.labels[column * 4 + 1];
+                if (((g1A == g1B && g2A == g2B) || (g1A == g2B && g2A == g1B))
+                        && isFeasible(a.ids[row], b.ids[column])) {
+                    arcs[row * words + (column >> 6)] |= 1L << column;
                 }
             }
         }
+        return arcs;
     }
 
-    private void partsearch(int xstart, int ystart, List<Integer> TEMPMARCS_ORG, McgregorHelper mcGregorHelper) {
-        int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
-        int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
-
-        int xIndex = xstart;
-        int yIndex = ystart;
+    private boolean isFeasible(int sourceBond, int targetBond) {
+        if (feasible[sourceBond][targetBond] == 0) {
+            feasible[sourceBond][targetBond] = McGregorChecks.isMatchFeasible(source, source.getBond(sourceBond), target,
+                    target.getBond(targetBond), isBondMatch()) ? (byte) 1 : (byte) 2;
+        }
+        return feasible[sourceBond][targetBond] == 1;
+    }
 
-        List<Integer> TEMPMARCS = new ArrayList<Integer>(TEMPMARCS_ORG);
+    /**
+     * Extend the mapping of a level with an arc set, the remaining bonds are
+     * split into the neighbour and remaining bonds of the new mapping.
+     */
+    private State extend(State state, long[] arcs) {
 
-        if (TEMPMARCS.get(xstart * neighborBondNumB + ystart) == 1) {
+        int[] newMapping = findMcGregorMapping(arcs, state);
+        int newMappingSize = newMapping.length / 2;
+        boolean noFurtherMappings = state.mappedAtomCount == newMappingSize;
 
-            McGregorChecks.removeRedundantArcs(xstart, ystart, TEMPMARCS, mcGregorHelper);
-            int arcsleft = McGregorChecks.countArcsLeft(TEMPMARCS, neighborBondNumA, neighborBondNumB);
+        Bonds setACopy = state.setA.copy();
+        Bonds setBCopy = state.setB.copy();
 
-            //test Best arcs left and skip rest if needed
-            if (arcsleft >= bestarcsleft) {
-                setArcs(xIndex, yIndex, arcsleft, TEMPMARCS, mcGregorHelper);
-            }
-        } else {
-            do {
-                yIndex++;
-                if (yIndex == neighborBondNumB) {
-                    yIndex = 0;
-                    xIndex++;
-                }
+        int[] unmappedAtomsA = unmappedAtoms(source.getAtomCount(), newMapping, newMappingSize, 0);
+        Bonds neighborsA = new Bonds(setACopy.size);
+        Bonds setA = new Bonds(setACopy.size);
+        processQuery(setACopy, setBCopy, unmappedAtomsA, newMapping, newMappingSize, neighborsA, setA);
 
-            } while ((xIndex < neighborBondNumA) && (TEMPMARCS.get(xIndex * neighborBondNumB + yIndex) != 1)); //Correction by ASAD set value minus 1
+        int[] unmappedAtomsB = unmappedAtoms(target.getAtomCount(), newMapping, newMappingSize, 1);
+        Bonds neighborsB = new Bonds(setBCopy.size);
+        Bonds setB = new Bonds(setBCopy.size);
+        processTarget(setBCopy, unmappedAtomsB, newMapping, newMappingSize, neighborsA, neighborsB, setB);
 
-            if (xIndex < neighborBondNumA) {
-
-                partsearch(xIndex, yIndex, TEMPMARCS, mcGregorHelper);
-                TEMPMARCS.set(xIndex * neighborBondNumB + yIndex, 0);
-                partsearch(xIndex, yIndex, TEMPMARCS, mcGregorHelper);
-            } else {
-                int arcsleft = McGregorChecks.countArcsLeft(TEMPMARCS, neighborBondNumA, neighborBondNumB);
-                if (arcsleft >= bestarcsleft) {
-                    popBestArcs(arcsleft);
+        return new State(noFurtherMappings, newMappingSize, newMapping, neighborsA, neighborsB, setA, setB);
+    }
 
-                    if (checkMARCS(TEMPMARCS, neighborBondNumA, neighborBondNumB)) {
-                        bestARCS.push(TEMPMARCS);
+    /**
+     * Add the atoms of the arcs to the mapping, an atom of the source mapped
+     * more than once keeps its last mapping.
+     */
+    private int[] findMcGregorMapping(long[] arcs, State state) {
+
+        Bonds a = state.neighborsA, b = state.neighborsB;
+        int words = words(b.size);
+        int[] currentMapping = state.mappedAtoms;
+        IntArray mapping = new IntArray(currentMapping.length + 2 * a.size);
+        for (int atom : currentMapping)
+            mapping.add(atom);
+
+        IntArray additional = new IntArray(2 * a.size);
+        for (int x = 0; x < a.size; x++) {
+            for (int y = 0; y < b.size; y++) {
+                if ((arcs[x * words + (y >> 6)] & (1L << y)) == 0)
+                    continue;
+
+                int atom1A = a.atoms[x * 2], atom2A = a.atoms[x * 2 + 1];
+                int atom1B = b.atoms[y * 2], atom2B = b.atoms[y * 2 + 1];
+
+                if (!isFeasible(a.ids[x], b.ids[y]))
+                    continue;
+
+                for (int z = 0; z < state.mappedAtomCount; z++) {
+                    int mappedAtom1 = currentMapping[z * 2];
+                    int mappedAtom2 = currentMapping[z * 2 + 1];
+                    if (mappedAtom1 == atom1A && mappedAtom2 == atom1B) {
+                        additional.add(atom2A);
+                        additional.add(atom2B);
+                    } else if (mappedAtom1 == atom1A && mappedAtom2 == atom2B) {
+                        additional.add(atom2A);
+                        additional.add(atom1B);
+                    } else if (mappedAtom1 == atom2A && mappedAtom2 == atom1B) {
+                        additional.add(atom1A);
+                        additional.add(atom2B);
+                    } else if (mappedAtom1 == atom2A && mappedAtom2 == atom2B) {
+                        additional.add(atom1A);
+                        additional.add(atom1B);
                     }
-
                 }
             }
         }
+        for (int i = 0; i < additional.size; i++)
+            mapping.add(additional.values[i]);
+
+        // remove recurring mappings
+        int[] all = mapping.values;
+        IntArray unique = new IntArray(mapping.size);
+        for (int x = 0; x < mapping.size; x += 2) {
+            boolean exists = true;
+            for (int y = x + 2; y < mapping.size; y += 2) {
+                if (all[x] == all[y]) {
+                    exists = false;
+                    break;
+                }
+            }
+            if (exists) {
+                unique.add(all[x]);
+                unique.add(all[x + 1]);
+            }
+        }
+        return unique.toArray();
     }
 
-//The function is called in function partsearch. The function is given indexZ temporary matrix.
-//The function checks whether the temporary matrix is already found by calling the function
-//"verifyNodes". If the matrix already exists the function returns false which means that
-//the matrix will not be stored. Otherwise the function returns true which means that the
-//matrix will be stored in function partsearch.
-    private boolean checkMARCS(List<Integer> MARCS_T, int neighborBondNumA, int neighborBondNumB) {
-
-        int size = neighborBondNumA * neighborBondNumA;
-        List<Integer> posnum_list = new ArrayList<Integer>(size);
-
-        for (int i = 0; i < posnum_list.size(); i++) {
-            posnum_list.add(i, 0);
+    /**
+     * Split the bonds of the source into bonds between a mapped and an
+     * unmapped atom (neighbour bonds) and bonds of unmapped atoms. The mapped
+     * atom of a neighbour bond is relabelled with a special sign in both
+     * molecules.
+     *
+     * @param tableA     bonds of the source (labels are modified)
+     * @param tableB     bonds of the target (labels are modified)
+     * @param unmapped   unmapped atoms of the source
+     * @param mapping    the mapping (atom pairs)
+     * @param size       number of atom pairs to consider
+     * @param neighborsA the neighbour bonds (output)
+     * @param setA       the remaining bonds (output)
+     */
+    private static void processQuery(Bonds tableA, Bonds tableB, int[] unmapped, int[] mapping, int size,
+            Bonds neighborsA, Bonds setA) {
+
+        boolean bondConsidered = false;
+        boolean normalBond = true;
+
+        for (int k = 0; k < tableA.size; k++) {
+            int indexI = tableA.atoms[k * 2];
+            int indexJ = tableA.atoms[k * 2 + 1];
+
+            for (int u = 0; u < unmapped.length; u++) {
+                if (unmapped[u] == indexI) {
+                    normalBond = queryNeighborJ(tableA, tableB, k, mapping, size, indexI, indexJ, neighborsA);
+                    bondConsidered = true;
+                } else if (unmapped[u] == indexJ) {
+                    normalBond = queryNeighborI(tableA, tableB, k, mapping, size, indexI, indexJ, neighborsA);
+                    bondConsidered = true;
+                }
+                if (normalBond && bondConsidered) {
+                    setA.add(indexI, indexJ, tableA.ids[k], tableA.labels[k * 4], tableA.labels[k * 4 + 1], X, X);
+                    normalBond = true;
+                    break;
+                }
+            }
+            bondConsidered = false;
         }
+    }
 
-        int yCounter = 0;
-        int count_entries = 0;
-        for (int x = 0; x < (neighborBondNumA * neighborBondNumB); x++) {
-            if (MARCS_T.get(x) == 1) {
-                posnum_list.add(yCounter++, x);
-                count_entries++;
+    /** The unmapped atom i is bonded to the atom j, is j mapped? */
+    private static boolean queryNeighborJ(Bonds tableA, Bonds tableB, int k, int[] mapping, int size, int indexI,
+            int indexJ, Bonds neighborsA) {
+        boolean normalBond = true;
+        int counter = 0;
+        int[] l = tableA.labels;
+        for (int c = 0; c < size; c++) {
+            if (mapping[c * 2] == indexJ) {
+                if (l[k * 4 + 3] == X) {
+                    neighborsA.add(indexI, indexJ, tableA.ids[k], l[k * 4], sign(counter), X, l[k * 4 + 1]);
+                    tableA.relabel(indexI, sign(counter));
+                    tableB.relabel(correspondingAtom(size, indexI, 0, mapping), sign(counter));
+                    counter++;
+                } else {
+                    neighborsA.add(indexI, indexJ, tableA.ids[k], l[k * 4], l[k * 4 + 1], X, l[k * 4 + 3]);
+                }
+                normalBond = false;
             }
         }
-        boolean flag = false;
+        return normalBond;
+    }
 
-        verifyNodes(posnum_list, first, 0, count_entries);
-        if (isNewMatrix()) {
-            flag = true;
+    /** The unmapped atom j is bonded to the atom i, is i mapped? */
+    private static boolean queryNeighborI(Bonds tableA, Bonds tableB, int k, int[] mapping, int size, int indexI,
+            int indexJ, Bonds neighborsA) {
+        boolean normalBond = true;
+        int counter = 0;
+        int[] l = tableA.labels;
+        for (int c = 0; c < size; c++) {
+            if (mapping[c * 2] == indexI) {
+                if (l[k * 4 + 2] == X) {
+                    neighborsA.add(indexI, indexJ, tableA.ids[k], sign(counter), l[k * 4 + 1], l[k * 4], X);
+                    tableA.relabel(indexJ, sign(counter));
+                    tableB.relabel(correspondingAtom(size, indexJ, 0, mapping), sign(counter));
+                    counter++;
+                } else {
+                    neighborsA.add(indexI, indexJ, tableA.ids[k], l[k * 4], l[k * 4 + 1], l[k * 4 + 2], X);
+                }
+                normalBond = false;
+            }
         }
-
-        return flag;
-
+        return normalBond;
     }
 
-    private boolean verifyNodes(List<Integer> matrix, BinaryTree currentStructure, int index, int fieldLength) {
-        if (index < fieldLength) {
-            if (matrix.get(index) == currentStructure.getValue() && currentStructure.getEqual() != null) {
-                setNewMatrix(false);
-                verifyNodes(matrix, currentStructure.getEqual(), index + 1, fieldLength);
-            }
-            if (matrix.get(index) != currentStructure.getValue()) {
-                if (currentStructure.getNotEqual() != null) {
-                    verifyNodes(matrix, currentStructure.getNotEqual(), index, fieldLength);
+    /**
+     * Split the bonds of the target into neighbour bonds and bonds of
+     * unmapped atoms. The special signs are transferred to the corresponding
+     * atoms of the neighbour bonds of the source.
+     *
+     * @param tableB     bonds of the target (labels are modified)
+     * @param unmapped   unmapped atoms of the target
+     * @param mapping    the mapping (atom pairs)
+     * @param size       number of atom pairs to consider
+     * @param neighborsA neighbour bonds of the source (labels are modified)
+     * @param neighborsB the neighbour bonds (output)
+     * @param setB       the remaining bonds (output)
+     */
+    private static void processTarget(Bonds tableB, int[] unmapped, int[] mapping, int size, Bonds neighborsA,
+            Bonds neighborsB, Bonds setB) {
+
+        boolean bondConsidered = false;
+        boolean normalBond = true;
+
+        for (int k = 0; k < tableB.size; k++) {
+            int indexI = tableB.atoms[k * 2];
+            int indexJ = tableB.atoms[k * 2 + 1];
+
+            for (int u = 0; u < unmapped.length; u++) {
+                if (unmapped[u] == indexI) {
+                    normalBond = targetNeighborJ(tableB, k, mapping, size, indexI, indexJ, neighborsA, neighborsB);
+                    bondConsidered = true;
+                } else if (unmapped[u] == indexJ) {
+                    normalBond = targetNeighborI(tableB, k, mapping, size, indexI, indexJ, neighborsA, neighborsB);
+                    bondConsidered = true;
                 }
-
-                if (currentStructure.getNotEqual() == null) {
-                    currentStructure.setNotEqual(new BinaryTree(matrix.get(index)));
-                    currentStructure.getNotEqual().setNotEqual(null);
-                    int yIndex = 0;
-
-
-                    BinaryTree last_one = currentStructure.getNotEqual();
-
-                    while ((yIndex + index + 1) < fieldLength) {
-                        last_one.setEqual(new BinaryTree(matrix.get(yIndex + index + 1)));
-                        last_one = last_one.getEqual();
-                        last_one.setNotEqual(null);
-                        yIndex++;
-
-                    }
-                    last_one.setEqual(null);
-                    setNewMatrix(true);
+                if (normalBond && bondConsidered) {
+                    setB.add(indexI, indexJ, tableB.ids[k], tableB.labels[k * 4], tableB.labels[k * 4 + 1], X, X);
+                    normalBond = true;
+                    break;
                 }
-
             }
+            bondConsidered = false;
         }
-        return true;
     }
 
-    private void startsearch(McgregorHelper mcGregorHelper) {
-        int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
-        int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
-
-        int size = neighborBondNumA * neighborBondNumB;
-        List<Integer> FIXARCS = new ArrayList<Integer>(size);//  Initialize FIXARCS with 0
-        for (int i = 0; i < size; i++) {
-            FIXARCS.add(i, 0);
+    /** The unmapped atom i is bonded to the atom j, is j mapped? */
+    private static boolean targetNeighborJ(Bonds tableB, int k, int[] mapping, int size, int indexI, int indexJ,
+            Bonds neighborsA, Bonds neighborsB) {
+        boolean normalBond = true;
+        int counter = 0;
+        int[] l = tableB.labels;
+        for (int c = 0; c < size; c++) {
+            if (mapping[c * 2 + 1] == indexJ) {
+                if (l[k * 4 + 3] == X) {
+                    neighborsB.add(indexI, indexJ, tableB.ids[k], l[k * 4], sign(counter), X, l[k * 4 + 1]);
+                    tableB.relabel(indexJ, sign(counter));
+                    neighborsA.relabel(correspondingAtom(size, indexJ, 1, mapping), sign(counter));
+                    counter++;
+                } else {
+                    neighborsB.add(indexI, indexJ, tableB.ids[k], l[k * 4], l[k * 4 + 1], X, l[k * 4 + 3]);
+                }
+                normalBond = false;
+            }
         }
+        return normalBond;
+    }
 
-        int xIndex = 0;
-        int yIndex = 0;
+    /** The unmapped atom j is bonded to the atom i, is i mapped? */
+    private static boolean targetNeighborI(Bonds tableB, int k, int[] mapping, int size, int indexI, int indexJ,
+            Bonds neighborsA, Bonds neighborsB) {
+        boolean normalBond = true;
+        int counter = 0;
+        int[] l = tableB.labels;
+        for (int c = 0; c < size; c++) {
+            if (mapping[c * 2 + 1] == indexI) {
+                if (l[k * 4 + 2] == X) {
+                    neighborsB.add(indexI, indexJ, tableB.ids[k], sign(counter), l[k * 4 + 1], l[k * 4], X);
+                    tableB.relabel(indexI, sign(counter));
+                    neighborsA.relabel(correspondingAtom(size, indexI, 1, mapping), sign(counter));
+                    counter++;
+                } else {
+                    neighborsB.add(indexI, indexJ, tableB.ids[k], l[k * 4], l[k * 4 + 1], l[k * 4 + 2], X);
+                }
+                normalBond = false;
+            }
+        }
+        return normalBond;
+    }
 
-        while ((xIndex < neighborBondNumA) && (modifiedARCS.get(xIndex * neighborBondNumB + yIndex) != 1)) {
-            yIndex++;
-            if (yIndex == neighborBondNumB) {
-                yIndex = 0;
-                xIndex++;
+    /**
+     * The atom mapped to the given atom (the last pair wins), 0 if there is
+     * none.
+     * @param side 0 the atom is from the source, 1 from the target
+     */
+    private static int correspondingAtom(int size, int atom, int side, int[] mapping) {
+        int correspondingAtom = 0;
+        for (int a = 0; a < size; a++) {
+            if (mapping[a * 2 + side] == atom) {
+                correspondingAtom = mapping[a * 2 + 1 - side];
             }
         }
+        return correspondingAtom;
+    }
 
-        if (xIndex == neighborBondNumA) {
-            yIndex = neighborBondNumB - 1;
-            xIndex -= 1;
+    /** The atoms (in order) not in the first 'size' pairs of the mapping. */
+    private static int[] unmappedAtoms(int atomCount, int[] mapping, int size, int side) {
+        boolean[] mapped = new boolean[atomCount];
+        for (int b = 0; b < size; b++) {
+            int atom = mapping[b * 2 + side];
+            if (atom >= 0 && atom < atomCount)
+                mapped[atom] = true;
         }
+        return unmapped(mapped);
+    }
 
-        if (modifiedARCS.get(xIndex * neighborBondNumB + yIndex) == 0) {
-            partsearch(xIndex, yIndex, modifiedARCS, mcGregorHelper);
+    /**
+     * The atoms (in order) not in the mapping, only the pairs starting at an
+     * even index less than the clique size are considered.
+     */
+    private static int[] unmappedCliqueAtoms(int atomCount, int[] mapping, int cliqueSize, int side) {
+        boolean[] mapped = new boolean[atomCount];
+        for (int b = 0; b < cliqueSize; b += 2) {
+            int atom = mapping[b + side];
+            if (atom >= 0 && atom < atomCount)
+                mapped[atom] = true;
         }
+        return unmapped(mapped);
+    }
+
+    private static int[] unmapped(boolean[] mapped) {
+        IntArray unmapped = new IntArray(mapped.length);
+        for (int a = 0; a < mapped.length; a++)
+            if (!mapped[a])
+                unmapped.add(a);
+        return unmapped.toArray();
+    }
 
-        if (modifiedARCS.get(xIndex * neighborBondNumB + yIndex) != 0) {
-            partsearch(xIndex, yIndex, modifiedARCS, mcGregorHelper);
-            modifiedARCS.set(xIndex * neighborBondNumB + yIndex, 0);
-            partsearch(xIndex, yIndex, modifiedARCS, mcGregorHelper);
+    private void setFinalMappings(int[] mappedAtoms, int mappedAtomCount) {
+        if (mappedAtomCount >= globalMCSSize) {
+            if (mappedAtomCount > globalMCSSize) {
+                this.globalMCSSize = mappedAtomCount;
+                mappings.clear();
+            }
+            List<Integer> mapping = new ArrayList<Integer>(mappedAtoms.length);
+            for (int atom : mappedAtoms)
+                mapping.add(atom);
+            mappings.add(mapping);
         }
+    }
 
+    /**
+     * Should bonds match
+     * @return the bondMatch
+     */
+    private boolean isBondMatch() {
+        return bondMatch;
     }
 
     /**
-     * Returns computed mappings.
-     * @return mappings
+     * Should bonds match
+     * @param bondMatch the bondMatch to set
      */
-    public List<List<Integer>> getMappings() {
+    private void setBondMatch(boolean bondMatch) {
+        this.bondMatch = bondMatch;
+    }
 
-        return mappings;
+    private static int words(int bits) {
+        return (bits + 63) >> 6;
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits)
+            if (word != 0)
+                return false;
+        return true;
     }
 
     /**
-     * Returns MCS size.
-     * @return MCS size
+     * Enumerate the maximal sets of compatible arcs of a level. The arcs are
+     * a bit matrix, a row for each neighbour bond of the source. Each arc (in
+     * row major order) is either kept, removing the arcs it conflicts with,
+     * or dropped. Only the arc sets of the largest size are kept.
      */
-    public int getMCSSize() {
+    private final class ArcSearch {
 
-        return this.globalMCSSize;
-    }
+        private final Bonds a, b;
+        private final int words;
 
-    private void setFinalMappings(List<Integer> mapped_atoms, int mappedAtomCount) {
-        try {
-            if (mappedAtomCount >= globalMCSSize) {
-//                    System.out.println("Hello-1");
-                if (mappedAtomCount > globalMCSSize) {
-//                        System.out.println("Hello-2");
-                    this.globalMCSSize = mappedAtomCount;
-//                        System.out.println("best_MAPPING_size: " + globalMCSSize);
-                    mappings.clear();
+        /** Best arc sets (in the order they were found). */
+        private final List<long[]> bestArcs = new ArrayList<long[]>();
+        private int bestArcsLeft = 0;
+
+        /** Arc sets of the current best size. */
+        private final Set<Key> found = new HashSet<Key>();
+
+        private ArcSearch(State state) {
+            this.a = state.neighborsA;
+            this.b = state.neighborsB;
+            this.words = words(b.size);
+        }
+
+        List<long[]> search(long[] arcs) {
+
+            Deque<Task> tasks = new ArrayDeque<Task>();
+
+            int position = next(arcs, -1);
+            if (position < 0)
+                position = a.size * b.size - 1;
+            if (isSet(arcs, position))
+                branch(tasks, arcs.clone(), position);
+            else
+                tasks.push(new Task(arcs.clone(), position));
+
+            while (!tasks.isEmpty() && !context.isCancelled()) {
+                Task task = tasks.pop();
+                long[] arcsLeft = task.arcs;
+                if (isSet(arcsLeft, task.position)) {
+                    removeRedundantArcs(arcsLeft, task.position / b.size, task.position % b.size);
+                    int count = count(arcsLeft);
+                    if (count >= bestArcsLeft) {
+                        int next = next(arcsLeft, task.position);
+                        if (next >= 0)
+                            branch(tasks, arcsLeft, next);
+                        else
+                            leaf(arcsLeft, count);
+                    }
+                } else {
+                    int next = next(arcsLeft, task.position);
+                    if (next >= 0) {
+                        branch(tasks, arcsLeft, next);
+                    } else {
+                        int count = count(arcsLeft);
+                        if (count >= bestArcsLeft)
+                            leaf(arcsLeft, count);
+                    }
                 }
-                mappings.add(mapped_atoms);
-//                    System.out.println("mappings " + mappings);
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
+            return bestArcs;
         }
-    }
 
-    private void setArcs(int xIndex, int yIndex, int arcsleft, List<Integer> TEMPMARCS, McgregorHelper mcGregorHelper) {
-        int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
-        int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
-        do {
-            yIndex++;
-            if (yIndex == neighborBondNumB) {
-                yIndex = 0;
-                xIndex++;
+        /** Keep the arc (explored first) or drop it. */
+        private void branch(Deque<Task> tasks, long[] arcs, int position) {
+            long[] dropped = arcs.clone();
+            dropped[(position / b.size) * words + ((position % b.size) >> 6)] &= ~(1L << (position % b.size));
+            tasks.push(new Task(dropped, position));
+            tasks.push(new Task(arcs, position));
+        }
 
+        private void leaf(long[] arcs, int count) {
+            if (count > bestArcsLeft) {
+                found.clear();
+                bestArcs.clear();
             }
-        } //Correction by ASAD set value minus 1
-        while ((xIndex < neighborBondNumA) && (TEMPMARCS.get(xIndex * neighborBondNumB + yIndex) != 1));
-        if (xIndex < neighborBondNumA) {
+            bestArcsLeft = count;
+            if (isNewArcSet(arcs, count))
+                bestArcs.add(arcs);
+        }
 
-            partsearch(xIndex, yIndex, TEMPMARCS, mcGregorHelper);
-            TEMPMARCS.set(xIndex * neighborBondNumB + yIndex, 0);
-            partsearch(xIndex, yIndex, TEMPMARCS, mcGregorHelper);
+        /**
+         * Check whether the arc set was already found, the arc sets of a
+         * single arc are always considered new.
+         */
+        private boolean isNewArcSet(long[] arcs, int count) {
+            if (count == 0)
+                return isNewMatrix();
+            boolean isNew = found.add(new Key(arcs));
+            if (count > 1 || isNew)
+                setNewMatrix(isNew || count == 1);
+            return isNewMatrix();
+        }
 
-        } else {
-            popBestArcs(arcsleft);
-            if (checkMARCS(TEMPMARCS, neighborBondNumA, neighborBondNumB)) {
-                bestARCS.push(TEMPMARCS);
+        /**
+         * Keep the arc at (row, column), arcs which map an atom of one of the
+         * bonds to an atom not in the other bond are removed as are the other
+         * arcs of the row and column.
+         */
+        private void removeRedundantArcs(long[] arcs, int row, int column) {
+            int g1Atom = a.atoms[row * 2], g2Atom = a.atoms[row * 2 + 1];
+            int g3Atom = b.atoms[column * 2], g4Atom = b.atoms[column * 2 + 1];
+
+            long[] columnShares = new long[words];
+            for (int y = 0; y < b.size; y++) {
+                int atom3 = b.atoms[y * 2], atom4 = b.atoms[y * 2 + 1];
+                if (atom3 == g3Atom || atom4 == g3Atom || atom3 == g4Atom || atom4 == g4Atom)
+                    columnShares[y >> 6] |= 1L << y;
+            }
+
+            for (int x = 0; x < a.size; x++) {
+                int atom1 = a.atoms[x * 2], atom2 = a.atoms[x * 2 + 1];
+                boolean rowShares = atom1 == g1Atom || atom2 == g1Atom || atom1 == g2Atom || atom2 == g2Atom;
+                for (int w = 0; w < words; w++) {
+                    if (rowShares)
+                        arcs[x * words + w] &= columnShares[w];
+                    else
+                        arcs[x * words + w] &= ~columnShares[w];
+                }
+                arcs[x * words + (column >> 6)] &= ~(1L << column);
             }
+            for (int w = 0; w < words; w++)
+                arcs[row * words + w] = 0;
+            arcs[row * words + (column >> 6)] |= 1L << column;
+        }
+
+        private boolean isSet(long[] arcs, int position) {
+            int row = position / b.size, column = position % b.size;
+            return (arcs[row * words + (column >> 6)] & (1L << column)) != 0;
         }
-    }
 
-    private void popBestArcs(int arcsleft) {
-        if (arcsleft > bestarcsleft) {
-            McGregorChecks.removeTreeStructure(first);
-            first = last = new BinaryTree(-1);
-            last.setEqual(null);
-            last.setNotEqual(null);
-            while (!bestARCS.empty()) {
-                bestARCS.pop();
+        /** The next arc (row major) after the given position, -1 if none. */
+        private int next(long[] arcs, int position) {
+            int row = position < 0 ? 0 : position / b.size;
+            int column = position < 0 ? 0 : position % b.size + 1;
+            for (; row < a.size; row++, column = 0) {
+                for (int w = column >> 6; w < words; w++) {
+                    long word = arcs[row * words + w];
+                    if (w == column >> 6)
+                        word &= -1L << column;
+                    if (word != 0)
+                        return row * b.size + (w << 6) + Long.numberOfTrailingZeros(word);
+                }
             }
+            return -1;
         }
-        bestarcsleft = arcsleft;
-    }
 
-    private void extendMapping(int xIndex, int yIndex, McgregorHelper mcGregorHelper, List<Integer> additional_mapping, List<Integer> currentMapping) {
+        private int count(long[] arcs) {
+            int count = 0;
+            for (long word : arcs)
+                count += Long.bitCount(word);
+            return count;
+        }
+    }
 
-        int Atom1_moleculeA = mcGregorHelper.getiBondNeighborAtomsA().get(xIndex * 3 + 0);
-        int Atom2_moleculeA = mcGregorHelper.getiBondNeighborAtomsA().get(xIndex * 3 + 1);
-        int Atom1_moleculeB = mcGregorHelper.getiBondNeighborAtomsB().get(yIndex * 3 + 0);
-        int Atom2_moleculeB = mcGregorHelper.getiBondNeighborAtomsB().get(yIndex * 3 + 1);
+    /** An arc set to explore from the given position. */
+    private static final class Task {
 
-        IAtom R1_A = source.getAtom(Atom1_moleculeA);
-        IAtom R2_A = source.getAtom(Atom2_moleculeA);
-        IBond reactantBond = source.getBond(R1_A, R2_A);
+        private final long[] arcs;
+        private final int position;
 
-        IAtom P1_B = target.getAtom(Atom1_moleculeB);
-        IAtom P2_B = target.getAtom(Atom2_moleculeB);
-        IBond productBond = target.getBond(P1_B, P2_B);
+        private Task(long[] arcs, int position) {
+            this.arcs = arcs;
+            this.position = position;
+        }
+    }
 
-//      Bond Order Check Introduced by Asad
+    /** Arc set as a hash key. */
+    private static final class Key {
 
-        if (McGregorChecks.isMatchFeasible(source, reactantBond, target, productBond, isBondMatch())) {
+        private final long[] arcs;
+        private final int hash;
 
-            for (int indexZ = 0; indexZ < mcGregorHelper.getMappedAtomCount(); indexZ++) {
+        private Key(long[] arcs) {
+            this.arcs = arcs;
+            this.hash = Arrays.hashCode(arcs);
+        }
 
-                int Mapped_Atom_1 = currentMapping.get(indexZ * 2 + 0);
-                int Mapped_Atom_2 = currentMapping.get(indexZ * 2 + 1);
+        @Override
+        public int hashCode() {
+            return hash;
+        }
 
-                if ((Mapped_Atom_1 == Atom1_moleculeA) && (Mapped_Atom_2 == Atom1_moleculeB)) {
-                    additional_mapping.add(Atom2_moleculeA);
-                    additional_mapping.add(Atom2_moleculeB);
-                } else if ((Mapped_Atom_1 == Atom1_moleculeA) && (Mapped_Atom_2 == Atom2_moleculeB)) {
-                    additional_mapping.add(Atom2_moleculeA);
-                    additional_mapping.add(Atom1_moleculeB);
-                } else if ((Mapped_Atom_1 == Atom2_moleculeA) && (Mapped_Atom_2 == Atom1_moleculeB)) {
-                    additional_mapping.add(Atom1_moleculeA);
-                    additional_mapping.add(Atom2_moleculeB);
-                } else if ((Mapped_Atom_1 == Atom2_moleculeA) && (Mapped_Atom_2 == Atom2_moleculeB)) {
-                    additional_mapping.add(Atom1_moleculeA);
-                    additional_mapping.add(Atom1_moleculeB);
-                }
-            }//for loop
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(arcs, ((Key) o).arcs);
         }
     }
 
-    private boolean matchGAtoms(String G1A, String G2A, String G1B, String G2B) {
-        return (G1A.compareToIgnoreCase(G1B) == 0
-                && G2A.compareToIgnoreCase(G2B) == 0)
-                || (G1A.compareToIgnoreCase(G2B) == 0
-                && G2A.compareToIgnoreCase(G1B) == 0);
-    }
+    /** A level on the search stack and the arc sets still to extend it with. */
+    private static final class Level {
 
-    /**
-     * Checks if its a new Matrix.
-     * @return the newMatrix
-     */
-    public boolean isNewMatrix() {
-        return newMatrix;
+        private final State state;
+        private final List<long[]> arcs;
+        private int next;
+
+        private Level(State state, List<long[]> arcs) {
+            this.state = state;
+            this.arcs = arcs;
+            this.next = arcs.size() - 1;
+        }
     }
 
     /**
-     * set a new Matrix.
-     * @param newMatrix the newMatrix to set
+     * The mapping of an extension level with the neighbour bonds (bonds
+     * between a mapped and an unmapped atom) and remaining bonds of both
+     * molecules.
      */
-    public void setNewMatrix(boolean newMatrix) {
-        this.newMatrix = newMatrix;
+    private static final class State {
+
+        private final boolean mappingCheckFlag;
+        private final int mappedAtomCount;
+        private final int[] mappedAtoms;
+        private final Bonds neighborsA, neighborsB, setA, setB;
+
+        private State(boolean mappingCheckFlag, int mappedAtomCount, int[] mappedAtoms, Bonds neighborsA,
+                Bonds neighborsB, Bonds setA, Bonds setB) {
+            this.mappingCheckFlag = mappingCheckFlag;
+            this.mappedAtomCount = mappedAtomCount;
+            this.mappedAtoms = mappedAtoms;
+            this.neighborsA = neighborsA;
+            this.neighborsB = neighborsB;
+            this.setA = setA;
+            this.setB = setB;
+        }
     }
 
     /**
-     * Should bonds match
-     * @return the bondMatch
+     * Bonds as atom index pairs, the index of the bond in its container and
+     * four labels: the labels of both atoms and the original labels of atoms
+     * relabelled with a special sign (or {@link #X}).
      */
-    private boolean isBondMatch() {
-        return bondMatch;
+    private static final class Bonds {
+
+        private int size = 0;
+        private int[] atoms, ids, labels;
+
+        private Bonds(int capacity) {
+            capacity = Math.max(capacity, 1);
+            this.atoms = new int[2 * capacity];
+            this.ids = new int[capacity];
+            this.labels = new int[4 * capacity];
+        }
+
+        private void add(int i, int j, int id, int l0, int l1, int l2, int l3) {
+            if (size == ids.length) {
+                atoms = Arrays.copyOf(atoms, 4 * size);
+                ids = Arrays.copyOf(ids, 2 * size);
+                labels = Arrays.copyOf(labels, 8 * size);
+            }
+            atoms[size * 2] = i;
+            atoms[size * 2 + 1] = j;
+            ids[size] = id;
+            labels[size * 4] = l0;
+            labels[size * 4 + 1] = l1;
+            labels[size * 4 + 2] = l2;
+            labels[size * 4 + 3] = l3;
+            size++;
+        }
+
+        /** A copy with the atom labels and no relabelled atoms. */
+        private Bonds copy() {
+            Bonds copy = new Bonds(size);
+            for (int k = 0; k < size; k++)
+                copy.add(atoms[k * 2], atoms[k * 2 + 1], ids[k], labels[k * 4], labels[k * 4 + 1], X, X);
+            return copy;
+        }
+
+        /** Relabel an atom (which has not been relabelled) with a sign. */
+        private void relabel(int atom, int sign) {
+            for (int k = 0; k < size; k++) {
+                if (atoms[k * 2] == atom && labels[k * 4 + 2] == X) {
+                    labels[k * 4 + 2] = labels[k * 4];
+                    labels[k * 4] = sign;
+                }
+                if (atoms[k * 2 + 1] == atom && labels[k * 4 + 3] == X) {
+                    labels[k * 4 + 3] = labels[k * 4 + 1];
+                    labels[k * 4 + 1] = sign;
+                }
+            }
+        }
     }
 
-    /**
-     * Should bonds match
-     * @param bondMatch the bondMatch to set
-     */
-    private void setBondMatch(boolean bondMatch) {
-        this.bondMatch = bondMatch;
+    /** Growable int array. */
+    private static final class IntArray {
+
+        private int[] values;
+        private int size = 0;
+
+        private IntArray(int capacity) {
+            values = new int[Math.max(capacity, 2)];
+        }
+
+        private void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, 2 * size);
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
     }
 }
@@ -61,7 +61,9 @@ public class McGregorChecks {
      * @param cBondNeighborsB
      * @param shouldMatchBonds 
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean isFurtherMappingPossible(
             IAtomContainer source,
             IAtomContainer target,
@@ -115,6 +117,15 @@ public class McGregorChecks {
         return false;
     }
 
+    /**
+     * Check whether two bonds (and their atoms) match.
+     * @param ac1 container of the first bond
+     * @param bondA1 bond of the source (query)
+     * @param ac2 container of the second bond
+     * @param bondA2 bond of the target
+     * @param shouldMatchBonds
+     * @return the bonds match
+     */
     protected static boolean isMatchFeasible(IAtomContainer ac1,
             IBond bondA1,
             IAtomContainer ac2,
@@ -161,7 +172,9 @@ public class McGregorChecks {
      * @param molecule
      * @param mapped_atoms_org
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static int searchCorrespondingAtom(int mappedAtomsSize, int atomFromOtherMolecule, int molecule, List<Integer> mapped_atoms_org) {
 
         List<Integer> mapped_atoms = new ArrayList<Integer>(mapped_atoms_org);
@@ -185,7 +198,9 @@ public class McGregorChecks {
      * @param G1B
      * @param G2B
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean isAtomMatch(String G1A, String G2A, String G1B, String G2B) {
         if ((G1A.compareToIgnoreCase(G1B) == 0 && G2A.compareToIgnoreCase(G2B) == 0)
                 || (G1A.compareToIgnoreCase(G2B) == 0 && G2A.compareToIgnoreCase(G1B) == 0)) {
@@ -197,7 +212,9 @@ public class McGregorChecks {
     /*
      * Modified function call by ASAD in Java have to check
      *
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static int removeTreeStructure(BinaryTree cur_struc) {
 
         BinaryTree equal_struc = cur_struc.getEqual();
@@ -222,7 +239,9 @@ public class McGregorChecks {
      *
      * @param atom_mapping
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static List<Integer> removeRecurringMappings(List<Integer> atom_mapping) {
 
         boolean exist = true;
@@ -258,7 +277,9 @@ public class McGregorChecks {
      * @param column
      * @param MARCS
      * @param mcGregorHelper
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static void removeRedundantArcs(int row, int column, List<Integer> MARCS, McgregorHelper mcGregorHelper) {
         int neighborBondNumA = mcGregorHelper.getNeighborBondNumA();
         int neighborBondNumB = mcGregorHelper.getNeighborBondNumB();
@@ -300,7 +321,9 @@ public class McGregorChecks {
      * @param bond_number
      * @param c_set
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static List<String> generateCSetCopy(int bond_number, List<String> c_set) {
         List<String> cTabCopy = new ArrayList<String>();
         for (int a = 0; a < bond_number; a++) {
@@ -317,7 +340,9 @@ public class McGregorChecks {
      * @param atomContainer
      * @return
      * @throws IOException
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static List<String> generateCTabCopy(IAtomContainer atomContainer) throws IOException {
         List<String> c_tab_copy = new ArrayList<String>();
         for (int a = 0; a < atomContainer.getBondCount(); a++) {
@@ -341,7 +366,9 @@ public class McGregorChecks {
      * @param column_atom3
      * @param column_atom4
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean case1(int G1_atom, int G3_atom, int G4_atom, int row_atom1, int row_atom2, int column_atom3, int column_atom4) {
         if (((G1_atom == row_atom1) || (G1_atom == row_atom2))
                 && (!(((column_atom3 == G3_atom) || (column_atom4 == G3_atom)) || ((column_atom3 == G4_atom) || (column_atom4 == G4_atom))))) {
@@ -360,7 +387,9 @@ public class McGregorChecks {
      * @param column_atom3
      * @param column_atom4
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean case2(int G2_atom, int G3_atom, int G4_atom, int row_atom1, int row_atom2, int column_atom3, int column_atom4) {
         if (((G2_atom == row_atom1)
                 || (G2_atom == row_atom2))
@@ -380,7 +409,9 @@ public class McGregorChecks {
      * @param column_atom3
      * @param column_atom4
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean case3(int G1_atom, int G3_atom, int G2_atom, int row_atom1, int row_atom2, int column_atom3, int column_atom4) {
         if (((G3_atom == column_atom3) || (G3_atom == column_atom4))
                 && (!(((row_atom1 == G1_atom) || (row_atom2 == G1_atom)) || ((row_atom1 == G2_atom) || (row_atom2 == G2_atom))))) {
@@ -399,7 +430,9 @@ public class McGregorChecks {
      * @param column_atom3
      * @param column_atom4
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean case4(int G1_atom, int G2_atom, int G4_atom, int row_atom1, int row_atom2, int column_atom3, int column_atom4) {
         if (((G4_atom == column_atom3) || (G4_atom == column_atom4))
                 && (!(((row_atom1 == G1_atom) || (row_atom2 == G1_atom)) || ((row_atom1 == G2_atom) || (row_atom2 == G2_atom))))) {
@@ -419,7 +452,9 @@ public class McGregorChecks {
      * @param column_atom3
      * @param column_atom4
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static boolean cases(int G1_atom, int G2_atom, int G3_atom, int G4_atom, int row_atom1, int row_atom2, int column_atom3, int column_atom4) {
         if (case1(G1_atom, G3_atom, G4_atom, row_atom1, row_atom2, column_atom3, column_atom4) || case2(G2_atom, G3_atom, G4_atom, row_atom1, row_atom2, column_atom3, column_atom4) || case3(G1_atom, G3_atom, G2_atom, row_atom1, row_atom2, column_atom3, column_atom4) || case4(G1_atom, G2_atom, G4_atom, row_atom1, row_atom2, column_atom3, column_atom4)) {
             return true;
@@ -440,7 +475,9 @@ public class McGregorChecks {
      * @param modifiedARCS
      * @param shouldMatchBonds 
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static List<Integer> setArcs(IAtomContainer source,
             IAtomContainer target,
             int neighborBondNumA,
@@ -492,7 +529,9 @@ public class McGregorChecks {
      * @param neighborBondNumA
      * @param neighborBondNumB
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static int countArcsLeft(List<Integer> TEMPMARCS, int neighborBondNumA, int neighborBondNumB) {
         int arcsleft = 0;
 
@@ -515,7 +554,9 @@ public class McGregorChecks {
      * @param atomContainer
      * @param c_bond_neighbors
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static int changeCharBonds(int corresponding_atom, String new_symbol, int neighbor_bondnum,
             IAtomContainer atomContainer, List<String> c_bond_neighbors) {
         for (int atomIndex = 0; atomIndex < neighbor_bondnum; atomIndex++) {
@@ -545,7 +586,9 @@ public class McGregorChecks {
      * @param i_bond_neighbors
      * @param c_bond_neighbors
      * @return
+     * @deprecated no longer used by {@link McGregor}
      */
+    @Deprecated
     protected static int changeCharBonds(int corresponding_atom, String new_symbol, int neighbor_bondnum,
             List<Integer> i_bond_neighbors, List<String> c_bond_neighbors) {
 
@@ -567,6 +610,10 @@ public class McGregorChecks {
         return 0;
     }
 
+    /**
+     * @deprecated no longer used by {@link McGregor}
+     */
+    @Deprecated
     static boolean isFurtherMappingPossible(IAtomContainer source, IAtomContainer target,
             McgregorHelper mcGregorHelper, boolean shouldMatchBonds) {
 
@@ -620,6 +667,10 @@ public class McGregorChecks {
         return false;
     }
 
+    /**
+     * @deprecated no longer used by {@link McGregor}
+     */
+    @Deprecated
     static List<Integer> markUnMappedAtoms(boolean flag, IAtomContainer container, Map<Integer, Integer> present_Mapping) {
         List<Integer> unmappedMolAtoms = new ArrayList<Integer>();
 
@@ -641,6 +692,10 @@ public class McGregorChecks {
         return unmappedMolAtoms;
     }
 
+    /**
+     * @deprecated no longer used by {@link McGregor}
+     */
+    @Deprecated
     static List<Integer> markUnMappedAtoms(boolean flag, IAtomContainer container, List<Integer> mapped_atoms, int clique_siz) {
         List<Integer> unmappedMolAtoms = new ArrayList<Integer>();
         int unmapped_num = 0;
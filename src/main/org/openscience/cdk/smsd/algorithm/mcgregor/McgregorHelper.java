@@ -35,7 +35,9 @@ import org.openscience.cdk.annotations.TestClass;
  * @cdk.module smsd
  * @cdk.githash
  * @author Syed Asad Rahman <asad@ebi.ac.uk>
+ * @deprecated the state of the extension search is kept by {@link McGregor}, this class is no longer used
  */
+@Deprecated
 @TestClass("org.openscience.cdk.smsd.algorithm.mcgregor.McgregorHelperTest")
 public class McgregorHelper {
 
@@ -35,7 +35,9 @@ import org.openscience.cdk.isomorphism.matchers.IQueryAtomContainer;
  * @cdk.module smsd
  * @cdk.githash
  * @author Syed Asad Rahman <asad@ebi.ac.uk>
+ * @deprecated the extension search keeps the query bonds in {@link McGregor}, this class is no longer used
  */
+@Deprecated
 @TestClass("org.openscience.cdk.smsd.algorithm.mcgregor.QueryProcessorTest")
 public class QueryProcessor {
 
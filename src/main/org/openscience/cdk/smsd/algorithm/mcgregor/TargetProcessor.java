@@ -33,7 +33,9 @@ import org.openscience.cdk.interfaces.IAtomContainer;
  * @cdk.module smsd
  * @cdk.githash
  * @author Syed Asad Rahman <asad@ebi.ac.uk>
+ * @deprecated the extension search keeps the target bonds in {@link McGregor}, this class is no longer used
  */
+@Deprecated
 @TestClass("org.openscience.cdk.smsd.algorithm.mcgregor.TargetProcessorTest")
 public class TargetProcessor {
 
@@ -28,7 +28,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 import org.openscience.cdk.annotations.TestClass;
-import org.openscience.cdk.smsd.tools.TimeManager;
+import org.openscience.cdk.smsd.global.SearchContext;
 
 /**
  * This class implements Bron-Kerbosch clique detection algorithm as it is
@@ -54,6 +54,7 @@ public class BKKCKCF {
     private List<Integer> compGraphNodes = null;
     private double dEdgeIterationSize = 0;
     private double cEdgeIterationSize = 0;
+    private final SearchContext context;
 
     /**
      * Creates index new instance of Bron Kerbosch Cazals Karande Koch Clique Finder
@@ -66,7 +67,20 @@ public class BKKCKCF {
      * @param D_edges_org D-Edges set of prohibited edges
      */
     protected BKKCKCF(List<Integer> comp_graph_nodes_org, List<Integer> C_edges_org, List<Integer> D_edges_org) {
-        MCSPlus.setTimeManager(new TimeManager());
+        this(comp_graph_nodes_org, C_edges_org, D_edges_org, new SearchContext());
+    }
+
+    /**
+     * Creates index new instance of Bron Kerbosch Cazals Karande Koch Clique Finder
+     * which counts the clique extensions in the given search context.
+     * @param comp_graph_nodes_org
+     * @param C_edges_org C-Edges set of allowed edges
+     * @param D_edges_org D-Edges set of prohibited edges
+     * @param context time budget and cancellation of the search
+     */
+    protected BKKCKCF(List<Integer> comp_graph_nodes_org, List<Integer> C_edges_org, List<Integer> D_edges_org, SearchContext context) {
+        this.context = context;
+        context.start();
         this.compGraphNodes = comp_graph_nodes_org;
         this.cEdges = C_edges_org;
         this.dEdges = D_edges_org;
@@ -131,6 +145,9 @@ public class BKKCKCF {
 
     private int enumerateCliques(List<Integer> vertexOfCurrentClique, Stack<Integer> potentialCVertex,
             List<Integer> potentialDVertex, List<Integer> excludedVertex, List<Integer> excludedCVertex) {
+        context.visit();
+        if (context.isCancelled())
+            return 0;
         List<Integer> potentialVertex = new ArrayList<Integer>();//Defined as potentialCVertex' in the paper
         for (Integer I : potentialCVertex) {
             potentialVertex.add(I);
@@ -0,0 +1,422 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.algorithm.mcsplus;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.smsd.global.SearchContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Find the maximum c-cliques of a compatibility graph. The enumeration is
+ * the same as {@link BKKCKCF} - the same vertices are expanded in the same
+ * order and exactly the same cliques are reported in the same order - but
+ * the neighbours of each vertex are only collected once (BKKCKCF scans all
+ * the edges whenever it needs the neighbours of a vertex) and the candidate
+ * and excluded vertex sets are tested with bit sets ({@code long[]}) rather
+ * than {@link List#contains(Object)}.
+ *
+ * Branches which can not report a clique are not expanded, the cliques
+ * reported (and their order) are therefore unchanged:
+ *
+ * <ul>
+ *     <li>a bound, the number of colours of a greedy colouring of the (c and
+ *     d) candidates. A branch which can not reach the size of the largest
+ *     clique found is not expanded.</li>
+ *     <li>a pivot, an excluded vertex adjacent to every candidate. The pivot
+ *     stays excluded in every extension of the clique, none of them is
+ *     reported.</li>
+ * </ul>
+ *
+ * The compatibility graph is expected as it is created by {@link
+ * GenerateCompatibilityGraph}, node ids are positive and each pair of nodes
+ * is joined by at most one (c- or d-) edge.
+ *
+ * @cdk.module smsd
+ * @cdk.githash
+ * @author agent
+ * @see BKKCKCF
+ */
+@TestClass("org.openscience.cdk.smsd.algorithm.mcsplus.BitSetCliqueFinderTest")
+public final class BitSetCliqueFinder {
+
+    /** Vertex ids (as used in the edge lists). */
+    private final int[] ids;
+
+    /** Number of words in each bit set. */
+    private final int words;
+
+    /**
+     * Neighbours of each vertex, c-neighbours first, each in the order of the
+     * edge lists. The c-neighbours are also stored as a bit set.
+     */
+    private final int[][]  neighbours;
+    private final int[]    cDegree;
+    private final long[][] cAdj;
+
+    /** (c and d) adjacency of each vertex. */
+    private final long[][] adj;
+
+    private final List<List<Integer>> maxCliquesSet = new ArrayList<List<Integer>>();
+    private int bestCliqueSize = 0;
+    private final SearchContext context;
+
+    /**
+     * Find the maximum c-cliques of the compatibility graph given as it is
+     * created by {@link GenerateCompatibilityGraph}.
+     *
+     * @param compGraphNodes nodes of the compatibility graph (3 values per
+     *                       node, the id is the third)
+     * @param cEdges         c-edges, pairs of node ids
+     * @param dEdges         d-edges, pairs of node ids
+     */
+    protected BitSetCliqueFinder(List<Integer> compGraphNodes, List<Integer> cEdges, List<Integer> dEdges) {
+        this(compGraphNodes, cEdges, dEdges, new SearchContext());
+    }
+
+    /**
+     * Find the maximum c-cliques of the compatibility graph given as it is
+     * created by {@link GenerateCompatibilityGraph}.
+     *
+     * @param compGraphNodes nodes of the compatibility graph (3 values per
+     *                       node, the id is the third)
+     * @param cEdges         c-edges, pairs of node ids
+     * @param dEdges         d-edges, pairs of node ids
+     * @param context        time budget and cancellation of the search
+     */
+    protected BitSetCliqueFinder(List<Integer> compGraphNodes, List<Integer> cEdges, List<Integer> dEdges,
+                                 SearchContext context) {
+        this.context = context;
+        context.start();
+
+        int n = compGraphNodes.size() / 3;
+        this.ids = new int[n];
+        int maxId = 0;
+        for (int v = 0; v < n; v++) {
+            ids[v] = compGraphNodes.get(v * 3 + 2);
+            maxId = Math.max(maxId, ids[v]);
+        }
+        int[] index = new int[maxId + 1];
+        for (int v = 0; v < n; v++)
+            index[ids[v]] = v;
+
+        this.words = (n + 63) >> 6;
+        this.cAdj = new long[n][words];
+        this.adj = new long[n][words];
+        this.cDegree = new int[n];
+        int[] degree = new int[n];
+        for (int i = 0; i + 1 < cEdges.size(); i += 2) {
+            degree[index[cEdges.get(i)]]++;
+            degree[index[cEdges.get(i + 1)]]++;
+        }
+        for (int i = 0; i + 1 < dEdges.size(); i += 2) {
+            degree[index[dEdges.get(i)]]++;
+            degree[index[dEdges.get(i + 1)]]++;
+        }
+        this.neighbours = new int[n][];
+        for (int v = 0; v < n; v++)
+            neighbours[v] = new int[degree[v]];
+        int[] filled = new int[n];
+        for (int i = 0; i + 1 < cEdges.size(); i += 2) {
+            int u = index[cEdges.get(i)], v = index[cEdges.get(i + 1)];
+            neighbours[u][filled[u]++] = v;
+            neighbours[v][filled[v]++] = u;
+            set(cAdj[u], v);
+            set(cAdj[v], u);
+            set(adj[u], v);
+            set(adj[v], u);
+        }
+        System.arraycopy(filled, 0, cDegree, 0, n);
+        for (int i = 0; i + 1 < dEdges.size(); i += 2) {
+            int u = index[dEdges.get(i)], v = index[dEdges.get(i + 1)];
+            neighbours[u][filled[u]++] = v;
+            neighbours[v][filled[v]++] = u;
+            set(adj[u], v);
+            set(adj[v], u);
+        }
+
+        init();
+    }
+
+    /**
+     * The size of the maximum cliques.
+     *
+     * @return clique size
+     */
+    protected int getBestCliqueSize() {
+        return bestCliqueSize;
+    }
+
+    /**
+     * The maximum cliques as lists of node ids.
+     *
+     * @return the cliques
+     */
+    protected Stack<List<Integer>> getMaxCliqueSet() {
+        Stack<List<Integer>> solution = new Stack<List<Integer>>();
+        solution.addAll(maxCliquesSet);
+        return solution;
+    }
+
+    /**
+     * Each vertex which is not a neighbour of an earlier start vertex starts
+     * a clique, its c-neighbours are the candidates.
+     */
+    private void init() {
+
+        // vertices which may start a clique, neighbours are removed
+        int[] vertex = new int[ids.length];
+        int nVertex = ids.length;
+        for (int v = 0; v < ids.length; v++)
+            vertex[v] = v;
+
+        long[] processed = new long[words];
+
+        // as in BKKCKCF the list of a single vertex clique is reused by
+        // the next start vertex
+        List<Integer> clique = new ArrayList<Integer>();
+
+        int index = 0;
+        while (index < nVertex) {
+            int u = vertex[index];
+            int[] p = new int[cDegree[u]];
+            int nP = 0;
+            long[] pSet = new long[words], dSet = new long[words], xSet = new long[words];
+
+            for (int j = 0; j < neighbours[u].length; j++) {
+                int w = neighbours[u][j];
+                if (j < cDegree[u]) {
+                    if (get(processed, w)) {
+                        set(xSet, w);
+                    } else {
+                        p[nP++] = w;
+                        set(pSet, w);
+                    }
+                } else if (!get(processed, w)) {
+                    set(dSet, w);
+                }
+                int pos = indexOf(vertex, nVertex, w);
+                if (pos >= 0) {
+                    if (pos <= index)
+                        --index;
+                    nVertex = remove(vertex, nVertex, pos);
+                }
+            }
+
+            clique.clear();
+            clique.add(ids[u]);
+            enumerateCliques(clique, p, nP, pSet, dSet, xSet);
+            set(processed, u);
+            index++;
+        }
+    }
+
+    /**
+     * Report the current clique if there are no candidates or excluded
+     * vertices, otherwise extend it by each candidate.
+     *
+     * @param clique the current clique (node ids)
+     * @param p      candidates (c-adjacent to the clique) in order
+     * @param nP     number of candidates
+     * @param pSet   candidates
+     * @param dSet   candidates which are only d-adjacent to the clique
+     * @param xSet   excluded vertices c-adjacent to the clique
+     */
+    private void enumerateCliques(List<Integer> clique, int[] p, int nP, long[] pSet, long[] dSet, long[] xSet) {
+        context.visit();
+        if (context.isCancelled())
+            return;
+
+        if (nP == 0 && isEmpty(xSet)) {
+            int size = clique.size();
+            if (size >= bestCliqueSize) {
+                if (size > bestCliqueSize) {
+                    maxCliquesSet.clear();
+                    bestCliqueSize = size;
+                }
+                maxCliquesSet.add(clique);
+            }
+            return;
+        }
+
+        if (nP == 0 || !canReport(clique.size(), pSet, dSet, xSet))
+            return;
+
+        // as in BKKCKCF the neighbours of each candidate are removed from the
+        // candidates still to expand, without moving the current position
+        int[] potential = p.clone();
+        int nPotential = nP;
+
+        int index = 0;
+        while (index < nPotential) {
+            int u = potential[index];
+
+            clear(pSet, u);
+
+            // d-candidates c-adjacent to u become candidates
+            long[] pCopy = pSet.clone();
+            long[] dCopy = dSet.clone();
+            for (int j = 0; j < cDegree[u]; j++) {
+                int w = neighbours[u][j];
+                if (get(dSet, w)) {
+                    set(pCopy, w);
+                    clear(dCopy, w);
+                }
+            }
+            for (int j = 0; j < neighbours[u].length; j++) {
+                int pos = indexOf(potential, nPotential, neighbours[u][j]);
+                if (pos >= 0)
+                    nPotential = remove(potential, nPotential, pos);
+            }
+
+            int[] p2 = new int[neighbours[u].length];
+            int nP2 = 0;
+            long[] pSet2 = new long[words], dSet2 = new long[words], xSet2 = new long[words];
+            for (int w : neighbours[u]) {
+                if (get(pCopy, w)) {
+                    p2[nP2++] = w;
+                    set(pSet2, w);
+                }
+                if (get(dCopy, w))
+                    set(dSet2, w);
+                if (get(xSet, w))
+                    set(xSet2, w);
+            }
+
+            List<Integer> clique2 = new ArrayList<Integer>(clique);
+            clique2.add(ids[u]);
+            enumerateCliques(clique2, p2, nP2, pSet2, dSet2, xSet2);
+            set(xSet, u);
+            index++;
+        }
+    }
+
+    /**
+     * Whether an extension of the current clique may be reported. Every
+     * extension only adds (c or d) candidates and the excluded vertices
+     * adjacent to an added vertex stay excluded.
+     *
+     * @param size  size of the current clique
+     * @param pSet  candidates
+     * @param dSet  candidates which are only d-adjacent to the clique
+     * @param xSet  excluded vertices
+     * @return the branch should be expanded
+     */
+    private boolean canReport(int size, long[] pSet, long[] dSet, long[] xSet) {
+        long[] candidates = or(pSet, dSet);
+
+        // bound, the candidates can not make a clique as large as the best
+        int required = bestCliqueSize - size;
+        if (required > 0 && colours(candidates, required) < required)
+            return false;
+
+        // pivot, an excluded vertex adjacent to all the candidates
+        for (int x = nextSetBit(xSet, 0); x >= 0; x = nextSetBit(xSet, x + 1)) {
+            if (isSubset(candidates, adj[x]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Number of colours of a greedy colouring of the vertices, an upper bound
+     * of the largest clique. The colouring stops once the limit is reached
+     * (and the limit is returned).
+     */
+    private int colours(long[] vertices, int limit) {
+        long[] uncoloured = vertices.clone();
+        int k = 0;
+        while (!isEmpty(uncoloured) && k < limit) {
+            k++;
+            long[] q = uncoloured.clone();
+            for (int v = nextSetBit(q, 0); v >= 0; v = nextSetBit(q, v + 1)) {
+                clear(uncoloured, v);
+                andNotInPlace(q, adj[v]);
+            }
+        }
+        return isEmpty(uncoloured) ? k : limit;
+    }
+
+    private static int indexOf(int[] xs, int n, int x) {
+        for (int i = 0; i < n; i++)
+            if (xs[i] == x)
+                return i;
+        return -1;
+    }
+
+    private static int remove(int[] xs, int n, int pos) {
+        System.arraycopy(xs, pos + 1, xs, pos, n - pos - 1);
+        return n - 1;
+    }
+
+    private static void set(long[] set, int i) {
+        set[i >> 6] |= 1L << i;
+    }
+
+    private static void clear(long[] set, int i) {
+        set[i >> 6] &= ~(1L << i);
+    }
+
+    private static boolean get(long[] set, int i) {
+        return (set[i >> 6] & 1L << i) != 0;
+    }
+
+    private static boolean isEmpty(long[] set) {
+        for (long word : set)
+            if (word != 0)
+                return false;
+        return true;
+    }
+
+    private static int nextSetBit(long[] set, int from) {
+        int w = from >> 6;
+        if (w >= set.length)
+            return -1;
+        long word = set[w] & (-1L << from);
+        while (true) {
+            if (word != 0)
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == set.length)
+                return -1;
+            word = set[w];
+        }
+    }
+
+    private static boolean isSubset(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++)
+            if ((a[i] & ~b[i]) != 0)
+                return false;
+        return true;
+    }
+
+    private static long[] or(long[] a, long[] b) {
+        long[] c = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            c[i] = a[i] | b[i];
+        return c;
+    }
+
+    private static void andNotInPlace(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++)
+            a[i] &= ~b[i];
+    }
+}
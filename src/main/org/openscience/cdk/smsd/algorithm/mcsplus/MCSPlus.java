@@ -32,7 +32,7 @@ import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.smsd.algorithm.mcgregor.McGregor;
-import org.openscience.cdk.smsd.global.TimeOut;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.tools.TimeManager;
 
 /**
@@ -45,35 +45,22 @@ import org.openscience.cdk.smsd.tools.TimeManager;
 @TestClass("org.openscience.cdk.smsd.SMSDBondSensitiveTest")
 public class MCSPlus {
 
+    private final SearchContext context;
+    /** Only used by the deprecated time out methods. */
+
     /**
     * Default constructor added 
     */
     public MCSPlus(){
-        
+        this(new SearchContext());
     }
 
-    private static TimeManager timeManager = null;
-
     /**
-     * @return the timeout
+     * Create an MCS Plus search which stops when the context times out or is cancelled.
+     * @param context time budget and cancellation of the search
      */
-    protected synchronized static double getTimeout() {
-        return TimeOut.getInstance().getTimeOut();
-    }
-
-    /**
-     * @return the timeManager
-     */
-    protected synchronized static TimeManager getTimeManager() {
-        return timeManager;
-    }
-
-    /**
-     * @param aTimeManager the timeManager to set
-     */
-    protected synchronized static void setTimeManager(TimeManager aTimeManager) {
-        TimeOut.getInstance().setTimeOutFlag(false);
-        timeManager = aTimeManager;
+    public MCSPlus(SearchContext context){
+        this.context = context;
     }
 
     /**
@@ -98,7 +85,7 @@ public class MCSPlus {
 //            System.err.println("C_edges: " + C_edges.size());
 //            System.out.println("D_edges: " + D_edges.size());
 
-            BKKCKCF init = new BKKCKCF(comp_graph_nodes, C_edges, D_edges);
+            BitSetCliqueFinder init = new BitSetCliqueFinder(comp_graph_nodes, C_edges, D_edges, context);
             maxCliqueSet = init.getMaxCliqueSet();
 
 //            System.err.println("**************************************************");
@@ -111,7 +98,7 @@ public class MCSPlus {
                 List<Integer> clique_List = maxCliqueSet.peek();
                 int clique_size = clique_List.size();
                 if (clique_size < ac1.getAtomCount() && clique_size < ac2.getAtomCount()) {
-                    McGregor mgit = new McGregor(ac1, ac2, mappings, shouldMatchBonds);
+                    McGregor mgit = new McGregor(ac1, ac2, mappings, shouldMatchBonds, context);
                     mgit.startMcGregorIteration(mgit.getMCSSize(), clique_List, comp_graph_nodes);
                     mappings = mgit.getMappings();
                     mgit = null;
@@ -119,7 +106,7 @@ public class MCSPlus {
                     mappings = ExactMapping.extractMapping(mappings, comp_graph_nodes, clique_List);
                 }
                 maxCliqueSet.pop();
-                if (isTimeOut()) {
+                if (context.isTimeOut()) {
                     break;
                 }
             }
@@ -129,11 +116,55 @@ public class MCSPlus {
         return mappings;
     }
 
-    public synchronized static boolean isTimeOut() {
-        if (getTimeout() > -1 && getTimeManager().getElapsedTimeInMinutes() > getTimeout()) {
-            TimeOut.getInstance().setTimeOutFlag(true);
-            return true;
-        }
-        return false;
+    /**
+     * The time out is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the time out of a search
+     *                                       is held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#getTimeOut()} of the search
+     */
+    @Deprecated
+    protected static double getTimeout() {
+        throw new UnsupportedOperationException("the time out of a search is held by its SearchContext");
+    }
+
+    /**
+     * The clock is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the clock of a search is
+     *                                       held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#getElapsedTimeInMinutes()} of the search
+     */
+    @Deprecated
+    protected static TimeManager getTimeManager() {
+        throw new UnsupportedOperationException("the clock of a search is held by its SearchContext");
+    }
+
+    /**
+     * The clock is no longer process wide.
+     *
+     * @param aTimeManager not used
+     * @throws UnsupportedOperationException always, the clock of a search is
+     *                                       held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#start()} of the search
+     */
+    @Deprecated
+    protected static void setTimeManager(TimeManager aTimeManager) {
+        throw new UnsupportedOperationException("the clock of a search is held by its SearchContext");
+    }
+
+    /**
+     * The time out is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the time out of a search
+     *                                       is held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#isTimeOut()} of the search
+     */
+    @Deprecated
+    public static boolean isTimeOut() {
+        throw new UnsupportedOperationException("the time out of a search is held by its SearchContext");
     }
 }
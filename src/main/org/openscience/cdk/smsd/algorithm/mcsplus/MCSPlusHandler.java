@@ -35,7 +35,7 @@ import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.isomorphism.matchers.IQueryAtomContainer;
 import org.openscience.cdk.smsd.filters.PostFilter;
-import org.openscience.cdk.smsd.helper.FinalMappings;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.interfaces.AbstractMCSAlgorithm;
 import org.openscience.cdk.smsd.interfaces.IMCSBase;
 import org.openscience.cdk.smsd.tools.MolHandler;
@@ -50,18 +50,29 @@ import org.openscience.cdk.smsd.tools.MolHandler;
 @TestClass("org.openscience.cdk.smsd.SMSDBondSensitiveTest")
 public class MCSPlusHandler extends AbstractMCSAlgorithm implements IMCSBase {
 
-    private static List<Map<IAtom, IAtom>> allAtomMCS = null;
-    private static Map<IAtom, IAtom> atomsMCS = null;
-    private static Map<Integer, Integer> firstMCS = null;
-    private static List<Map<Integer, Integer>> allMCS = null;
+    private List<Map<IAtom, IAtom>> allAtomMCS = null;
+    private Map<IAtom, IAtom> atomsMCS = null;
+    private Map<Integer, Integer> firstMCS = null;
+    private List<Map<Integer, Integer>> allMCS = null;
     private IAtomContainer source = null;
     private IAtomContainer target = null;
     private boolean flagExchange = false;
+    private final SearchContext context;
 
     /**
      * Constructor for the MCS Plus algorithm class
      */
     public MCSPlusHandler() {
+        this(new SearchContext());
+    }
+
+    /**
+     * Constructor for the MCS Plus algorithm class which searches
+     * in the given context.
+     * @param context time budget and cancellation of the search
+     */
+    public MCSPlusHandler(SearchContext context) {
+        this.context = context;
         allAtomMCS = new ArrayList<Map<IAtom, IAtom>>();
         atomsMCS = new HashMap<IAtom, IAtom>();
         firstMCS = new TreeMap<Integer, Integer>();
@@ -101,13 +112,12 @@ public class MCSPlusHandler extends AbstractMCSAlgorithm implements IMCSBase {
         List<List<Integer>> mappings = null;
         try {
             if (source.getAtomCount() >= target.getAtomCount()) {
-                mappings = new MCSPlus().getOverlaps(source, target, shouldMatchBonds);
+                mappings = new MCSPlus(context).getOverlaps(source, target, shouldMatchBonds);
             } else {
                 flagExchange = true;
-                mappings = new MCSPlus().getOverlaps(target, source, shouldMatchBonds);
+                mappings = new MCSPlus(context).getOverlaps(target, source, shouldMatchBonds);
             }
-            PostFilter.filter(mappings);
-            setAllMapping();
+            setAllMapping(PostFilter.filter(mappings));
             setAllAtomMapping();
             setFirstMapping();
             setFirstAtomMapping();
@@ -116,10 +126,9 @@ public class MCSPlusHandler extends AbstractMCSAlgorithm implements IMCSBase {
         }
     }
 
-    private synchronized void setAllMapping() {
+    private synchronized void setAllMapping(List<Map<Integer, Integer>> final_solution) {
         try {
 
-            List<Map<Integer, Integer>> final_solution = FinalMappings.getInstance().getFinalMapping();
             int counter = 0;
             for (Map<Integer, Integer> solution : final_solution) {
 //                System.out.println("Number of MCS solution: " + solution);
@@ -70,7 +70,7 @@ import org.openscience.cdk.smsd.algorithm.matchers.BondMatcher;
 import org.openscience.cdk.smsd.algorithm.matchers.DefaultBondMatcher;
 import org.openscience.cdk.smsd.algorithm.matchers.DefaultMatcher;
 import org.openscience.cdk.smsd.algorithm.matchers.DefaultRGraphAtomMatcher;
-import org.openscience.cdk.smsd.global.TimeOut;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.tools.TimeManager;
 import org.openscience.cdk.tools.manipulator.BondManipulator;
 
@@ -129,7 +129,7 @@ public class CDKMCS {
 
     final static int ID1 = 0;
     final static int ID2 = 1;
-    private static TimeManager timeManager = null;
+    /** Only used by the deprecated time out methods. */
 
     ///////////////////////////////////////////////////////////////////////////
     //                            Query Methods
@@ -242,7 +242,22 @@ public class CDKMCS {
      * @throws CDKException
      */
     public static List<List<CDKRMap>> getIsomorphMaps(IAtomContainer sourceGraph, IAtomContainer targetGraph, boolean shouldMatchBonds) throws CDKException {
-        return search(sourceGraph, targetGraph, getBitSet(sourceGraph), getBitSet(targetGraph), true, true, shouldMatchBonds);
+        return getIsomorphMaps(sourceGraph, targetGraph, shouldMatchBonds, new SearchContext());
+    }
+
+    /**
+     * Returns all the isomorph 'mappings' found between two
+     * atom containers.
+     *
+     * @param  sourceGraph  first molecule. Must not be an IQueryAtomContainer.
+     * @param  targetGraph  second molecule. May be an IQueryAtomContainer.
+     * @param shouldMatchBonds
+     * @param context time budget and cancellation of the search
+     * @return     the list of all the 'mappings'
+     * @throws CDKException
+     */
+    public static List<List<CDKRMap>> getIsomorphMaps(IAtomContainer sourceGraph, IAtomContainer targetGraph, boolean shouldMatchBonds, SearchContext context) throws CDKException {
+        return search(sourceGraph, targetGraph, getBitSet(sourceGraph), getBitSet(targetGraph), true, true, shouldMatchBonds, context);
     }
 
     /////
@@ -258,7 +273,22 @@ public class CDKMCS {
      * @throws CDKException
      */
     public static List<List<CDKRMap>> getSubgraphMaps(IAtomContainer sourceGraph, IAtomContainer targetGraph, boolean shouldMatchBonds) throws CDKException {
-        return search(sourceGraph, targetGraph, new BitSet(), getBitSet(targetGraph), true, true, shouldMatchBonds);
+        return getSubgraphMaps(sourceGraph, targetGraph, shouldMatchBonds, new SearchContext());
+    }
+
+    /**
+     * Returns all the subgraph 'bondA1 mappings' found for targetGraph in sourceGraph.
+     * This is an ArrayList of ArrayLists of CDKRMap objects.
+     *
+     * @param  sourceGraph  first molecule. Must not be an IQueryAtomContainer.
+     * @param  targetGraph  second molecule. May be an IQueryAtomContainer.
+     * @param shouldMatchBonds
+     * @param context time budget and cancellation of the search
+     * @return     the list of all the 'mappings' found projected of sourceGraph
+     * @throws CDKException
+     */
+    public static List<List<CDKRMap>> getSubgraphMaps(IAtomContainer sourceGraph, IAtomContainer targetGraph, boolean shouldMatchBonds, SearchContext context) throws CDKException {
+        return search(sourceGraph, targetGraph, new BitSet(), getBitSet(targetGraph), true, true, shouldMatchBonds, context);
     }
 
     /**
@@ -295,10 +325,28 @@ public class CDKMCS {
     public static List<List<CDKRMap>> getSubgraphAtomsMaps(IAtomContainer sourceGraph,
             IAtomContainer targetGraph, boolean shouldMatchBonds)
             throws CDKException {
+        return getSubgraphAtomsMaps(sourceGraph, targetGraph, shouldMatchBonds, new SearchContext());
+    }
+
+    /**
+     * Returns all subgraph 'atom mappings' found for targetGraph in sourceGraph.
+     * This is an ArrayList of ArrayLists of CDKRMap objects.
+     *
+     * @param  sourceGraph  first molecule. Must not be an IQueryAtomContainer.
+     * @param  targetGraph  second molecule. May be an IQueryAtomContainer.
+     * @param shouldMatchBonds
+     * @param context time budget and cancellation of the search
+     * @return     all subgraph atom mappings found projected on sourceGraph. This is atom
+     *             List of CDKRMap objects containing Ids of matching atoms.
+     * @throws CDKException
+     */
+    public static List<List<CDKRMap>> getSubgraphAtomsMaps(IAtomContainer sourceGraph,
+            IAtomContainer targetGraph, boolean shouldMatchBonds, SearchContext context)
+            throws CDKException {
         List<CDKRMap> list = checkSingleAtomCases(sourceGraph, targetGraph);
         if (list == null) {
             return makeAtomsMapsOfBondsMaps(
-                    CDKMCS.getSubgraphMaps(sourceGraph, targetGraph, shouldMatchBonds), sourceGraph, targetGraph);
+                    CDKMCS.getSubgraphMaps(sourceGraph, targetGraph, shouldMatchBonds, context), sourceGraph, targetGraph);
         } else {
             List<List<CDKRMap>> atomsMap = new ArrayList<List<CDKRMap>>();
             atomsMap.add(list);
@@ -465,6 +513,33 @@ public class CDKMCS {
     public static List<List<CDKRMap>> search(IAtomContainer sourceGraph, IAtomContainer targetGraph,
             BitSet sourceBitSet, BitSet targetBitSet, boolean findAllStructure, boolean findAllMap,
             boolean shouldMatchBonds) throws CDKException {
+        return search(sourceGraph, targetGraph, sourceBitSet, targetBitSet, findAllStructure, findAllMap,
+                shouldMatchBonds, new SearchContext());
+    }
+
+    /**
+     * General Rgraph parsing method (usually not used directly)
+     * This method is the entry point for the recursive search
+     * adapted to the atom container input. The parsing stops when the
+     * context times out or is cancelled.
+     *
+     * @param  sourceGraph                first molecule. Must not be an IQueryAtomContainer.
+     * @param  targetGraph                second molecule. May be an IQueryAtomContainer.
+     * @param  sourceBitSet                initial condition ( bonds from sourceGraph that
+     *                           must be contains in the solution )
+     * @param  targetBitSet                initial condition ( bonds from targetGraph that
+     *                           must be contains in the solution )
+     * @param  findAllStructure  if false stop at the first structure found
+     * @param  findAllMap        if true search all the 'mappings' for one same
+     *                           structure
+     * @param shouldMatchBonds
+     * @param context time budget and cancellation of the search
+     * @return                   atom List of Lists of CDKRMap objects that represent the search solutions
+     * @throws CDKException
+     */
+    public static List<List<CDKRMap>> search(IAtomContainer sourceGraph, IAtomContainer targetGraph,
+            BitSet sourceBitSet, BitSet targetBitSet, boolean findAllStructure, boolean findAllMap,
+            boolean shouldMatchBonds, SearchContext context) throws CDKException {
 
 
         // handle single query atom case separately
@@ -498,9 +573,9 @@ public class CDKMCS {
         List<List<CDKRMap>> rMapsList = new ArrayList<List<CDKRMap>>();
         // build the CDKRGraph corresponding to this problem
         CDKRGraph rGraph = buildRGraph(sourceGraph, targetGraph, shouldMatchBonds);
-        setTimeManager(new TimeManager());
+        context.start();
         // parse the CDKRGraph with the given constrains and options
-        rGraph.parse(sourceBitSet, targetBitSet, findAllStructure, findAllMap, getTimeManager());
+        rGraph.parse(sourceBitSet, targetBitSet, findAllStructure, findAllMap, context);
         List<BitSet> solutionList = rGraph.getSolutions();
 
         // conversions of CDKRGraph's internal solutions to G1/G2 mappings
@@ -1155,32 +1230,54 @@ public class CDKMCS {
     }
 
     /**
-     * @return the timeout
+     * The time out is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the time out of a search
+     *                                       is held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#getTimeOut()} of the search
      */
-    protected synchronized static double getTimeout() {
-        return TimeOut.getInstance().getTimeOut();
+    @Deprecated
+    protected static double getTimeout() {
+        throw new UnsupportedOperationException("the time out of a search is held by its SearchContext");
     }
 
     /**
-     * @return the timeManager
+     * The clock is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the clock of a search is
+     *                                       held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#getElapsedTimeInMinutes()} of the search
      */
-    protected synchronized static TimeManager getTimeManager() {
-        return timeManager;
+    @Deprecated
+    protected static TimeManager getTimeManager() {
+        throw new UnsupportedOperationException("the clock of a search is held by its SearchContext");
     }
 
     /**
-     * @param aTimeManager the timeManager to set
+     * The clock is no longer process wide.
+     *
+     * @param aTimeManager not used
+     * @throws UnsupportedOperationException always, the clock of a search is
+     *                                       held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#start()} of the search
      */
-    protected synchronized static void setTimeManager(TimeManager aTimeManager) {
-        TimeOut.getInstance().setTimeOutFlag(false);
-        timeManager = aTimeManager;
+    @Deprecated
+    protected static void setTimeManager(TimeManager aTimeManager) {
+        throw new UnsupportedOperationException("the clock of a search is held by its SearchContext");
     }
 
-    public synchronized static boolean isTimeOut() {
-        if (getTimeout() > -1 && getTimeManager().getElapsedTimeInMinutes() > getTimeout()) {
-            TimeOut.getInstance().setTimeOutFlag(true);
-            return true;
-        }
-        return false;
+    /**
+     * The time out is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the time out of a search
+     *                                       is held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#isTimeOut()} of the search
+     */
+    @Deprecated
+    public static boolean isTimeOut() {
+        throw new UnsupportedOperationException("the time out of a search is held by its SearchContext");
     }
 }
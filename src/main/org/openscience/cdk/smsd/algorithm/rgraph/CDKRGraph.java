@@ -35,6 +35,7 @@ import java.util.Iterator;
 import java.util.List;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.tools.TimeManager;
 
 /**
@@ -126,7 +127,8 @@ public class CDKRGraph {
     private boolean stop = false;
     private int nbIteration = 0;
     private BitSet graphBitSet = null;
-    // -1 for infinite search and one min is 1
+    // time budget and cancellation of the current search
+    private SearchContext context = new SearchContext();
 
     /**
      * Constructor for the CDKRGraph object and creates an empty CDKRGraph.
@@ -138,7 +140,7 @@ public class CDKRGraph {
     }
 
     private boolean checkTimeOut() throws CDKException {
-        if (CDKMCS.isTimeOut()) {
+        if (context.isTimeOut()) {
             setStop(true);
             return true;
         }
@@ -219,10 +221,34 @@ public class CDKRGraph {
      * @param  targetBitSet  constrain on the graph G2
      * @param  findAllStructure true if we want all results to be generated
      * @param  findAllMap true is we want all possible 'mappings'
-     * @param timeManager
+     * @param timeManager not used, the search has no time limit
      * @throws CDKException
+     * @deprecated use {@link #parse(BitSet, BitSet, boolean, boolean, SearchContext)}
+     *             with the time budget of the search
      */
+    @Deprecated
     public void parse(BitSet sourceBitSet, BitSet targetBitSet, boolean findAllStructure, boolean findAllMap, TimeManager timeManager) throws CDKException {
+        parse(sourceBitSet, targetBitSet, findAllStructure, findAllMap, new SearchContext());
+    }
+
+    /**
+     *  Parsing of the CDKRGraph. This is the main method
+     *  to perform a query. Given the constrains sourceBitSet and targetBitSet
+     *  defining mandatory elements in G1 and G2 and given
+     *  the search options, this method builds an initial set
+     *  of starting nodes (targetBitSet) and parses recursively the
+     *  CDKRGraph to find a list of solution according to
+     *  these parameters.
+     *
+     * @param  sourceBitSet  constrain on the graph G1
+     * @param  targetBitSet  constrain on the graph G2
+     * @param  findAllStructure true if we want all results to be generated
+     * @param  findAllMap true is we want all possible 'mappings'
+     * @param context time budget and cancellation of the search
+     * @throws CDKException
+     */
+    public void parse(BitSet sourceBitSet, BitSet targetBitSet, boolean findAllStructure, boolean findAllMap, SearchContext context) throws CDKException {
+        this.context = context;
         // initialize the list of solution
         checkTimeOut();
         // initialize the list of solution
@@ -256,6 +282,7 @@ public class CDKRGraph {
         BitSet newForbidden = null;
         BitSet potentialNode = null;
 
+        context.visit();
         checkTimeOut();
 
         // if there is no more extension possible we
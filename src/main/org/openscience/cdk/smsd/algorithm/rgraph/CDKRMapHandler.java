@@ -34,7 +34,7 @@ import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
-import org.openscience.cdk.smsd.helper.FinalMappings;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.tools.manipulator.BondManipulator;
 
 /**
@@ -54,43 +54,70 @@ public class CDKRMapHandler {
 
 
     public CDKRMapHandler(){
-        
+        this(new SearchContext());
     }
+
     /**
-     * Returns source molecule
+     * Create a handler which searches within the time budget of the given context.
+     * @param context time budget and cancellation of the search
+     */
+    public CDKRMapHandler(SearchContext context){
+        this.context = context;
+    }
+
+    /**
+     * Returns the source molecule set with {@link #setSource(IAtomContainer)},
+     * searches do not change it
      * @return the source
+     * @deprecated the molecules of a search are held by its handler
      */
+    @Deprecated
     public static IAtomContainer getSource() {
-        return source;
+        return staticSource;
     }
 
     /**
-     * Set source molecule
+     * Set source molecule, this does not change the molecules of a search
      * @param aSource the source to set
+     * @deprecated the molecules of a search are held by its handler
      */
+    @Deprecated
     public static void setSource(IAtomContainer aSource) {
-        source = aSource;
+        staticSource = aSource;
     }
 
     /**
-     * Returns target molecule
+     * Returns the target molecule set with {@link #setTarget(IAtomContainer)},
+     * searches do not change it
      * @return the target
+     * @deprecated the molecules of a search are held by its handler
      */
+    @Deprecated
     public static IAtomContainer getTarget() {
-        return target;
+        return staticTarget;
     }
 
     /**
-     * Set target molecule
+     * Set target molecule, this does not change the molecules of a search
      * @param aTarget the target to set
+     * @deprecated the molecules of a search are held by its handler
      */
+    @Deprecated
     public static void setTarget(IAtomContainer aTarget) {
-        target = aTarget;
+        staticTarget = aTarget;
     }
     private List<Map<Integer, Integer>> mappings;
-    private static IAtomContainer source;
-    private static IAtomContainer target;
+    private IAtomContainer source;
+    private IAtomContainer target;
+    private static volatile IAtomContainer staticSource;
+    private static volatile IAtomContainer staticTarget;
     private boolean timeoutFlag = false;
+    private final SearchContext context;
+
+    private void setMolecules(IAtomContainer source, IAtomContainer target) {
+        this.source = source;
+        this.target = target;
+    }
 
     /**
      * This function calculates all the possible combinations of MCS
@@ -101,40 +128,39 @@ public class CDKRMapHandler {
      */
     public void calculateOverlapsAndReduce(IAtomContainer Molecule1, IAtomContainer Molecule2, boolean shouldMatchBonds) throws CDKException {
 
-        setSource(Molecule1);
-        setTarget(Molecule2);
+        setMolecules(Molecule1, Molecule2);
 
         setMappings(new ArrayList<Map<Integer, Integer>>());
 
 
-        if ((getSource().getAtomCount() == 1) || (getTarget().getAtomCount() == 1)) {
-            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(getSource(), getTarget());
+        if ((source.getAtomCount() == 1) || (target.getAtomCount() == 1)) {
+            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(source, target);
             int nAtomsMatched = overlaps.size();
             nAtomsMatched = (nAtomsMatched > 0) ? 1 : 0;
             if (nAtomsMatched > 0) {
                 /*UnComment this to get one Unique Mapping*/
                 //List reducedList = removeRedundantMappingsForSingleAtomCase(overlaps);
                 //int counter = 0;
-                identifySingleAtomsMatchedParts(overlaps, getSource(), getTarget());
+                identifySingleAtomsMatchedParts(overlaps, source, target);
 
             }
 
         } else {
-            List<List<CDKRMap>> overlaps = CDKMCS.search(getSource(), getTarget(), new BitSet(), new BitSet(), true, true, shouldMatchBonds);
+            List<List<CDKRMap>> overlaps = CDKMCS.search(source, target, new BitSet(), new BitSet(), true, true, shouldMatchBonds, context);
 
             List<List<CDKRMap>> reducedList = removeSubGraph(overlaps);
             Stack<List<CDKRMap>> allMaxOverlaps = getAllMaximum(reducedList);
             while (!allMaxOverlaps.empty()) {
 //                System.out.println("source: " + source.getAtomCount() + ", target: " + target.getAtomCount() + ", overl: " + allMaxOverlaps.peek().size());
-                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), getSource(), getTarget());
+                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), source, target);
 //                System.out.println("size of maxOverlaps: " + maxOverlapsAtoms.size());
-                identifyMatchedParts(maxOverlapsAtoms, getSource(), getTarget());
+                identifyMatchedParts(maxOverlapsAtoms, source, target);
 //                identifyMatchedParts(allMaxOverlaps.peek(), source, target);
                 allMaxOverlaps.pop();
             }
         }
 
-        FinalMappings.getInstance().set(getMappings());
+        setTimeoutFlag(context.isTimeOutFlag());
 
     }
 
@@ -149,38 +175,37 @@ public class CDKRMapHandler {
      */
     public void calculateOverlapsAndReduceExactMatch(IAtomContainer Molecule1, IAtomContainer Molecule2, boolean shouldMatchBonds) throws CDKException {
 
-        setSource(Molecule1);
-        setTarget(Molecule2);
+        setMolecules(Molecule1, Molecule2);
 
         setMappings(new ArrayList<Map<Integer, Integer>>());
 
         //System.out.println("Searching: ");
         //List overlaps = UniversalIsomorphismTesterBondTypeInSensitive.getSubgraphAtomsMap(source, target);
 
-        if ((getSource().getAtomCount() == 1) || (getTarget().getAtomCount() == 1)) {
+        if ((source.getAtomCount() == 1) || (target.getAtomCount() == 1)) {
 
-            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(getSource(), getTarget());
+            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(source, target);
             int nAtomsMatched = overlaps.size();
             nAtomsMatched = (nAtomsMatched > 0) ? 1 : 0;
             if (nAtomsMatched > 0) {
-                identifySingleAtomsMatchedParts(overlaps, getSource(), getTarget());
+                identifySingleAtomsMatchedParts(overlaps, source, target);
             }
 
         } else {
 
             List<List<CDKRMap>> overlaps =
-                    CDKMCS.search(getSource(), getTarget(), new BitSet(), new BitSet(), true, true, shouldMatchBonds);
+                    CDKMCS.search(source, target, new BitSet(), new BitSet(), true, true, shouldMatchBonds, context);
 
             List<List<CDKRMap>> reducedList = removeSubGraph(overlaps);
             Stack<List<CDKRMap>> allMaxOverlaps = getAllMaximum(reducedList);
 
             while (!allMaxOverlaps.empty()) {
-                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), getSource(), getTarget());
-                identifyMatchedParts(maxOverlapsAtoms, getSource(), getTarget());
+                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), source, target);
+                identifyMatchedParts(maxOverlapsAtoms, source, target);
                 allMaxOverlaps.pop();
             }
         }
-        FinalMappings.getInstance().set(getMappings());
+        setTimeoutFlag(context.isTimeOutFlag());
     }
 
     /**
@@ -194,38 +219,37 @@ public class CDKRMapHandler {
      */
     public void calculateSubGraphs(IAtomContainer Molecule1, IAtomContainer Molecule2, boolean shouldMatchBonds) throws CDKException {
 
-        setSource(Molecule1);
-        setTarget(Molecule2);
+        setMolecules(Molecule1, Molecule2);
 
         setMappings(new ArrayList<Map<Integer, Integer>>());
 
         //System.out.println("Searching: ");
         //List overlaps = UniversalIsomorphismTesterBondTypeInSensitive.getSubgraphAtomsMap(source, target);
 
-        if ((getSource().getAtomCount() == 1) || (getTarget().getAtomCount() == 1)) {
+        if ((source.getAtomCount() == 1) || (target.getAtomCount() == 1)) {
 
-            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(getSource(), getTarget());
+            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(source, target);
             int nAtomsMatched = overlaps.size();
             nAtomsMatched = (nAtomsMatched > 0) ? 1 : 0;
             if (nAtomsMatched > 0) {
-                identifySingleAtomsMatchedParts(overlaps, getSource(), getTarget());
+                identifySingleAtomsMatchedParts(overlaps, source, target);
             }
 
         } else {
 
             List<List<CDKRMap>> overlaps =
-                    CDKMCS.getSubgraphMaps(getSource(), getTarget(), shouldMatchBonds);
+                    CDKMCS.getSubgraphMaps(source, target, shouldMatchBonds, context);
 
             List<List<CDKRMap>> reducedList = removeSubGraph(overlaps);
             Stack<List<CDKRMap>> allMaxOverlaps = getAllMaximum(reducedList);
 
             while (!allMaxOverlaps.empty()) {
-                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), getSource(), getTarget());
-                identifyMatchedParts(maxOverlapsAtoms, getSource(), getTarget());
+                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), source, target);
+                identifyMatchedParts(maxOverlapsAtoms, source, target);
                 allMaxOverlaps.pop();
             }
         }
-        FinalMappings.getInstance().set(getMappings());
+        setTimeoutFlag(context.isTimeOutFlag());
     }
 
     /**
@@ -239,38 +263,37 @@ public class CDKRMapHandler {
      */
     public void calculateIsomorphs(IAtomContainer Molecule1, IAtomContainer Molecule2, boolean shouldMatchBonds) throws CDKException {
 
-        setSource(Molecule1);
-        setTarget(Molecule2);
+        setMolecules(Molecule1, Molecule2);
 
         setMappings(new ArrayList<Map<Integer, Integer>>());
 
         //System.out.println("Searching: ");
         //List overlaps = UniversalIsomorphismTesterBondTypeInSensitive.getSubgraphAtomsMap(source, target);
 
-        if ((getSource().getAtomCount() == 1) || (getTarget().getAtomCount() == 1)) {
+        if ((source.getAtomCount() == 1) || (target.getAtomCount() == 1)) {
 
-            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(getSource(), getTarget());
+            List<CDKRMap> overlaps = CDKMCS.checkSingleAtomCases(source, target);
             int nAtomsMatched = overlaps.size();
             nAtomsMatched = (nAtomsMatched > 0) ? 1 : 0;
             if (nAtomsMatched > 0) {
-                identifySingleAtomsMatchedParts(overlaps, getSource(), getTarget());
+                identifySingleAtomsMatchedParts(overlaps, source, target);
             }
 
         } else {
 
             List<List<CDKRMap>> overlaps =
-                    CDKMCS.getIsomorphMaps(getSource(), getTarget(), shouldMatchBonds);
+                    CDKMCS.getIsomorphMaps(source, target, shouldMatchBonds, context);
 
             List<List<CDKRMap>> reducedList = removeSubGraph(overlaps);
             Stack<List<CDKRMap>> allMaxOverlaps = getAllMaximum(reducedList);
 
             while (!allMaxOverlaps.empty()) {
-                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), getSource(), getTarget());
-                identifyMatchedParts(maxOverlapsAtoms, getSource(), getTarget());
+                List<List<CDKRMap>> maxOverlapsAtoms = makeAtomsMapOfBondsMap(allMaxOverlaps.peek(), source, target);
+                identifyMatchedParts(maxOverlapsAtoms, source, target);
                 allMaxOverlaps.pop();
             }
         }
-        FinalMappings.getInstance().set(getMappings());
+        setTimeoutFlag(context.isTimeOutFlag());
     }
 
     /**
@@ -477,7 +500,7 @@ public class CDKRMapHandler {
      */
     protected Stack<List<CDKRMap>> getAllMaximum(List<List<CDKRMap>> overlaps) {
 
-        Stack<List<CDKRMap>> allMaximumMappings = null;
+        Stack<List<CDKRMap>> allMaximumMappings = new Stack<List<CDKRMap>>();
 
         int count = -1;
 
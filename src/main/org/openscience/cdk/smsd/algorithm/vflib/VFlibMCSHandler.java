@@ -43,6 +43,7 @@ import org.openscience.cdk.smsd.algorithm.vflib.interfaces.INode;
 import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IQuery;
 import org.openscience.cdk.smsd.algorithm.vflib.map.VFMCSMapper;
 import org.openscience.cdk.smsd.algorithm.vflib.query.QueryCompiler;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.interfaces.AbstractMCSAlgorithm;
 import org.openscience.cdk.smsd.interfaces.IMCSBase;
 import org.openscience.cdk.smsd.tools.MolHandler;
@@ -67,12 +68,12 @@ import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
 @TestClass("org.openscience.cdk.smsd.algorithm.vflib.VFlibMCSHandlerTest")
 public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
 
-    private static List<Map<IAtom, IAtom>> allAtomMCS = null;
-    private static Map<IAtom, IAtom> atomsMCS = null;
-    private static List<Map<IAtom, IAtom>> allAtomMCSCopy = null;
-    private static Map<Integer, Integer> firstMCS = null;
-    private static List<Map<Integer, Integer>> allMCS = null;
-    private static List<Map<Integer, Integer>> allMCSCopy = null;
+    private List<Map<IAtom, IAtom>> allAtomMCS = null;
+    private Map<IAtom, IAtom> atomsMCS = null;
+    private List<Map<IAtom, IAtom>> allAtomMCSCopy = null;
+    private Map<Integer, Integer> firstMCS = null;
+    private List<Map<Integer, Integer>> allMCS = null;
+    private List<Map<Integer, Integer>> allMCSCopy = null;
     private List<Map<INode, IAtom>> vfLibSolutions = null;
     private IQueryAtomContainer queryMol = null;
     private IAtomContainer mol1 = null;
@@ -81,6 +82,7 @@ public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
     private boolean bond_Match_Flag = false;
     private int countR = 0;
     private int countP = 0;
+    private final SearchContext context;
     private final static ILoggingTool Logger =
             LoggingToolFactory.createLoggingTool(VFlibMCSHandler.class);
 
@@ -89,6 +91,16 @@ public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
      */
     @TestMethod("setMCSAlgorithm")
     public VFlibMCSHandler() {
+        this(new SearchContext());
+    }
+
+    /**
+     * Constructor for an extended VF Algorithm for the MCS search
+     * in the given context.
+     * @param context time budget and cancellation of the search
+     */
+    public VFlibMCSHandler(SearchContext context) {
+        this.context = context;
         allAtomMCS = new ArrayList<Map<IAtom, IAtom>>();
         allAtomMCSCopy = new ArrayList<Map<IAtom, IAtom>>();
         atomsMCS = new HashMap<IAtom, IAtom>();
@@ -224,7 +236,7 @@ public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
         vfLibSolutions = new ArrayList<Map<INode, IAtom>>();
         if (queryMol != null) {
             query = new QueryCompiler(queryMol).compile();
-            mapper = new VFMCSMapper(query);
+            mapper = new VFMCSMapper(query, context);
             List<Map<INode, IAtom>> maps = mapper.getMaps(getProductMol());
             if (maps != null) {
                 vfLibSolutions.addAll(maps);
@@ -232,7 +244,7 @@ public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
             setVFMappings(true, query);
         } else if (countR <= countP) {
             query = new QueryCompiler(mol1, isBondMatchFlag()).compile();
-            mapper = new VFMCSMapper(query);
+            mapper = new VFMCSMapper(query, context);
             List<Map<INode, IAtom>> maps = mapper.getMaps(getProductMol());
             if (maps != null) {
                 vfLibSolutions.addAll(maps);
@@ -240,7 +252,7 @@ public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
             setVFMappings(true, query);
         } else {
             query = new QueryCompiler(getProductMol(), isBondMatchFlag()).compile();
-            mapper = new VFMCSMapper(query);
+            mapper = new VFMCSMapper(query, context);
             List<Map<INode, IAtom>> maps = mapper.getMaps(getReactantMol());
             if (maps != null) {
                 vfLibSolutions.addAll(maps);
@@ -262,13 +274,13 @@ public class VFlibMCSHandler extends AbstractMCSAlgorithm implements IMCSBase {
             Map<Integer, Integer> tMapping = new TreeMap<Integer, Integer>(firstPassMappings);
             McGregor mgit = null;
             if (queryMol != null) {
-                mgit = new McGregor(queryMol, mol2, mappings, isBondMatchFlag());
+                mgit = new McGregor(queryMol, mol2, mappings, isBondMatchFlag(), context);
             } else {
                 if (countR > countP) {
-                    mgit = new McGregor(mol1, mol2, mappings, isBondMatchFlag());
+                    mgit = new McGregor(mol1, mol2, mappings, isBondMatchFlag(), context);
                 } else {
                     tMapping.clear();
-                    mgit = new McGregor(mol2, mol1, mappings, isBondMatchFlag());
+                    mgit = new McGregor(mol2, mol1, mappings, isBondMatchFlag(), context);
                     ROPFlag = false;
                     for (Map.Entry<Integer, Integer> map : firstPassMappings.entrySet()) {
                         tMapping.put(map.getValue(), map.getKey());
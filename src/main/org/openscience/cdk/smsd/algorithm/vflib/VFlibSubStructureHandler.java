@@ -25,22 +25,20 @@ package org.openscience.cdk.smsd.algorithm.vflib;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.logging.Level;
 
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
-import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.isomorphism.matchers.IQueryAtomContainer;
-import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IMapper;
-import org.openscience.cdk.smsd.algorithm.vflib.interfaces.INode;
 import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IQuery;
-import org.openscience.cdk.smsd.algorithm.vflib.map.VFMapper;
+import org.openscience.cdk.smsd.algorithm.vflib.map.VFMatcher;
 import org.openscience.cdk.smsd.algorithm.vflib.query.QueryCompiler;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.interfaces.AbstractSubGraph;
 import org.openscience.cdk.smsd.interfaces.IMCSBase;
 import org.openscience.cdk.smsd.tools.MolHandler;
@@ -66,18 +64,18 @@ import org.openscience.cdk.tools.LoggingToolFactory;
 @TestClass("org.openscience.cdk.smsd.algorithm.vflib.VFlibTurboHandlerTest")
 public class VFlibSubStructureHandler extends AbstractSubGraph implements IMCSBase {
 
-    private static List<Map<IAtom, IAtom>> allAtomMCS = null;
-    private static Map<IAtom, IAtom> atomsMCS = null;
-    private static List<Map<IAtom, IAtom>> allAtomMCSCopy = null;
-    private static Map<Integer, Integer> firstMCS = null;
-    private static List<Map<Integer, Integer>> allMCS = null;
-    private static List<Map<Integer, Integer>> allMCSCopy = null;
+    private List<Map<IAtom, IAtom>> allAtomMCS = null;
+    private Map<IAtom, IAtom> atomsMCS = null;
+    private List<Map<IAtom, IAtom>> allAtomMCSCopy = null;
+    private Map<Integer, Integer> firstMCS = null;
+    private List<Map<Integer, Integer>> allMCS = null;
+    private List<Map<Integer, Integer>> allMCSCopy = null;
     private IQueryAtomContainer queryMol = null;
     private IAtomContainer mol1 = null;
     private IAtomContainer mol2 = null;
-    private List<Map<INode, IAtom>> vfLibSolutions = null;
     private int vfMCSSize = -1;
     private boolean bond_Match_Flag = false;
+    private final SearchContext context;
     private final static ILoggingTool Logger =
             LoggingToolFactory.createLoggingTool(VFlibSubStructureHandler.class);
 
@@ -86,6 +84,16 @@ public class VFlibSubStructureHandler extends AbstractSubGraph implements IMCSBa
      */
     @TestMethod("setMCSAlgorithm")
     public VFlibSubStructureHandler() {
+        this(new SearchContext());
+    }
+
+    /**
+     * Constructor for an extended VF Algorithm for the MCS search
+     * in the given context.
+     * @param context time budget and cancellation of the search
+     */
+    public VFlibSubStructureHandler(SearchContext context) {
+        this.context = context;
         allAtomMCS = new ArrayList<Map<IAtom, IAtom>>();
         allAtomMCSCopy = new ArrayList<Map<IAtom, IAtom>>();
         atomsMCS = new HashMap<IAtom, IAtom>();
@@ -133,15 +141,6 @@ public class VFlibSubStructureHandler extends AbstractSubGraph implements IMCSBa
         mol2 = target;
     }
 
-    private boolean hasMap(Map<Integer, Integer> map, List<Map<Integer, Integer>> mapGlobal) {
-        for (Map<Integer, Integer> test : mapGlobal) {
-            if (test.equals(map)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /** {@inheritDoc} */
     @TestMethod("testGetAllAtomMapping")
     public List<Map<IAtom, IAtom>> getAllAtomMapping() {
@@ -185,83 +184,41 @@ public class VFlibSubStructureHandler extends AbstractSubGraph implements IMCSBa
     private void searchVFMappings() {
 //        System.out.println("searchVFMappings ");
         IQuery query = null;
-        IMapper mapper = null;
-        vfLibSolutions = new ArrayList<Map<INode, IAtom>>();
+        IAtomContainer target = null;
+        boolean RONP = true;
         if (queryMol != null) {
             query = new QueryCompiler(queryMol).compile();
-            mapper = new VFMapper(query);
-            if (mapper.hasMap(getProductMol())) {
-                List<Map<INode, IAtom>> maps = mapper.getMaps(getProductMol());
-                if (maps != null) {
-                    vfLibSolutions.addAll(maps);
-                }
-            }
-            setVFMappings(true, query);
+            target = getProductMol();
         } else if (getReactantMol().getAtomCount() <= getProductMol().getAtomCount()) {
             query = new QueryCompiler(mol1, isBondMatchFlag()).compile();
-            mapper = new VFMapper(query);
-            if (mapper.hasMap(getProductMol())) {
-                List<Map<INode, IAtom>> maps = mapper.getMaps(getProductMol());
-                if (maps != null) {
-                    vfLibSolutions.addAll(maps);
-                }
-            }
-            setVFMappings(true, query);
+            target = getProductMol();
         } else {
             query = new QueryCompiler(getProductMol(), isBondMatchFlag()).compile();
-            mapper = new VFMapper(query);
-            if (mapper.hasMap(getReactantMol())) {
-                List<Map<INode, IAtom>> maps = mapper.getMaps(getReactantMol());
-                if (maps != null) {
-                    vfLibSolutions.addAll(maps);
-                }
-            }
-            setVFMappings(false, query);
+            target = getReactantMol();
+            RONP = false;
         }
+        context.start();
+        setVFMappings(RONP, new VFMatcher(query).matches(target, Integer.MAX_VALUE, context));
     }
 
-    private void setVFMappings(boolean RONP, IQuery query) {
-        int counter = 0;
-        for (Map<INode, IAtom> solution : vfLibSolutions) {
+    /**
+     * Store the matches, each match is an array indexed by the query atoms
+     * holding the matched target atoms.
+     */
+    private void setVFMappings(boolean RONP, Iterator<int[]> matches) {
+        while (matches.hasNext()) {
+            int[] match = matches.next();
             Map<IAtom, IAtom> atomatomMapping = new HashMap<IAtom, IAtom>();
             Map<Integer, Integer> indexindexMapping = new TreeMap<Integer, Integer>();
-            if (solution.size() > vfMCSSize) {
-                this.vfMCSSize = solution.size();
-                allAtomMCSCopy.clear();
-                allMCSCopy.clear();
-                counter = 0;
-            }
-            for (Map.Entry<INode, IAtom> mapping : solution.entrySet()) {
-                IAtom qAtom = null;
-                IAtom tAtom = null;
-                if (RONP) {
-                    qAtom = query.getAtom(mapping.getKey());
-                    tAtom = mapping.getValue();
-                } else {
-                    tAtom = query.getAtom(mapping.getKey());
-                    qAtom = mapping.getValue();
-                }
-                Integer qIndex = Integer.valueOf(getReactantMol().getAtomNumber(qAtom));
-                Integer tIndex = Integer.valueOf(getProductMol().getAtomNumber(tAtom));
-                if (qIndex != -1 && tIndex != -1) {
-                    atomatomMapping.put(qAtom, tAtom);
-                    indexindexMapping.put(qIndex, tIndex);
-                } else {
-                    try {
-                        throw new CDKException("Atom index pointing to NULL");
-                    } catch (CDKException ex) {
-                        Logger.error(Level.SEVERE, null, ex);
-                    }
-                }
-            }
-//            System.out.println("indexindexMapping " + indexindexMapping.size());
-//            System.out.println("MCS Size " + vfMCSSize);
-            if (!atomatomMapping.isEmpty() && !hasMap(indexindexMapping, allMCSCopy)
-                    && indexindexMapping.size() == vfMCSSize) {
-                allAtomMCSCopy.add(counter, atomatomMapping);
-                allMCSCopy.add(counter, indexindexMapping);
-                counter++;
+            for (int i = 0; i < match.length; i++) {
+                int qIndex = RONP ? i : match[i];
+                int tIndex = RONP ? match[i] : i;
+                atomatomMapping.put(getReactantMol().getAtom(qIndex), getProductMol().getAtom(tIndex));
+                indexindexMapping.put(qIndex, tIndex);
             }
+            this.vfMCSSize = match.length;
+            allAtomMCSCopy.add(atomatomMapping);
+            allMCSCopy.add(indexindexMapping);
         }
 //        System.out.println("allMCSCopy " + allMCSCopy.size());
     }
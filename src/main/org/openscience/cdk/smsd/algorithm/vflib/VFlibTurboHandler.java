@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -37,11 +38,10 @@ import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.isomorphism.matchers.IQueryAtomContainer;
 import org.openscience.cdk.smsd.algorithm.mcgregor.McGregor;
-import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IMapper;
-import org.openscience.cdk.smsd.algorithm.vflib.interfaces.INode;
 import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IQuery;
-import org.openscience.cdk.smsd.algorithm.vflib.map.VFMapper;
+import org.openscience.cdk.smsd.algorithm.vflib.map.VFMatcher;
 import org.openscience.cdk.smsd.algorithm.vflib.query.QueryCompiler;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.interfaces.AbstractSubGraph;
 import org.openscience.cdk.smsd.interfaces.IMCSBase;
 import org.openscience.cdk.smsd.tools.MolHandler;
@@ -67,18 +67,18 @@ import org.openscience.cdk.tools.LoggingToolFactory;
 @TestClass("org.openscience.cdk.smsd.algorithm.vflib.VFlibTurboHandlerTest")
 public class VFlibTurboHandler extends AbstractSubGraph implements IMCSBase {
 
-    private static List<Map<IAtom, IAtom>> allAtomMCS = null;
-    private static Map<IAtom, IAtom> atomsMCS = null;
-    private static List<Map<IAtom, IAtom>> allAtomMCSCopy = null;
-    private static Map<Integer, Integer> firstMCS = null;
-    private static List<Map<Integer, Integer>> allMCS = null;
-    private static List<Map<Integer, Integer>> allMCSCopy = null;
+    private List<Map<IAtom, IAtom>> allAtomMCS = null;
+    private Map<IAtom, IAtom> atomsMCS = null;
+    private List<Map<IAtom, IAtom>> allAtomMCSCopy = null;
+    private Map<Integer, Integer> firstMCS = null;
+    private List<Map<Integer, Integer>> allMCS = null;
+    private List<Map<Integer, Integer>> allMCSCopy = null;
     private IQueryAtomContainer queryMol = null;
     private IAtomContainer mol1 = null;
     private IAtomContainer mol2 = null;
-    private Map<INode, IAtom> vfLibSolutions = null;
     private int vfMCSSize = -1;
     private boolean bond_Match_Flag = false;
+    private final SearchContext context;
     private final static ILoggingTool Logger =
             LoggingToolFactory.createLoggingTool(VFlibTurboHandler.class);
 
@@ -87,6 +87,16 @@ public class VFlibTurboHandler extends AbstractSubGraph implements IMCSBase {
      */
     @TestMethod("setMCSAlgorithm")
     public VFlibTurboHandler() {
+        this(new SearchContext());
+    }
+
+    /**
+     * Constructor for an extended VF Algorithm for the MCS search
+     * in the given context.
+     * @param context time budget and cancellation of the search
+     */
+    public VFlibTurboHandler(SearchContext context) {
+        this.context = context;
         allAtomMCS = new ArrayList<Map<IAtom, IAtom>>();
         allAtomMCSCopy = new ArrayList<Map<IAtom, IAtom>>();
         atomsMCS = new HashMap<IAtom, IAtom>();
@@ -191,45 +201,31 @@ public class VFlibTurboHandler extends AbstractSubGraph implements IMCSBase {
     private void searchVFMappings() {
 //        System.out.println("searchVFMappings ");
         IQuery query = null;
-        IMapper mapper = null;
-        vfLibSolutions = new HashMap<INode, IAtom>();
+        IAtomContainer target = null;
+        boolean RONP = true;
         if (queryMol != null) {
             query = new QueryCompiler(queryMol).compile();
-            mapper = new VFMapper(query);
-            if (mapper.hasMap(getProductMol())) {
-                Map<INode, IAtom> map = mapper.getFirstMap(getProductMol());
-                if (map != null) {
-                    vfLibSolutions.putAll(map);
-                }
-            }
-            setVFMappings(true, query);
+            target = getProductMol();
         } else if (getReactantMol().getAtomCount() <= getProductMol().getAtomCount()) {
             query = new QueryCompiler(mol1, isBondMatchFlag()).compile();
-            mapper = new VFMapper(query);
-            if (mapper.hasMap(getProductMol())) {
-                Map<INode, IAtom> map = mapper.getFirstMap(getProductMol());
-                if (map != null) {
-                    vfLibSolutions.putAll(map);
-                }
-            }
-            setVFMappings(true, query);
+            target = getProductMol();
         } else {
             query = new QueryCompiler(getProductMol(), isBondMatchFlag()).compile();
-            mapper = new VFMapper(query);
-            if (mapper.hasMap(getReactantMol())) {
-                Map<INode, IAtom> map = mapper.getFirstMap(getReactantMol());
-                if (map != null) {
-                    vfLibSolutions.putAll(map);
-                }
-            }
-            setVFMappings(false, query);
+            target = getReactantMol();
+            RONP = false;
+        }
+        context.start();
+        // only the first match is needed
+        Iterator<int[]> matches = new VFMatcher(query).matches(target, 1, context);
+        if (matches.hasNext()) {
+            setVFMappings(RONP, matches.next());
         }
     }
 
     private void searchMcGregorMapping() throws CDKException, IOException {
         List<List<Integer>> mappings = new ArrayList<List<Integer>>();
         for (Map<Integer, Integer> firstPassMappings : allMCSCopy) {
-            McGregor mgit = new McGregor(getReactantMol(), getProductMol(), mappings, isBondMatchFlag());
+            McGregor mgit = new McGregor(getReactantMol(), getProductMol(), mappings, isBondMatchFlag(), context);
             mgit.startMcGregorIteration(mgit.getMCSSize(), firstPassMappings); //Start McGregor search
             mappings = mgit.getMappings();
             mgit = null;
@@ -241,49 +237,26 @@ public class VFlibTurboHandler extends AbstractSubGraph implements IMCSBase {
 //        System.out.println("MCSSize " + vfMCSSize + "\n");
     }
 
-    private void setVFMappings(boolean RONP, IQuery query) {
-        int counter = 0;
-
+    /**
+     * Store the match, an array indexed by the query atoms holding the
+     * matched target atoms.
+     */
+    private void setVFMappings(boolean RONP, int[] match) {
         Map<IAtom, IAtom> atomatomMapping = new HashMap<IAtom, IAtom>();
         Map<Integer, Integer> indexindexMapping = new TreeMap<Integer, Integer>();
-        if (vfLibSolutions.size() > vfMCSSize) {
-            this.vfMCSSize = vfLibSolutions.size();
-            allAtomMCSCopy.clear();
-            allMCSCopy.clear();
-            counter = 0;
-        }
-        for (Map.Entry<INode, IAtom> mapping : vfLibSolutions.entrySet()) {
-            IAtom qAtom = null;
-            IAtom tAtom = null;
-            if (RONP) {
-                qAtom = query.getAtom(mapping.getKey());
-                tAtom = mapping.getValue();
-            } else {
-                tAtom = query.getAtom(mapping.getKey());
-                qAtom = mapping.getValue();
-            }
-            Integer qIndex = Integer.valueOf(getReactantMol().getAtomNumber(qAtom));
-            Integer tIndex = Integer.valueOf(getProductMol().getAtomNumber(tAtom));
-            if (qIndex != null && tIndex != null) {
-                atomatomMapping.put(qAtom, tAtom);
-                indexindexMapping.put(qIndex, tIndex);
-            } else {
-                try {
-                    throw new CDKException("Atom index pointing to NULL");
-                } catch (CDKException ex) {
-                    Logger.error(Level.SEVERE, null, ex);
-                }
-            }
+        for (int i = 0; i < match.length; i++) {
+            int qIndex = RONP ? i : match[i];
+            int tIndex = RONP ? match[i] : i;
+            atomatomMapping.put(getReactantMol().getAtom(qIndex), getProductMol().getAtom(tIndex));
+            indexindexMapping.put(qIndex, tIndex);
         }
-//            System.out.println("indexindexMapping " + indexindexMapping.size());
-//            System.out.println("MCS Size " + vfMCSSize);
-        if (!atomatomMapping.isEmpty() && !hasMap(indexindexMapping, allMCSCopy)
-                && indexindexMapping.size() == vfMCSSize) {
-            allAtomMCSCopy.add(counter, atomatomMapping);
-            allMCSCopy.add(counter, indexindexMapping);
-            counter++;
+        this.vfMCSSize = match.length;
+        allAtomMCSCopy.clear();
+        allMCSCopy.clear();
+        if (!atomatomMapping.isEmpty()) {
+            allAtomMCSCopy.add(atomatomMapping);
+            allMCSCopy.add(indexindexMapping);
         }
-//        System.out.println("allMCSCopy " + allMCSCopy.size());
     }
 
     private void setMcGregorMappings(List<List<Integer>> mappings) throws CDKException {
@@ -62,7 +62,7 @@ import org.openscience.cdk.smsd.algorithm.vflib.interfaces.INode;
 import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IQuery;
 import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IState;
 import org.openscience.cdk.smsd.algorithm.vflib.query.QueryCompiler;
-import org.openscience.cdk.smsd.global.TimeOut;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.tools.TimeManager;
 
 /**
@@ -79,36 +79,25 @@ public class VFMCSMapper implements IMapper {
     private IQuery query = null;
     private List<Map<INode, IAtom>> maps = null;
     private int currentMCSSize = -1;
-    private static TimeManager timeManager = null;
+    private final SearchContext context;
+    /** Only used by the deprecated time out methods. */
 
     /**
-     * @return the timeout
-     */
-    protected synchronized static double getTimeout() {
-        return TimeOut.getInstance().getTimeOut();
-    }
-
-    /**
-     * @return the timeManager
-     */
-    protected synchronized static TimeManager getTimeManager() {
-        return timeManager;
-    }
-
-    /**
-     * @param aTimeManager the timeManager to set
+     *
+     * @param query
      */
-    protected synchronized static void setTimeManager(TimeManager aTimeManager) {
-        TimeOut.getInstance().setTimeOutFlag(false);
-        timeManager = aTimeManager;
+    public VFMCSMapper(IQuery query) {
+        this(query, new SearchContext());
     }
 
     /**
      *
      * @param query
+     * @param context time budget and cancellation of the search
      */
-    public VFMCSMapper(IQuery query) {
-        setTimeManager(new TimeManager());
+    public VFMCSMapper(IQuery query, SearchContext context) {
+        this.context = context;
+        context.start();
         this.query = query;
         this.maps = new ArrayList<Map<INode, IAtom>>();
     }
@@ -119,7 +108,7 @@ public class VFMCSMapper implements IMapper {
      * @param bondMatcher 
      */
     public VFMCSMapper(IAtomContainer queryMolecule, boolean bondMatcher) {
-        setTimeManager(new TimeManager());
+        this.context = new SearchContext();
         this.query = new QueryCompiler(queryMolecule, bondMatcher).compile();
         this.maps = new ArrayList<Map<INode, IAtom>>();
     }
@@ -213,7 +202,8 @@ public class VFMCSMapper implements IMapper {
     }
 
     private void mapAll(IState state) {
-        if (state.isDead()) {
+        context.visit();
+        if (state.isDead() || context.isCancelled()) {
             return;
         }
 
@@ -239,7 +229,8 @@ public class VFMCSMapper implements IMapper {
     }
 
     private boolean mapFirst(IState state) {
-        if (state.isDead()) {
+        context.visit();
+        if (state.isDead() || context.isCancelled()) {
             return false;
         }
 
@@ -269,11 +260,55 @@ public class VFMCSMapper implements IMapper {
         return false;
     }
 
-    public synchronized static boolean isTimeOut() {
-        if (getTimeout() > -1 && getTimeManager().getElapsedTimeInMinutes() > getTimeout()) {
-            TimeOut.getInstance().setTimeOutFlag(true);
-            return true;
-        }
-        return false;
+    /**
+     * The time out is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the time out of a search
+     *                                       is held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#getTimeOut()} of the search
+     */
+    @Deprecated
+    protected static double getTimeout() {
+        throw new UnsupportedOperationException("the time out of a search is held by its SearchContext");
+    }
+
+    /**
+     * The clock is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the clock of a search is
+     *                                       held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#getElapsedTimeInMinutes()} of the search
+     */
+    @Deprecated
+    protected static TimeManager getTimeManager() {
+        throw new UnsupportedOperationException("the clock of a search is held by its SearchContext");
+    }
+
+    /**
+     * The clock is no longer process wide.
+     *
+     * @param aTimeManager not used
+     * @throws UnsupportedOperationException always, the clock of a search is
+     *                                       held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#start()} of the search
+     */
+    @Deprecated
+    protected static void setTimeManager(TimeManager aTimeManager) {
+        throw new UnsupportedOperationException("the clock of a search is held by its SearchContext");
+    }
+
+    /**
+     * The time out is no longer process wide.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always, the time out of a search
+     *                                       is held by its {@link SearchContext}
+     * @deprecated use {@link SearchContext#isTimeOut()} of the search
+     */
+    @Deprecated
+    public static boolean isTimeOut() {
+        throw new UnsupportedOperationException("the time out of a search is held by its SearchContext");
     }
 }
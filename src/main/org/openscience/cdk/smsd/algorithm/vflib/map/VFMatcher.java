@@ -0,0 +1,385 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.algorithm.vflib.map;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.smsd.algorithm.vflib.builder.TargetProperties;
+import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IEdge;
+import org.openscience.cdk.smsd.algorithm.vflib.interfaces.INode;
+import org.openscience.cdk.smsd.algorithm.vflib.interfaces.IQuery;
+import org.openscience.cdk.smsd.global.SearchContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily enumerate the substructure matches of a compiled query. The query
+ * nodes are ordered once (breadth first, each node after the first of its
+ * component is adjacent to an earlier one) and the matcher can be reused
+ * for any number of targets. Each match is found on demand by a depth first
+ * search over an explicit stack of candidate positions, no state objects
+ * or maps are created while searching.
+ *
+ * <blockquote><pre>
+ * VFMatcher matcher = new VFMatcher(new QueryCompiler(query, true).compile());
+ * for (IAtomContainer target : targets) {
+ *     Iterator&lt;int[]&gt; it = matcher.matches(target, 10, context);
+ *     while (it.hasNext()) {
+ *         int[] mapping = it.next(); // mapping[i] is matched to query node i
+ *     }
+ * }
+ * </pre></blockquote>
+ *
+ * A match is reported as an array indexed by the query nodes ({@link
+ * IQuery#getNode(int)}, for a compiled container node i is atom i) holding
+ * the index of the matched target atom. The atoms and bonds are compared
+ * with the matchers of the query nodes and edges, a query atom may only
+ * match a target atom with at least as many neighbours.
+ *
+ * @author agent
+ * @cdk.module smsd
+ * @cdk.githash
+ */
+@TestClass("org.openscience.cdk.smsd.algorithm.vflib.VFMatcherTest")
+public final class VFMatcher {
+
+    private final IQuery query;
+
+    /** Number of query nodes. */
+    private final int n;
+
+    /** Query node at each position of the search order. */
+    private final INode[] order;
+
+    /** Node index of each position. */
+    private final int[] nodeIndex;
+
+    /** Earlier (mapped) position adjacent to each position, -1 for a root. */
+    private final int[] parent;
+
+    /** Earlier positions adjacent to each position and their edges. */
+    private final int[][] earlier;
+    private final IEdge[][] edges;
+
+    /** Number of neighbours of the node at each position. */
+    private final int[] degree;
+
+    /**
+     * Create a matcher for a compiled query.
+     *
+     * @param query the compiled query
+     */
+    @TestMethod("testReuse")
+    public VFMatcher(IQuery query) {
+        this.query = query;
+        this.n = query.countNodes();
+
+        Map<INode, Integer> index = new HashMap<INode, Integer>();
+        for (int i = 0; i < n; i++)
+            index.put(query.getNode(i), i);
+
+        this.order = new INode[n];
+        this.nodeIndex = new int[n];
+        this.parent = new int[n];
+        this.degree = new int[n];
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+
+        // breadth first order of each component
+        int size = 0;
+        for (int root = 0; root < n; root++) {
+            if (position[root] >= 0)
+                continue;
+            position[root] = size;
+            nodeIndex[size] = root;
+            parent[size++] = -1;
+            for (int head = size - 1; head < size; head++) {
+                for (INode nbr : query.getNode(nodeIndex[head]).neighbors()) {
+                    int w = index.get(nbr);
+                    if (position[w] < 0) {
+                        position[w] = size;
+                        nodeIndex[size] = w;
+                        parent[size++] = head;
+                    }
+                }
+            }
+        }
+
+        this.earlier = new int[n][];
+        this.edges = new IEdge[n][];
+        for (int k = 0; k < n; k++) {
+            INode node = query.getNode(nodeIndex[k]);
+            order[k] = node;
+            degree[k] = node.countNeighbors();
+            List<Integer> adjacent = new ArrayList<Integer>();
+            for (INode nbr : node.neighbors()) {
+                int j = position[index.get(nbr)];
+                if (j < k)
+                    adjacent.add(j);
+            }
+            earlier[k] = new int[adjacent.size()];
+            edges[k] = new IEdge[adjacent.size()];
+            for (int i = 0; i < adjacent.size(); i++) {
+                earlier[k][i] = adjacent.get(i);
+                edges[k][i] = query.getEdge(node, order[adjacent.get(i)]);
+            }
+        }
+    }
+
+    /**
+     * The compiled query.
+     *
+     * @return the query
+     */
+    @TestMethod("testReuse")
+    public IQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Check whether the query is a substructure of the target, the search
+     * stops at the first match.
+     *
+     * @param target the target molecule
+     * @return the query matches
+     */
+    @TestMethod("testHasMatch")
+    public boolean hasMatch(IAtomContainer target) {
+        return matches(target, 1, new SearchContext()).hasNext();
+    }
+
+    /**
+     * Lazily enumerate all matches of the query in the target.
+     *
+     * @param target the target molecule
+     * @return iterator of the matches
+     */
+    @TestMethod("testMatches")
+    public Iterator<int[]> matches(IAtomContainer target) {
+        return matches(target, Integer.MAX_VALUE, new SearchContext());
+    }
+
+    /**
+     * Lazily enumerate the matches of the query in the target. No more
+     * matches are reported once the maximum number was reached or the
+     * context was cancelled.
+     *
+     * @param target  the target molecule
+     * @param maxHits the maximum number of matches to report
+     * @param context time budget and cancellation of the search
+     * @return iterator of the matches
+     */
+    @TestMethod("testMaxHits,testCancelled")
+    public Iterator<int[]> matches(IAtomContainer target, int maxHits, SearchContext context) {
+        if (maxHits < 1)
+            throw new IllegalArgumentException("At least one match must be requested");
+        return new Matches(target, maxHits, context);
+    }
+
+    /**
+     * The state of a search in one target: the target atom matched at each
+     * position and the index of the candidate that was matched.
+     */
+    private final class Matches implements Iterator<int[]> {
+
+        private final TargetProperties properties;
+        private final IAtomContainer target;
+        private final SearchContext context;
+        private final int m;
+
+        /** Neighbours and bonds of each target atom. */
+        private final int[][] adj;
+        private final IBond[][] bonds;
+
+        /** Atom match results: 0 unknown, 1 match, 2 no match. */
+        private final byte[][] atomMatches;
+
+        /** Target atom at each position and the candidate index it came from. */
+        private final int[] mapping, cursor;
+        private final boolean[] used;
+
+        private int depth = 0;
+        private int remaining;
+        private int[] next = null;
+        private boolean done;
+
+        private Matches(IAtomContainer target, int maxHits, SearchContext context) {
+            this.target = target;
+            this.context = context;
+            this.remaining = maxHits;
+            this.m = target.getAtomCount();
+            this.done = n == 0 || n > m;
+            this.properties = done ? null : new TargetProperties(target);
+
+            this.adj = new int[m][];
+            this.bonds = new IBond[m][];
+            if (!done) {
+                int[] deg = new int[m];
+                for (IBond bond : target.bonds()) {
+                    deg[target.getAtomNumber(bond.getAtom(0))]++;
+                    deg[target.getAtomNumber(bond.getAtom(1))]++;
+                }
+                for (int i = 0; i < m; i++) {
+                    adj[i] = new int[deg[i]];
+                    bonds[i] = new IBond[deg[i]];
+                    deg[i] = 0;
+                }
+                for (IBond bond : target.bonds()) {
+                    int u = target.getAtomNumber(bond.getAtom(0));
+                    int v = target.getAtomNumber(bond.getAtom(1));
+                    adj[u][deg[u]] = v;
+                    bonds[u][deg[u]++] = bond;
+                    adj[v][deg[v]] = u;
+                    bonds[v][deg[v]++] = bond;
+                }
+            }
+
+            this.atomMatches = new byte[n][done ? 0 : m];
+            this.mapping = new int[n];
+            this.cursor = new int[n];
+            this.used = new boolean[m];
+            Arrays.fill(mapping, -1);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = search();
+                if (next == null)
+                    done = true;
+            }
+            return next != null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int[] next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            int[] match = next;
+            next = null;
+            if (--remaining == 0)
+                done = true;
+            return match;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Matches can not be removed");
+        }
+
+        /**
+         * Continue the search from the current position, the last position
+         * holds the previous match (if any).
+         *
+         * @return the next match, null if there are no more
+         */
+        private int[] search() {
+            while (depth >= 0) {
+                if (context.isCancelled())
+                    return null;
+                if (advance(depth)) {
+                    if (depth == n - 1) {
+                        int[] match = new int[n];
+                        for (int k = 0; k < n; k++)
+                            match[nodeIndex[k]] = mapping[k];
+                        return match;
+                    }
+                    cursor[++depth] = 0;
+                } else {
+                    depth--;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Match the next feasible candidate at the position, the previous
+         * candidate (if any) is released.
+         *
+         * @return a candidate was matched
+         */
+        private boolean advance(int k) {
+            if (mapping[k] >= 0) {
+                used[mapping[k]] = false;
+                mapping[k] = -1;
+            }
+            if (parent[k] < 0) {
+                while (cursor[k] < m) {
+                    int t = cursor[k]++;
+                    if (feasible(k, t)) {
+                        map(k, t);
+                        return true;
+                    }
+                }
+            } else {
+                int[] candidates = adj[mapping[parent[k]]];
+                while (cursor[k] < candidates.length) {
+                    int t = candidates[cursor[k]++];
+                    if (feasible(k, t)) {
+                        map(k, t);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void map(int k, int t) {
+            context.visit();
+            mapping[k] = t;
+            used[t] = true;
+        }
+
+        private boolean feasible(int k, int t) {
+            if (used[t] || degree[k] > adj[t].length || !atomMatches(k, t))
+                return false;
+            for (int i = 0; i < earlier[k].length; i++) {
+                IBond bond = bond(t, mapping[earlier[k][i]]);
+                if (bond == null || !edges[k][i].getBondMatcher().matches(properties, bond))
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean atomMatches(int k, int t) {
+            if (atomMatches[k][t] == 0)
+                atomMatches[k][t] = order[k].getAtomMatcher().matches(properties, target.getAtom(t)) ? (byte) 1 : (byte) 2;
+            return atomMatches[k][t] == 1;
+        }
+
+        private IBond bond(int u, int v) {
+            for (int i = 0; i < adj[u].length; i++)
+                if (adj[u][i] == v)
+                    return bonds[u][i];
+            return null;
+        }
+    }
+}
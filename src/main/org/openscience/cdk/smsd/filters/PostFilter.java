@@ -30,7 +30,6 @@ import java.util.Map;
 import java.util.TreeMap;
 import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
-import org.openscience.cdk.smsd.helper.FinalMappings;
 
 /**
  * Class that cleans redundant mappings from the solution set.
@@ -58,14 +57,12 @@ public class PostFilter {
      */
     @TestMethod("testFilter")
     public static List<Map<Integer, Integer>> filter(List<List<Integer>> mappings) {
-        FinalMappings final_MAPPINGS = FinalMappings.getInstance();
         if (mappings != null && !mappings.isEmpty()) {
-            final_MAPPINGS.set(removeRedundantMapping(mappings));
+            List<Map<Integer, Integer>> nonRedundantMapping = removeRedundantMapping(mappings);
             mappings.clear();
-        } else {
-            final_MAPPINGS.set(new ArrayList<Map<Integer, Integer>>());
+            return nonRedundantMapping;
         }
-        return final_MAPPINGS.getFinalMapping();
+        return new ArrayList<Map<Integer, Integer>>();
     }
 
     private static boolean hasMap(Map<Integer, Integer> newMap, List<Map<Integer, Integer>> nonRedundantMapping) {
@@ -0,0 +1,197 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.global;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+
+/**
+ * The state of a single MCS or substructure search: the time budget, a
+ * cancellation token and a count of the nodes visited. Each search carries
+ * its own context (rather than the process wide {@link TimeOut}) so that
+ * searches running in different threads do not interfere.
+ *
+ * <blockquote><pre>
+ * SearchContext context = new SearchContext(0.5); // 30 seconds
+ * Isomorphism   mcs     = new Isomorphism(Algorithm.DEFAULT, true);
+ * mcs.setSearchContext(context);
+ *
+ * // from another thread
+ * context.cancel();
+ * </pre></blockquote>
+ *
+ * The clock is restarted by each algorithm stage of a search ({@link
+ * #start()}), the time budget therefore applies to each stage as it did with
+ * the {@link TimeOut}. A cancelled context stays cancelled. The search is run
+ * by one thread, the context may be cancelled and inspected from others.
+ *
+ * @author agent
+ * @cdk.module smsd
+ * @cdk.githash
+ */
+@TestClass("org.openscience.cdk.smsd.global.SearchContextTest")
+public final class SearchContext {
+
+    /** Time budget in minutes, -1 for no limit. */
+    private volatile double timeout;
+
+    /** Start of the current stage (ns). */
+    private volatile long start;
+
+    private volatile boolean timeOutFlag = false;
+    private volatile boolean cancelled   = false;
+
+    /** Nodes visited, only modified by the searching thread. */
+    private volatile long nodes = 0;
+
+    /**
+     * A context without a time limit.
+     */
+    @TestMethod("testUnlimited")
+    public SearchContext() {
+        this(-1);
+    }
+
+    /**
+     * A context with the given time budget.
+     *
+     * @param timeout time budget in minutes (e.g. 0.5 for 30 seconds), -1 for
+     *                no limit
+     */
+    @TestMethod("testTimeOut")
+    public SearchContext(double timeout) {
+        this.timeout = timeout;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * The time budget in minutes, -1 for no limit.
+     *
+     * @return time budget
+     */
+    @TestMethod("testUnlimited,testTimeOut")
+    public double getTimeOut() {
+        return timeout;
+    }
+
+    /**
+     * Change the time budget, the clock of the current stage is not
+     * restarted.
+     *
+     * @param timeout time budget in minutes, -1 for no limit
+     */
+    @TestMethod("testSetTimeOut")
+    public void setTimeOut(double timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Restart the clock and clear the time out flag, invoked at the start of
+     * each algorithm stage.
+     */
+    @TestMethod("testTimeOut")
+    public void start() {
+        start = System.nanoTime();
+        timeOutFlag = false;
+    }
+
+    /**
+     * Check whether the search should stop. The search has timed out if the
+     * time budget of the current stage has been exceeded or the context was
+     * cancelled.
+     *
+     * @return the search should stop
+     */
+    @TestMethod("testUnlimited,testTimeOut,testCancel")
+    public boolean isTimeOut() {
+        if (cancelled || (timeout > -1 && getElapsedTimeInMinutes() > timeout)) {
+            timeOutFlag = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a time out was detected in the current stage (by {@link
+     * #isTimeOut()}).
+     *
+     * @return the time out flag
+     */
+    @TestMethod("testTimeOut,testCancel")
+    public boolean isTimeOutFlag() {
+        return timeOutFlag;
+    }
+
+    /**
+     * Clear the time out flag.
+     */
+    @TestMethod("testTimeOut")
+    public void resetTimeOutFlag() {
+        timeOutFlag = false;
+    }
+
+    /**
+     * Request the search to stop, the search will return the solutions found
+     * so far.
+     */
+    @TestMethod("testCancel")
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Whether the search was cancelled.
+     *
+     * @return the context was cancelled
+     */
+    @TestMethod("testCancel")
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Count a node (state, clique extension or mapping iteration) visited by
+     * the search.
+     */
+    @TestMethod("testNodeCount")
+    public void visit() {
+        nodes++;
+    }
+
+    /**
+     * The number of nodes visited in all stages of the search.
+     *
+     * @return number of nodes
+     */
+    @TestMethod("testNodeCount")
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Time elapsed since the start of the current stage.
+     *
+     * @return elapsed time in minutes
+     */
+    @TestMethod("testTimeOut")
+    public double getElapsedTimeInMinutes() {
+        return (System.nanoTime() - start) / 6e10;
+    }
+}
@@ -32,7 +32,11 @@ import org.openscience.cdk.annotations.TestMethod;
  * @cdk.module smsd
  * @cdk.githash
  * @author Syed Asad Rahman <asad@ebi.ac.uk>
+ * @deprecated the time out is shared by every search in the JVM and is no
+ *             longer used by the algorithms, each search has its own
+ *             {@link SearchContext}
  */
+@Deprecated
 @TestClass("org.openscience.cdk.smsd.global.TimeOutTest")
 public class TimeOut {
 
@@ -0,0 +1,596 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.labelling;
+
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IAtomContainerSet;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.IChemObjectBuilder;
+import org.openscience.cdk.interfaces.IMapping;
+import org.openscience.cdk.interfaces.IReaction;
+import org.openscience.cdk.io.MDLRXNWriter;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smsd.Isomorphism;
+import org.openscience.cdk.smsd.interfaces.Algorithm;
+import org.openscience.cdk.tools.ParallelTasks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Atom-atom map a stream of reactions on several threads. The reactants and
+ * products of each reaction are canonically labelled and the atoms mapped
+ * by the MCS of each reactant-product pair. The mapped reactions are passed
+ * on in input order so that they can be written as they complete.
+ *
+ * <blockquote><pre>
+ * BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(),
+ *                                                      Algorithm.DEFAULT, true);
+ * // reaction SMILES in, MDL RXN out
+ * mapper.map(new BufferedReader(new FileReader("reactions.smi")),
+ *            new FileWriter("reactions.rdf"), 4);
+ * System.out.println(mapper.getThroughput() + " reactions/s");
+ * </pre></blockquote>
+ *
+ * Reaction data sets repeat the same components (solvents, reagents, common
+ * building blocks) many times. The canonical permutation of a component is
+ * cached by a key of its atoms and bonds (in input order) and a component
+ * which has been seen before is only permuted, the least recently used
+ * permutations are evicted once the cache is full. The mapping of a reaction is
+ * built greedily, the MCS of every reactant-product pair is computed and the
+ * pairs taken from the largest MCS, an atom is mapped by the first pair it is
+ * part of. The mapped reaction has the canonical components, each mapped
+ * atom pair has an {@link IMapping} and the same {@link
+ * CDKConstants#ATOM_ATOM_MAPPING} (numbered from 1 in order of the reactant
+ * atoms).
+ *
+ * The number of reactions processed, the cache use and the time spent in
+ * each stage can be read whilst a batch runs. The canonicalisation and
+ * mapping times are summed over all threads.
+ *
+ * @author agent
+ * @cdk.module smsd
+ * @cdk.githash
+ * @cdk.keyword reaction mapping
+ * @see AbstractReactionLabeller
+ */
+@TestClass("org.openscience.cdk.smsd.labelling.BatchReactionMapperTest")
+public final class BatchReactionMapper {
+
+    /** Receive the mapped reactions in input order. */
+    public static interface Listener {
+
+        /**
+         * A reaction was mapped.
+         *
+         * @param index    index of the reaction in the input
+         * @param reaction the mapped reaction
+         * @throws CDKException the reaction could not be handled (e.g.
+         *                      written), the batch is stopped
+         */
+        void mapped(int index, IReaction reaction) throws CDKException;
+    }
+
+    private final ICanonicalMoleculeLabeller labeller;
+    private final Algorithm                  algorithm;
+    private final boolean                    matchBonds;
+
+    /** Canonical permutations of the components seen so far, in access order. */
+    private final Map<String, int[]> permutations = Collections.synchronizedMap(new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > maxCacheSize;
+        }
+    });
+    private volatile int maxCacheSize = 100000;
+
+    /** Counters of the current (or last) batch. */
+    private final AtomicLong processed     = new AtomicLong(),
+                             hits          = new AtomicLong(),
+                             misses        = new AtomicLong(),
+                             readNanos     = new AtomicLong(),
+                             canonNanos    = new AtomicLong(),
+                             mapNanos      = new AtomicLong(),
+                             writeNanos    = new AtomicLong();
+    private volatile long    start = 0, end = 0;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Create a reaction mapper.
+     *
+     * @param labeller   canonical labelling of the reactants and products
+     * @param algorithm  the MCS algorithm
+     * @param matchBonds bond sensitive mapping
+     */
+    @TestMethod("map")
+    public BatchReactionMapper(ICanonicalMoleculeLabeller labeller, Algorithm algorithm, boolean matchBonds) {
+        this.labeller = labeller;
+        this.algorithm = algorithm;
+        this.matchBonds = matchBonds;
+    }
+
+    /**
+     * Set the maximum number of canonical permutations which are cached, once
+     * full the least recently used permutation is evicted when a component
+     * is added (default 100,000). Reducing the size evicts the least recently
+     * used permutations immediately.
+     *
+     * @param maxCacheSize maximum number of cached components
+     */
+    @TestMethod("cache")
+    public void setMaxCacheSize(int maxCacheSize) {
+        if (maxCacheSize < 0)
+            throw new IllegalArgumentException("cache size should not be negative");
+        this.maxCacheSize = maxCacheSize;
+        synchronized (permutations) {
+            Iterator<String> it = permutations.keySet().iterator();
+            while (permutations.size() > maxCacheSize) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Map a single reaction on the calling thread. The counters are not
+     * reset.
+     *
+     * @param reaction the reaction to map
+     * @return a mapped copy of the reaction with canonical components
+     * @throws CDKException the reaction could not be mapped
+     */
+    @TestMethod("map")
+    public IReaction map(IReaction reaction) throws CDKException {
+        long t0 = System.nanoTime();
+        IReaction mapped = canonicalise(reaction);
+        long t1 = System.nanoTime();
+        mapAtoms(mapped);
+        long t2 = System.nanoTime();
+        canonNanos.addAndGet(t1 - t0);
+        mapNanos.addAndGet(t2 - t1);
+        processed.incrementAndGet();
+        return mapped;
+    }
+
+    /**
+     * Map reaction SMILES (one per line, optionally followed by a title) and
+     * write the mapped reactions in MDL RXN format. Blank lines are skipped.
+     *
+     * @param builder  builder used to create the parsed reactions
+     * @param smiles   reaction SMILES input
+     * @param rxn      MDL RXN output, not closed
+     * @param nThreads number of threads to use
+     * @return number of reactions written
+     * @throws CDKException a reaction could not be read, mapped or written
+     */
+    @TestMethod("smilesToRxn")
+    public int map(IChemObjectBuilder builder, BufferedReader smiles, Writer rxn, int nThreads) throws CDKException {
+        BufferedWriter buffered = rxn instanceof BufferedWriter ? (BufferedWriter) rxn : new BufferedWriter(rxn);
+        final MDLRXNWriter writer = new MDLRXNWriter(buffered);
+        final int[] count = new int[1];
+        try {
+            map(new SmilesReactions(builder, smiles), nThreads, new Listener() {
+                @Override public void mapped(int index, IReaction reaction) throws CDKException {
+                    writer.write(reaction);
+                    count[0]++;
+                }
+            });
+            buffered.flush();
+        } catch (IllegalStateException e) {
+            throw new CDKException(e.getMessage(), e.getCause());
+        } catch (IOException e) {
+            throw new CDKException("could not write reactions: " + e.getMessage(), e);
+        }
+        return count[0];
+    }
+
+    /**
+     * Map each reaction, the mapped reactions are passed to the listener on
+     * the calling thread in input order. Reactions are only read as threads
+     * become free, a few reactions per thread are in flight at a time.
+     *
+     * @param reactions the reactions to map (read on the calling thread)
+     * @param nThreads  number of threads to use
+     * @param listener  receives the mapped reactions
+     * @throws CDKException a reaction could not be mapped, the listener
+     *                      failed or the batch was interrupted
+     */
+    @TestMethod("order,cancel")
+    public void map(Iterator<IReaction> reactions, int nThreads, final Listener listener) throws CDKException {
+
+        if (nThreads < 1)
+            throw new IllegalArgumentException("at least one thread is required");
+
+        reset();
+        try {
+            ParallelTasks.forEach(new MappingTasks(reactions), nThreads, true, new ParallelTasks.Handler<IReaction>() {
+                private int index = 0;
+                @Override public boolean handle(IReaction reaction) throws CDKException {
+                    if (cancelled)
+                        return false;
+                    write(listener, index++, reaction);
+                    return !cancelled;
+                }
+            });
+        } finally {
+            end = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stop the current batch, reactions which have been mapped are not passed
+     * to the listener.
+     */
+    @TestMethod("cancel")
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Number of reactions of the current (or last) batch which were mapped.
+     *
+     * @return number of mapped reactions
+     */
+    @TestMethod("order")
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Mapped reactions per second of the current (or last) batch.
+     *
+     * @return the throughput
+     */
+    @TestMethod("smilesToRxn")
+    public double getThroughput() {
+        long elapsed = (end > start ? end : System.nanoTime()) - start;
+        return elapsed > 0 ? processed.get() / (elapsed / 1e9) : 0;
+    }
+
+    /**
+     * Number of components whose canonical permutation was cached.
+     *
+     * @return cache hits
+     */
+    @TestMethod("cache")
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of components which were canonically labelled.
+     *
+     * @return cache misses
+     */
+    @TestMethod("cache")
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Time spent reading (and parsing) reactions.
+     *
+     * @return time in nanoseconds
+     */
+    @TestMethod("smilesToRxn")
+    public long getReadNanos() {
+        return readNanos.get();
+    }
+
+    /**
+     * Time spent labelling and permuting the components, summed over all
+     * threads.
+     *
+     * @return time in nanoseconds
+     */
+    @TestMethod("smilesToRxn")
+    public long getCanonicalisationNanos() {
+        return canonNanos.get();
+    }
+
+    /**
+     * Time spent computing the MCS and assigning the atom maps, summed over
+     * all threads.
+     *
+     * @return time in nanoseconds
+     */
+    @TestMethod("smilesToRxn")
+    public long getMappingNanos() {
+        return mapNanos.get();
+    }
+
+    /**
+     * Time spent in the listener (e.g. writing reactions).
+     *
+     * @return time in nanoseconds
+     */
+    @TestMethod("smilesToRxn")
+    public long getWriteNanos() {
+        return writeNanos.get();
+    }
+
+    private void reset() {
+        processed.set(0);
+        hits.set(0);
+        misses.set(0);
+        readNanos.set(0);
+        canonNanos.set(0);
+        mapNanos.set(0);
+        writeNanos.set(0);
+        cancelled = false;
+        start = System.nanoTime();
+        end = 0;
+    }
+
+    /** Read the next reaction, null if there are no more. */
+    private IReaction read(Iterator<IReaction> reactions) {
+        long t0 = System.nanoTime();
+        try {
+            return reactions.hasNext() ? reactions.next() : null;
+        } finally {
+            readNanos.addAndGet(System.nanoTime() - t0);
+        }
+    }
+
+    private void write(Listener listener, int index, IReaction reaction) throws CDKException {
+        long t0 = System.nanoTime();
+        try {
+            listener.mapped(index, reaction);
+        } finally {
+            writeNanos.addAndGet(System.nanoTime() - t0);
+        }
+    }
+
+    /** A copy of the reaction with canonical reactants and products. */
+    private IReaction canonicalise(IReaction reaction) throws CDKException {
+        IReaction canonical = reaction.getBuilder().newInstance(IReaction.class);
+        canonical.setProperties(reaction.getProperties());
+        canonical.setID(reaction.getID());
+        canonical.setDirection(reaction.getDirection());
+        IAtomContainerSet reactants = reaction.getReactants(), products = reaction.getProducts();
+        for (int i = 0; i < reactants.getAtomContainerCount(); i++)
+            canonical.addReactant(canonicalise(reactants.getAtomContainer(i)), reactants.getMultiplier(i));
+        for (int i = 0; i < products.getAtomContainerCount(); i++)
+            canonical.addProduct(canonicalise(products.getAtomContainer(i)), products.getMultiplier(i));
+        for (IAtomContainer agent : reaction.getAgents().atomContainers())
+            canonical.addAgent(agent);
+        return canonical;
+    }
+
+    /** Permute a component to its canonical order, the permutation is cached. */
+    private IAtomContainer canonicalise(IAtomContainer container) throws CDKException {
+        String key = key(container);
+        int[] permutation = permutations.get(key);
+        if (permutation != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            try {
+                permutation = labeller.getCanonicalPermutation(container);
+            } catch (Exception e) {
+                throw new CDKException("could not label component: " + e.getMessage(), e);
+            }
+            permutations.put(key, permutation);
+        }
+        IAtomContainer permuted = AtomContainerAtomPermutor.permute(permutation, container);
+        if (permuted == null)
+            throw new CDKException("could not permute component");
+        return permuted;
+    }
+
+    /**
+     * A key of the atoms and bonds of a component in input order, components
+     * with the same key have the same canonical permutation.
+     */
+    static String key(IAtomContainer container) {
+        int n = container.getAtomCount();
+        // index of each atom, the first occurrence as getAtomNumber
+        Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * n);
+        for (int i = n - 1; i >= 0; i--)
+            atomIndex.put(container.getAtom(i), i);
+        StringBuilder sb = new StringBuilder(8 * n);
+        for (IAtom atom : container.atoms()) {
+            sb.append(atom.getSymbol());
+            if (atom.getFormalCharge() != null && atom.getFormalCharge() != 0)
+                sb.append(atom.getFormalCharge() > 0 ? '+' : '-').append(Math.abs(atom.getFormalCharge()));
+            if (atom.getImplicitHydrogenCount() != null)
+                sb.append('h').append(atom.getImplicitHydrogenCount());
+            if (atom.getMassNumber() != null)
+                sb.append('m').append(atom.getMassNumber());
+            if (atom.getFlag(CDKConstants.ISAROMATIC))
+                sb.append('a');
+            sb.append(',');
+        }
+        for (IBond bond : container.bonds()) {
+            sb.append(';');
+            for (IAtom atom : bond.atoms()) {
+                Integer index = atomIndex.get(atom);
+                sb.append(index != null ? index : -1).append(' ');
+            }
+            sb.append(bond.getOrder() != null ? bond.getOrder().ordinal() : -1);
+            if (bond.getFlag(CDKConstants.ISAROMATIC))
+                sb.append('a');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Map the atoms of the reactants to the atoms of the products, the pairs
+     * with the largest MCS are assigned first.
+     */
+    private void mapAtoms(IReaction reaction) throws CDKException {
+
+        List<Map<IAtom, IAtom>> mcs = new ArrayList<Map<IAtom, IAtom>>();
+        for (IAtomContainer reactant : reaction.getReactants().atomContainers()) {
+            for (IAtomContainer product : reaction.getProducts().atomContainers()) {
+                if (reactant.getAtomCount() == 0 || product.getAtomCount() == 0)
+                    continue;
+                Isomorphism isomorphism = new Isomorphism(algorithm, matchBonds);
+                isomorphism.init(reactant, product, false, false);
+                Map<IAtom, IAtom> mapping = isomorphism.getFirstAtomMapping();
+                if (mapping != null && !mapping.isEmpty())
+                    mcs.add(mapping);
+            }
+        }
+        Collections.sort(mcs, new Comparator<Map<IAtom, IAtom>>() {
+            @Override public int compare(Map<IAtom, IAtom> a, Map<IAtom, IAtom> b) {
+                return b.size() - a.size();
+            }
+        });
+
+        Set<IAtom> mapped = new HashSet<IAtom>();
+        List<IMapping> mappings = new ArrayList<IMapping>();
+        for (Map<IAtom, IAtom> mapping : mcs) {
+            for (Map.Entry<IAtom, IAtom> e : mapping.entrySet()) {
+                if (!mapped.contains(e.getKey()) && !mapped.contains(e.getValue())) {
+                    mapped.add(e.getKey());
+                    mapped.add(e.getValue());
+                    mappings.add(reaction.getBuilder().newInstance(IMapping.class, e.getKey(), e.getValue()));
+                }
+            }
+        }
+
+        // number the maps by the (canonical) order of the reactant atoms
+        final Map<IAtom, Integer> order = new HashMap<IAtom, Integer>();
+        for (IAtomContainer reactant : reaction.getReactants().atomContainers())
+            for (IAtom atom : reactant.atoms())
+                order.put(atom, order.size());
+        Collections.sort(mappings, new Comparator<IMapping>() {
+            @Override public int compare(IMapping a, IMapping b) {
+                return order.get(a.getChemObject(0)) - order.get(b.getChemObject(0));
+            }
+        });
+        int number = 1;
+        for (IMapping mapping : mappings) {
+            mapping.getChemObject(0).setProperty(CDKConstants.ATOM_ATOM_MAPPING, number);
+            mapping.getChemObject(1).setProperty(CDKConstants.ATOM_ATOM_MAPPING, number);
+            reaction.addMapping(mapping);
+            number++;
+        }
+    }
+
+    /**
+     * A task to map each reaction, the reactions are read (on the calling
+     * thread) as the tasks are needed and no more are read once the batch is
+     * cancelled.
+     */
+    private final class MappingTasks implements Iterator<Callable<IReaction>> {
+
+        private final Iterator<IReaction> reactions;
+        private IReaction next;
+
+        private MappingTasks(Iterator<IReaction> reactions) {
+            this.reactions = reactions;
+        }
+
+        @Override public boolean hasNext() {
+            if (next == null && !cancelled)
+                next = read(reactions);
+            return next != null;
+        }
+
+        @Override public Callable<IReaction> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            final IReaction reaction = next;
+            next = null;
+            return new Callable<IReaction>() {
+                @Override public IReaction call() throws Exception {
+                    return map(reaction);
+                }
+            };
+        }
+
+        @Override public void remove() {
+            throw new UnsupportedOperationException("tasks can not be removed");
+        }
+    }
+
+    /** Lazily parse reaction SMILES, one per line. */
+    private static final class SmilesReactions implements Iterator<IReaction> {
+
+        private final BufferedReader reader;
+        private final SmilesParser   parser;
+        private IReaction next;
+        private int lineNumber = 0;
+
+        private SmilesReactions(IChemObjectBuilder builder, BufferedReader reader) {
+            this.parser = new SmilesParser(builder);
+            this.reader = reader;
+        }
+
+        @Override public boolean hasNext() {
+            if (next != null)
+                return true;
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty())
+                        continue;
+                    String[] parts = line.split("\\s+", 2);
+                    next = parser.parseReactionSmiles(parts[0]);
+                    if (parts.length > 1)
+                        next.setProperty(CDKConstants.TITLE, parts[1]);
+                    return true;
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("could not read reaction SMILES: " + e.getMessage(), e);
+            } catch (CDKException e) {
+                throw new IllegalStateException("invalid reaction SMILES on line " + lineNumber + ": "
+                                                        + e.getMessage(), e);
+            }
+            return false;
+        }
+
+        @Override public IReaction next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            IReaction reaction = next;
+            next = null;
+            return reaction;
+        }
+
+        @Override public void remove() {
+            throw new UnsupportedOperationException("reactions can not be removed");
+        }
+    }
+}
@@ -29,14 +29,19 @@ import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.config.AtomTypeFactory;
 import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.exception.NoSuchAtomTypeException;
 import org.openscience.cdk.interfaces.*;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
  * Assumes CDK atom types to be detected and adds missing hydrogens based on the
- * atom typing.
+ * atom typing. The bond order sum and maximum bond order of each atom type are
+ * looked up from a table built once from the CDK atom types.
  * 
  * @author     egonw
  * @cdk.module valencycheck
@@ -50,9 +55,35 @@ public class CDKValencyChecker implements IValencyChecker {
 
     private static Map<String,CDKValencyChecker> tables = new Hashtable<String,CDKValencyChecker>(3);
 
+    /** Entry of an atom type without a formal neighbour count. */
+    private final static int NO_NEIGHBOUR_COUNT = -1;
+
+    /** Entry of an atom type without a pi bond count. */
+    private final static int NO_PI_BOND_COUNT   = -2;
+
+    /**
+     * The bond order sum and maximum bond order of each atom type, packed as
+     * (sum &lt;&lt; 3 | max), or an entry for a too general type.
+     */
+    private final Map<String,Integer> valences = new HashMap<String,Integer>();
+
     private CDKValencyChecker(IChemObjectBuilder builder) {
-        if (atomTypeList == null)
-            atomTypeList = AtomTypeFactory.getInstance(ATOM_TYPE_LIST, builder);
+        atomTypeList = AtomTypeFactory.getInstance(ATOM_TYPE_LIST, builder);
+        for (IAtomType type : atomTypeList.getAllAtomTypes()) {
+            if (valences.containsKey(type.getAtomTypeName())) {
+                continue; // the factory returns the first type of a name
+            } else if (type.getFormalNeighbourCount() == CDKConstants.UNSET) {
+                valences.put(type.getAtomTypeName(), NO_NEIGHBOUR_COUNT);
+            } else if (type.getProperty(CDKConstants.PI_BOND_COUNT) == CDKConstants.UNSET) {
+                valences.put(type.getAtomTypeName(), NO_PI_BOND_COUNT);
+            } else {
+                int piBondCount = ((Integer)type.getProperty(CDKConstants.PI_BOND_COUNT)).intValue();
+                int formalNeighborCount = type.getFormalNeighbourCount().intValue();
+                int typeMaxBondOrder = piBondCount + 1;
+                int typeBondOrderSum = formalNeighborCount + piBondCount;
+                valences.put(type.getAtomTypeName(), typeBondOrderSum << 3 | typeMaxBondOrder);
+            }
+        }
     }
 
     @TestMethod("testInstance")
@@ -62,42 +93,65 @@ public class CDKValencyChecker implements IValencyChecker {
         return tables.get(builder.getClass().getName());
     }
 
-    @TestMethod("testIsSaturated_IAtomContainer,testIsSaturated_MissingHydrogens_Methane")
+    @TestMethod("testIsSaturated_IAtomContainer,testIsSaturated_MissingHydrogens_Methane,testIsSaturated_IAtomContainer_perAtom,testIsSaturated_unknownType")
     public boolean isSaturated(IAtomContainer atomContainer) throws CDKException {
-        for (IAtom atom : atomContainer.atoms()) {
-            if (!isSaturated(atom, atomContainer)) return false;
-        }        
-		return true;
-	}
+        int n = atomContainer.getAtomCount();
 
-    @TestMethod("testIsSaturatedPerAtom")
-    public boolean isSaturated(IAtom atom, IAtomContainer container) throws CDKException {
-		System.out.println(atom.getAtomTypeName());
-		IAtomType type =  atomTypeList.getAtomType(atom.getAtomTypeName());
-		if (type == null)
-			throw new CDKException("Atom type is not a recognized CDK atom type: " + atom.getAtomTypeName());
-		
-		if (type.getFormalNeighbourCount() == CDKConstants.UNSET)
-			throw new CDKException("Atom tfindAndConfigureAtomTypesForAllAtomsype is too general; cannot decide the number of implicit hydrogen to add for: " + atom.getAtomTypeName());
+        // index the atoms once, the first occurrence of an atom has the index
+        Map<IAtom,Integer> atomIndex = new IdentityHashMap<IAtom,Integer>(2 * n);
+        for (int i = n - 1; i >= 0; i--)
+            atomIndex.put(atomContainer.getAtom(i), i);
 
-		if (type.getProperty(CDKConstants.PI_BOND_COUNT) == CDKConstants.UNSET)
-			throw new CDKException("Atom type is too general; cannot determine the number of pi bonds for: " + atom.getAtomTypeName());
+        // bond order sum and maximum bond order of each atom in one pass
+        int[] bondOrderSum = new int[n];
+        int[] maxBondOrder = new int[n];
+        Arrays.fill(maxBondOrder, IBond.Order.SINGLE.numeric());
+        for (IBond bond : atomContainer.bonds()) {
+            int order = bond.getOrder() != null ? bond.getOrder().numeric() : 0;
+            for (IAtom atom : bond.atoms()) {
+                Integer i = atomIndex.get(atom);
+                if (i == null)
+                    continue;
+                bondOrderSum[i] += order;
+                maxBondOrder[i] = Math.max(maxBondOrder[i], order);
+            }
+        }
 
+        for (int i = 0; i < n; i++) {
+            if (!isSaturated(atomContainer.getAtom(i), bondOrderSum[i], maxBondOrder[i])) return false;
+        }
+        return true;
+    }
+
+    @TestMethod("testIsSaturatedPerAtom,testIsSaturated_IAtomContainer_perAtom")
+    public boolean isSaturated(IAtom atom, IAtomContainer container) throws CDKException {
         double bondOrderSum = container.getBondOrderSum(atom);
         IBond.Order maxBondOrder = container.getMaximumBondOrder(atom);
+        return isSaturated(atom, (int) bondOrderSum, maxBondOrder.numeric());
+    }
+
+    /**
+     * Look up the atom type of the atom and check the bond order sum and
+     * maximum bond order of the atom.
+     */
+    private boolean isSaturated(IAtom atom, int bondOrderSum, int maxBondOrder) throws CDKException {
+        Integer valence = valences.get(atom.getAtomTypeName());
+        if (valence == null)
+            throw new NoSuchAtomTypeException("The AtomType " + atom.getAtomTypeName() + " could not be found");
+
+        if (valence == NO_NEIGHBOUR_COUNT)
+            throw new CDKException("Atom type is too general; cannot decide the number of implicit hydrogen to add for: " + atom.getAtomTypeName());
+
+        if (valence == NO_PI_BOND_COUNT)
+            throw new CDKException("Atom type is too general; cannot determine the number of pi bonds for: " + atom.getAtomTypeName());
+
         Integer hcount = atom.getImplicitHydrogenCount() == CDKConstants.UNSET ?  0 : atom.getImplicitHydrogenCount();
-        
-        int piBondCount = ((Integer)type.getProperty(CDKConstants.PI_BOND_COUNT)).intValue();
-        int formalNeighborCount = type.getFormalNeighbourCount().intValue();
-        
-        int typeMaxBondOrder = piBondCount + 1;   
-        int typeBondOrderSum = formalNeighborCount + piBondCount;
-
-        if (bondOrderSum + hcount == typeBondOrderSum &&
-        	maxBondOrder.numeric() <= typeMaxBondOrder) {
-        	return true;
-        }
-		return false;
-	}
+
+        int typeMaxBondOrder = valence & 0x7;
+        int typeBondOrderSum = valence >> 3;
+
+        return bondOrderSum + hcount == typeBondOrderSum &&
+               maxBondOrder <= typeMaxBondOrder;
+    }
 
 }
@@ -29,7 +29,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.annotations.TestClass;
@@ -38,6 +40,7 @@ import org.openscience.cdk.aromaticity.CDKHueckelAromaticityDetector;
 import org.openscience.cdk.config.Isotopes;
 import org.openscience.cdk.config.IsotopeFactory;
 import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.graph.GraphUtil;
 import org.openscience.cdk.graph.invariant.CanonicalLabeler;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
@@ -49,11 +52,18 @@ import org.openscience.cdk.interfaces.IRingSet;
 import org.openscience.cdk.ringsearch.SSSRFinder;
 import org.openscience.cdk.smiles.InvPair;
 
+import static org.openscience.cdk.graph.GraphUtil.EdgeToBondMap;
+
 /**
  * Generates HOSE codes {@cdk.cite BRE78}.
  * IMPORTANT: Your molecule must contain implicit or explicit hydrogens
  * for this method to work properly.
  *
+ * <p>The codes of every atom in a molecule can be produced in one pass with
+ * {@link #getHOSECodes(IAtomContainer, int, boolean)}, the canonical labels,
+ * adjacency and rings of the molecule are then only computed once. A code can
+ * be reduced to a 64-bit key with {@link #encode(String)} for hashing.
+ *
  * @author     steinbeck
  * @cdk.githash
  * @cdk.keyword    HOSE code, spherical atom search
@@ -133,6 +143,14 @@ public class HOSECodeGenerator implements java.io.Serializable
 	private IAtomContainer acold=null;
 	private IRingSet soar=null;
 
+	/**
+	 *  Adjacency list, bonds and atom indices of the molecule on which we
+	 *  work, built once for each molecule and used by the breadth first search.
+	 */
+	private transient int[][] graph = null;
+	private transient EdgeToBondMap bondMap = null;
+	private transient Map<IAtom,Integer> atomIndex = null;
+
 	/**
 	 *  The rank order for the given element symbols.
 	 */
@@ -198,6 +216,7 @@ public class HOSECodeGenerator implements java.io.Serializable
 	public List<IAtom>[] getSpheres(IAtomContainer ac, IAtom root, int noOfSpheres, boolean ringsize) throws CDKException
 	{
 		ensureIsotopeFactory(ac.getBuilder());
+		prepareGraph(ac);
 		centerCode = "";
 		this.atomContainer = ac;
 		maxSphere = noOfSpheres;
@@ -208,7 +227,7 @@ public class HOSECodeGenerator implements java.io.Serializable
 			ac.getAtom(i).setFlag(CDKConstants.VISITED, false);
 		}
 		root.setFlag(CDKConstants.VISITED, true);
-		rootNode = new TreeNode(root.getSymbol(), null, root, (double)0, atomContainer.getConnectedBondsCount(root), 0);
+		rootNode = new TreeNode(root.getSymbol(), null, root, (double)0, degree(root), 0);
 		/*
 		 *  All we need to observe is how the ranking of substituents
 		 *  in the subsequent spheres of the root nodes influences the
@@ -272,6 +291,101 @@ public class HOSECodeGenerator implements java.io.Serializable
 		ensureIsotopeFactory(ac.getBuilder());
     CanonicalLabeler canLabler = new CanonicalLabeler();
     canLabler.canonLabel(ac);
+		prepareGraph(ac);
+		return createHOSECode(ac, root, noOfSpheres, ringsize);
+	}
+
+	/**
+	 * Produces the HOSE codes of all atoms in the {@link IAtomContainer} <code>ac</code>. The
+	 * codes are the same as those given by {@link #getHOSECode(IAtomContainer, IAtom, int, boolean)}
+	 * for each atom but the canonical labels, the adjacency of the atoms and the rings (if
+	 * <code>ringsize</code> is set) are computed once for the whole molecule.
+	 * The same requirements on aromaticity and hydrogens apply.
+	 *
+	 * @param  ac  The IAtomContainer for which to produce the HOSE codes
+	 * @param  noOfSpheres  The number of spheres to look at
+	 * @param  ringsize  The size of the ring(s) it is in is included in center atom code
+	 * @return The HOSE codes, indexed by atom number
+	 * @exception  org.openscience.cdk.exception.CDKException  Thrown if something is wrong
+	 */
+	@TestMethod("testGetHOSECodes,testGetHOSECodes_ringsize")
+	public String[] getHOSECodes(IAtomContainer ac, int noOfSpheres, boolean ringsize) throws CDKException
+	{
+		ensureIsotopeFactory(ac.getBuilder());
+		new CanonicalLabeler().canonLabel(ac);
+		prepareGraph(ac);
+		if (ringsize) {
+			soar = new SSSRFinder(ac).findSSSR();
+			acold = ac;
+		}
+		try {
+			String[] codes = new String[ac.getAtomCount()];
+			for (int i = 0; i < codes.length; i++)
+				codes[i] = createHOSECode(ac, ac.getAtom(i), noOfSpheres, ringsize);
+			return codes;
+		} finally {
+			acold = null;
+		}
+	}
+
+	/**
+	 * Reduces a HOSE code to a 64-bit key (FNV-1a hash of the characters) which can be
+	 * used for fast hashing and lookup, for example in a table of shifts keyed by code.
+	 * Equal codes have equal keys but, as with any hash, different codes may (rarely)
+	 * have the same key. Where this matters the code itself should be compared on a match.
+	 *
+	 * @param  hoseCode  The HOSE code
+	 * @return The 64-bit key of the code
+	 */
+	@TestMethod("testEncode")
+	public static long encode(String hoseCode)
+	{
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < hoseCode.length(); i++) {
+			hash ^= hoseCode.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Builds the adjacency list, bond map and atom indices used by the breadth first search.
+	 *
+	 * @param ac The IAtomContainer on which we work
+	 */
+	private void prepareGraph(IAtomContainer ac)
+	{
+		bondMap = EdgeToBondMap.withSpaceFor(ac);
+		graph = GraphUtil.toAdjList(ac, bondMap);
+		atomIndex = new HashMap<IAtom,Integer>(2 * ac.getAtomCount());
+		for (int i = 0; i < ac.getAtomCount(); i++)
+			atomIndex.put(ac.getAtom(i), i);
+	}
+
+	/**
+	 * Index of an atom in the molecule on which we work.
+	 */
+	private int indexOf(IAtom atom)
+	{
+		Integer idx = atomIndex.get(atom);
+		if (idx == null)
+			throw new IllegalArgumentException("atom is not in the molecule");
+		return idx;
+	}
+
+	/**
+	 * Number of atoms connected to an atom, hydrogens included.
+	 */
+	private int degree(IAtom atom)
+	{
+		return graph[indexOf(atom)].length;
+	}
+
+	/**
+	 * Produces the HOSE code of an atom once the canonical labels and graph have been prepared.
+	 */
+	private String createHOSECode(IAtomContainer ac, IAtom root, int noOfSpheres, boolean ringsize) throws CDKException
+	{
 		centerCode = "";
 		this.atomContainer = ac;
 		maxSphere = noOfSpheres;
@@ -281,7 +395,7 @@ public class HOSECodeGenerator implements java.io.Serializable
 			ac.getAtom(i).setFlag(CDKConstants.VISITED, false);
 		}
 		root.setFlag(CDKConstants.VISITED, true);
-		rootNode = new TreeNode(root.getSymbol(), null, root, (double)0, atomContainer.getConnectedBondsCount(root), 0);
+		rootNode = new TreeNode(root.getSymbol(), null, root, (double)0, degree(root), 0);
 		/*
 		 *  All we need to observe is how the ranking of substituents
 		 *  in the subsequent spheres of the root nodes influences the
@@ -300,7 +414,7 @@ public class HOSECodeGenerator implements java.io.Serializable
 	private void createCenterCode(IAtom root, IAtomContainer ac, boolean ringsize)
 	{
 		int partnerCount = 0;
-		partnerCount = atomContainer.getConnectedBondsCount(root) +
+		partnerCount = degree(root) +
                 (root.getImplicitHydrogenCount() == CDKConstants.UNSET ? 0 : root.getImplicitHydrogenCount()); 
 		centerCode = root.getSymbol() + "-" + partnerCount + createChargeCode(root)+(ringsize ? getRingcode(root, ac) : "" )+";";
 	}
@@ -362,27 +476,27 @@ public class HOSECodeGenerator implements java.io.Serializable
 	private void breadthFirstSearch(IAtom root,boolean addTreeNode) throws CDKException {
 		sphere = 0;
 		TreeNode tempNode = null;
-		List<IAtom> conAtoms = atomContainer.getConnectedAtomsList(root);
+		int rootIdx = indexOf(root);
 		IAtom atom;
 		IBond bond = null;
 		sphereNodes.clear();
 		sphereNodesWithAtoms.clear();
-		for (int i = 0; i < conAtoms.size(); i++){
+		for (int w : graph[rootIdx]){
 			try{
-				atom = conAtoms.get(i);
+				atom = atomContainer.getAtom(w);
 				if(atom.getSymbol().equals("H"))
 					continue;
-				bond = atomContainer.getBond(root, atom);
+				bond = bondMap.get(rootIdx, w);
 				/*
 				 *  In the first sphere the atoms are labeled with
 				 *  their own atom atom as source
 				 */
 				if (bond.getFlag(CDKConstants.ISAROMATIC))
 				{
-					tempNode = new TreeNode(atom.getSymbol(), new TreeNode(root.getSymbol(), null, root, (double) 0, 0, (long) 0), atom, 4, atomContainer.getConnectedBondsCount(atom), 0);
+					tempNode = new TreeNode(atom.getSymbol(), new TreeNode(root.getSymbol(), null, root, (double) 0, 0, (long) 0), atom, 4, graph[w].length, 0);
 				} else
 				{
-					tempNode = new TreeNode(atom.getSymbol(), new TreeNode(root.getSymbol(), null, root, (double) 0, 0, (long) 0), atom, bond.getOrder().numeric(), atomContainer.getConnectedBondsCount(atom), 0);
+					tempNode = new TreeNode(atom.getSymbol(), new TreeNode(root.getSymbol(), null, root, (double) 0, 0, (long) 0), atom, bond.getOrder().numeric(), graph[w].length, 0);
 				}
 				
 		        sphereNodes.add(tempNode);
@@ -419,7 +533,8 @@ public class HOSECodeGenerator implements java.io.Serializable
 		 */
         IAtom node = null;
         IAtom toNode = null;
-        List<IAtom> conAtoms = null;
+        int[] conAtoms = null;
+        int nodeIdx;
 		TreeNode treeNode = null;
 		nextSphereNodes = new ArrayList<TreeNode>();
 		IBond bond = null;
@@ -432,22 +547,23 @@ public class HOSECodeGenerator implements java.io.Serializable
 				if(node.getSymbol().equals("H"))
 					continue;
 				
-				conAtoms = atomContainer.getConnectedAtomsList(node);
-				if (conAtoms.size() == 1){
+				nodeIdx = indexOf(node);
+				conAtoms = graph[nodeIdx];
+				if (conAtoms.length == 1){
 					nextSphereNodes.add(new TreeNode(",", treeNode, null, 0, 0, treeNode.score));
 				}else{
-					for (int j = 0; j < conAtoms.size(); j++)
+					for (int j = 0; j < conAtoms.length; j++)
 					{
-						toNode = conAtoms.get(j);
+						toNode = atomContainer.getAtom(conAtoms[j]);
 						if (toNode != treeNode.source.atom)
 						{
-							bond = atomContainer.getBond(node, toNode);
+							bond = bondMap.get(nodeIdx, conAtoms[j]);
 							if (bond.getFlag(CDKConstants.ISAROMATIC))
 							{
-								nextSphereNodes.add(new TreeNode(toNode.getSymbol(), treeNode, toNode, 4, atomContainer.getConnectedBondsCount(toNode), treeNode.score));
+								nextSphereNodes.add(new TreeNode(toNode.getSymbol(), treeNode, toNode, 4, graph[conAtoms[j]].length, treeNode.score));
 							} else
 							{
-								nextSphereNodes.add(new TreeNode(toNode.getSymbol(), treeNode, toNode, bond.getOrder().numeric(), atomContainer.getConnectedBondsCount(toNode), treeNode.score));
+								nextSphereNodes.add(new TreeNode(toNode.getSymbol(), treeNode, toNode, bond.getOrder().numeric(), graph[conAtoms[j]].length, treeNode.score));
 							}
 						}
 					}
@@ -0,0 +1,250 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.openscience.cdk.tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.exception.CDKException;
+
+/**
+ * Run independent tasks (e.g. one per molecule) on a fixed number of
+ * threads. The batch methods of the toolkit use this class so that they
+ * all start, stop and report failures in the same way:
+ * <ul>
+ *     <li>with one thread the tasks are run on the calling thread,</li>
+ *     <li>a task which fails stops the remaining tasks and its exception is
+ *     rethrown on the calling thread - a {@link CDKException} or runtime
+ *     exception is rethrown unchanged whatever the number of threads, other
+ *     checked exceptions are wrapped in a {@link CDKException},</li>
+ *     <li>the threads are stopped before the methods return.</li>
+ * </ul>
+ *
+ * <blockquote><pre>
+ * final double[] masses = new double[containers.size()];
+ * ParallelTasks.forEach(masses.length, 4, new ParallelTasks.IndexedTask() {
+ *     public void run(int i) throws CDKException {
+ *         masses[i] = AtomContainerManipulator.getNaturalExactMass(containers.get(i));
+ *     }
+ * });
+ * </pre></blockquote>
+ *
+ * @author agent
+ * @cdk.module core
+ * @cdk.githash
+ */
+@TestClass("org.openscience.cdk.tools.ParallelTasksTest")
+public final class ParallelTasks {
+
+    /** A task for each index of a batch. */
+    public static interface IndexedTask {
+
+        /**
+         * Run the task for the given index.
+         *
+         * @param i the index
+         * @throws CDKException the task failed, the batch is stopped
+         */
+        void run(int i) throws CDKException;
+    }
+
+    /**
+     * Receives the results of the tasks on the calling thread.
+     *
+     * @param <T> result type
+     */
+    public static interface Handler<T> {
+
+        /**
+         * Handle the result of a task.
+         *
+         * @param result the result
+         * @return whether the remaining tasks should be run
+         * @throws CDKException the result could not be handled, the batch
+         *                      is stopped
+         */
+        boolean handle(T result) throws CDKException;
+    }
+
+    /** Number of tasks in flight for each thread when streaming. */
+    private static final int WINDOW = 4;
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * Run a task for each index 0..n-1. The indices are handed out one at a
+     * time, a slow index does not hold up the others. The task must only
+     * modify the state of its index.
+     *
+     * @param n        number of indices
+     * @param nThreads number of threads to use
+     * @param task     the task to run for each index
+     * @throws CDKException a task failed or the calling thread was
+     *                      interrupted
+     */
+    @TestMethod("forEachIndex,forEachIndex_failure,forEachIndex_runtimeFailure,forEachIndex_sequential")
+    public static void forEach(final int n, int nThreads, final IndexedTask task) throws CDKException {
+
+        checkThreads(nThreads);
+
+        // no need to start any threads
+        if (nThreads == 1 || n < 2) {
+            for (int i = 0; i < n; i++)
+                task.run(i);
+            return;
+        }
+
+        final AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(nThreads, n));
+        try {
+            List<Future<?>> workers = new ArrayList<Future<?>>(nThreads);
+            for (int t = 0; t < Math.min(nThreads, n); t++) {
+                workers.add(executor.submit(new Callable<Void>() {
+                    @Override public Void call() throws CDKException {
+                        try {
+                            for (int i = next.getAndIncrement(); i < n; i = next.getAndIncrement())
+                                task.run(i);
+                        } finally {
+                            // stop the other workers if this one failed
+                            next.set(n);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CDKException("the batch was interrupted", e);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Run each task and pass the results to the handler on the calling
+     * thread. The tasks are only taken from the iterator (on the calling
+     * thread) as threads become free, a few tasks per thread are in flight
+     * at a time. The results are handled in the order of the tasks or, if
+     * not ordered, as the tasks complete.
+     *
+     * @param tasks    the tasks to run
+     * @param nThreads number of threads to use
+     * @param ordered  handle the results in the order of the tasks
+     * @param handler  receives the results
+     * @param <T>      result type
+     * @throws CDKException a task or the handler failed, or the calling
+     *                      thread was interrupted
+     */
+    @TestMethod("forEachTask_ordered,forEachTask_unordered,forEachTask_stop,forEachTask_failure,forEachTask_runtimeFailure")
+    public static <T> void forEach(Iterator<? extends Callable<T>> tasks, int nThreads, boolean ordered,
+                                   Handler<? super T> handler) throws CDKException {
+
+        checkThreads(nThreads);
+
+        // no need to start any threads
+        if (nThreads == 1) {
+            while (tasks.hasNext()) {
+                if (!handler.handle(call(tasks.next())))
+                    return;
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            Deque<Future<T>>     window   = new ArrayDeque<Future<T>>();
+            CompletionService<T> service  = new ExecutorCompletionService<T>(executor);
+            int                  inFlight = 0;
+            while (true) {
+                while (inFlight < WINDOW * nThreads && tasks.hasNext()) {
+                    if (ordered)
+                        window.add(executor.submit(tasks.next()));
+                    else
+                        service.submit(tasks.next());
+                    inFlight++;
+                }
+                if (inFlight == 0)
+                    return;
+                T result = ordered ? window.poll().get() : service.take().get();
+                inFlight--;
+                if (!handler.handle(result))
+                    return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CDKException("the batch was interrupted", e);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void checkThreads(int nThreads) {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("at least one thread is required");
+    }
+
+    /** Run a task on the calling thread, failures as {@link #failure}. */
+    private static <T> T call(Callable<T> task) throws CDKException {
+        try {
+            return task.call();
+        } catch (CDKException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CDKException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The failure of a task, reported on the calling thread as if the task
+     * had been run there: a {@link CDKException}, runtime exception or error
+     * is rethrown unchanged and any other exception is wrapped.
+     */
+    private static CDKException failure(ExecutionException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof CDKException)
+            return (CDKException) cause;
+        if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+        if (cause instanceof Error)
+            throw (Error) cause;
+        return new CDKException(cause.getMessage(), cause);
+    }
+}
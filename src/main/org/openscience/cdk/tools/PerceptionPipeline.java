@@ -0,0 +1,233 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.tools;
+
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.aromaticity.Aromaticity;
+import org.openscience.cdk.aromaticity.ElectronDonation;
+import org.openscience.cdk.atomtype.CDKAtomTypeMatcher;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.graph.Cycles;
+import org.openscience.cdk.graph.GraphUtil;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IAtomType;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.IPseudoAtom;
+import org.openscience.cdk.ringsearch.RingSearch;
+import org.openscience.cdk.tools.manipulator.AtomTypeManipulator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.openscience.cdk.graph.GraphUtil.EdgeToBondMap;
+
+/**
+ * Perceive the ring membership, atom types, implicit hydrogen counts and
+ * aromaticity of a molecule in a single pass. The result is the same as
+ * invoking
+ * {@link org.openscience.cdk.tools.manipulator.AtomContainerManipulator#percieveAtomTypesAndConfigureAtoms(IAtomContainer)},
+ * {@link CDKHydrogenAdder#addImplicitHydrogens(IAtomContainer)} and
+ * {@link Aromaticity#apply(IAtomContainer)} in turn but the adjacency list and
+ * ring search of the molecule are computed once and shared by each stage. The
+ * {@link CDKConstants#ISINRING} flags of the atoms and bonds are also set.
+ *
+ * <blockquote><pre>
+ * PerceptionPipeline pipeline = new PerceptionPipeline();
+ *
+ * // one molecule
+ * pipeline.perceive(container);
+ *
+ * // a library on 4 threads
+ * pipeline.perceive(containers, 4);
+ * for (PerceptionPipeline.Stage stage : PerceptionPipeline.Stage.values())
+ *     System.out.println(stage + ": " + pipeline.getTime(stage) / 1e6 + " ms");
+ * </pre></blockquote>
+ *
+ * The time spent in each {@link Stage} is accumulated (over all threads)
+ * until {@link #resetTimes()} is invoked. An instance can be used
+ * concurrently.
+ *
+ * @author agent
+ * @cdk.module valencycheck
+ * @cdk.githash
+ * @cdk.keyword atom type
+ * @cdk.keyword aromaticity
+ * @cdk.keyword implicit hydrogen
+ * @see CDKAtomTypeMatcher
+ * @see CDKHydrogenAdder
+ * @see Aromaticity
+ */
+@TestClass("org.openscience.cdk.tools.PerceptionPipelineTest")
+public final class PerceptionPipeline {
+
+    /** A stage of the perception. */
+    public static enum Stage {
+        /** Adjacency list, ring search and ring membership. */
+        RINGS,
+        /** CDK atom types. */
+        ATOM_TYPES,
+        /** Implicit hydrogen counts. */
+        HYDROGENS,
+        /** Aromaticity. */
+        AROMATICITY
+    }
+
+    /** The aromaticity model to apply. */
+    private final Aromaticity aromaticity;
+
+    /** Accumulated time of each stage (nanoseconds). */
+    private final AtomicLongArray times = new AtomicLongArray(Stage.values().length);
+
+    /**
+     * Create a pipeline which uses the CDK aromaticity model, this mimics the
+     * {@link org.openscience.cdk.aromaticity.CDKHueckelAromaticityDetector}.
+     */
+    @TestMethod("benzene,pyrrole")
+    public PerceptionPipeline() {
+        this(new Aromaticity(ElectronDonation.cdk(), Cycles.cdkAromaticSet()));
+    }
+
+    /**
+     * Create a pipeline which applies the provided aromaticity model.
+     *
+     * @param aromaticity aromaticity model
+     */
+    @TestMethod("daylight")
+    public PerceptionPipeline(Aromaticity aromaticity) {
+        if (aromaticity == null)
+            throw new NullPointerException("no aromaticity model provided");
+        this.aromaticity = aromaticity;
+    }
+
+    /**
+     * Perceive the atom types, implicit hydrogen counts, ring membership and
+     * aromaticity of a molecule.
+     *
+     * @param container the molecule
+     * @throws CDKException an atom could not be typed (or has a type which
+     *                      does not define the number of neighbours) or the
+     *                      cycles for the aromaticity were intractable
+     */
+    @TestMethod("benzene,pyrrole,sameAsSeparatePasses,untyped")
+    public void perceive(IAtomContainer container) throws CDKException {
+
+        long t0 = System.nanoTime();
+
+        // shared graph data-structures
+        final EdgeToBondMap bondMap    = EdgeToBondMap.withSpaceFor(container);
+        final int[][]       graph      = GraphUtil.toAdjList(container, bondMap);
+        final RingSearch    ringSearch = new RingSearch(container, graph);
+
+        for (int v = 0; v < graph.length; v++) {
+            container.getAtom(v).setFlag(CDKConstants.ISINRING, ringSearch.cyclic(v));
+            for (int w : graph[v]) {
+                if (v < w)
+                    bondMap.get(v, w).setFlag(CDKConstants.ISINRING, ringSearch.cyclic(v, w));
+            }
+        }
+
+        long t1 = System.nanoTime();
+
+        // atom types, pseudo atoms are not configured
+        CDKAtomTypeMatcher matcher = CDKAtomTypeMatcher.getInstance(container.getBuilder());
+        IAtomType[]        types   = matcher.findMatchingAtomTypes(container, ringSearch);
+        for (int v = 0; v < graph.length; v++) {
+            IAtom atom = container.getAtom(v);
+            if (!(atom instanceof IPseudoAtom) && types[v] != null)
+                AtomTypeManipulator.configure(atom, types[v]);
+        }
+
+        long t2 = System.nanoTime();
+
+        // implicit hydrogens, the degree is known from the adjacency list
+        CDKHydrogenAdder adder = null;
+        for (int v = 0; v < graph.length; v++) {
+            IAtom atom = container.getAtom(v);
+            if (atom instanceof IPseudoAtom)
+                continue;
+            if (types[v] == null) {
+                // not typed now, the adder checks any existing type
+                if (adder == null)
+                    adder = CDKHydrogenAdder.getInstance(container.getBuilder());
+                adder.addImplicitHydrogens(container, atom);
+            } else if ("X".equals(types[v].getAtomTypeName())) {
+                atom.setImplicitHydrogenCount(0);
+            } else if (types[v].getFormalNeighbourCount() == CDKConstants.UNSET) {
+                throw new CDKException("Atom type is too general; cannot decide the number of implicit hydrogen to add for: "
+                                               + types[v].getAtomTypeName());
+            } else {
+                atom.setImplicitHydrogenCount(types[v].getFormalNeighbourCount() - graph[v].length);
+            }
+        }
+
+        long t3 = System.nanoTime();
+
+        aromaticity.apply(container, graph, bondMap, ringSearch);
+
+        long t4 = System.nanoTime();
+
+        times.addAndGet(Stage.RINGS.ordinal(), t1 - t0);
+        times.addAndGet(Stage.ATOM_TYPES.ordinal(), t2 - t1);
+        times.addAndGet(Stage.HYDROGENS.ordinal(), t3 - t2);
+        times.addAndGet(Stage.AROMATICITY.ordinal(), t4 - t3);
+    }
+
+    /**
+     * Perceive the atom types, implicit hydrogen counts, ring membership and
+     * aromaticity of many molecules in parallel.
+     *
+     * @param containers the molecules
+     * @param nThreads   number of threads to use
+     * @throws CDKException the perception of a molecule failed or was
+     *                      interrupted
+     */
+    @TestMethod("batch,batch_error")
+    public void perceive(final List<IAtomContainer> containers, int nThreads) throws CDKException {
+
+        ParallelTasks.forEach(containers.size(), nThreads, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) throws CDKException {
+                perceive(containers.get(i));
+            }
+        });
+    }
+
+    /**
+     * Accumulated time spent in a stage of the perception.
+     *
+     * @param stage the stage
+     * @return time in nanoseconds
+     */
+    @TestMethod("times")
+    public long getTime(Stage stage) {
+        return times.get(stage.ordinal());
+    }
+
+    /**
+     * Reset the accumulated time of every stage to 0.
+     */
+    @TestMethod("times")
+    public void resetTimes() {
+        for (Stage stage : Stage.values())
+            times.set(stage.ordinal(), 0);
+    }
+}
@@ -69,6 +69,7 @@ import org.openscience.cdk.tools.manipulator.RingSetManipulator;
 public class SaturationChecker implements IValencyChecker, IDeduceBondOrderTool {
 
 	AtomTypeFactory structgenATF;
+	private ValenceValidator validator;
 
 	private static ILoggingTool logger =
 	    LoggingToolFactory.createLoggingTool(SaturationChecker.class);
@@ -139,12 +140,17 @@ public class SaturationChecker implements IValencyChecker, IDeduceBondOrderTool
 	public boolean allSaturated(IAtomContainer ac) throws CDKException
 	{
         logger.debug("Are all atoms saturated?");
-        for (int f = 0; f < ac.getAtomCount(); f++) {
-            if (!isSaturated(ac.getAtom(f), ac)) {
-                return false;
-            }
-        }
-        return true;
+        return getValenceValidator(ac.getBuilder()).isValid(ac);
+    }
+
+    /**
+     * Lookup tables of the atom types, the conditions are the same as
+     * {@link #isSaturated(IAtom, IAtomContainer)}.
+     */
+    private ValenceValidator getValenceValidator(IChemObjectBuilder builder) throws CDKException {
+        if (validator == null)
+            validator = new ValenceValidator(getAtomTypeFactory(builder));
+        return validator;
     }
 
     /**
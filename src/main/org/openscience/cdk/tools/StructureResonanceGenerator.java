@@ -21,7 +21,15 @@
 package org.openscience.cdk.tools;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.annotations.TestClass;
@@ -32,7 +40,9 @@ import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IAtomContainerSet;
 import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.ILonePair;
 import org.openscience.cdk.interfaces.IReactionSet;
+import org.openscience.cdk.interfaces.ISingleElectron;
 import org.openscience.cdk.isomorphism.UniversalIsomorphismTester;
 import org.openscience.cdk.isomorphism.matchers.QueryAtomContainer;
 import org.openscience.cdk.isomorphism.matchers.QueryAtomContainerCreator;
@@ -66,6 +76,11 @@ import org.openscience.cdk.reaction.type.parameters.SetReactionCenter;
  * <p>Moreover you must put the parameter as true</p>
  * <p>If the reactive center is not localized then the reaction process will
  * try to find automatically the possible reactive center.</p>
+ * <p>The enumeration stops when the maximal number of structures ({@link
+ * #setMaximalStructures(int)}) or the maximal time ({@link
+ * #setMaximalTime(long)}) is reached. The structures of a molecule can be
+ * cached ({@link #setCaching(boolean)}) so repeated calls on an unchanged
+ * molecule do not enumerate them again.</p>
  *  
  * @author       Miguel Rojas
  * @cdk.created  2006-5-05
@@ -84,6 +99,10 @@ public class StructureResonanceGenerator {
 	private boolean lookingSymmetry;
 	/** TODO: REACT: some time takes too much time. At the moment fixed to 50 structures*/
 	private int maxStructures = 50;
+	/** Maximal time (ms) spent generating the structures of a molecule, 0 if unlimited. */
+	private long maxTime = 0;
+	/** Cached structures of each molecule (synchronized), null if caching is disabled. */
+	private volatile Map<IAtomContainer, CachedStructures> cache = null;
 	/**
 	 * Construct an instance of StructureResonanceGenerator. Default restrictions 
 	 * are initiated.
@@ -118,6 +137,7 @@ public class StructureResonanceGenerator {
 	@TestMethod("testSetReactions_List")
 	public void setReactions(List<IReactionProcess> newReactionsList) {
 		reactionsList = newReactionsList;
+		clearCache();
 	}
 	/**
 	 * Get the reactions that must be presents in the generation of the resonance.
@@ -140,6 +160,7 @@ public class StructureResonanceGenerator {
 	@TestMethod("testSetMaximalStructures_int")
 	public void setMaximalStructures(int maxStruct){
 		maxStructures = maxStruct;
+		clearCache();
 	}
 	/**
 	 * Get the number maximal of resonance structures to be found.
@@ -150,6 +171,60 @@ public class StructureResonanceGenerator {
 	public int getMaximalStructures(){
 		return maxStructures;
 	}
+	/**
+	 * Set the maximal time (in milliseconds) spent generating the resonance
+	 * structures of a molecule. The structures found when the time is
+	 * exceeded are returned.
+	 * 
+	 * @param maxTime The maximal time in milliseconds, 0 if unlimited
+	 */
+	@TestMethod("testSetMaximalTime_long")
+	public void setMaximalTime(long maxTime){
+		if (maxTime < 0)
+			throw new IllegalArgumentException("the maximal time must not be negative");
+		this.maxTime = maxTime;
+		clearCache();
+	}
+	/**
+	 * Get the maximal time (in milliseconds) spent generating the resonance
+	 * structures of a molecule.
+	 * 
+	 * @return The maximal time in milliseconds, 0 if unlimited
+	 */
+	@TestMethod("testGetMaximalTime")
+	public long getMaximalTime(){
+		return maxTime;
+	}
+	/**
+	 * Cache the resonance structures of each molecule. The structures are
+	 * reused while the bond orders, formal charges, radicals and lone pairs
+	 * of the molecule are unchanged. The cache does not prevent the molecules
+	 * from being garbage collected and may be used from several threads.
+	 * 
+	 * @param caching Whether the structures are cached
+	 */
+	@TestMethod("testSetCaching_boolean,testCaching_RadicalsAndLonePairs,testCaching_Threads")
+	public void setCaching(boolean caching){
+		cache = caching ? Collections.synchronizedMap(new WeakHashMap<IAtomContainer, CachedStructures>()) : null;
+	}
+	/**
+	 * Whether the resonance structures of each molecule are cached.
+	 * 
+	 * @return The structures are cached
+	 */
+	@TestMethod("testSetCaching_boolean")
+	public boolean isCaching(){
+		return cache != null;
+	}
+	/**
+	 * Remove all cached resonance structures.
+	 */
+	@TestMethod("testClearCache")
+	public void clearCache(){
+		Map<IAtomContainer, CachedStructures> cache = this.cache;
+		if (cache != null)
+			cache.clear();
+	}
 	/**
 	 * Set the default reactions that must be presents to generate the resonance.
 	 *
@@ -228,13 +303,72 @@ public class StructureResonanceGenerator {
 	 */
     @TestMethod("testGetStructures_IAtomContainer")
 	public IAtomContainerSet getStructures(IAtomContainer molecule) {
+    	Skeleton  skeleton = new Skeleton(molecule);
+    	StateKey  key      = skeleton.key(molecule);
+    	Map<IAtomContainer, CachedStructures> cache = this.cache;
+    	if (cache != null) {
+    		CachedStructures cached = cache.get(molecule);
+    		if (cached != null && cached.key.equals(key)) {
+    			IAtomContainerSet setOfMol = molecule.getBuilder().newInstance(IAtomContainerSet.class);
+    			setOfMol.addAtomContainer(molecule);
+    			for (IAtomContainer container : cached.structures)
+    				setOfMol.addAtomContainer(copy(container));
+    			return setOfMol;
+    		}
+    	}
+    	IAtomContainerSet setOfMol = generateStructures(molecule, skeleton, key);
+    	if (cache != null) {
+    		/* the first structure is the molecule, it is not referenced by the cache */
+    		List<IAtomContainer> structures = new ArrayList<IAtomContainer>();
+    		for (int i = 1; i < setOfMol.getAtomContainerCount(); i++)
+    			structures.add(copy(setOfMol.getAtomContainer(i)));
+    		cache.put(molecule, new CachedStructures(key, structures));
+    	}
+    	return setOfMol;
+    }
+
+	/**
+	 * Copy a structure so the cached structures are not shared with (and
+	 * modified by) the callers.
+	 * 
+	 * @param structure a resonance structure
+	 * @return a copy of the structure
+	 */
+	private static IAtomContainer copy(IAtomContainer structure) {
+		try {
+			return structure.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException("could not copy a resonance structure", e);
+		}
+	}
+
+	/**
+	 * Generate the resonance structures, a structure is described by the bond
+	 * orders, formal charges, radicals and lone pairs over the atoms of the
+	 * molecule (the skeleton). Structures with the same state are found with a hash set,
+	 * only when the symmetry is considered is an isomorphism test needed.
+	 * 
+	 * @param molecule The IMolecule to analyze
+	 * @param skeleton The skeleton of the molecule
+	 * @param key      The bond orders, charges, radicals and lone pairs of the molecule
+	 * @return         The different resonance structures
+	 */
+	private IAtomContainerSet generateStructures(IAtomContainer molecule, Skeleton skeleton, StateKey key) {
     	int countStructure = 0;
+    	long deadline = maxTime > 0 ? System.currentTimeMillis() + maxTime : Long.MAX_VALUE;
     	IAtomContainerSet setOfMol = molecule.getBuilder().newInstance(IAtomContainerSet.class);
 		setOfMol.addAtomContainer(molecule);
+		Set<StateKey> found = new HashSet<StateKey>();
+		found.add(key);
+		int labelled = 0;
 		
 		for(int i = 0 ; i < setOfMol.getAtomContainerCount() ; i++){
 			IAtomContainer mol = setOfMol.getAtomContainer(i);
             for (IReactionProcess aReactionsList : reactionsList) {
+                if (System.currentTimeMillis() > deadline) {
+                    logger.debug("maximal time reached, ", setOfMol.getAtomContainerCount(), " structures were found");
+                    return setOfMol;
+                }
                 IReactionProcess reaction = aReactionsList;
                 IAtomContainerSet setOfReactants = molecule.getBuilder().newInstance(IAtomContainerSet.class);
                 setOfReactants.addAtomContainer(mol);
@@ -245,12 +379,20 @@ public class StructureResonanceGenerator {
                             for (int j = 0; j < setOfReactions.getReaction(k).getProducts().getAtomContainerCount(); j++)
                             {
                                 IAtomContainer product = setOfReactions.getReaction(k).getProducts().getAtomContainer(j);
-                                if (!existAC(setOfMol, product)) {
-                                    setOfMol.addAtomContainer(product);
-                                    countStructure++;
-                                    if (countStructure > maxStructures)
-                                        return setOfMol;
+                                /* the atoms of the structures are identified by their index */
+                                for (; labelled < setOfMol.getAtomContainerCount(); labelled++) {
+                                    IAtomContainer ss = setOfMol.getAtomContainer(labelled);
+                                    for (int l = 0; l < ss.getAtomCount(); l++)
+                                        ss.getAtom(l).setID(Integer.toString(l));
                                 }
+                                if (!found.add(skeleton.key(product)))
+                                    continue;
+                                if (lookingSymmetry && existAC(setOfMol, product))
+                                    continue;
+                                setOfMol.addAtomContainer(product);
+                                countStructure++;
+                                if (countStructure > maxStructures)
+                                    return setOfMol;
                             }
                 } catch (CDKException e) {
                     e.printStackTrace();
@@ -404,7 +546,10 @@ public class StructureResonanceGenerator {
     	return null;
 	}
 	/**
-	 * Search if the setOfAtomContainer contains the atomContainer
+	 * Search if the setOfAtomContainer contains the atomContainer, this is
+	 * only needed when looking at the symmetry - otherwise structures with
+	 * the same bond orders, formal charges, radicals and lone pairs are the
+	 * same.
 	 *  
 	 * 
 	 * @param set            ISetOfAtomContainer object where to search
@@ -471,4 +616,144 @@ public class StructureResonanceGenerator {
 		}
 		return false;
 	}
+
+	/**
+	 * The atoms and bonds of the molecule the structures are generated from.
+	 * The atoms of each structure correspond by index to the skeleton atoms.
+	 */
+	private static final class Skeleton {
+
+		/** Number of atoms. */
+		private final int n;
+
+		/** Index of the skeleton bond between two atoms (see #edge). */
+		private final Map<Long, Integer> bondIndex;
+
+		private Skeleton(IAtomContainer molecule) {
+			this.n = molecule.getAtomCount();
+			this.bondIndex = new HashMap<Long, Integer>(2 * molecule.getBondCount());
+			Map<IAtom, Integer> atomIndex = atomIndex(molecule);
+			for (int i = 0; i < molecule.getBondCount(); i++) {
+				IBond bond = molecule.getBond(i);
+				bondIndex.put(edge(atomIndex.get(bond.getAtom(0)),
+				                   atomIndex.get(bond.getAtom(1))), i);
+			}
+		}
+
+		/**
+		 * Index the atoms of a structure, the first occurrence of an atom has
+		 * the index (as {@link IAtomContainer#getAtomNumber(IAtom)}).
+		 */
+		private static Map<IAtom, Integer> atomIndex(IAtomContainer structure) {
+			Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * structure.getAtomCount());
+			for (int i = structure.getAtomCount() - 1; i >= 0; i--)
+				atomIndex.put(structure.getAtom(i), i);
+			return atomIndex;
+		}
+
+		/**
+		 * Index of an atom, -1 if the atom is not in the structure.
+		 */
+		private static int indexOf(Map<IAtom, Integer> atomIndex, IAtom atom) {
+			Integer i = atomIndex.get(atom);
+			return i != null ? i : -1;
+		}
+
+		/**
+		 * The formal charges, radicals, lone pairs and bond orders of a
+		 * structure. The orders of the skeleton bonds are stored by index (0
+		 * if the bond was removed), any bonds not in the skeleton follow.
+		 *
+		 * @param structure a structure of the molecule
+		 * @return key of the structure
+		 */
+		private StateKey key(IAtomContainer structure) {
+
+			int[]  data  = new int[1 + 3 * n + bondIndex.size()];
+			long[] extra = new long[structure.getBondCount()];
+			int    m     = 0;
+
+			Map<IAtom, Integer> atomIndex = atomIndex(structure);
+
+			data[0] = structure.getAtomCount();
+			for (int i = 0; i < n && i < structure.getAtomCount(); i++) {
+				Integer charge = structure.getAtom(i).getFormalCharge();
+				data[1 + i] = charge != null ? charge : Integer.MIN_VALUE;
+			}
+
+			/* number of radicals and lone pairs on each atom */
+			for (ISingleElectron electron : structure.singleElectrons()) {
+				int i = indexOf(atomIndex, electron.getAtom());
+				if (i >= 0 && i < n)
+					data[1 + n + i]++;
+			}
+			for (ILonePair pair : structure.lonePairs()) {
+				int i = indexOf(atomIndex, pair.getAtom());
+				if (i >= 0 && i < n)
+					data[1 + 2 * n + i]++;
+			}
+
+			for (IBond bond : structure.bonds()) {
+				int     u     = indexOf(atomIndex, bond.getAtom(0));
+				int     v     = indexOf(atomIndex, bond.getAtom(1));
+				int     order = bond.getOrder() != null ? 1 + bond.getOrder().numeric() : 0;
+				Integer i     = bondIndex.get(edge(u, v));
+				if (i != null)
+					data[1 + 3 * n + i] = order;
+				else
+					extra[m++] = (edge(u, v) << 3) | order;
+			}
+
+			extra = Arrays.copyOf(extra, m);
+			Arrays.sort(extra);
+			return new StateKey(data, extra);
+		}
+
+		private long edge(int u, int v) {
+			return u < v ? (long) u * n + v : (long) v * n + u;
+		}
+	}
+
+	/** Hashable bond orders, formal charges, radicals and lone pairs of a structure. */
+	private static final class StateKey {
+
+		private final int[]  data;
+		private final long[] extra;
+		private final int    hash;
+
+		private StateKey(int[] data, long[] extra) {
+			this.data = data;
+			this.extra = extra;
+			this.hash = 31 * Arrays.hashCode(data) + Arrays.hashCode(extra);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof StateKey))
+				return false;
+			StateKey that = (StateKey) o;
+			return hash == that.hash && Arrays.equals(data, that.data) && Arrays.equals(extra, that.extra);
+		}
+	}
+
+	/**
+	 * Structures of a molecule (other than the molecule itself) and the key of
+	 * the molecule they were generated from. The molecule is not referenced so
+	 * it can be collected.
+	 */
+	private static final class CachedStructures {
+
+		private final StateKey             key;
+		private final List<IAtomContainer> structures;
+
+		private CachedStructures(StateKey key, List<IAtomContainer> structures) {
+			this.key = key;
+			this.structures = structures;
+		}
+	}
 }
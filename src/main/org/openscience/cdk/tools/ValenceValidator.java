@@ -0,0 +1,294 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.tools;
+
+import org.openscience.cdk.annotations.TestClass;
+import org.openscience.cdk.annotations.TestMethod;
+import org.openscience.cdk.config.AtomTypeFactory;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IAtomContainerSet;
+import org.openscience.cdk.interfaces.IAtomType;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.interfaces.IChemObjectBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validate the valence of atoms using integer lookup tables. The tables are
+ * built once from the atom types of an {@link AtomTypeFactory} and give, for
+ * each element and valence (bond order sum - formal charge + implicit
+ * hydrogens), the highest bond order permitted. An atom is valid under the
+ * same conditions as {@link SaturationChecker#isSaturated(IAtom,
+ * IAtomContainer)}.
+ *
+ * <blockquote><pre>
+ * ValenceValidator validator = ValenceValidator.getInstance(builder);
+ *
+ * // quick check
+ * if (!validator.isValid(container))
+ *     ...
+ *
+ * // error code of each atom, the array can be reused
+ * int[] codes = new int[container.getAtomCount()];
+ * if (validator.validate(container, codes) > 0) {
+ *     for (int i = 0; i &lt; container.getAtomCount(); i++)
+ *         if (codes[i] != ValenceValidator.VALID)
+ *             ...
+ * }
+ * </pre></blockquote>
+ *
+ * The bonds are only visited once, validating a container only creates an
+ * index of its atoms. Atoms of elements without atom types are not checked
+ * ({@link #UNCHECKED}) and are considered valid. An instance can be used
+ * concurrently.
+ *
+ * @author agent
+ * @cdk.module valencycheck
+ * @cdk.githash
+ * @cdk.keyword valency
+ * @cdk.keyword saturation
+ * @see SaturationChecker
+ */
+@TestClass("org.openscience.cdk.tools.ValenceValidatorTest")
+public final class ValenceValidator {
+
+    /** The valence of the atom is permitted. */
+    public static final int VALID         = 0;
+
+    /** There are no atom types for the element, the atom was not checked. */
+    public static final int UNCHECKED     = 1;
+
+    /** The valence is not permitted but is lower than the highest valence. */
+    public static final int UNSATURATED   = 2;
+
+    /** The valence is higher than any permitted valence. */
+    public static final int OVERSATURATED = 3;
+
+    /** The valence is permitted but a bond has a higher order than allowed. */
+    public static final int BOND_ORDER    = 4;
+
+    /** The atom types to use by default. */
+    private static final String ATOM_TYPE_LIST = "org/openscience/cdk/config/data/structgen_atomtypes.xml";
+
+    private static Map<String, ValenceValidator> instances = new Hashtable<String, ValenceValidator>(3);
+
+    /** Row of the tables for each element symbol. */
+    private final Map<String, Integer> rows;
+
+    /**
+     * The highest bond order (numeric) permitted for each valence of an
+     * element, -1 if the valence is not permitted.
+     */
+    private final int[][] maxOrders;
+
+    /**
+     * Create a validator for the atom types of the given factory.
+     *
+     * @param factory atom types with a bond order sum and maximum bond order
+     */
+    @TestMethod("oxygen")
+    public ValenceValidator(AtomTypeFactory factory) {
+
+        Map<String, List<IAtomType>> types = new HashMap<String, List<IAtomType>>();
+        for (IAtomType type : factory.getAllAtomTypes()) {
+            if (type.getBondOrderSum() == null || type.getMaxBondOrder() == null)
+                continue;
+            List<IAtomType> list = types.get(type.getSymbol());
+            if (list == null)
+                types.put(type.getSymbol(), list = new ArrayList<IAtomType>());
+            list.add(type);
+        }
+
+        rows = new HashMap<String, Integer>(2 * types.size());
+        maxOrders = new int[types.size()][];
+
+        for (Map.Entry<String, List<IAtomType>> e : types.entrySet()) {
+            int row = rows.size();
+            int max = 0;
+            for (IAtomType type : e.getValue())
+                max = Math.max(max, type.getBondOrderSum().intValue());
+            maxOrders[row] = new int[max + 1];
+            Arrays.fill(maxOrders[row], -1);
+            for (IAtomType type : e.getValue()) {
+                double bondOrderSum = type.getBondOrderSum();
+                if (bondOrderSum != (int) bondOrderSum || bondOrderSum < 0)
+                    continue; // can never be equal to an integer valence
+                int v = (int) bondOrderSum;
+                maxOrders[row][v] = Math.max(maxOrders[row][v], type.getMaxBondOrder().numeric());
+            }
+            rows.put(e.getKey(), row);
+        }
+    }
+
+    /**
+     * Access a validator for the structure generator atom types used by the
+     * {@link SaturationChecker}.
+     *
+     * @param builder chem object builder used to load the atom types
+     * @return the validator
+     */
+    @TestMethod("instance")
+    public static ValenceValidator getInstance(IChemObjectBuilder builder) {
+        String key = builder.getClass().getName();
+        ValenceValidator validator = instances.get(key);
+        if (validator == null) {
+            validator = new ValenceValidator(AtomTypeFactory.getInstance(ATOM_TYPE_LIST, builder));
+            instances.put(key, validator);
+        }
+        return validator;
+    }
+
+    /**
+     * Determine the error code of each atom in the container. The bond order
+     * sum and maximum bond order of each atom are accumulated in the provided
+     * array which is then replaced with the codes.
+     *
+     * @param container the structure to validate
+     * @param codes     array to store the code of each atom, at least as long
+     *                  as the number of atoms
+     * @return number of atoms which were not valid
+     * @throws IllegalArgumentException the array of codes was too small
+     */
+    @TestMethod("oxygen,methane,carbocation,oversaturated,bondOrder,unchecked")
+    public int validate(IAtomContainer container, int[] codes) {
+
+        final int n = container.getAtomCount();
+        if (codes.length < n)
+            throw new IllegalArgumentException("the array of codes must be at least as long as the number of atoms");
+
+        // index the atoms once, the first occurrence of an atom has the index
+        Map<IAtom, Integer> atomIndex = new IdentityHashMap<IAtom, Integer>(2 * n);
+        for (int i = n - 1; i >= 0; i--)
+            atomIndex.put(container.getAtom(i), i);
+
+        // bond order sum and maximum bond order packed as (sum << 3 | max),
+        // accumulated in one pass over the bonds
+        for (int i = 0; i < n; i++)
+            codes[i] = IBond.Order.SINGLE.numeric();
+        for (IBond bond : container.bonds()) {
+            int order = bond.getOrder() != null ? bond.getOrder().numeric() : 0;
+            for (int j = 0; j < bond.getAtomCount(); j++) {
+                Integer i = atomIndex.get(bond.getAtom(j));
+                if (i == null)
+                    continue;
+                codes[i] = (((codes[i] >> 3) + order) << 3) | Math.max(codes[i] & 0x7, order);
+            }
+        }
+
+        int invalid = 0;
+        for (int i = 0; i < n; i++) {
+            codes[i] = code(container.getAtom(i), codes[i] >> 3, codes[i] & 0x7);
+            if (codes[i] != VALID && codes[i] != UNCHECKED)
+                invalid++;
+        }
+        return invalid;
+    }
+
+    /**
+     * Determine the error code of an atom. The bonds of the container are
+     * scanned for the atom, use {@link #validate(IAtomContainer, int[])} to
+     * validate all the atoms.
+     *
+     * @param atom      the atom
+     * @param container the structure the atom belongs to
+     * @return the error code
+     */
+    @TestMethod("oxygen,methane")
+    public int validate(IAtom atom, IAtomContainer container) {
+        int bondOrderSum = 0, maxBondOrder = IBond.Order.SINGLE.numeric();
+        for (IBond bond : container.bonds()) {
+            if (bond.contains(atom) && bond.getOrder() != null) {
+                bondOrderSum += bond.getOrder().numeric();
+                maxBondOrder = Math.max(maxBondOrder, bond.getOrder().numeric());
+            }
+        }
+        return code(atom, bondOrderSum, maxBondOrder);
+    }
+
+    /**
+     * Check whether all atoms in the container have a permitted valence.
+     *
+     * @param container the structure to validate
+     * @return all atoms are valid (or unchecked)
+     */
+    @TestMethod("oxygen,methane,carbocation,sameAsSaturationChecker")
+    public boolean isValid(IAtomContainer container) {
+        return validate(container, new int[container.getAtomCount()]) == 0;
+    }
+
+    /**
+     * Validate many structures in parallel.
+     *
+     * @param containers the structures to validate
+     * @param nThreads   number of threads to use
+     * @return the error codes of the atoms in each structure
+     * @throws CDKException the validation was interrupted
+     */
+    @TestMethod("batch")
+    public int[][] validate(final IAtomContainerSet containers, int nThreads) throws CDKException {
+
+        final int[][] codes = new int[containers.getAtomContainerCount()][];
+        ParallelTasks.forEach(codes.length, nThreads, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) {
+                IAtomContainer container = containers.getAtomContainer(i);
+                codes[i] = new int[container.getAtomCount()];
+                validate(container, codes[i]);
+            }
+        });
+        return codes;
+    }
+
+    /**
+     * Look up the error code of an atom with the given bond order sum and
+     * maximum bond order.
+     *
+     * @param atom         the atom
+     * @param bondOrderSum sum of the bond orders
+     * @param maxBondOrder maximum bond order
+     * @return the error code
+     */
+    private int code(IAtom atom, int bondOrderSum, int maxBondOrder) {
+
+        Integer row = rows.get(atom.getSymbol());
+        if (row == null)
+            return UNCHECKED;
+
+        Integer hCount  = atom.getImplicitHydrogenCount();
+        Integer charge  = atom.getFormalCharge();
+        int     valence = bondOrderSum - (charge != null ? charge : 0) + (hCount != null ? hCount : 0);
+
+        int[] maxOrder = maxOrders[row];
+        if (valence >= maxOrder.length)
+            return OVERSATURATED;
+        if (valence < 0 || maxOrder[valence] < 0)
+            return UNSATURATED;
+        if (maxBondOrder > maxOrder[valence])
+            return BOND_ORDER;
+        return VALID;
+    }
+}
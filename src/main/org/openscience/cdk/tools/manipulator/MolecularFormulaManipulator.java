@@ -35,7 +35,7 @@ import org.openscience.cdk.annotations.TestClass;
 import org.openscience.cdk.annotations.TestMethod;
 import org.openscience.cdk.config.AtomTypeFactory;
 import org.openscience.cdk.config.Isotopes;
-import org.openscience.cdk.config.IsotopeFactory;
+import org.openscience.cdk.config.IsotopeTable;
 import org.openscience.cdk.exception.CDKException;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
@@ -44,6 +44,7 @@ import org.openscience.cdk.interfaces.IChemObjectBuilder;
 import org.openscience.cdk.interfaces.IElement;
 import org.openscience.cdk.interfaces.IIsotope;
 import org.openscience.cdk.interfaces.IMolecularFormula;
+import org.openscience.cdk.tools.periodictable.PeriodicTable;
 
 /**
  * Class with convenience methods that provide methods to manipulate
@@ -611,17 +612,12 @@ public class MolecularFormulaManipulator {
 	 */
 	@TestMethod("testGetTotalExactMass_IMolecularFormula")
 	public static double getTotalExactMass(IMolecularFormula formula) {
-		Double mass = 0.0;
+		double mass = 0.0;
 
-		IChemObjectBuilder builder = formula.getBuilder();
 		for (IIsotope isotope : formula.isotopes()) {
 			if (isotope.getExactMass() == CDKConstants.UNSET) {
-				try {
-					mass += Isotopes.getInstance().getMajorIsotope(isotope.getSymbol()).getExactMass() *
-					formula.getIsotopeCount(isotope);
-				} catch (IOException e) {
-					throw new RuntimeException("Could not instantiate the IsotopeFactory.");
-				}
+				mass += isotopeTable().getMajorIsotopeMass(atomicNumber(isotope)) *
+				formula.getIsotopeCount(isotope);
 			} else
 				mass += isotope.getExactMass() * formula.getIsotopeCount(isotope);
 		}
@@ -657,13 +653,10 @@ public class MolecularFormulaManipulator {
 	@TestMethod("testGetTotalMassNumber_IMolecularFormula")
 	public static double getTotalMassNumber(IMolecularFormula formula) {
 		double mass = 0.0;
+		IsotopeTable table = isotopeTable();
 		for (IIsotope isotope : formula.isotopes()) {
-			try {
-				IIsotope isotope2 = Isotopes.getInstance().getMajorIsotope(isotope.getSymbol());
-				mass += isotope2.getMassNumber() * formula.getIsotopeCount(isotope);
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			int major = table.majorIndexOf(atomicNumber(isotope));
+			mass += table.getMassNumber(major) * formula.getIsotopeCount(isotope);
 		}
 		return mass;
 	}
@@ -677,15 +670,9 @@ public class MolecularFormulaManipulator {
 	@TestMethod("testGetNaturalExactMass_IMolecularFormula")
 	public static double getNaturalExactMass(IMolecularFormula formula) {
 		double mass = 0.0;
-		IsotopeFactory factory;
-		try {
-			factory = Isotopes.getInstance();
-		} catch (IOException e) {
-			throw new RuntimeException("Could not instantiate the IsotopeFactory.");
-		}
+		IsotopeTable table = isotopeTable();
 		for (IIsotope isotope : formula.isotopes()) {
-			IElement isotopesElement = isotope.getBuilder().newInstance(IElement.class,isotope);
-			mass += factory.getNaturalMass(isotopesElement) * formula.getIsotopeCount(isotope);
+			mass += table.getNaturalMass(atomicNumber(isotope)) * formula.getIsotopeCount(isotope);
 		}
 		return mass;
 	}
@@ -699,19 +686,39 @@ public class MolecularFormulaManipulator {
 	@TestMethod("testGetMajorIsotopeMass_IMolecularFormula")
 	public static double getMajorIsotopeMass(IMolecularFormula formula) {
 		double mass = 0.0;
-		IsotopeFactory factory;
-		try {
-			factory = Isotopes.getInstance();
-		} catch (IOException e) {
-			throw new RuntimeException("Could not instantiate the IsotopeFactory.");
-		}
+		IsotopeTable table = isotopeTable();
 		for (IIsotope isotope : formula.isotopes()) {
-			IIsotope major = factory.getMajorIsotope(isotope.getSymbol());
-			mass += major.getExactMass() * formula.getIsotopeCount(isotope);
+			mass += table.getMajorIsotopeMass(atomicNumber(isotope)) * formula.getIsotopeCount(isotope);
 		}
 		return mass;
 	}
 
+	/**
+	 * Access the compact isotope table, the major isotope and natural masses
+	 * are looked up without creating any objects.
+	 *
+	 * @return the isotope table
+	 */
+	private static IsotopeTable isotopeTable() {
+		try {
+			return IsotopeTable.getInstance();
+		} catch (IOException e) {
+			throw new RuntimeException("Could not instantiate the IsotopeTable.");
+		}
+	}
+
+	/**
+	 * The atomic number of the element of an isotope, -1 if the symbol is not
+	 * an element.
+	 *
+	 * @param isotope the isotope
+	 * @return the atomic number
+	 */
+	private static int atomicNumber(IIsotope isotope) {
+		Integer atomicNumber = PeriodicTable.getAtomicNumber(isotope.getSymbol());
+		return atomicNumber != null ? atomicNumber : -1;
+	}
+
 	/**
 	 * Get the summed natural abundance of all isotopes from an MolecularFormula. Assumes
 	 * abundances to be preset, and will return 0.0 if not.
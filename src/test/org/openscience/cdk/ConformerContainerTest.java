@@ -176,6 +176,18 @@ public class ConformerContainerTest extends CDKTestCase {
         for (int i = 0; i < container.size()+1; i++) container.get(i);        
     }
 
+    @Test public void testGetCoordinates_int() {
+        ConformerContainer container = new ConformerContainer(confs);
+        Point3d[] coords = container.getCoordinates(3);
+        Assert.assertEquals(confs[3].getAtomCount(), coords.length);
+        for (int i = 0; i < coords.length; i++)
+            Assert.assertTrue(confs[3].getAtom(i).getPoint3d().equals(coords[i]));
+        // modifying the copy does not change the stored conformer
+        coords[0].x += 1;
+        Assert.assertFalse(container.getCoordinates(3)[0].equals(coords[0]));
+        Assert.assertTrue(confs[3].getAtom(0).getPoint3d().equals(container.getCoordinates(3)[0]));
+    }
+
     @Test public void testAdd_int_IAtomContainer() {
     	ConformerContainer container = new ConformerContainer(confs);
     	container.add(5, confs[5]);
@@ -27,9 +27,11 @@ package org.openscience.cdk.aromaticity;
 import org.junit.Test;
 import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.graph.Cycles;
+import org.openscience.cdk.graph.GraphUtil;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.ringsearch.RingSearch;
 import org.openscience.cdk.silent.SilentChemObjectBuilder;
 import org.openscience.cdk.smiles.SmilesParser;
 import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
@@ -59,6 +61,38 @@ public class AromaticityTest {
                    is(6));
     }
 
+    @Test public void benzene_ringSearch() throws Exception {
+        IAtomContainer          container = type(smiles("C1=CC=CC=C1CC1CC1"));
+        GraphUtil.EdgeToBondMap bondMap   = GraphUtil.EdgeToBondMap.withSpaceFor(container);
+        int[][]                 graph     = GraphUtil.toAdjList(container, bondMap);
+        RingSearch              rs        = new RingSearch(container, graph);
+        assertThat(cdk.findBonds(container, graph, bondMap, rs).size(), is(6));
+        assertTrue(cdk.apply(container, graph, bondMap, rs));
+        assertTrue(container.getAtom(0).getFlag(CDKConstants.ISAROMATIC));
+        assertFalse(container.getAtom(6).getFlag(CDKConstants.ISAROMATIC));
+    }
+
+    /** The cached model finds the same bonds as the uncached model. */
+    @Test public void cached() throws Exception {
+        String[] smis = {"C1=CC=C2NC=CC2=C1", "N1C=CC2=CC=CC=C12", "C1=CC=C2N=CC=CC2=C1",
+                         "C1=CC2=CC=CC=CC2=C1", "O=C1C=CC(=O)C=C1", "C1=CC=C(C=C1)C1=CC=CC=C1",
+                         "C1=CC=C2NC=CC2=C1", "C1=COC=C1", "O1C=CC=C1", "C1=CC=C2NC=CC2=C1"};
+        for (Aromaticity uncached : new Aromaticity[]{cdk, daylight}) {
+            Aromaticity cached = new Aromaticity(uncached == cdk ? ElectronDonation.cdk() : ElectronDonation.daylight(),
+                                                 Cycles.all(),
+                                                 new RingSystemCache(100));
+            for (String smi : smis) {
+                IAtomContainer expected = type(smiles(smi));
+                IAtomContainer actual   = type(smiles(smi));
+                uncached.apply(expected);
+                cached.apply(actual);
+                for (int i = 0; i < expected.getBondCount(); i++)
+                    assertThat(smi, actual.getBond(i).getFlag(CDKConstants.ISAROMATIC),
+                               is(expected.getBond(i).getFlag(CDKConstants.ISAROMATIC)));
+            }
+        }
+    }
+
     @Test public void furan() throws Exception {
         assertThat(cdk.findBonds(type(smiles("C1=CC=CO1"))).size(),
                    is(5));
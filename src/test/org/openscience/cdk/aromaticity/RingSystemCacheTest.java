@@ -0,0 +1,112 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.aromaticity;
+
+import org.junit.Test;
+import org.openscience.cdk.graph.Cycles;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.openscience.cdk.aromaticity.AromaticityTest.smiles;
+import static org.openscience.cdk.aromaticity.AromaticityTest.type;
+
+/**
+ * @author agent
+ * @cdk.module test-standard
+ */
+public class RingSystemCacheTest {
+
+    @Test public void benzene() throws Exception {
+        RingSystemCache cache       = new RingSystemCache(10);
+        Aromaticity     aromaticity = new Aromaticity(ElectronDonation.daylight(), Cycles.all(), cache);
+        assertThat(aromaticity.findBonds(smiles("C1=CC=CC=C1")).size(), is(6));
+        assertThat(cache.misses(), is(1L));
+        assertThat(cache.hits(), is(0L));
+        assertThat(cache.size(), is(1));
+        // biphenyl, two more benzene rings
+        assertThat(aromaticity.findBonds(smiles("C1=CC=C(C=C1)C1=CC=CC=C1")).size(), is(12));
+        assertThat(cache.hits(), is(2L));
+        assertThat(cache.size(), is(1));
+        assertThat(cache.hitRate(), is(2 / 3d));
+    }
+
+    /** The same system with a different atom order. */
+    @Test public void indole() throws Exception {
+        RingSystemCache cache       = new RingSystemCache(10);
+        Aromaticity     aromaticity = new Aromaticity(ElectronDonation.cdk(), Cycles.all(), cache);
+        assertThat(aromaticity.findBonds(type(smiles("C1=CC=C2NC=CC2=C1"))).size(), is(10));
+        assertThat(aromaticity.findBonds(type(smiles("N1C=CC2=CC=CC=C12"))).size(), is(10));
+        assertThat(aromaticity.findBonds(type(smiles("C=1C=C2C=CNC2=CC=1"))).size(), is(10));
+        assertThat(cache.misses(), is(1L));
+        assertThat(cache.hits(), is(2L));
+    }
+
+    /** Same connectivity but different electron contributions. */
+    @Test public void contributions() throws Exception {
+        RingSystemCache cache       = new RingSystemCache(10);
+        Aromaticity     aromaticity = new Aromaticity(ElectronDonation.daylight(), Cycles.all(), cache);
+        assertThat(aromaticity.findBonds(smiles("C1=CC=CC=C1")).size(), is(6));
+        assertThat(aromaticity.findBonds(smiles("O=C1C=CC(=O)C=C1")).size(), is(0));
+        assertThat(aromaticity.findBonds(smiles("C1CCCCC1")).size(), is(0));
+        assertThat(cache.misses(), is(3L));
+        assertThat(cache.size(), is(3));
+    }
+
+    /** Pyridine and benzene are the same system in the Daylight model. */
+    @Test public void pyridine() throws Exception {
+        RingSystemCache cache       = new RingSystemCache(10);
+        Aromaticity     aromaticity = new Aromaticity(ElectronDonation.daylight(), Cycles.all(), cache);
+        assertThat(aromaticity.findBonds(smiles("C1=CC=CC=C1")).size(), is(6));
+        assertThat(aromaticity.findBonds(smiles("C1=CC=NC=C1")).size(), is(6));
+        assertThat(cache.hits(), is(1L));
+    }
+
+    @Test public void eviction() throws Exception {
+        RingSystemCache cache       = new RingSystemCache(2);
+        Aromaticity     aromaticity = new Aromaticity(ElectronDonation.daylight(), Cycles.all(), cache);
+        aromaticity.findBonds(smiles("C1=CC=CC=C1"));
+        aromaticity.findBonds(smiles("C1=COC=C1"));
+        aromaticity.findBonds(smiles("C1=CC=CC=C1")); // benzene is now most recent
+        aromaticity.findBonds(smiles("C1=CC=CC=CC=C1")); // evicts furan
+        assertThat(cache.size(), is(2));
+        aromaticity.findBonds(smiles("C1=CC=CC=C1"));
+        aromaticity.findBonds(smiles("C1=COC=C1"));
+        assertThat(cache.hits(), is(2L));
+        assertThat(cache.misses(), is(4L));
+        cache.clear();
+        assertThat(cache.size(), is(0));
+        assertThat(cache.hits(), is(0L));
+        assertThat(cache.misses(), is(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentModel() throws Exception {
+        RingSystemCache  cache = new RingSystemCache(10);
+        ElectronDonation model = ElectronDonation.daylight();
+        new Aromaticity(model, Cycles.all(), cache);
+        new Aromaticity(model, Cycles.all(), cache); // same model is okay
+        new Aromaticity(ElectronDonation.daylight(), Cycles.all(), cache);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacity() throws Exception {
+        new RingSystemCache(0);
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.junit.AfterClass;
+import org.junit.Assume;
 import org.junit.Assert;
 import org.junit.Test;
 import org.openscience.cdk.Atom;
@@ -47,6 +48,7 @@ import org.openscience.cdk.interfaces.IBond;
 import org.openscience.cdk.interfaces.IBond.Order;
 import org.openscience.cdk.interfaces.IChemObjectBuilder;
 import org.openscience.cdk.silent.AtomType;
+import org.openscience.cdk.ringsearch.RingSearch;
 import org.openscience.cdk.silent.SilentChemObjectBuilder;
 import org.openscience.cdk.templates.MoleculeFactory;
 import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
@@ -107,6 +109,118 @@ public class CDKAtomTypeMatcherTest extends AbstractCDKAtomTypeTest {
         }
     }
 
+    /**
+     * Typing the whole molecule (the properties of all atoms are precomputed)
+     * must perceive the same types as typing each atom.
+     */
+    @Test public void testFindMatchingAtomTypes_perAtom() throws Exception {
+        CDKAtomTypeMatcher matcher = CDKAtomTypeMatcher.getInstance(
+            DefaultChemObjectBuilder.getInstance());
+        IAtomContainer[] mols = {
+            MoleculeFactory.makeIndole(), MoleculeFactory.makePyrrole(),
+            MoleculeFactory.makePyrroleAnion(), MoleculeFactory.makeImidazole(),
+            MoleculeFactory.makeThiazole(), MoleculeFactory.makePyridineOxide(),
+            MoleculeFactory.makeAzulene(), MoleculeFactory.makeSteran(),
+            makePolyPyrrole(5)
+        };
+        for (IAtomContainer mol : mols) {
+            assertSameTypes(matcher, mol);
+        }
+    }
+
+    /**
+     * Typing the whole of a large molecule gives the same types as typing
+     * each atom on its own.
+     */
+    @Test(timeout=30000) public void testFindMatchingAtomTypes_largeMolecule() throws Exception {
+        Assume.assumeTrue(runSlowTests());
+        CDKAtomTypeMatcher matcher = CDKAtomTypeMatcher.getInstance(
+            DefaultChemObjectBuilder.getInstance());
+        IAtomContainer mol = makePolyPyrrole(400);
+
+        IAtomType[] types = matcher.findMatchingAtomTypes(mol);
+        for (int i = 0; i < types.length; i++) {
+            Assert.assertNotNull(types[i]);
+            Assert.assertEquals(matcher.findMatchingAtomType(mol, mol.getAtom(i)).getAtomTypeName(),
+                                types[i].getAtomTypeName());
+            if ("N".equals(mol.getAtom(i).getSymbol()))
+                Assert.assertEquals("N.planar3", types[i].getAtomTypeName());
+        }
+    }
+
+    /**
+     * The perceived types are the preallocated types of the factory, the same
+     * instance is returned for equivalent atoms.
+     */
+    @Test public void testFindMatchingAtomTypes_preallocated() throws Exception {
+        CDKAtomTypeMatcher matcher = CDKAtomTypeMatcher.getInstance(
+            DefaultChemObjectBuilder.getInstance());
+        IAtomContainer mol = MoleculeFactory.makeAlkane(4);
+        IAtomType[] types = matcher.findMatchingAtomTypes(mol);
+        Assert.assertEquals("C.sp3", types[1].getAtomTypeName());
+        Assert.assertSame(types[1], types[2]);
+        Assert.assertEquals(4, types[1].getValency().intValue());
+        AtomTypeFactory factory = AtomTypeFactory.getInstance(
+            "org/openscience/cdk/dict/data/cdk-atom-types.owl",
+            DefaultChemObjectBuilder.getInstance()
+        );
+        Assert.assertSame(factory.getAtomType("C.sp3"), types[1]);
+    }
+
+    @Test public void testFindMatchingAtomTypes_ringSearch() throws Exception {
+        CDKAtomTypeMatcher matcher = CDKAtomTypeMatcher.getInstance(
+            DefaultChemObjectBuilder.getInstance());
+        IAtomContainer mol = makePolyPyrrole(2);
+        IAtomType[] expected = matcher.findMatchingAtomTypes(mol);
+        IAtomType[] actual = matcher.findMatchingAtomTypes(mol, new RingSearch(mol));
+        Assert.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+            Assert.assertSame(expected[i], actual[i]);
+    }
+
+    private static void assertSameTypes(CDKAtomTypeMatcher matcher, IAtomContainer mol) throws Exception {
+        IAtomType[] types = matcher.findMatchingAtomTypes(mol);
+        Assert.assertEquals(mol.getAtomCount(), types.length);
+        for (int i = 0; i < types.length; i++) {
+            IAtomType type = matcher.findMatchingAtomType(mol, mol.getAtom(i));
+            if (type == null)
+                Assert.assertNull(types[i]);
+            else
+                Assert.assertEquals(type.getAtomTypeName(), types[i].getAtomTypeName());
+        }
+    }
+
+    /**
+     * A chain of pyrroles, the nitrogen of each ring is bonded to the
+     * previous ring.
+     *
+     * @param n number of rings
+     * @return the molecule
+     */
+    private static IAtomContainer makePolyPyrrole(int n) {
+        IAtomContainer mol = new AtomContainer();
+        IAtom prev = null;
+        for (int i = 0; i < n; i++) {
+            IAtom[] ring = {new Atom("N"), new Atom("C"), new Atom("C"), new Atom("C"), new Atom("C")};
+            for (IAtom atom : ring) {
+                atom.setImplicitHydrogenCount(1);
+                mol.addAtom(atom);
+            }
+            mol.addBond(new Bond(ring[0], ring[1], IBond.Order.SINGLE));
+            mol.addBond(new Bond(ring[1], ring[2], IBond.Order.DOUBLE));
+            mol.addBond(new Bond(ring[2], ring[3], IBond.Order.SINGLE));
+            mol.addBond(new Bond(ring[3], ring[4], IBond.Order.DOUBLE));
+            mol.addBond(new Bond(ring[4], ring[0], IBond.Order.SINGLE));
+            if (prev != null) {
+                mol.addBond(new Bond(prev, ring[0], IBond.Order.SINGLE));
+                ring[0].setImplicitHydrogenCount(0);
+                prev.setImplicitHydrogenCount(0);
+            }
+            prev = ring[2];
+        }
+        return mol;
+    }
+
     @Test public void testDummy() throws Exception {
         IAtomContainer mol = new AtomContainer();
         IAtom atom = new PseudoAtom("R");
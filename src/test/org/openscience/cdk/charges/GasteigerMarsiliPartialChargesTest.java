@@ -38,11 +38,13 @@ import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
 import org.openscience.cdk.interfaces.IChemObjectBuilder;
 import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.tools.LonePairElectronChecker;
 import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
 import org.openscience.cdk.tools.manipulator.ChemFileManipulator;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.io.InputStream;
@@ -246,4 +248,181 @@ public class GasteigerMarsiliPartialChargesTest extends CDKTestCase {
         GasteigerMarsiliPartialCharges peoe = new GasteigerMarsiliPartialCharges();
         peoe.calculateCharges(ac);
     }
+
+    private static final String[] SMILES = {
+            "CF", "CC(=O)O", "CC#N", "CC#CC", "[O-]C(=O)C", "C[N+](C)(C)C", "CS(=O)(=O)O",
+            "ClC(Br)I", "C[Si](C)(C)C", "OP(=O)(O)O", "C1=CC=CC=C1", "[CH2-]C", "C[N-]C",
+            "O=C=O", "[C-]#[O+]", "CN1C=NC2=C1C(=O)N(C)C(=O)N2C", "NC1=CC=C(C=C1)S(N)(=O)=O",
+            "OCC1OC(O)C(O)C(O)C1O", "C1CCC2(CC1)CCCCC2", "FC(F)(F)C(Cl)Br", "CCSC(=S)N(C)C"
+    };
+
+    /**
+     * The charges are identical to the reference implementation, which
+     * accessed the atoms and bonds of the container in each iteration.
+     */
+    @Test
+    public void testEquivalentToReference() throws Exception {
+        GasteigerMarsiliPartialCharges peoe = new GasteigerMarsiliPartialCharges();
+        for (String smi : SMILES) {
+            IAtomContainer molecule = parse(smi);
+            double[] expected = referenceCharges(molecule, 20.02, 0.5, 20);
+            peoe.calculateCharges(molecule);
+            for (int i = 0; i < molecule.getAtomCount(); i++)
+                Assert.assertEquals(smi, expected[i], molecule.getAtom(i).getCharge(), 0);
+        }
+    }
+
+    @Test
+    public void testEquivalentToReference_Parameters() throws Exception {
+        GasteigerMarsiliPartialCharges peoe = new GasteigerMarsiliPartialCharges();
+        peoe.setChiCatHydrogen(22);
+        peoe.setMaxGasteigerDamp(0.75);
+        peoe.setMaxGasteigerIters(8);
+        for (String smi : SMILES) {
+            IAtomContainer molecule = parse(smi);
+            double[] expected = referenceCharges(molecule, 22, 0.75, 8);
+            peoe.calculateCharges(molecule);
+            for (int i = 0; i < molecule.getAtomCount(); i++)
+                Assert.assertEquals(smi, expected[i], molecule.getAtom(i).getCharge(), 0);
+        }
+    }
+
+    @Test
+    public void testAssignGasteigerSigmaMarsiliFactors_Reference() throws Exception {
+        GasteigerMarsiliPartialCharges peoe = new GasteigerMarsiliPartialCharges();
+        for (String smi : SMILES) {
+            IAtomContainer molecule = parse(smi);
+            for (IAtom atom : molecule.atoms())
+                atom.setCharge(0.0);
+            double[] factors = peoe.assignGasteigerSigmaMarsiliFactors(molecule);
+            for (int i = 0; i < molecule.getAtomCount(); i++) {
+                double[] expected = referenceFactors(molecule, i);
+                for (int j = 0; j < 4; j++)
+                    Assert.assertEquals(smi, expected[j], factors[6 * i + j], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateCharges_List_Int() throws Exception {
+        List<IAtomContainer> expected = new ArrayList<IAtomContainer>();
+        List<IAtomContainer> actual   = new ArrayList<IAtomContainer>();
+        for (int i = 0; i < 3; i++) {
+            for (String smi : SMILES) {
+                expected.add(parse(smi));
+                actual.add(parse(smi));
+            }
+        }
+        GasteigerMarsiliPartialCharges peoe = new GasteigerMarsiliPartialCharges();
+        for (IAtomContainer molecule : expected)
+            peoe.calculateCharges(molecule);
+        peoe.calculateCharges(actual, 4);
+        for (int i = 0; i < expected.size(); i++)
+            for (int j = 0; j < expected.get(i).getAtomCount(); j++)
+                Assert.assertEquals(expected.get(i).getAtom(j).getCharge(), actual.get(i).getAtom(j).getCharge(), 0);
+    }
+
+    @Test(expected = CDKException.class)
+    public void testCalculateCharges_List_Int_unsupported() throws Exception {
+        List<IAtomContainer> molecules = new ArrayList<IAtomContainer>();
+        for (String smi : SMILES)
+            molecules.add(parse(smi));
+        molecules.add(parse("[Na+].[Cl-]"));
+        new GasteigerMarsiliPartialCharges().calculateCharges(molecules, 3);
+    }
+
+    private IAtomContainer parse(String smi) throws Exception {
+        IAtomContainer molecule = new SmilesParser(builder).parseSmiles(smi);
+        addExplicitHydrogens(molecule);
+        return molecule;
+    }
+
+    /** The charges as calculated by the reference implementation. */
+    private static double[] referenceCharges(IAtomContainer ac, double deocHydrogen, double damp, double iterations) {
+        int n = ac.getAtomCount();
+        double[] factors = new double[6 * n];
+        for (int i = 0; i < n; i++)
+            System.arraycopy(referenceFactors(ac, i), 0, factors, 6 * i, 4);
+        double alpha = 1.0;
+        double[] q_old = new double[n];
+        for (int i = 0; i < q_old.length; i++)
+            q_old[0] = 20.0;
+        for (int i = 0; i < iterations; i++) {
+            alpha *= damp;
+            boolean isDifferent = false;
+            for (int j = 0; j < n; j++) {
+                double q = factors[6 * j + 5];
+                if (Math.abs(Math.abs(q_old[j]) - Math.abs(q)) > 0.001)
+                    isDifferent = true;
+                q_old[j] = q;
+                factors[6 * j + 4] = factors[6 * j + 2] * q * q + factors[6 * j + 1] * q + factors[6 * j];
+            }
+            if (!isDifferent)
+                break;
+            for (IBond bond : ac.bonds()) {
+                int atom1 = ac.getAtomNumber(bond.getAtom(0));
+                int atom2 = ac.getAtomNumber(bond.getAtom(1));
+                double deoc;
+                if (factors[6 * atom1 + 4] >= factors[6 * atom2 + 4]) {
+                    deoc = ac.getAtom(atom2).getSymbol().equals("H") ? deocHydrogen : factors[6 * atom2 + 3];
+                } else {
+                    deoc = ac.getAtom(atom1).getSymbol().equals("H") ? deocHydrogen : factors[6 * atom1 + 3];
+                }
+                double q = (factors[6 * atom1 + 4] - factors[6 * atom2 + 4]) / deoc;
+                factors[6 * atom1 + 5] -= (q * alpha);
+                factors[6 * atom2 + 5] += (q * alpha);
+            }
+        }
+        double[] charges = new double[n];
+        for (int i = 0; i < n; i++)
+            charges[i] = factors[6 * i + 5];
+        return charges;
+    }
+
+    /** The a, b, c and denominator of an atom as assigned by the reference implementation. */
+    private static double[] referenceFactors(IAtomContainer ac, int i) {
+        IAtom atom = ac.getAtom(i);
+        String symbol = atom.getSymbol();
+        IBond.Order max = ac.getMaximumBondOrder(atom);
+        boolean anion = atom.getFormalCharge() == -1;
+        double[] f = new double[]{0.0, 0.0, 0.0, 0.0};
+        if (symbol.equals("H")) {
+            f = new double[]{7.17, 6.24, -0.56};
+        } else if (symbol.equals("C")) {
+            if (max == IBond.Order.SINGLE && !anion)
+                f = new double[]{7.98, 9.18, 1.88};
+            else if (max == IBond.Order.DOUBLE || (max == IBond.Order.SINGLE && anion))
+                f = new double[]{8.79, 9.32, 1.51};
+            else if (max == IBond.Order.TRIPLE || max == IBond.Order.QUADRUPLE)
+                f = new double[]{10.39, 9.45, 0.73};
+        } else if (symbol.equals("N")) {
+            if (max == IBond.Order.SINGLE && !anion)
+                f = new double[]{11.54, 10.82, 1.36};
+            else if (max == IBond.Order.DOUBLE || (max == IBond.Order.SINGLE && anion))
+                f = new double[]{12.87, 11.15, 0.85};
+            else if (max == IBond.Order.TRIPLE || max == IBond.Order.QUADRUPLE)
+                f = new double[]{17.68, 12.70, -0.27};
+        } else if (symbol.equals("O")) {
+            if (max == IBond.Order.SINGLE && !anion)
+                f = new double[]{14.18, 12.92, 1.39};
+            else if (max == IBond.Order.DOUBLE || (max == IBond.Order.SINGLE && anion))
+                f = new double[]{17.07, 13.79, 0.47};
+        } else if (symbol.equals("Si")) {
+            f = new double[]{8.10, 7.92, 1.78};
+        } else if (symbol.equals("P")) {
+            f = new double[]{8.90, 8.32, 1.58};
+        } else if (symbol.equals("S")) {
+            f = new double[]{10.14, 9.13, 1.38};
+        } else if (symbol.equals("F")) {
+            f = new double[]{14.66, 13.85, 2.31};
+        } else if (symbol.equals("Cl")) {
+            f = new double[]{12.31, 10.84, 1.512};
+        } else if (symbol.equals("Br")) {
+            f = new double[]{11.44, 9.63, 1.31};
+        } else if (symbol.equals("I")) {
+            f = new double[]{9.88, 7.95, 0.945};
+        }
+        double denom = f[0] == 0 && f[1] == 0 && f[2] == 0 ? 1 : f[0] + f[1] + f[2];
+        return new double[]{f[0], f[1], f[2], denom};
+    }
 }
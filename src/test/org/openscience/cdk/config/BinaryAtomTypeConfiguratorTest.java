@@ -0,0 +1,123 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.config;
+
+import org.junit.Test;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.interfaces.IAtomType;
+import org.openscience.cdk.interfaces.IChemObjectBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class BinaryAtomTypeConfiguratorTest {
+
+    private static final IChemObjectBuilder builder = DefaultChemObjectBuilder.getInstance();
+
+    private static final String[] LISTS = {
+            "org/openscience/cdk/config/data/jmol_atomtypes.txt",
+            "org/openscience/cdk/config/data/mol2_atomtypes.xml",
+            "org/openscience/cdk/config/data/mm2_atomtypes.xml",
+            "org/openscience/cdk/config/data/mmff94_atomtypes.xml",
+            "org/openscience/cdk/config/data/pdb_atomtypes.xml",
+            "org/openscience/cdk/config/data/structgen_atomtypes.xml",
+            "org/openscience/cdk/dict/data/cdk-atom-types.owl"
+    };
+
+    @Test public void roundTrip() throws Exception {
+        for (String list : LISTS) {
+            InputStream in = getClass().getClassLoader().getResourceAsStream(list);
+            String format = list.substring(list.lastIndexOf('.') + 1);
+            List<IAtomType> expected = Arrays.asList(AtomTypeFactory.getInstance(in, format, builder)
+                                                                    .getAllAtomTypes());
+            assertThat(list, expected.isEmpty(), is(false));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BinaryAtomTypeConfigurator.write(expected, out);
+
+            BinaryAtomTypeConfigurator configurator = new BinaryAtomTypeConfigurator();
+            configurator.setInputStream(new ByteArrayInputStream(out.toByteArray()));
+            List<IAtomType> actual = configurator.readAtomTypes(builder);
+
+            assertThat(actual.size(), is(expected.size()));
+            for (int i = 0; i < expected.size(); i++)
+                assertSameType(expected.get(i), actual.get(i));
+        }
+    }
+
+    /** The factory reads the precompiled format. */
+    @Test public void factory() throws Exception {
+        AtomTypeFactory factory = AtomTypeFactory.getInstance("org/openscience/cdk/dict/data/cdk-atom-types.owl",
+                                                              builder);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryAtomTypeConfigurator.write(Arrays.asList(factory.getAllAtomTypes()), out);
+        AtomTypeFactory precompiled = AtomTypeFactory.getInstance(new ByteArrayInputStream(out.toByteArray()),
+                                                                  BinaryAtomTypeConfigurator.EXTENSION,
+                                                                  builder);
+        assertThat(precompiled.getSize(), is(factory.getSize()));
+        assertSameType(factory.getAtomType("N.amide"), precompiled.getAtomType("N.amide"));
+    }
+
+    @Test(expected = IOException.class)
+    public void invalid() throws Exception {
+        BinaryAtomTypeConfigurator configurator = new BinaryAtomTypeConfigurator();
+        configurator.setInputStream(new ByteArrayInputStream("<atomTypeList/>".getBytes()));
+        configurator.readAtomTypes(builder);
+    }
+
+    @Test(expected = IOException.class)
+    public void unsupportedProperty() throws Exception {
+        IAtomType type = builder.newInstance(IAtomType.class, "C");
+        type.setProperty("key", new Object());
+        BinaryAtomTypeConfigurator.write(Collections.singletonList(type), new ByteArrayOutputStream());
+    }
+
+    private static void assertSameType(IAtomType expected, IAtomType actual) {
+        String name = expected.getAtomTypeName();
+        assertThat(name, actual.getID(), is(expected.getID()));
+        assertThat(name, actual.getAtomTypeName(), is(expected.getAtomTypeName()));
+        assertThat(name, actual.getSymbol(), is(expected.getSymbol()));
+        assertThat(name, actual.getAtomicNumber(), is(expected.getAtomicNumber()));
+        assertThat(name, actual.getExactMass(), is(expected.getExactMass()));
+        assertThat(name, actual.getNaturalAbundance(), is(expected.getNaturalAbundance()));
+        assertThat(name, actual.getMassNumber(), is(expected.getMassNumber()));
+        assertThat(name, actual.getFormalCharge(), is(expected.getFormalCharge()));
+        assertThat(name, actual.getHybridization(), is(expected.getHybridization()));
+        assertThat(name, actual.getFormalNeighbourCount(), is(expected.getFormalNeighbourCount()));
+        assertThat(name, actual.getMaxBondOrder(), is(expected.getMaxBondOrder()));
+        assertThat(name, actual.getBondOrderSum(), is(expected.getBondOrderSum()));
+        assertThat(name, actual.getValency(), is(expected.getValency()));
+        assertThat(name, actual.getCovalentRadius(), is(expected.getCovalentRadius()));
+        assertThat(name, actual.getFlags(), is(expected.getFlags()));
+        assertThat(name, actual.getProperties(), is(expected.getProperties()));
+    }
+}
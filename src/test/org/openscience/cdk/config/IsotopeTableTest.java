@@ -0,0 +1,96 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.config;
+
+import org.junit.Test;
+import org.openscience.cdk.Element;
+import org.openscience.cdk.interfaces.IIsotope;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class IsotopeTableTest {
+
+    @Test public void getInstance() throws Exception {
+        assertThat(IsotopeTable.getInstance() == IsotopeTable.getInstance(), is(true));
+    }
+
+    @Test public void size() throws Exception {
+        assertThat(IsotopeTable.getInstance().size(), is(Isotopes.getInstance().getIsotopes().length));
+    }
+
+    @Test public void indexOf() throws Exception {
+        IsotopeTable table = IsotopeTable.getInstance();
+        int          c13   = table.indexOf(6, 13);
+        assertThat(c13 >= 0, is(true));
+        assertThat(table.getAtomicNumber(c13), is(6));
+        assertThat(table.getMassNumber(c13), is(13));
+        assertThat(table.getExactMass(c13), is(Isotopes.getInstance().getIsotope("C", 13).getExactMass()));
+        assertThat(table.getNaturalAbundance(c13), is(Isotopes.getInstance().getIsotope("C", 13)
+                                                              .getNaturalAbundance()));
+        assertThat(table.indexOf(6, 1), is(-1));
+    }
+
+    /** Isotopes of an element are in the same order as the IsotopeFactory. */
+    @Test public void chlorine() throws Exception {
+        IsotopeTable table    = IsotopeTable.getInstance();
+        IIsotope[]   isotopes = Isotopes.getInstance().getIsotopes("Cl");
+        assertThat(table.end(17) - table.begin(17), is(isotopes.length));
+        for (int i = table.begin(17), j = 0; i < table.end(17); i++, j++) {
+            assertThat(table.getMassNumber(i), is(isotopes[j].getMassNumber()));
+            assertThat(table.getExactMass(i), is(isotopes[j].getExactMass()));
+            assertThat(table.getNaturalAbundance(i), is(isotopes[j].getNaturalAbundance()));
+        }
+    }
+
+    @Test public void major() throws Exception {
+        IsotopeTable table = IsotopeTable.getInstance();
+        Isotopes     isofac = Isotopes.getInstance();
+        for (int z = 1; z <= 112; z++) {
+            IIsotope major = isofac.getMajorIsotope(z);
+            int      i     = table.majorIndexOf(z);
+            assertThat(table.getMassNumber(i), is(major.getMassNumber()));
+            assertThat(table.getMajorIsotopeMass(z), is(major.getExactMass()));
+        }
+    }
+
+    @Test public void naturalMass() throws Exception {
+        IsotopeTable table = IsotopeTable.getInstance();
+        Isotopes     isofac = Isotopes.getInstance();
+        for (String symbol : new String[]{"H", "C", "N", "O", "S", "Cl", "Br", "Sn"}) {
+            int z = isofac.getMajorIsotope(symbol).getAtomicNumber();
+            assertThat(symbol, table.getNaturalMass(z), is(isofac.getNaturalMass(new Element(symbol))));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknown() throws Exception {
+        IsotopeTable table = IsotopeTable.getInstance();
+        assertThat(table.begin(-1), is(table.end(-1)));
+        assertThat(table.begin(200), is(table.end(200)));
+        assertThat(table.indexOf(200, 400), is(-1));
+        assertThat(table.majorIndexOf(-1), is(-1));
+        table.getMajorIsotopeMass(200);
+    }
+}
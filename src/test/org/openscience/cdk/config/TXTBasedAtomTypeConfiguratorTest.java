@@ -31,6 +31,9 @@ import org.openscience.cdk.config.TXTBasedAtomTypeConfigurator;
 import org.openscience.cdk.CDKTestCase;
 
 import java.io.InputStream;
+import java.util.List;
+
+import org.openscience.cdk.interfaces.IAtomType;
 
 /**
  * Checks the functionality of the TXTBasedAtomTypeConfigurator.
@@ -55,6 +58,22 @@ public class TXTBasedAtomTypeConfiguratorTest extends CDKTestCase
         );
     }
 
+    @Test
+    public void testReadAtomTypes_Color() throws Exception {
+        String configFile = "org/openscience/cdk/config/data/jmol_atomtypes.txt";
+        InputStream ins = this.getClass().getClassLoader().getResourceAsStream(configFile);
+        TXTBasedAtomTypeConfigurator configurator = new TXTBasedAtomTypeConfigurator();
+        configurator.setInputStream(ins);
+        List<IAtomType> types = configurator.readAtomTypes(new ChemObject().getBuilder());
+        for (IAtomType type : types) {
+            if ("C".equals(type.getAtomTypeName())) {
+                Assert.assertEquals(112 << 16 | 128 << 8 | 144, type.getProperty("org.openscience.cdk.renderer.color"));
+                return;
+            }
+        }
+        Assert.fail("no carbon atom type");
+    }
+
     @Test
     public void testSetInputStream_InputStream() throws Exception {
     	testReadAtomTypes_IChemObjectBuilder();
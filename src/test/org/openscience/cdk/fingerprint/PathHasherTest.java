@@ -0,0 +1,126 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.fingerprint;
+
+import org.junit.Test;
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.graph.GraphUtil;
+import org.openscience.cdk.graph.PathEnumerator;
+import org.openscience.cdk.graph.PathTools;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-standard
+ */
+public class PathHasherTest {
+
+    private final SmilesParser smipar = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    /**
+     * The hashes must be those of the String encoding of the lexicographically
+     * greater of each path and its reverse.
+     */
+    @Test public void equivalence() throws Exception {
+        for (String smi : Arrays.asList("CCO",
+                                        "c1ccccc1Cl",
+                                        "CC(=O)Oc1ccccc1C(=O)O",
+                                        "C1CC2CCC1CC2",
+                                        "OCC#N",
+                                        "[Na+].[Cl-]")) {
+            IAtomContainer container = smipar.parseSmiles(smi);
+            for (int depth = 0; depth < 8; depth++)
+                assertThat(smi, hash(container, depth), is(reference(container, depth)));
+        }
+    }
+
+    @Test(expected = CDKException.class)
+    public void limit() throws Exception {
+        IAtomContainer container = smipar.parseSmiles("C1CC2CCC1CC2");
+        int[][] graph = GraphUtil.toAdjList(container);
+        PathHasher.hash(graph, PathEnumerator.bondIndices(container, graph),
+                        atomTokens(container), atomTokens(container), bondTokens(container),
+                        7, 10);
+    }
+
+    private static int[] hash(IAtomContainer container, int depth) {
+        int[][] graph = GraphUtil.toAdjList(container);
+        return PathHasher.hash(graph, PathEnumerator.bondIndices(container, graph),
+                               atomTokens(container), atomTokens(container), bondTokens(container),
+                               depth);
+    }
+
+    /** Hash the paths by building the strings. */
+    private static int[] reference(IAtomContainer container, int depth) {
+        TreeSet<Integer> hashes = new TreeSet<Integer>();
+        for (IAtom atom : container.atoms()) {
+            for (List<IAtom> path : PathTools.getPathsOfLengthUpto(container, atom, depth)) {
+                StringBuilder sb = new StringBuilder(path.get(0).getSymbol());
+                for (int i = 1; i < path.size(); i++) {
+                    sb.append(bondToken(container.getBond(path.get(i - 1), path.get(i))));
+                    sb.append(path.get(i).getSymbol());
+                }
+                String fwd = sb.toString();
+                String rev = sb.reverse().toString();
+                hashes.add(fwd.compareTo(rev) > 0 ? fwd.hashCode() : rev.hashCode());
+            }
+        }
+        int[] unique = new int[hashes.size()];
+        int   i      = 0;
+        for (Integer hash : hashes)
+            unique[i++] = hash;
+        return unique;
+    }
+
+    private static char[][] atomTokens(IAtomContainer container) {
+        char[][] tokens = new char[container.getAtomCount()][];
+        for (int i = 0; i < tokens.length; i++)
+            tokens[i] = container.getAtom(i).getSymbol().toCharArray();
+        return tokens;
+    }
+
+    private static char[][] bondTokens(IAtomContainer container) {
+        char[][] tokens = new char[container.getBondCount()][];
+        for (int i = 0; i < tokens.length; i++)
+            tokens[i] = bondToken(container.getBond(i)).toCharArray();
+        return tokens;
+    }
+
+    private static String bondToken(IBond bond) {
+        switch (bond.getOrder()) {
+            case SINGLE: return bond.getFlag(CDKConstants.ISAROMATIC) ? ":" : "-";
+            case DOUBLE: return "=";
+            case TRIPLE: return "#";
+            default:     return "";
+        }
+    }
+}
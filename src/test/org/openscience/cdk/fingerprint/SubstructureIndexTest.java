@@ -0,0 +1,181 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.fingerprint;
+
+import org.junit.Test;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.isomorphism.UniversalIsomorphismTester;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smiles.smarts.SMARTSQueryTool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-fingerprint
+ */
+public class SubstructureIndexTest extends CDKTestCase {
+
+    private static final SmilesParser sp = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    private static final String[] SMILES = {
+            "CCO",
+            "CC(=O)O",
+            "c1ccccc1",
+            "c1ccccc1O",
+            "OC(=O)c1ccccc1",
+            "C1CCCCC1",
+            "CCCCCC",
+            "CCN(CC)CC",
+            "O=C1CCCN1",
+            "c1ccncc1",
+            "ClCCl",
+            "CC(C)(C)C",
+            "CC(=O)Oc1ccccc1C(=O)O",
+            "NCC(=O)O",
+            "C1CC1Br"
+    };
+
+    @Test public void add() throws Exception {
+        SubstructureIndex index = new SubstructureIndex();
+        assertThat(index.size(), is(0));
+        assertThat(index.add(sp.parseSmiles("CCO")), is(0));
+        assertThat(index.add(sp.parseSmiles("CC")), is(1));
+        assertThat(index.size(), is(2));
+        // C, O, C;D1, C;D2, O;D1, C-C, C-O, C-C-O
+        assertThat(index.environmentCount(), is(8));
+    }
+
+    @Test public void candidates() throws Exception {
+        List<IAtomContainer> molecules = molecules(SMILES);
+        SubstructureIndex index = index(molecules);
+        // all rings
+        assertThat(index.candidates(sp.parseSmiles("C1CC1")), is(new int[]{2, 3, 4, 5, 8, 9, 12, 14}));
+        // a degree 4 carbon
+        assertThat(index.candidates(sp.parseSmiles("CC(C)(C)C")), is(new int[]{11}));
+        // an element which is not present
+        assertThat(index.candidates(sp.parseSmiles("CS")), is(new int[0]));
+    }
+
+    @Test public void candidatesSmarts() throws Exception {
+        List<IAtomContainer> molecules = molecules(SMILES);
+        SubstructureIndex index = index(molecules);
+        assertThat(index.candidates("[Cl]", SilentChemObjectBuilder.getInstance()), is(new int[]{10}));
+        // the element of a conjunction is known
+        assertThat(index.candidates("[Br;R]", SilentChemObjectBuilder.getInstance()), is(new int[]{14}));
+        assertThat(index.candidates("[Br]C=O", SilentChemObjectBuilder.getInstance()), is(new int[0]));
+        // no known elements, everything is a candidate
+        assertThat(index.candidates("[C,N]", SilentChemObjectBuilder.getInstance()).length, is(SMILES.length));
+    }
+
+    /** The index finds the same molecules as searching all of them. */
+    @Test public void search() throws Exception {
+        List<IAtomContainer> molecules = molecules(SMILES);
+        SubstructureIndex index = index(molecules);
+        UniversalIsomorphismTester uit = new UniversalIsomorphismTester();
+        for (String smi : new String[]{"CO", "C=O", "c1ccccc1", "CN", "CC(C)C", "C1CCC1", "OC=O"}) {
+            IAtomContainer query = sp.parseSmiles(smi);
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < molecules.size(); i++)
+                if (uit.isSubgraph(molecules.get(i), query))
+                    expected.add(i);
+            assertThat(smi, index.search(query, molecules), is(expected));
+            assertTrue(smi, index.candidates(query).length <= molecules.size());
+        }
+    }
+
+    @Test public void searchSmarts() throws Exception {
+        List<IAtomContainer> molecules = molecules(SMILES);
+        SubstructureIndex index = index(molecules);
+        for (String smarts : new String[]{"C(=O)[OH]", "c1ccccc1", "[#7]", "[C;R]", "C!@C", "[N,O]C", "[CX4]Cl"}) {
+            SMARTSQueryTool sqt = new SMARTSQueryTool(smarts, SilentChemObjectBuilder.getInstance());
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < molecules.size(); i++)
+                if (sqt.matches(molecules.get(i)))
+                    expected.add(i);
+            assertThat(smarts, index.search(smarts, molecules), is(expected));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void searchDifferentMolecules() throws Exception {
+        SubstructureIndex index = index(molecules(SMILES));
+        index.search(sp.parseSmiles("CC"), molecules("CC"));
+    }
+
+    /** Large ids (multi-byte deltas) survive a round trip. */
+    @Test public void saveAndLoad() throws Exception {
+        List<IAtomContainer> molecules = new ArrayList<IAtomContainer>();
+        for (int i = 0; i < 40; i++)
+            molecules.addAll(molecules(SMILES));
+        molecules.add(sp.parseSmiles("CCS"));
+        SubstructureIndex index = index(molecules);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.save(out);
+        SubstructureIndex loaded = SubstructureIndex.load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(loaded.size(), is(index.size()));
+        assertThat(loaded.environmentCount(), is(index.environmentCount()));
+        assertThat(loaded.candidates(sp.parseSmiles("S")), is(new int[]{600}));
+        for (String smi : new String[]{"CO", "c1ccccc1", "CCl"}) {
+            IAtomContainer query = sp.parseSmiles(smi);
+            assertThat(smi, loaded.candidates(query), is(index.candidates(query)));
+        }
+
+        // can continue to add to the loaded index
+        assertThat(loaded.add(sp.parseSmiles("CCS")), is(601));
+        assertThat(loaded.candidates(sp.parseSmiles("S")), is(new int[]{600, 601}));
+    }
+
+    @Test(expected = IOException.class)
+    public void loadInvalid() throws Exception {
+        SubstructureIndex.load(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    private static SubstructureIndex index(List<IAtomContainer> molecules) {
+        SubstructureIndex index = new SubstructureIndex();
+        for (IAtomContainer container : molecules)
+            index.add(container);
+        return index;
+    }
+
+    private static List<IAtomContainer> molecules(String... smis) throws Exception {
+        return new ArrayList<IAtomContainer>(Arrays.asList(parse(smis)));
+    }
+
+    private static IAtomContainer[] parse(String... smis) throws Exception {
+        IAtomContainer[] containers = new IAtomContainer[smis.length];
+        for (int i = 0; i < smis.length; i++)
+            containers[i] = sp.parseSmiles(smis[i]);
+        return containers;
+    }
+}
@@ -52,6 +52,27 @@ public class AllCyclesTest {
         assertFalse(ac.completed());
     }
 
+    @Test
+    public void budget() {
+        CycleBudget budget = new CycleBudget(100);
+        AllCycles ac = new AllCycles(completeGraphOfSize(12), 12, budget);
+        assertFalse(ac.completed());
+        assertThat(budget.abortedRingSystems(), is(1L));
+        ac = new AllCycles(completeGraphOfSize(5), 5, budget);
+        assertTrue(ac.completed());
+        assertThat(ac.size(), is(37));
+        assertThat(budget.ringSystems(), is(2L));
+    }
+
+    @Test
+    public void cancelled() {
+        CycleBudget budget = new CycleBudget(1000);
+        budget.cancel();
+        AllCycles ac = new AllCycles(completeGraphOfSize(4), 4, budget);
+        assertFalse(ac.completed());
+        assertThat(ac.size(), is(0));
+    }
+
     @Test
     public void k4Paths() {
         AllCycles ac = new AllCycles(completeGraphOfSize(4),
@@ -0,0 +1,115 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.junit.Test;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.silent.AtomContainer;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-standard
+ */
+public class ConnectedComponentsTest {
+
+    private final SmilesParser sp = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    @Test public void disconnected() throws Exception {
+        IAtomContainer m = sp.parseSmiles("[Na+].CC(=O)[O-].O");
+        ConnectedComponents cc = new ConnectedComponents(m);
+        assertThat(cc.numberOfComponents(), is(3));
+        assertThat(cc.components(), is(new int[]{0, 1, 1, 1, 1, 2}));
+        assertThat(cc.component(3), is(1));
+        assertThat(cc.size(0), is(1));
+        assertThat(cc.size(1), is(4));
+        assertThat(cc.size(2), is(1));
+        assertThat(cc.largest(), is(1));
+    }
+
+    @Test public void connected() throws Exception {
+        ConnectedComponents cc = new ConnectedComponents(sp.parseSmiles("c1ccccc1CCO"));
+        assertThat(cc.numberOfComponents(), is(1));
+        assertThat(cc.largest(), is(0));
+    }
+
+    @Test public void empty() throws Exception {
+        ConnectedComponents cc = new ConnectedComponents(new AtomContainer());
+        assertThat(cc.numberOfComponents(), is(0));
+        assertThat(cc.largest(), is(-1));
+    }
+
+    @Test public void adjacencyList() throws Exception {
+        int[][] g = new int[][]{{2}, {3}, {0}, {1, 4}, {3}, {}};
+        ConnectedComponents cc = new ConnectedComponents(g);
+        assertThat(cc.numberOfComponents(), is(3));
+        assertThat(cc.components(), is(new int[]{0, 1, 0, 1, 1, 2}));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void adjacencyListHasNoFragments() throws Exception {
+        new ConnectedComponents(new int[][]{{1}, {0}}).fragment(0);
+    }
+
+    @Test public void fragment() throws Exception {
+        IAtomContainer m = sp.parseSmiles("CC(=O)O.[Na]Cl");
+        ConnectedComponents cc = new ConnectedComponents(m);
+        ConnectedComponents.Fragment f = cc.fragment(1);
+        assertThat(f.component(), is(1));
+        assertThat(f.getAtomCount(), is(2));
+        assertThat(f.getBondCount(), is(1));
+        assertThat(f.getAtom(0), is(sameInstance(m.getAtom(4))));
+        assertThat(f.getAtom(1), is(sameInstance(m.getAtom(5))));
+        assertThat(f.getBond(0), is(sameInstance(m.getBond(3))));
+        assertThat(f.atomIndex(1), is(5));
+        assertThat(f.atoms().size(), is(2));
+        assertThat(f.bonds().get(0), is(sameInstance(m.getBond(3))));
+    }
+
+    @Test public void fragmentToAtomContainer() throws Exception {
+        IAtomContainer m = sp.parseSmiles("CC(=O)O.[Na]Cl");
+        IAtomContainer f = new ConnectedComponents(m).fragment(0).toAtomContainer();
+        assertThat(f.getAtomCount(), is(4));
+        assertThat(f.getBondCount(), is(3));
+        assertThat(f.getAtom(0), is(sameInstance(m.getAtom(0))));
+    }
+
+    @Test public void fragmentSingleElectrons() throws Exception {
+        IAtomContainer m = sp.parseSmiles("C[CH2].[Na]Cl");
+        m.addSingleElectron(1);
+        IAtomContainer f0 = new ConnectedComponents(m).fragment(0).toAtomContainer();
+        IAtomContainer f1 = new ConnectedComponents(m).fragment(1).toAtomContainer();
+        assertThat(f0.getSingleElectronCount(), is(1));
+        assertThat(f0.getSingleElectron(0).getAtom(), is(sameInstance(m.getAtom(1))));
+        assertThat(f1.getSingleElectronCount(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bondToMissingAtom() throws Exception {
+        IAtomContainer m = sp.parseSmiles("CCO");
+        m.removeAtom(2);
+        new ConnectedComponents(m);
+    }
+}
@@ -26,6 +26,8 @@ package org.openscience.cdk.graph;
 
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Assert;
@@ -119,6 +121,63 @@ public class ConnectivityCheckerTest extends CDKTestCase {
         Assert.assertTrue(ConnectivityChecker.isConnected(moleculeSet.getAtomContainer(2)));
 	}
 
+	@Test public void testFragmentStatistics() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        List<IAtomContainer> containers = new ArrayList<IAtomContainer>();
+        for (int i = 0; i < 50; i++) {
+            containers.add(sp.parseSmiles("[Na+].CC(=O)[O-]"));
+            containers.add(sp.parseSmiles("c1ccccc1"));
+            containers.add(sp.parseSmiles("Cl.Cl.NCCN"));
+        }
+        List<FragmentStatistics> stats = ConnectivityChecker.fragmentStatistics(containers, 4);
+        Assert.assertEquals(150, stats.size());
+        for (int i = 0; i < 150; i += 3) {
+            Assert.assertEquals(2, stats.get(i).fragmentCount());
+            Assert.assertEquals(1, stats.get(i).largest());
+            Assert.assertEquals(1, stats.get(i + 1).fragmentCount());
+            Assert.assertEquals(3, stats.get(i + 2).fragmentCount());
+            Assert.assertEquals(2, stats.get(i + 2).largest());
+        }
+    }
+
+	@Test public void testFragmentStatistics_single() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        List<FragmentStatistics> stats = ConnectivityChecker.fragmentStatistics(Collections.singletonList(sp.parseSmiles("CCO.O")), 4);
+        Assert.assertEquals(1, stats.size());
+        Assert.assertEquals(2, stats.get(0).fragmentCount());
+    }
+
+	@Test public void testPartitionIntoMolecules_order() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer m = sp.parseSmiles("C1CC1.O.CN");
+        IAtomContainerSet moleculeSet = ConnectivityChecker.partitionIntoMolecules(m);
+        Assert.assertEquals(3, moleculeSet.getAtomContainerCount());
+        Assert.assertEquals(3, moleculeSet.getAtomContainer(0).getBondCount());
+        Assert.assertSame(m.getAtom(3), moleculeSet.getAtomContainer(1).getAtom(0));
+        Assert.assertSame(m.getAtom(4), moleculeSet.getAtomContainer(2).getAtom(0));
+        Assert.assertSame(m.getAtom(5), moleculeSet.getAtomContainer(2).getAtom(1));
+    }
+
+    /**
+     * The atoms and bonds of a partition are in breadth-first order, reaction
+     * mechanisms rely on this order.
+     */
+	@Test public void testPartitionIntoMolecules_breadthFirstOrder() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer m = sp.parseSmiles("C(CO)C.N");
+        IAtomContainerSet moleculeSet = ConnectivityChecker.partitionIntoMolecules(m);
+        Assert.assertEquals(2, moleculeSet.getAtomContainerCount());
+        IAtomContainer first = moleculeSet.getAtomContainer(0);
+        Assert.assertSame(m.getAtom(0), first.getAtom(0));
+        Assert.assertSame(m.getAtom(1), first.getAtom(1));
+        Assert.assertSame(m.getAtom(3), first.getAtom(2));
+        Assert.assertSame(m.getAtom(2), first.getAtom(3));
+        Assert.assertSame(m.getBond(0), first.getBond(0));
+        Assert.assertSame(m.getBond(2), first.getBond(1));
+        Assert.assertSame(m.getBond(1), first.getBond(2));
+        Assert.assertSame(m.getAtom(4), moleculeSet.getAtomContainer(1).getAtom(0));
+    }
+
     /**
 	 * This test makes sure that it is checked that the partitionIntoMolecules()
      * method keeps LonePairs and SingleElectrons with its associated atoms.
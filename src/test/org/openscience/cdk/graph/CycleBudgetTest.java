@@ -0,0 +1,94 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.openscience.cdk.graph.RegularPathGraphTest.completeGraphOfSize;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class CycleBudgetTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWork() {
+        new CycleBudget(10, -1);
+    }
+
+    @Test public void limits() {
+        CycleBudget budget = new CycleBudget(72, 500);
+        assertThat(budget.maxDegree(), is(72));
+        assertThat(budget.maxWork(), is(500L));
+        assertThat(new CycleBudget(72).maxWork(), is(Long.MAX_VALUE));
+    }
+
+    @Test public void cancel() {
+        CycleBudget budget = new CycleBudget(72);
+        assertFalse(budget.isCancelled());
+        budget.cancel();
+        assertTrue(budget.isCancelled());
+        assertFalse(budget.admit(0, 0));
+    }
+
+    /** A cancellation is kept for later searches until the budget is reset. */
+    @Test public void reset() throws Exception {
+        CycleBudget budget = new CycleBudget(72);
+        budget.cancel();
+        assertFalse(new AllCycles(completeGraphOfSize(4), 4, budget).completed());
+        assertFalse(new AllCycles(completeGraphOfSize(4), 4, budget).completed());
+        budget.reset();
+        assertFalse(budget.isCancelled());
+        assertTrue(new AllCycles(completeGraphOfSize(4), 4, budget).completed());
+        assertThat(budget.ringSystems(), is(3L));
+        assertThat(budget.abortedRingSystems(), is(2L));
+    }
+
+    @Test public void counters() {
+        CycleBudget budget = new CycleBudget(1000);
+        new AllCycles(completeGraphOfSize(4), 4, budget);
+        new AllCycles(completeGraphOfSize(5), 5, budget);
+        assertThat(budget.ringSystems(), is(2L));
+        assertThat(budget.abortedRingSystems(), is(0L));
+        assertThat(budget.cycles(), is(7L + 37L));
+        assertTrue(budget.work() > 0);
+    }
+
+    @Test public void abortedByWork() {
+        CycleBudget budget = new CycleBudget(1000, 10);
+        AllCycles ac = new AllCycles(completeGraphOfSize(6), 6, budget);
+        assertFalse(ac.completed());
+        assertThat(budget.ringSystems(), is(1L));
+        assertThat(budget.abortedRingSystems(), is(1L));
+        assertThat(budget.cycles(), is(0L));
+        assertTrue(budget.work() <= 10);
+    }
+
+    @Test public void cost() {
+        assertThat(CycleBudget.cost(0), is(0L));
+        assertThat(CycleBudget.cost(1), is(0L));
+        assertThat(CycleBudget.cost(4), is(6L));
+    }
+}
@@ -1,11 +1,13 @@
 package org.openscience.cdk.graph;
 
 import org.junit.Test;
+import org.openscience.cdk.exception.Intractable;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
 import org.openscience.cdk.interfaces.IRing;
 import org.openscience.cdk.interfaces.IRingSet;
+import org.openscience.cdk.ringsearch.RingSearch;
 
 import java.util.Arrays;
 import java.util.Iterator;
@@ -39,6 +41,65 @@ public class CyclesTest {
         checkSize(Cycles.all(makeGappedCyclophaneLike()), 135);
     }
     
+    @Test public void allWithBudget() throws Exception {
+        CycleBudget budget = new CycleBudget(684);
+        checkSize(Cycles.all(budget).find(makeAnthracene()), 6);
+        checkSize(Cycles.all(budget).find(makeCyclophaneLike()), 135);
+        assertThat(budget.ringSystems(), is(2L));
+        assertThat(budget.abortedRingSystems(), is(0L));
+        assertThat(budget.cycles(), is(6L + 135L));
+    }
+
+    @Test(expected = Intractable.class)
+    public void allCancelled() throws Exception {
+        CycleBudget budget = new CycleBudget(684);
+        budget.cancel();
+        Cycles.all(budget).find(makeAnthracene());
+    }
+
+    @Test(expected = Intractable.class)
+    public void allExceedsBudget() throws Exception {
+        Cycles.all(new CycleBudget(100)).find(anthraceneAndK12());
+    }
+
+    @Test public void or() throws Exception {
+        checkSize(Cycles.or(Cycles.all(), Cycles.relevant()).find(makeAnthracene()), 6);
+        CycleFinder cf = Cycles.or(Cycles.all(new CycleBudget(100)), Cycles.relevant());
+        // all cycles of anthracene and the relevant cycles (triangles) of K12
+        checkSize(cf.find(anthraceneAndK12()), 6 + 220);
+    }
+
+    @Test public void orPerRingSystem() throws Exception {
+        CycleBudget budget = new CycleBudget(100);
+        CycleFinder cf = Cycles.or(Cycles.all(budget), Cycles.mcb());
+        Cycles cycles = cf.find(anthraceneAndK12());
+        assertThat(budget.ringSystems(), is(2L));
+        assertThat(budget.abortedRingSystems(), is(1L));
+        // all cycles of anthracene and the MCB of K12 (55 = |E| - |V| + 1)
+        checkSize(cycles, 6 + 55);
+    }
+
+    @Test public void orWholeMolecule() throws Exception {
+        CycleFinder intractable = new CycleFinder() {
+            @Override public Cycles find(IAtomContainer molecule) throws Intractable {
+                throw new Intractable("always fails");
+            }
+        };
+        checkSize(Cycles.or(intractable, Cycles.mcb()).find(makeAnthracene()), 3);
+    }
+
+    @Test public void findWithRingSearch() throws Exception {
+        IAtomContainer                container = makeAnthracene();
+        GraphUtil.EdgeToBondMap       bondMap   = GraphUtil.EdgeToBondMap.withSpaceFor(container);
+        int[][]                       graph     = GraphUtil.toAdjList(container, bondMap);
+        RingSearch                    rs        = new RingSearch(container, graph);
+        checkSize(Cycles.find(Cycles.all(), container, graph, bondMap, rs), 6);
+        checkSize(Cycles.find(Cycles.mcb(), container, graph, bondMap, rs), 3);
+        checkSize(Cycles.find(Cycles.or(Cycles.all(), Cycles.mcb()), container, graph, bondMap, rs), 6);
+        assertThat(Cycles.find(Cycles.mcb(), container, graph, bondMap, rs).toRingSet().getAtomContainerCount(),
+                   is(3));
+    }
+
     @Test public void mcb() throws Exception {
         checkSize(Cycles.mcb(makeBiphenyl()), 2);
         checkSize(Cycles.mcb(makeBicycloRings()), 2);
@@ -147,6 +208,21 @@ public class CyclesTest {
         assertThat(r2.getBond(5), is(biphenyl.getBond(12)));
     }
 
+    /**
+     * Anthracene and a disconnected complete graph of 12 carbons - the
+     * complete graph is intractable for a threshold of 100.
+     */
+    static IAtomContainer anthraceneAndK12() {
+        IAtomContainer m   = makeAnthracene();
+        int            off = m.getAtomCount();
+        for (int i = 0; i < 12; i++)
+            m.addAtom(m.getBuilder().newInstance(IAtom.class, "C"));
+        for (int i = 0; i < 12; i++)
+            for (int j = i + 1; j < 12; j++)
+                m.addBond(off + i, off + j, IBond.Order.SINGLE);
+        return m;
+    }
+
     static void checkSize(Cycles cs, int nCycles) {
         assertThat(cs.numberOfCycles(),
                    is(nCycles));
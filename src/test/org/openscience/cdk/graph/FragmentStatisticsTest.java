@@ -0,0 +1,65 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.junit.Test;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.silent.AtomContainer;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-standard
+ */
+public class FragmentStatisticsTest {
+
+    private final SmilesParser sp = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    @Test public void disconnected() throws Exception {
+        // sodium acetate and a water
+        IAtomContainer m = sp.parseSmiles("[Na+].CC(=O)[O-].O");
+        FragmentStatistics stats = new FragmentStatistics(m);
+        assertThat(stats.fragmentCount(), is(3));
+        assertThat(stats.atomCount(1), is(4));
+        assertThat(stats.largest(), is(1));
+        assertEquals(22.99, stats.mass(0), 0.01);
+        assertEquals(59.04, stats.mass(1), 0.01);
+        assertEquals(18.02, stats.mass(2), 0.01);
+        assertThat(stats.fragment(1).getAtomCount(), is(4));
+        assertThat(stats.components().numberOfComponents(), is(3));
+    }
+
+    @Test public void tie() throws Exception {
+        // same number of heavy atoms, chloride is heavier
+        FragmentStatistics stats = new FragmentStatistics(sp.parseSmiles("[Na+].[Cl-]"));
+        assertThat(stats.largest(), is(1));
+    }
+
+    @Test public void empty() throws Exception {
+        FragmentStatistics stats = new FragmentStatistics(new AtomContainer());
+        assertThat(stats.fragmentCount(), is(0));
+        assertThat(stats.largest(), is(-1));
+    }
+}
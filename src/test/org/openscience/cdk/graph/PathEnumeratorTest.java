@@ -0,0 +1,116 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph;
+
+import org.junit.Test;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.templates.MoleculeFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.openscience.cdk.graph.RegularPathGraphTest.completeGraphOfSize;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class PathEnumeratorTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeDepth() {
+        new PathEnumerator(new int[0][0], new int[0][0], -1);
+    }
+
+    @Test public void depth() {
+        int[][] k4 = completeGraphOfSize(4);
+        assertThat(new PathEnumerator(k4, k4, 0).enumerate(0, new Counter()), is(1));
+        assertThat(new PathEnumerator(k4, k4, 1).enumerate(0, new Counter()), is(4));
+        assertThat(new PathEnumerator(k4, k4, 2).enumerate(0, new Counter()), is(10));
+        assertThat(new PathEnumerator(k4, k4, 3).enumerate(0, new Counter()), is(16));
+        // no simple paths longer than 3 edges
+        assertThat(new PathEnumerator(k4, k4, 8).enumerate(0, new Counter()), is(16));
+    }
+
+    @Test public void labels() {
+        // path graph 0-1-2-3 with the edge labels 10, 11 and 12
+        int[][] graph  = {{1}, {0, 2}, {1, 3}, {2}};
+        int[][] labels = {{10}, {10, 11}, {11, 12}, {12}};
+        final List<String> paths = new ArrayList<String>();
+        new PathEnumerator(graph, labels, 3).enumerate(0, new PathEnumerator.Visitor() {
+            @Override public boolean visit(int[] path, int[] labels, int depth) {
+                StringBuilder sb = new StringBuilder().append(path[0]);
+                for (int i = 1; i <= depth; i++)
+                    sb.append('-').append(labels[i]).append('-').append(path[i]);
+                paths.add(sb.toString());
+                return true;
+            }
+        });
+        assertThat(paths, is(Arrays.asList("0", "0-10-1", "0-10-1-11-2", "0-10-1-11-2-12-3")));
+    }
+
+    @Test public void prune() {
+        // do not extend paths through vertex 1
+        int[][] k4 = completeGraphOfSize(4);
+        Counter counter = new Counter() {
+            @Override public boolean visit(int[] path, int[] labels, int depth) {
+                super.visit(path, labels, depth);
+                return path[depth] != 1;
+            }
+        };
+        assertThat(new PathEnumerator(k4, k4, 3).enumerate(0, counter), is(10));
+    }
+
+    @Test public void limit() {
+        int[][] k4 = completeGraphOfSize(4);
+        PathEnumerator pe = new PathEnumerator(k4, k4, 3);
+        assertThat(pe.enumerate(0, new Counter(), 5), is(6));
+        // the state is reset after exceeding the limit
+        assertThat(pe.enumerate(0, new Counter(), 16), is(16));
+        assertThat(pe.enumerate(0, new Counter(), 0), is(1));
+        assertThat(pe.enumerate(0, new Counter()), is(16));
+    }
+
+    @Test public void bondIndices() {
+        IAtomContainer container = MoleculeFactory.makeBenzene();
+        int[][] graph  = GraphUtil.toAdjList(container);
+        int[][] labels = PathEnumerator.bondIndices(container, graph);
+        for (int v = 0; v < graph.length; v++) {
+            for (int j = 0; j < graph[v].length; j++) {
+                assertThat(labels[v][j],
+                           is(container.getBondNumber(container.getAtom(v),
+                                                      container.getAtom(graph[v][j]))));
+            }
+        }
+    }
+
+    /** Count the number of visited paths. */
+    private static class Counter implements PathEnumerator.Visitor {
+        int count;
+
+        @Override public boolean visit(int[] path, int[] labels, int depth) {
+            count++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph.matrix;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class LanczosTest {
+
+    /** The eigenvalues of a path of n vertices are 2cos(pi k / (n + 1)). */
+    @Test public void path() {
+        int n = 500;
+        double[] spectrum = Lanczos.eigenvalues(path(n), 1);
+        assertEquals(-2 * Math.cos(Math.PI / (n + 1)), spectrum[0], 1e-9);
+        assertEquals(2 * Math.cos(Math.PI / (n + 1)), spectrum[spectrum.length - 1], 1e-9);
+    }
+
+    /** A star has eigenvalues +/- sqrt(n-1) and 0 (with multiplicity). */
+    @Test public void star() {
+        int n = 10;
+        int[] rows = new int[2 * (n - 1)], cols = new int[2 * (n - 1)];
+        double[] values = new double[2 * (n - 1)];
+        for (int i = 1; i < n; i++) {
+            rows[2 * i - 2] = 0; cols[2 * i - 2] = i; values[2 * i - 2] = 1;
+            rows[2 * i - 1] = i; cols[2 * i - 1] = 0; values[2 * i - 1] = 1;
+        }
+        double[] spectrum = Lanczos.eigenvalues(new SparseMatrix(n, rows, cols, values), 1);
+        assertArrayEquals(new double[]{-3, 3}, spectrum, 1e-12);
+    }
+
+    @Test public void empty() {
+        assertThat(Lanczos.eigenvalues(new SparseMatrix(0, new int[0], new int[0], new double[0]), 1).length,
+                   is(0));
+    }
+
+    /** A = QDQ' with a Householder reflection Q has the eigenvalues D. */
+    @Test public void dense() {
+        int      n        = 40;
+        Random   random   = new Random(42);
+        double[] expected = new double[n];
+        double[] v        = new double[n];
+        double   vv       = 0;
+        for (int i = 0; i < n; i++) {
+            expected[i] = i - 10.5 + random.nextDouble() / 2;
+            v[i] = random.nextDouble() - 0.5;
+            vv += v[i] * v[i];
+        }
+        int[] rows = new int[n * n], cols = new int[n * n];
+        double[] values = new double[n * n];
+        for (int i = 0, k = 0; i < n; i++) {
+            for (int j = 0; j < n; j++, k++) {
+                // (I - 2vv'/v'v) D (I - 2vv'/v'v)
+                double sum = 0;
+                for (int l = 0; l < n; l++) {
+                    double qil = (i == l ? 1 : 0) - 2 * v[i] * v[l] / vv;
+                    double qjl = (j == l ? 1 : 0) - 2 * v[j] * v[l] / vv;
+                    sum += qil * expected[l] * qjl;
+                }
+                rows[k] = i; cols[k] = j; values[k] = sum;
+            }
+        }
+        double[] actual = Lanczos.eigenvalues(new SparseMatrix(n, rows, cols, values), 3);
+        assertArrayEquals(new double[]{expected[0], expected[1], expected[2],
+                                       expected[n - 3], expected[n - 2], expected[n - 1]}, actual, 1e-9);
+    }
+
+    /** The basis (32 vectors) is restarted many times. */
+    @Test public void restart() {
+        int      n        = 300;
+        double[] spectrum = Lanczos.eigenvalues(path(n), 2, 100000, 1e-12);
+        assertThat(spectrum.length, is(4));
+        for (int k = 1; k <= 2; k++) {
+            assertEquals(-2 * Math.cos(Math.PI * k / (n + 1)), spectrum[k - 1], 1e-9);
+            assertEquals(2 * Math.cos(Math.PI * k / (n + 1)), spectrum[4 - k], 1e-9);
+        }
+    }
+
+    /** The Ritz values lie within the spectrum. */
+    @Test public void iterations() {
+        double[] spectrum = Lanczos.eigenvalues(path(100), 1, 5, 0);
+        assertThat(spectrum.length, is(2));
+        assertTrue(spectrum[0] > -2);
+        assertTrue(spectrum[1] < 2);
+        assertTrue(spectrum[0] < spectrum[1]);
+    }
+
+    @Test public void jacobi() {
+        // path of 3 vertices
+        double[][] vectors  = new double[3][3];
+        double[]   spectrum = Lanczos.symmetricEigenvalues(new double[][]{{0, 1, 0}, {1, 0, 1}, {0, 1, 0}}, 3,
+                                                           vectors);
+        assertArrayEquals(new double[]{-Math.sqrt(2), 0, Math.sqrt(2)}, spectrum, 1e-12);
+        // Av = lambda v
+        for (int i = 0; i < 3; i++) {
+            assertEquals(spectrum[i] * vectors[0][i], vectors[1][i], 1e-12);
+            assertEquals(spectrum[i] * vectors[1][i], vectors[0][i] + vectors[2][i], 1e-12);
+        }
+    }
+
+    private static SparseMatrix path(int n) {
+        int[] rows = new int[2 * (n - 1)], cols = new int[2 * (n - 1)];
+        double[] values = new double[2 * (n - 1)];
+        for (int i = 0; i < n - 1; i++) {
+            rows[2 * i] = i; cols[2 * i] = i + 1; values[2 * i] = 1;
+            rows[2 * i + 1] = i + 1; cols[2 * i + 1] = i; values[2 * i + 1] = 1;
+        }
+        return new SparseMatrix(n, rows, cols, values);
+    }
+}
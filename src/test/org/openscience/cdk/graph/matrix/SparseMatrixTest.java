@@ -0,0 +1,98 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.graph.matrix;
+
+import org.junit.Test;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class SparseMatrixTest {
+
+    private final SmilesParser smipar = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    @Test public void get() {
+        SparseMatrix matrix = new SparseMatrix(3,
+                                               new int[]{2, 0, 0},
+                                               new int[]{1, 2, 0},
+                                               new double[]{4, 3, 1});
+        assertThat(matrix.get(0, 0), is(1.0));
+        assertThat(matrix.get(0, 1), is(0.0));
+        assertThat(matrix.get(0, 2), is(3.0));
+        assertThat(matrix.get(2, 1), is(4.0));
+        assertThat(matrix.get(1, 1), is(0.0));
+    }
+
+    @Test public void duplicates() {
+        // last value assigned is kept
+        SparseMatrix matrix = new SparseMatrix(2,
+                                               new int[]{0, 1, 0},
+                                               new int[]{1, 0, 1},
+                                               new double[]{2, 2, 5});
+        assertThat(matrix.nonZeros(), is(2));
+        assertThat(matrix.get(0, 1), is(5.0));
+        assertThat(matrix.get(1, 0), is(2.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfRange() {
+        new SparseMatrix(2, new int[]{0}, new int[]{2}, new double[]{1});
+    }
+
+    @Test public void adjacency() throws Exception {
+        IAtomContainer container = smipar.parseSmiles("C1CC1C=O");
+        SparseMatrix   matrix    = SparseMatrix.adjacency(container);
+        assertThat(matrix.size(), is(5));
+        assertThat(matrix.nonZeros(), is(10));
+        int[][] dense = AdjacencyMatrix.getMatrix(container);
+        for (int i = 0; i < 5; i++)
+            for (int j = 0; j < 5; j++)
+                assertThat(matrix.get(i, j), is((double) dense[i][j]));
+    }
+
+    @Test public void connection() throws Exception {
+        IAtomContainer container = smipar.parseSmiles("C1CC1C=O");
+        double[][] expected = ConnectionMatrix.getMatrix(container);
+        double[][] actual   = SparseMatrix.connection(container).toArray();
+        for (int i = 0; i < expected.length; i++)
+            assertArrayEquals(expected[i], actual[i], 0);
+    }
+
+    @Test public void multiply() {
+        // 2 1 0
+        // 1 2 1
+        // 0 1 2
+        SparseMatrix matrix = new SparseMatrix(3,
+                                               new int[]{0, 0, 1, 1, 1, 2, 2},
+                                               new int[]{0, 1, 0, 1, 2, 1, 2},
+                                               new double[]{2, 1, 1, 2, 1, 1, 2});
+        double[] y = new double[3];
+        matrix.multiply(new double[]{1, 2, 3}, y);
+        assertArrayEquals(new double[]{4, 8, 8}, y, 0);
+    }
+}
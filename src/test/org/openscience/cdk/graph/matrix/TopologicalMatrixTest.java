@@ -6,9 +6,12 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.openscience.cdk.AtomContainer;
 import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.graph.PathTools;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.io.IChemObjectReader.Mode;
 import org.openscience.cdk.io.MDLV2000Reader;
+import org.openscience.cdk.smiles.SmilesParser;
 
 /**
  * @cdk.module test-qsarmolecular
@@ -32,4 +35,17 @@ public class TopologicalMatrixTest extends CDKTestCase {
 			}
 		}
 	}
+
+	/** The breadth-first distances are those of Floyd's algorithm. */
+	@Test public void testTopologicalMatrix_Floyd() throws Exception {
+		SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+		for (String smi : new String[]{"c1ccccc1Cl", "C1CC2CCC1CC2", "CCO.[Na+].c1ccncc1", ""}) {
+			IAtomContainer container = sp.parseSmiles(smi);
+			int[][] expected = PathTools.computeFloydAPSP(AdjacencyMatrix.getMatrix(container));
+			int[][] actual   = TopologicalMatrix.getMatrix(container);
+			Assert.assertEquals(expected.length, actual.length);
+			for (int i = 0; i < expected.length; i++)
+				Assert.assertArrayEquals(smi, expected[i], actual[i]);
+		}
+	}
 }
@@ -29,11 +29,13 @@
 package org.openscience.cdk.isomorphism;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.openscience.cdk.Atom;
@@ -62,6 +64,7 @@ import org.openscience.cdk.isomorphism.matchers.QueryAtomContainerCreator;
 import org.openscience.cdk.isomorphism.matchers.SymbolQueryAtom;
 import org.openscience.cdk.isomorphism.matchers.smarts.AliphaticSymbolAtom;
 import org.openscience.cdk.isomorphism.matchers.smarts.AnyAtom;
+import org.openscience.cdk.isomorphism.mcss.RGraph;
 import org.openscience.cdk.isomorphism.mcss.RMap;
 import org.openscience.cdk.smiles.SmilesParser;
 import org.openscience.cdk.templates.MoleculeFactory;
@@ -660,5 +663,50 @@ public class UniversalIsomorphismTesterTest extends CDKTestCase
         Assert.assertFalse("C**C should not match SCCS", res);
     }
 
-}
+    /**
+     * The search computes the RGraph relationships on demand, the overlaps
+     * are the same as those of the fully built RGraph.
+     */
+    @Test public void testGetOverlaps_SameAsBuildRGraph() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer mol1 = sp.parseSmiles("CC(=O)Oc1ccccc1C(=O)O");
+        IAtomContainer mol2 = sp.parseSmiles("OC(=O)c1ccccc1OCC=O");
+        List<List<RMap>> expected = new ArrayList<List<RMap>>();
+        RGraph rGraph = UniversalIsomorphismTester.buildRGraph(mol1, mol2);
+        rGraph.parse(new BitSet(), new BitSet(), true, false);
+        for (BitSet set : rGraph.getSolutions())
+            expected.add(rGraph.bitSetToRMap(set));
+        List<List<RMap>> actual = uiTester.search(mol1, mol2, new BitSet(), new BitSet(), true, false);
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).size(), actual.get(i).size());
+            for (int j = 0; j < expected.get(i).size(); j++) {
+                Assert.assertEquals(expected.get(i).get(j).getId1(), actual.get(i).get(j).getId1());
+                Assert.assertEquals(expected.get(i).get(j).getId2(), actual.get(i).get(j).getId2());
+            }
+        }
+    }
 
+    /** A search budget of one iteration only reaches the first bond. */
+    @Test public void testSetMaxIteration() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer mol1 = sp.parseSmiles("CC12CCC3C(CCC4=CC(=O)CCC34C)C1CCC2O");
+        IAtomContainer mol2 = sp.parseSmiles("CC12CCC3c4ccc(O)cc4CCC3C1CCC2O");
+        UniversalIsomorphismTester uit = new UniversalIsomorphismTester();
+        int bonds = uit.getOverlaps(mol1, mol2).get(0).getBondCount();
+        uit.setMaxIteration(1);
+        List<IAtomContainer> overlaps = uit.getOverlaps(mol1, mol2);
+        Assert.assertFalse(overlaps.isEmpty());
+        Assert.assertTrue(overlaps.get(0).getBondCount() < bonds);
+    }
+
+    /** Overlaps of two molecules of about 50 atoms. */
+    @Test(timeout = 60000) public void testGetOverlaps_Large() throws Exception {
+        Assume.assumeTrue(runSlowTests());
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer mol1 = sp.parseSmiles("CC12CCC3C(CCC4=CC(=O)CCC34C)C1CCC2OC(=O)CCc1ccc(O)cc1NC(=O)C");
+        IAtomContainer mol2 = sp.parseSmiles("CC12CCC3c4ccc(O)cc4CCC3C1CCC2OC(=O)CCc1ccc(N)cc1");
+        List<IAtomContainer> overlaps = uiTester.getOverlaps(mol1, mol2);
+        Assert.assertEquals(3, overlaps.size());
+    }
+}
@@ -0,0 +1,248 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.isomorphism.matchers;
+
+import org.junit.Test;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.isomorphism.UniversalIsomorphismTester;
+import org.openscience.cdk.silent.Atom;
+import org.openscience.cdk.silent.AtomContainer;
+import org.openscience.cdk.silent.Bond;
+import org.openscience.cdk.silent.PseudoAtom;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-isomorphism
+ */
+public class RGroupQueryMatcherTest extends CDKTestCase {
+
+    private static final String[] SUBSTITUENTS = {null, "O", "N", "Cl", "C"};
+
+    @Test public void matches() throws Exception {
+        RGroupQueryMatcher matcher = new RGroupQueryMatcher(query(">0", false, ">0", 0));
+        assertTrue(matcher.matches(ring("O", "Cl", null, null, null, null)));
+        assertTrue(matcher.matches(ring("O", "Cl", null, "N", null, null)));
+        assertTrue(matcher.matches(ring(null, "Cl", null, "N", null, "C")));
+        // R1 must occur
+        assertFalse(matcher.matches(ring(null, "Cl", null, null, null, null)));
+        // R2 must occur
+        assertFalse(matcher.matches(ring("O", null, null, "O", null, null)));
+        // Cl is not a substitute of R1
+        assertFalse(matcher.matches(ring("Cl", "Cl", null, null, null, null)));
+        assertFalse(matcher.matches(ring(null, null, null, null, null, null)));
+    }
+
+    /** Same result as matching each of the configurations. */
+    @Test public void matchesConfigurations() throws Exception {
+        RGroupQuery[] queries = {query(">0", false, ">0", 0),
+                                 query("0-2", false, "<2", 1),
+                                 query("2", false, ">0", 0),
+                                 query("<2", false, "0", 0)};
+        UniversalIsomorphismTester uit = new UniversalIsomorphismTester();
+        for (RGroupQuery query : queries) {
+            RGroupQueryMatcher matcher = new RGroupQueryMatcher(query);
+            List<IAtomContainer> configurations = query.getAllConfigurations();
+            for (int i = 0; i < 15625; i += 31) {
+                IAtomContainer target = ring(i);
+                boolean expected = false;
+                for (IAtomContainer configuration : configurations)
+                    expected = expected || uit.isSubgraph(target, configuration);
+                assertThat(Integer.toString(i), matcher.matches(target), is(expected));
+            }
+        }
+    }
+
+    /** An empty R1 position with RestH may not have other substituents. */
+    @Test public void matchesRestH() throws Exception {
+        IAtomContainer target = ring("O", "Cl", null, "C", null, null);
+        assertTrue(new RGroupQueryMatcher(query(">0", false, ">0", 0)).matches(target));
+        assertFalse(new RGroupQueryMatcher(query(">0", true, ">0", 0)).matches(target));
+        assertTrue(new RGroupQueryMatcher(query(">0", true, ">0", 0))
+                           .matches(ring("O", "Cl", null, null, "C", null)));
+        assertTrue(new RGroupQueryMatcher(query(">0", true, ">0", 0))
+                           .matches(ring("O", "Cl", null, "N", null, null)));
+    }
+
+    /** R2 requires R1. */
+    @Test public void matchesIfThen() throws Exception {
+        IAtomContainer target = ring(null, "Cl", null, null, null, null);
+        assertTrue(new RGroupQueryMatcher(query("0-2", false, ">0", 0)).matches(target));
+        assertFalse(new RGroupQueryMatcher(query("0-2", false, ">0", 1)).matches(target));
+        assertTrue(new RGroupQueryMatcher(query("0-2", false, ">0", 1))
+                           .matches(ring("N", "Cl", null, null, null, null)));
+    }
+
+    @Test public void match() throws Exception {
+        RGroupQuery query = query(">0", false, ">0", 0);
+        RGroupQueryMatcher matcher = new RGroupQueryMatcher(query);
+        assertThat(matcher.getPositions(), is(query.getAllRgroupQueryAtoms()));
+
+        final List<RGroupQueryMatcher.Match> matches = new ArrayList<RGroupQueryMatcher.Match>();
+        IAtomContainer target = ring("O", "Cl", null, "N", null, null);
+        matcher.match(target, new RGroupQueryMatcher.Handler() {
+            @Override public boolean match(RGroupQueryMatcher.Match match) {
+                matches.add(match);
+                return true;
+            }
+        });
+
+        // both R1 positions substituted, or only one of them
+        assertThat(matches.size(), is(3));
+        for (RGroupQueryMatcher.Match match : matches) {
+            int[] mapping = match.getRootMapping();
+            assertThat(mapping[6], is(-1));
+            assertThat(mapping[7], is(-1));
+            assertThat(mapping[8], is(-1));
+            assertThat(mapping[0], is(0));
+            assertThat(mapping[1], is(1));
+            assertThat(match.getSubstitute(2), is(notNullValue()));
+            assertThat(match.getSubstituteMapping(2), is(new int[]{7}));
+        }
+        RGroupQueryMatcher.Match both = matches.get(matches.size() - 1);
+        assertThat(both.getSubstituteMapping(0), is(new int[]{6}));
+        assertThat(both.getSubstituteMapping(1), is(new int[]{8}));
+        assertThat(matches.get(0).getSubstitute(0), is(nullValue()));
+        assertThat(matches.get(0).getSubstituteMapping(0), is(nullValue()));
+
+        // stop after the first match
+        final int[] count = new int[1];
+        matcher.match(target, new RGroupQueryMatcher.Handler() {
+            @Override public boolean match(RGroupQueryMatcher.Match match) {
+                count[0]++;
+                return false;
+            }
+        });
+        assertThat(count[0], is(1));
+    }
+
+    @Test(expected = CDKException.class)
+    public void invalidOccurrence() throws Exception {
+        new RGroupQueryMatcher(query(">2", false, ">0", 0));
+    }
+
+    @Test(expected = CDKException.class)
+    public void missingDefinition() throws Exception {
+        RGroupQuery query = query(">0", false, ">0", 0);
+        query.getRGroupDefinitions().remove(2);
+        new RGroupQueryMatcher(query);
+    }
+
+    @Test(expected = CDKException.class)
+    public void queryTarget() throws Exception {
+        new RGroupQueryMatcher(query(">0", false, ">0", 0))
+                .matches(new QueryAtomContainer(SilentChemObjectBuilder.getInstance()));
+    }
+
+    /**
+     * A cyclohexane root with R1 on atoms 0 and 3 and R2 on atom 1. R1 is
+     * either O or N and R2 is Cl.
+     */
+    private static RGroupQuery query(String occurrence1, boolean restH1, String occurrence2, int requires2)
+            throws CDKException {
+        IAtomContainer root = new AtomContainer();
+        for (int i = 0; i < 6; i++)
+            root.addAtom(new Atom("C"));
+        for (int i = 0; i < 6; i++)
+            root.addBond(i, (i + 1) % 6, IBond.Order.SINGLE);
+        root.addAtom(new PseudoAtom("R1"));
+        root.addAtom(new PseudoAtom("R1"));
+        root.addAtom(new PseudoAtom("R2"));
+
+        Map<IAtom, Map<Integer, IBond>> attachmentPoints = new HashMap<IAtom, Map<Integer, IBond>>();
+        attach(root, attachmentPoints, 6, 0);
+        attach(root, attachmentPoints, 7, 3);
+        attach(root, attachmentPoints, 8, 1);
+
+        RGroupList r1 = new RGroupList(1, restH1, occurrence1, 0);
+        r1.setRGroups(Arrays.asList(substitute("O"), substitute("N")));
+        RGroupList r2 = new RGroupList(2, false, occurrence2, requires2);
+        r2.setRGroups(Arrays.asList(substitute("Cl")));
+        Map<Integer, RGroupList> definitions = new HashMap<Integer, RGroupList>();
+        definitions.put(1, r1);
+        definitions.put(2, r2);
+
+        RGroupQuery query = new RGroupQuery(SilentChemObjectBuilder.getInstance());
+        query.setRootStructure(root);
+        query.setRootAttachmentPoints(attachmentPoints);
+        query.setRGroupDefinitions(definitions);
+        return query;
+    }
+
+    private static void attach(IAtomContainer root, Map<IAtom, Map<Integer, IBond>> attachmentPoints, int r, int v) {
+        IBond bond = new Bond(root.getAtom(v), root.getAtom(r));
+        root.addBond(bond);
+        Map<Integer, IBond> bonds = new HashMap<Integer, IBond>();
+        bonds.put(1, bond);
+        attachmentPoints.put(root.getAtom(r), bonds);
+    }
+
+    private static RGroup substitute(String symbol) {
+        IAtomContainer group = new AtomContainer();
+        group.addAtom(new Atom(symbol));
+        RGroup substitute = new RGroup();
+        substitute.setGroup(group);
+        substitute.setFirstAttachmentPoint(group.getAtom(0));
+        return substitute;
+    }
+
+    /** A cyclohexane with the i'th combination of substituents. */
+    private static IAtomContainer ring(int i) {
+        String[] symbols = new String[6];
+        for (int j = 0; j < 6; j++) {
+            symbols[j] = SUBSTITUENTS[i % SUBSTITUENTS.length];
+            i /= SUBSTITUENTS.length;
+        }
+        return ring(symbols);
+    }
+
+    /** A cyclohexane with the given substituents, atoms 6.. are substituents. */
+    private static IAtomContainer ring(String... symbols) {
+        IAtomContainer container = new AtomContainer();
+        for (int i = 0; i < 6; i++)
+            container.addAtom(new Atom("C"));
+        for (int i = 0; i < 6; i++)
+            container.addBond(i, (i + 1) % 6, IBond.Order.SINGLE);
+        for (int i = 0; i < 6; i++) {
+            if (symbols[i] == null)
+                continue;
+            container.addAtom(new Atom(symbols[i]));
+            container.addBond(i, container.getAtomCount() - 1, IBond.Order.SINGLE);
+        }
+        return container;
+    }
+}
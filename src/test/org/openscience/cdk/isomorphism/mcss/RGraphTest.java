@@ -20,6 +20,8 @@
  */
 package org.openscience.cdk.isomorphism.mcss;
 
+import java.util.BitSet;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.openscience.cdk.CDKTestCase;
@@ -34,6 +36,93 @@ public class RGraphTest extends CDKTestCase {
 		Assert.assertNotNull(graph);
 	}
 
-}
+	/**
+	 * Two associations of G1 bond 0 and a neighbor of the first, the
+	 * largest solution is {0, 2}.
+	 */
+	@Test public void testParse() {
+		RGraph graph = path();
+		graph.getGraph().get(0).getForbidden().set(0);
+		graph.getGraph().get(0).getForbidden().set(1);
+		graph.getGraph().get(1).getForbidden().set(0);
+		graph.getGraph().get(1).getForbidden().set(1);
+		graph.getGraph().get(2).getForbidden().set(2);
+		graph.getGraph().get(0).getExtension().set(2);
+		graph.getGraph().get(2).getExtension().set(0);
+		graph.parse(new BitSet(), new BitSet(), true, false);
+		Assert.assertEquals(1, graph.getSolutions().size());
+		Assert.assertEquals(bits(0, 2), graph.getSolutions().get(0));
+	}
+
+	/** Relationships computed on demand give the same solutions. */
+	@Test public void testSetArcs() {
+		RGraph graph = path();
+		final int[] calls = new int[1];
+		graph.setArcs(new RGraph.Arcs() {
+			public int relation(int i, int j) {
+				calls[0]++;
+				Assert.assertTrue(i < j);
+				if (i == 0 && j == 1)
+					return FORBIDDEN;
+				if (i == 0 && j == 2)
+					return EXTENSION;
+				return NONE;
+			}
+		});
+		graph.parse(new BitSet(), new BitSet(), true, false);
+		Assert.assertEquals(1, graph.getSolutions().size());
+		Assert.assertEquals(bits(0, 2), graph.getSolutions().get(0));
+
+		// the search stops at the first solution, node 1 is never reached
+		calls[0] = 0;
+		graph.parse(new BitSet(), new BitSet(), false, false);
+		Assert.assertEquals(4, calls[0]);
+	}
+
+	/** Constraints on G1 exclude the node 1. */
+	@Test public void testParse_Constraint() {
+		RGraph graph = path();
+		graph.setArcs(new RGraph.Arcs() {
+			public int relation(int i, int j) {
+				return NONE;
+			}
+		});
+		graph.parse(bits(1), new BitSet(), true, false);
+		Assert.assertEquals(1, graph.getSolutions().size());
+		Assert.assertEquals(bits(2), graph.getSolutions().get(0));
+	}
 
+	@Test public void testSetMaxIteration() {
+		RGraph graph = path();
+		graph.setArcs(new RGraph.Arcs() {
+			public int relation(int i, int j) {
+				return EXTENSION;
+			}
+		});
+		graph.setMaxIteration(0);
+		graph.parse(new BitSet(), new BitSet(), true, false);
+		Assert.assertTrue(graph.getSolutions().isEmpty());
+		graph.setMaxIteration(-1);
+		graph.parse(new BitSet(), new BitSet(), true, false);
+		Assert.assertEquals(1, graph.getSolutions().size());
+		Assert.assertEquals(bits(0, 1, 2), graph.getSolutions().get(0));
+	}
 
+	/** Nodes: G1 bond 0 to G2 bond 0 and 1, G1 bond 1 to G2 bond 1. */
+	private static RGraph path() {
+		RGraph graph = new RGraph();
+		graph.addNode(new RNode(0, 0));
+		graph.addNode(new RNode(0, 1));
+		graph.addNode(new RNode(1, 1));
+		graph.setFirstGraphSize(2);
+		graph.setSecondGraphSize(2);
+		return graph;
+	}
+
+	private static BitSet bits(int... xs) {
+		BitSet bs = new BitSet();
+		for (int x : xs)
+			bs.set(x);
+		return bs;
+	}
+}
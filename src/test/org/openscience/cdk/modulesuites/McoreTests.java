@@ -33,6 +33,8 @@ import org.openscience.cdk.atomtype.RepeatedCDKAtomTypeMatcherSMILESTest;
 import org.openscience.cdk.config.AtomTypeFactoryTest;
 import org.openscience.cdk.config.BODRIsotopeTest;
 import org.openscience.cdk.config.IsotopesTest;
+import org.openscience.cdk.config.IsotopeTableTest;
+import org.openscience.cdk.config.BinaryAtomTypeConfiguratorTest;
 import org.openscience.cdk.config.CDKBasedAtomTypeConfiguratorTest;
 import org.openscience.cdk.config.OWLBasedAtomTypeConfiguratorTest;
 import org.openscience.cdk.config.TXTBasedAtomTypeConfiguratorTest;
@@ -46,6 +48,7 @@ import org.openscience.cdk.exception.NoSuchAtomExceptionTest;
 import org.openscience.cdk.exception.NoSuchAtomTypeExceptionTest;
 import org.openscience.cdk.graph.AllPairsShortestPathsTest;
 import org.openscience.cdk.graph.BitMatrixTest;
+import org.openscience.cdk.graph.CycleBudgetTest;
 import org.openscience.cdk.graph.Cycles;
 import org.openscience.cdk.graph.CyclesTest;
 import org.openscience.cdk.graph.EssentialCyclesTest;
@@ -53,12 +56,15 @@ import org.openscience.cdk.graph.GreedyBasisTest;
 import org.openscience.cdk.graph.InitialCyclesTest;
 import org.openscience.cdk.graph.JumboPathGraphTest;
 import org.openscience.cdk.graph.MinimumCycleBasisTest;
+import org.openscience.cdk.graph.PathEnumeratorTest;
 import org.openscience.cdk.graph.PathToolsTest;
 import org.openscience.cdk.graph.RegularPathGraphTest;
 import org.openscience.cdk.graph.RelevantCyclesTest;
 import org.openscience.cdk.graph.ShortestPathsTest;
 import org.openscience.cdk.graph.SpanningTreeTest;
 import org.openscience.cdk.graph.matrix.AdjacencyMatrixTest;
+import org.openscience.cdk.graph.matrix.LanczosTest;
+import org.openscience.cdk.graph.matrix.SparseMatrixTest;
 import org.openscience.cdk.ringsearch.JumboCyclicVertexSearchTest;
 import org.openscience.cdk.ringsearch.RegularCyclicVertexSearchTest;
 import org.openscience.cdk.ringsearch.RingSearchTest;
@@ -66,6 +72,7 @@ import org.openscience.cdk.stereo.DoubleBondStereochemistryTest;
 import org.openscience.cdk.stereo.TetrahedralChiralityTest;
 import org.openscience.cdk.tools.DataFeaturesTest;
 import org.openscience.cdk.tools.LoggingToolFactoryTest;
+import org.openscience.cdk.tools.ParallelTasksTest;
 import org.openscience.cdk.tools.SystemOutLoggingToolTest;
 import org.openscience.cdk.tools.manipulator.BondManipulatorTest;
 import org.openscience.cdk.tools.periodictable.ElementPTFactoryTest;
@@ -88,8 +95,10 @@ import org.openscience.cdk.tools.periodictable.PeriodicTableTest;
 
     // cdk.config
     IsotopesTest.class,
+    IsotopeTableTest.class,
     BODRIsotopeTest.class,
     AtomTypeFactoryTest.class,
+    BinaryAtomTypeConfiguratorTest.class,
     CDKBasedAtomTypeConfiguratorTest.class,
     TXTBasedAtomTypeConfiguratorTest.class,
     OWLBasedAtomTypeConfiguratorTest.class,
@@ -115,9 +124,13 @@ import org.openscience.cdk.tools.periodictable.PeriodicTableTest;
     NoSuchAtomTypeExceptionTest.class,
     LoggingToolFactoryTest.class,
     SystemOutLoggingToolTest.class,
+    ParallelTasksTest.class,
     BondManipulatorTest.class,
     AdjacencyMatrixTest.class,
+    SparseMatrixTest.class,
+    LanczosTest.class,
     PathToolsTest.class,
+    PathEnumeratorTest.class,
     TetrahedralChiralityTest.class,
     DoubleBondStereochemistryTest.class,
     SpanningTreeTest.class,
@@ -137,7 +150,8 @@ import org.openscience.cdk.tools.periodictable.PeriodicTableTest;
     EssentialCyclesTest.class,
     RegularPathGraphTest.class,
     JumboPathGraphTest.class,
-    CyclesTest.class
+    CyclesTest.class,
+    CycleBudgetTest.class
 
 })
 public class McoreTests {}
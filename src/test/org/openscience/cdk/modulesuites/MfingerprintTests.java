@@ -31,6 +31,7 @@ import org.openscience.cdk.fingerprint.MACCSFingerprinterTest;
 import org.openscience.cdk.fingerprint.PubchemFingerprinterTest;
 import org.openscience.cdk.fingerprint.ShortestPathFingerprinterTest;
 import org.openscience.cdk.fingerprint.ShortestPathWalkerTest;
+import org.openscience.cdk.fingerprint.SubstructureIndexTest;
 import org.openscience.cdk.similarity.DistanceMomentTest;
 import org.openscience.cdk.similarity.LingoSimilarityTest;
 import org.openscience.cdk.similarity.TanimotoTest;
@@ -52,6 +53,7 @@ import org.openscience.cdk.similarity.TanimotoTest;
     LingoSimilarityTest.class,
     KlekotaRothFingerprinterTest.class,
 	ShortestPathFingerprinterTest.class,
-    ShortestPathWalkerTest.class
+    ShortestPathWalkerTest.class,
+    SubstructureIndexTest.class
 })
 public class MfingerprintTests {}
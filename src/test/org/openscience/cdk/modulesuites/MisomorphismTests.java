@@ -24,6 +24,7 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.openscience.cdk.coverage.IsomorphismCoverageTest;
 import org.openscience.cdk.isomorphism.matchers.QueryAtomContainerCreatorTest;
 import org.openscience.cdk.isomorphism.matchers.RGroupListTest;
+import org.openscience.cdk.isomorphism.matchers.RGroupQueryMatcherTest;
 import org.openscience.cdk.isomorphism.matchers.SymbolSetQueryAtomTest;
 import org.openscience.cdk.isomorphism.matchers.smarts.AnyOrderQueryBondTest;
 
@@ -36,6 +37,7 @@ import org.openscience.cdk.isomorphism.matchers.smarts.AnyOrderQueryBondTest;
 @SuiteClasses(value={
     IsomorphismCoverageTest.class,
     RGroupListTest.class,
+    RGroupQueryMatcherTest.class,
     SymbolSetQueryAtomTest.class,
     QueryAtomContainerCreatorTest.class,
     AnyOrderQueryBondTest.class
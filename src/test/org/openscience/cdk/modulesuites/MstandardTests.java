@@ -25,6 +25,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 import org.openscience.cdk.aromaticity.AromaticityCalculatorTest;
 import org.openscience.cdk.aromaticity.AromaticityTest;
+import org.openscience.cdk.aromaticity.RingSystemCacheTest;
 import org.openscience.cdk.aromaticity.AtomTypeModelTest;
 import org.openscience.cdk.aromaticity.CDKHueckelAromaticityDetectorTest;
 import org.openscience.cdk.aromaticity.DaylightModelTest;
@@ -40,6 +41,7 @@ import org.openscience.cdk.fingerprint.FingerprinterTest;
 import org.openscience.cdk.fingerprint.FingerprinterToolTest;
 import org.openscience.cdk.fingerprint.GraphOnlyFingerprinterTest;
 import org.openscience.cdk.fingerprint.HybridizationFingerprinterTest;
+import org.openscience.cdk.fingerprint.PathHasherTest;
 import org.openscience.cdk.geometry.BondToolsTest;
 import org.openscience.cdk.geometry.CrystalGeometryToolsTest;
 import org.openscience.cdk.geometry.GeometryToolsTest;
@@ -48,7 +50,9 @@ import org.openscience.cdk.graph.AtomContainerAtomPermutorTest;
 import org.openscience.cdk.graph.AtomContainerBondPermutorTest;
 import org.openscience.cdk.graph.BFSShortestPathTest;
 import org.openscience.cdk.graph.BiconnectivityInspectorTest;
+import org.openscience.cdk.graph.ConnectedComponentsTest;
 import org.openscience.cdk.graph.ConnectivityCheckerTest;
+import org.openscience.cdk.graph.FragmentStatisticsTest;
 import org.openscience.cdk.graph.MinimalPathIteratorTest;
 import org.openscience.cdk.graph.MoleculeGraphsTest;
 import org.openscience.cdk.graph.invariant.CanonicalLabelerTest;
@@ -132,6 +136,8 @@ import org.openscience.cdk.validate.ProblemMarkerTest;
     GeometryToolsTest.class,
     MinimalPathIteratorTest.class,
     ConnectivityCheckerTest.class,
+    ConnectedComponentsTest.class,
+    FragmentStatisticsTest.class,
     UniversalIsomorphismTesterTest.class,
     IsomorphismTesterTest.class,
     RMapTest.class,
@@ -160,6 +166,7 @@ import org.openscience.cdk.validate.ProblemMarkerTest;
     HybridizationFingerprinterTest.class,
     GraphOnlyFingerprinterTest.class,
     FingerprinterToolTest.class,
+    PathHasherTest.class,
     ProblemMarkerTest.class,
     BondToolsTest.class,
     UnsupportedChemObjectExceptionTest.class,
@@ -223,6 +230,7 @@ import org.openscience.cdk.validate.ProblemMarkerTest;
     ExocyclicAtomTypeModelTest.class,
     PiBondModelTest.class,
     DaylightModelTest.class,
-    AromaticityTest.class    
+    AromaticityTest.class,
+    RingSystemCacheTest.class    
 })
 public class MstandardTests {}
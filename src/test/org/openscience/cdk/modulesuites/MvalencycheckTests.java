@@ -26,6 +26,8 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.openscience.cdk.coverage.ValencycheckCoverageTest;
 import org.openscience.cdk.tools.ATASaturationCheckerTest;
 import org.openscience.cdk.tools.CDKHydrogenAdderTest;
+import org.openscience.cdk.tools.PerceptionPipelineTest;
+import org.openscience.cdk.tools.ValenceValidatorTest;
 import org.openscience.cdk.tools.CDKValencyCheckerTest;
 import org.openscience.cdk.tools.DeduceBondOrderTestFromExplicitHydrogens;
 import org.openscience.cdk.tools.SaturationCheckerTest;
@@ -42,6 +44,8 @@ import org.openscience.cdk.tools.SaturationCheckerTest;
     DeduceBondOrderTestFromExplicitHydrogens.class,
     CDKHydrogenAdderTest.class,
     CDKValencyCheckerTest.class,
-    ATASaturationCheckerTest.class
+    ATASaturationCheckerTest.class,
+    PerceptionPipelineTest.class,
+    ValenceValidatorTest.class
 })
 public class MvalencycheckTests {}
@@ -0,0 +1,191 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.pharmacophore;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.ConformerContainer;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.io.iterator.IteratingMDLConformerReader;
+import org.openscience.cdk.io.iterator.IteratingSDFReader;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-pcore
+ */
+public class PharmacophoreConformerMatcherTest extends CDKTestCase {
+
+    private static ConformerContainer conformers;
+
+    @BeforeClass
+    public static void loadConformerData() {
+        conformers = conformers();
+    }
+
+    /** Same hits as {@link PharmacophoreMatcherTest#testMatcherQuery1()}. */
+    @Test public void matchesConformers() throws Exception {
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(distanceQuery());
+        assertThat(hits(matcher.matches(conformers)),
+                   is(new int[]{0, 1, 2, 5, 6, 7, 8, 9, 10, 20, 23, 48, 62, 64, 66, 70, 76, 87}));
+    }
+
+    /** Same hits as {@link PharmacophoreMatcherTest#testAngleMatch3()}. */
+    @Test public void matchesAngles() throws Exception {
+        PharmacophoreQuery query = new PharmacophoreQuery();
+        PharmacophoreQueryAtom o = new PharmacophoreQueryAtom("D", "[OX1]");
+        PharmacophoreQueryAtom n1 = new PharmacophoreQueryAtom("A", "[N]");
+        PharmacophoreQueryAtom n2 = new PharmacophoreQueryAtom("A", "[N]");
+        query.addAtom(o);
+        query.addAtom(n1);
+        query.addAtom(n2);
+        query.addBond(new PharmacophoreQueryAngleBond(o, n1, n2, 43, 47));
+
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(query);
+        assertThat(hits(matcher.matches(conformers)),
+                   is(new int[]{0, 6, 32, 33, 48, 54, 60, 62, 69}));
+    }
+
+    /** The conformer hits agree with the existing matcher. */
+    @Test public void matches() throws Exception {
+        PharmacophoreQuery query = distanceQuery();
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(query);
+        PharmacophoreMatcher reference = new PharmacophoreMatcher(query);
+        for (int i = 0; i < conformers.size(); i += 7) {
+            IAtomContainer conformer = conformers.get(i);
+            assertThat(matcher.matches(conformer), is(reference.matches(conformer)));
+        }
+    }
+
+    @Test public void groups() throws Exception {
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(distanceQuery());
+        PharmacophoreConformerMatcher.Groups groups = matcher.groups(conformers.get(0));
+        int nD = 0, nA = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            if (groups.getSymbol(i).equals("D")) nD++;
+            if (groups.getSymbol(i).equals("A")) nA++;
+            assertThat(groups.getAtoms(i).length, is(1));
+        }
+        assertTrue(nD > 0);
+        assertTrue(nA > 1);
+        assertThat(nD + nA, is(groups.size()));
+    }
+
+    /** Two assignments, the two 'A' groups are interchangeable. */
+    @Test public void mappings() throws Exception {
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(distanceQuery());
+        IAtomContainer conformer = conformers.get(0);
+        PharmacophoreConformerMatcher.Groups groups = matcher.groups(conformer);
+        List<int[]> mappings = matcher.getMappings(groups, conformer);
+        assertThat(mappings.size(), is(2));
+        assertThat(mappings.get(0)[0], is(mappings.get(1)[0]));
+        assertThat(mappings.get(0)[1], is(mappings.get(1)[2]));
+        assertThat(mappings.get(0)[2], is(mappings.get(1)[1]));
+        assertThat(groups.getSymbol(mappings.get(0)[0]), is("D"));
+        assertThat(matcher.getMappings(groups, conformers.get(3)).size(), is(0));
+    }
+
+    @Test public void multiSmarts() throws Exception {
+        PharmacophoreQuery query = new PharmacophoreQuery();
+        PharmacophoreQueryAtom rings = new PharmacophoreQueryAtom("A", "c1ccccc1|C1CCCC1");
+        PharmacophoreQueryAtom o1 = new PharmacophoreQueryAtom("Hd", "[OX1]");
+        query.addAtom(rings);
+        query.addAtom(o1);
+        query.addBond(new PharmacophoreQueryBond(rings, o1, 3.5, 5.8));
+
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(query);
+        InputStream ins = getClass().getClassLoader().getResourceAsStream("data/pcore/multismartpcore.sdf");
+        IteratingSDFReader reader = new IteratingSDFReader(ins, DefaultChemObjectBuilder.getInstance());
+        assertTrue(matcher.matches((IAtomContainer) reader.next()));
+        assertTrue(matcher.matches((IAtomContainer) reader.next()));
+        assertFalse(matcher.matches((IAtomContainer) reader.next()));
+    }
+
+    @Test public void matchesParallel() throws Exception {
+        PharmacophoreConformerMatcher matcher = new PharmacophoreConformerMatcher(distanceQuery());
+        boolean[] expected = matcher.matches(conformers);
+        List<ConformerContainer> ensembles = new ArrayList<ConformerContainer>();
+        for (int i = 0; i < 4; i++)
+            ensembles.add(conformers());
+        for (int nThreads = 1; nThreads <= 3; nThreads++) {
+            List<boolean[]> hits = matcher.matches(ensembles, nThreads);
+            assertThat(hits.size(), is(4));
+            for (boolean[] h : hits)
+                assertThat(h, is(expected));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreads() throws Exception {
+        new PharmacophoreConformerMatcher(distanceQuery()).matches(new ArrayList<ConformerContainer>(), 0);
+    }
+
+    @Test(expected = CDKException.class)
+    public void invalidQuery() throws Exception {
+        PharmacophoreQuery query = new PharmacophoreQuery();
+        query.addAtom(new PharmacophoreQueryAtom("A", "[N]"));
+        query.addAtom(new PharmacophoreQueryAtom("A", "[NX3]"));
+        new PharmacophoreConformerMatcher(query);
+    }
+
+    private static PharmacophoreQuery distanceQuery() {
+        PharmacophoreQuery query = new PharmacophoreQuery();
+        PharmacophoreQueryAtom o = new PharmacophoreQueryAtom("D", "[OX1]");
+        PharmacophoreQueryAtom n1 = new PharmacophoreQueryAtom("A", "[N]");
+        PharmacophoreQueryAtom n2 = new PharmacophoreQueryAtom("A", "[N]");
+        query.addAtom(o);
+        query.addAtom(n1);
+        query.addAtom(n2);
+        query.addBond(new PharmacophoreQueryBond(o, n1, 4.0, 4.5));
+        query.addBond(new PharmacophoreQueryBond(o, n2, 4.0, 5.0));
+        query.addBond(new PharmacophoreQueryBond(n1, n2, 5.4, 5.8));
+        return query;
+    }
+
+    private static ConformerContainer conformers() {
+        InputStream ins = PharmacophoreConformerMatcherTest.class.getClassLoader()
+                                                                 .getResourceAsStream("data/mdl/pcoretest1.sdf");
+        IteratingMDLConformerReader reader = new IteratingMDLConformerReader(ins,
+                                                                             DefaultChemObjectBuilder.getInstance());
+        return (ConformerContainer) reader.next();
+    }
+
+    private static int[] hits(boolean[] statuses) {
+        int n = 0;
+        for (boolean status : statuses)
+            if (status) n++;
+        int[] hits = new int[n];
+        n = 0;
+        for (int i = 0; i < statuses.length; i++)
+            if (statuses[i]) hits[n++] = i;
+        return hits;
+    }
+}
@@ -126,6 +126,29 @@ public class BCUTDescriptorTest extends MolecularDescriptorTest {
 
     }
 
+    /**
+     * Large molecules use the Lanczos method for the default (highest and
+     * lowest) eigenvalues, the values should match the dense decomposition.
+     */
+    @Test public void testLargeMolecule() throws Exception {
+        StringBuilder smi = new StringBuilder("c1ccccc1C");
+        for (int i = 0; i < 40; i++)
+            smi.append("C(C)CC(=O)N");
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+
+        descriptor.setParameters(new Object[]{1, 1, true});
+        DoubleArrayResult sparse = (DoubleArrayResult) descriptor.calculate(sp.parseSmiles(smi.toString())).getValue();
+
+        // requesting two values uses the dense decomposition
+        descriptor.setParameters(new Object[]{2, 2, true});
+        DoubleArrayResult dense = (DoubleArrayResult) descriptor.calculate(sp.parseSmiles(smi.toString())).getValue();
+
+        Assert.assertEquals(6, sparse.length());
+        Assert.assertEquals(12, dense.length());
+        for (int i = 0; i < 6; i++)
+            Assert.assertEquals(dense.get(2 * i), sparse.get(i), 1e-8);
+    }
+
     @Test public void testAromaticity() throws Exception {
         setDescriptor(BCUTDescriptor.class);
 
@@ -33,6 +33,7 @@ import org.openscience.cdk.CDKTestCase;
 import org.openscience.cdk.DefaultChemObjectBuilder;
 import org.openscience.cdk.Ring;
 import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.graph.CycleBudget;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IBond;
@@ -353,5 +354,21 @@ public class AllRingsFinderTest extends CDKTestCase
       Assert.assertEquals(135, ringSet.getAtomContainerCount());
     }
 
-}
+    @Test
+    public void testUsingBudget() throws Exception {
+        CycleBudget budget = new CycleBudget(684);
+        AllRingsFinder arf = AllRingsFinder.usingBudget(budget);
+        IRingSet ringSet = arf.findAllRings(MoleculeFactory.makeAzulene());
+        Assert.assertEquals(3, ringSet.getAtomContainerCount());
+        Assert.assertEquals(1, budget.ringSystems());
+        Assert.assertEquals(0, budget.abortedRingSystems());
+    }
 
+    @Test(expected = CDKException.class)
+    public void testUsingBudget_cancelled() throws Exception {
+        CycleBudget budget = new CycleBudget(684);
+        budget.cancel();
+        AllRingsFinder.usingBudget(budget).findAllRings(MoleculeFactory.makeAzulene());
+    }
+
+}
@@ -108,6 +108,52 @@ public class MoleculeSignatureTest extends CDKTestCase {
         Assert.assertEquals("[C]", molSig.toCanonicalSignatureString(0));
     }
     
+    @Test
+    public void toCanonicalSignatureStringTest_parallel() throws Exception {
+        IAtomContainer cubane = AbstractSignatureTest.makeCubane();
+        MoleculeSignature cubaneSig = new MoleculeSignature(cubane);
+        Assert.assertEquals(
+                new MoleculeSignature(cubane).toCanonicalSignatureString(2),
+                cubaneSig.toCanonicalSignatureString(2, 4));
+    }
+
+    @Test
+    public void signatureStringsForVerticesTest() throws Exception {
+        IAtomContainer aspirin = parser.parseSmiles("CC(=O)Oc1ccccc1C(=O)O");
+        MoleculeSignature aspirinSig = new MoleculeSignature(aspirin);
+        for (int height = 0; height < 4; height++) {
+            String[] serial   = aspirinSig.signatureStringsForVertices(height, 1);
+            String[] parallel = new MoleculeSignature(aspirin).signatureStringsForVertices(height, 3);
+            Assert.assertArrayEquals(serial, parallel);
+            for (int i = 0; i < aspirin.getAtomCount(); i++) {
+                // same as the signature built without the shared adjacency
+                Assert.assertEquals(
+                        new AtomSignature(i, height, aspirin).toCanonicalString(),
+                        serial[i]);
+                // memoised
+                Assert.assertSame(serial[i], aspirinSig.signatureStringForVertex(i, height));
+            }
+        }
+    }
+
+    @Test
+    public void getCanonicalLabelsTest() throws Exception {
+        IAtomContainer aspirin = parser.parseSmiles("CC(=O)Oc1ccccc1C(=O)O");
+        AbstractVertexSignature lowest = null;
+        String lowestString = null;
+        for (int i = 0; i < aspirin.getAtomCount(); i++) {
+            AtomSignature atomSignature = new AtomSignature(i, aspirin);
+            String atomSignatureString = atomSignature.toCanonicalString();
+            if (lowest == null || atomSignatureString.compareTo(lowestString) < 0) {
+                lowest = atomSignature;
+                lowestString = atomSignatureString;
+            }
+        }
+        Assert.assertArrayEquals(
+                lowest.getCanonicalLabelling(aspirin.getAtomCount()),
+                new MoleculeSignature(aspirin).getCanonicalLabels());
+    }
+    
     public void fullPermutationTest(IAtomContainer mol) {
         AtomContainerAtomPermutor permutor = new AtomContainerAtomPermutor(mol);
         String expected = new MoleculeSignature(mol).toCanonicalString();
@@ -0,0 +1,165 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd;
+
+import org.junit.Test;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smsd.interfaces.Algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-smsd
+ */
+public class BatchMCSTest {
+
+    private static final String[] SMILES = {
+            "Nc1ccccc1", "C\\C=C/Nc1cccc(c1)N(O)\\C=C\\C\\C=C\\C=C/C", "CCOC(=O)c1ccccc1", "OC1CCCCC1",
+            "c1ccc2ccccc2c1", "O", "CC(=O)Oc1ccccc1C(O)=O", "ClC(Cl)Cl"
+    };
+
+    @Test public void search() throws Exception {
+        IAtomContainer query = parse("Nc1ccccc1");
+        List<IAtomContainer> targets = parse(SMILES);
+
+        BatchMCS batch = new BatchMCS(Algorithm.DEFAULT, true, true, true);
+        List<BatchMCS.Result> sequential = batch.search(query, targets, 1);
+        assertThat(batch.getTotal(), is(targets.size()));
+        assertThat(batch.getCompleted(), is(targets.size()));
+        assertThat(batch.getTimedOut(), is(0));
+        List<BatchMCS.Result> parallel = batch.search(query, targets, 4);
+        assertThat(batch.getCompleted(), is(targets.size()));
+
+        for (int i = 0; i < targets.size(); i++) {
+            Isomorphism mcs = new Isomorphism(Algorithm.DEFAULT, true);
+            mcs.init(parse("Nc1ccccc1"), parse(SMILES[i]), true, true);
+            assertThat(sequential.get(i).getTarget(), is(i));
+            assertThat(sequential.get(i).isPruned(), is(false));
+            assertThat(SMILES[i], sequential.get(i).getMapping().size(),
+                       is(mcs.getFirstMapping() != null ? mcs.getFirstMapping().size() : 0));
+            assertThat(SMILES[i], sequential.get(i).getSimilarity(), is(mcs.getTanimotoSimilarity()));
+            assertThat(SMILES[i], parallel.get(i).getMapping(), is(sequential.get(i).getMapping()));
+            assertThat(SMILES[i], parallel.get(i).getSimilarity(), is(sequential.get(i).getSimilarity()));
+        }
+    }
+
+    @Test public void prune() throws Exception {
+        IAtomContainer query = parse("Nc1ccccc1");
+        List<IAtomContainer> targets = parse(SMILES);
+
+        BatchMCS batch = new BatchMCS(Algorithm.DEFAULT, true, true, true);
+        List<BatchMCS.Result> all = batch.search(query, targets, 1);
+        assertThat(batch.getPruned(), is(0));
+
+        batch.setMinSimilarity(0.4);
+        List<BatchMCS.Result> results = batch.search(query, targets, 2);
+        assertThat(batch.getPruned() > 0, is(true));
+        int nPruned = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            if (results.get(i).isPruned()) {
+                nPruned++;
+                // the bound is never below the actual similarity
+                assertThat(SMILES[i], all.get(i).getSimilarity() < 0.4, is(true));
+                assertThat(results.get(i).getMapping().isEmpty(), is(true));
+            } else {
+                assertThat(results.get(i).getSimilarity(), is(all.get(i).getSimilarity()));
+            }
+        }
+        assertThat(nPruned, is(batch.getPruned()));
+        // water and chloroform have nothing in common with aniline
+        assertThat(results.get(5).isPruned(), is(true));
+        assertThat(results.get(7).isPruned(), is(true));
+    }
+
+    @Test public void upperBound() throws Exception {
+        for (String a : SMILES) {
+            for (String b : SMILES) {
+                Isomorphism mcs = new Isomorphism(Algorithm.DEFAULT, true);
+                mcs.init(parse(a), parse(b), true, true);
+                double bound = BatchMCS.upperBound(new BatchMCS.Profile(parse(a)), new BatchMCS.Profile(parse(b)));
+                assertThat(a + " " + b, bound >= mcs.getTanimotoSimilarity(), is(true));
+            }
+        }
+    }
+
+    @Test public void listener() throws Exception {
+        final List<Integer> seen = new ArrayList<Integer>();
+        final BatchMCS batch = new BatchMCS(Algorithm.DEFAULT, false, true, true);
+        batch.search(parse("OC1CCCCC1"), parse(SMILES), 3, new BatchMCS.Listener() {
+            @Override public void result(BatchMCS.Result result) {
+                seen.add(result.getTarget());
+                assertThat(result.getTargetMolecule() != null, is(true));
+                assertThat(batch.getCompleted() >= seen.size(), is(true));
+            }
+        });
+        assertThat(seen.size(), is(SMILES.length));
+    }
+
+    @Test public void matrix() throws Exception {
+        List<IAtomContainer> containers = parse("Nc1ccccc1", "CCOC(=O)c1ccccc1", "OC1CCCCC1", "c1ccc2ccccc2c1");
+        BatchMCS batch = new BatchMCS(Algorithm.DEFAULT, true, true, true);
+        double[][] sequential = batch.matrix(containers, 1);
+        assertThat(batch.getTotal(), is(6));
+        double[][] parallel = batch.matrix(containers, 4);
+        for (int i = 0; i < containers.size(); i++) {
+            assertThat(sequential[i][i], is(1d));
+            for (int j = i + 1; j < containers.size(); j++) {
+                Isomorphism mcs = new Isomorphism(Algorithm.DEFAULT, true);
+                mcs.init(containers.get(i), containers.get(j), true, true);
+                assertThat(sequential[i][j], is(mcs.getTanimotoSimilarity()));
+                assertThat(sequential[j][i], is(sequential[i][j]));
+                assertThat(parallel[i][j], is(sequential[i][j]));
+            }
+        }
+    }
+
+    @Test public void cancel() throws Exception {
+        final BatchMCS batch = new BatchMCS(Algorithm.DEFAULT, true, true, true);
+        batch.search(parse("Nc1ccccc1"), parse(SMILES), 1, new BatchMCS.Listener() {
+            @Override public void result(BatchMCS.Result result) {
+                batch.cancel();
+            }
+        });
+        assertThat(batch.getCompleted(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMinSimilarity() {
+        new BatchMCS(Algorithm.DEFAULT, true, true, true).setMinSimilarity(1.5);
+    }
+
+    private static IAtomContainer parse(String smi) throws Exception {
+        return new SmilesParser(DefaultChemObjectBuilder.getInstance()).parseSmiles(smi);
+    }
+
+    private static List<IAtomContainer> parse(String... smis) throws Exception {
+        List<IAtomContainer> containers = new ArrayList<IAtomContainer>();
+        for (String smi : smis)
+            containers.add(parse(smi));
+        return containers;
+    }
+}
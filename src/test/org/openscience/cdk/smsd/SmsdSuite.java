@@ -38,6 +38,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({org.openscience.cdk.smsd.SMSDTest.class,
+    org.openscience.cdk.smsd.BatchMCSTest.class,
+    org.openscience.cdk.smsd.labelling.BatchReactionMapperTest.class,
     org.openscience.cdk.smsd.SMSDBondSensitiveTest.class,
     org.openscience.cdk.smsd.SMSDBondInsensitiveTest.class,
     org.openscience.cdk.smsd.global.GlobalSuite.class,
@@ -40,7 +40,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({org.openscience.cdk.smsd.algorithm.single.SingleSuite.class,
     org.openscience.cdk.smsd.algorithm.vflib.VflibSuite.class,
     org.openscience.cdk.smsd.algorithm.mcsplus.McsplusSuite.class,
-    //        org.openscience.cdk.smsd.algorithm.mcgregor.McgregorSuite.class,
+    org.openscience.cdk.smsd.algorithm.mcgregor.McgregorSuite.class,
     org.openscience.cdk.smsd.algorithm.rgraph.CdkSuite.class
 })
 public class AlgorithmSuite {
@@ -0,0 +1,160 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.algorithm.mcgregor;
+
+import org.junit.Test;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smsd.global.SearchContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-smsd
+ */
+public class McGregorTest extends CDKTestCase {
+
+    private static final SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+
+    /** Extend a single mapped atom along a chain, the oxygen and nitrogen differ. */
+    @Test public void testStartMcGregorIteration_Map() throws Exception {
+        IAtomContainer query = sp.parseSmiles("CCCCO");
+        IAtomContainer target = sp.parseSmiles("CCCCN");
+        McGregor mcgregor = new McGregor(query, target, new ArrayList<List<Integer>>(), true);
+        mcgregor.startMcGregorIteration(0, seed(0, 0));
+        assertThat(mcgregor.getMCSSize(), is(4));
+        assertThat(mcgregor.getMappings().size(), is(1));
+        assertThat(mcgregor.getMappings().get(0), is(Arrays.asList(0, 0, 1, 1, 2, 2, 3, 3)));
+    }
+
+    /** Extend a clique of the compatibility graph (nodes: atom, atom, id). */
+    @Test public void testStartMcGregorIteration_Clique() throws Exception {
+        IAtomContainer query = sp.parseSmiles("CCCCO");
+        IAtomContainer target = sp.parseSmiles("CCCCN");
+        List<Integer> nodes = Arrays.asList(0, 0, 1, 1, 1, 2, 2, 2, 3);
+        McGregor mcgregor = new McGregor(query, target, new ArrayList<List<Integer>>(), true);
+        mcgregor.startMcGregorIteration(0, Arrays.asList(1), nodes);
+        assertThat(mcgregor.getMCSSize(), is(4));
+        assertThat(pairs(mcgregor.getMappings().get(0)), is(pairs(Arrays.asList(0, 0, 1, 1, 2, 2, 3, 3))));
+    }
+
+    /** The six rotations of benzene onto itself are found from one atom. */
+    @Test public void benzene() throws Exception {
+        IAtomContainer benzene = sp.parseSmiles("C1=CC=CC=C1");
+        McGregor mcgregor = new McGregor(benzene, benzene, new ArrayList<List<Integer>>(), false);
+        mcgregor.startMcGregorIteration(0, seed(0, 0));
+        assertThat(mcgregor.getMCSSize(), is(6));
+        Set<Set<List<Integer>>> mappings = new HashSet<Set<List<Integer>>>();
+        for (List<Integer> mapping : mcgregor.getMappings())
+            mappings.add(pairs(mapping));
+        assertThat(mappings.size(), is(2));
+    }
+
+    /** Once a mapping of the target size is found the search stops. */
+    @Test public void testTargetMappingSize() throws Exception {
+        IAtomContainer query = sp.parseSmiles("C1CCCCC1");
+        IAtomContainer target = sp.parseSmiles("CC1CCCCC1");
+
+        McGregor all = new McGregor(query, target, new ArrayList<List<Integer>>(), false);
+        all.startMcGregorIteration(0, seed(0, 1));
+        assertThat(all.getMCSSize(), is(6));
+        assertTrue(all.getMappings().size() > 1);
+
+        McGregor first = new McGregor(query, target, new ArrayList<List<Integer>>(), false);
+        first.setTargetMappingSize(6);
+        first.startMcGregorIteration(0, seed(0, 1));
+        assertThat(first.getMCSSize(), is(6));
+        assertThat(first.getMappings().size(), is(1));
+        assertThat(first.getMappings().get(0), is(all.getMappings().get(0)));
+    }
+
+    /** Atoms with an index of 128 or more are mapped (compared by value). */
+    @Test public void largeMolecule() throws Exception {
+        StringBuilder chain = new StringBuilder();
+        for (int i = 0; i < 140; i++)
+            chain.append('C');
+
+        IAtomContainer query = sp.parseSmiles(chain + "O");
+        IAtomContainer target = sp.parseSmiles(chain + "N");
+        McGregor mcgregor = new McGregor(query, target, new ArrayList<List<Integer>>(), true);
+        mcgregor.startMcGregorIteration(0, seed(0, 0));
+        assertThat(mcgregor.getMCSSize(), is(140));
+        assertThat(mcgregor.getMappings().size(), is(1));
+        assertThat(mcgregor.getMappings().get(0), is(expected(140)));
+
+        query = sp.parseSmiles(chain + "C1CCCCC1");
+        target = sp.parseSmiles(chain + "C1CCCCC1C");
+        mcgregor = new McGregor(query, target, new ArrayList<List<Integer>>(), false);
+        mcgregor.startMcGregorIteration(0, seed(0, 0));
+        assertThat(mcgregor.getMCSSize(), is(146));
+        for (List<Integer> mapping : mcgregor.getMappings()) {
+            assertThat(mapping.subList(0, 2 * 141), is(expected(141)));
+            assertThat(pairs(mapping).size(), is(146));
+        }
+    }
+
+    /** A cancelled search reports the mapping it started with. */
+    @Test public void cancelled() throws Exception {
+        IAtomContainer query = sp.parseSmiles("CCCCO");
+        IAtomContainer target = sp.parseSmiles("CCCCN");
+        SearchContext context = new SearchContext();
+        context.cancel();
+        McGregor mcgregor = new McGregor(query, target, new ArrayList<List<Integer>>(), true, context);
+        mcgregor.startMcGregorIteration(0, seed(0, 0));
+        assertThat(mcgregor.getMCSSize(), is(1));
+        assertThat(mcgregor.getMappings().get(0), is(Arrays.asList(0, 0)));
+    }
+
+    private static Map<Integer, Integer> seed(int i, int j) {
+        Map<Integer, Integer> mapping = new TreeMap<Integer, Integer>();
+        mapping.put(i, j);
+        return mapping;
+    }
+
+    /** Mapping of the first n atoms onto themselves. */
+    private static List<Integer> expected(int n) {
+        List<Integer> mapping = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            mapping.add(i);
+            mapping.add(i);
+        }
+        return mapping;
+    }
+
+    private static Set<List<Integer>> pairs(List<Integer> mapping) {
+        Set<List<Integer>> pairs = new HashSet<List<Integer>>();
+        for (int i = 0; i < mapping.size(); i += 2)
+            pairs.add(Arrays.asList(mapping.get(i), mapping.get(i + 1)));
+        return pairs;
+    }
+}
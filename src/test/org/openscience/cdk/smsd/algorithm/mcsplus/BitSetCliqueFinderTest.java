@@ -0,0 +1,172 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.algorithm.mcsplus;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smsd.global.SearchContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-smsd
+ */
+public class BitSetCliqueFinderTest extends CDKTestCase {
+
+    private static final SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+
+    private static final String[][] PAIRS = {
+            {"CCO", "CCN"},
+            {"c1ccccc1", "Cc1ccccc1"},
+            {"c1ccccc1", "CC(=O)Oc1ccccc1C(=O)O"},
+            {"CC(=O)Oc1ccccc1C(=O)O", "OC(=O)c1ccccc1O"},
+            {"CN1C=NC2=C1C(=O)N(C(=O)N2C)C", "CN1C=NC2=C1C(=O)N(C(=O)N2C)C"},
+            {"CN1C=NC2=C1C(=O)N(C(=O)N2C)C", "CN1C=NC2=C1C(=O)NC(=O)N2C"},
+            {"NS(=O)(=O)c1ccc(N)cc1", "OCC1OC(O)C(O)C(O)C1O"},
+            {"C1CCC2CCCCC2C1", "C1CCC(CC1)C1CCCCC1"},
+            {"OC(=O)C(N)Cc1ccccc1", "OC(=O)C(N)Cc1ccc(O)cc1"}
+    };
+
+    @Test public void empty() {
+        BitSetCliqueFinder finder = new BitSetCliqueFinder(new ArrayList<Integer>(),
+                                                           new ArrayList<Integer>(),
+                                                           new ArrayList<Integer>());
+        assertThat(finder.getBestCliqueSize(), is(0));
+        assertTrue(finder.getMaxCliqueSet().isEmpty());
+    }
+
+    /** A triangle and an edge connected by a c-edge. */
+    @Test public void triangle() {
+        List<Integer> c = Arrays.asList(1, 2, 2, 3, 1, 3, 3, 4, 4, 5);
+        BitSetCliqueFinder finder = assertSameCliques("triangle", nodes(5), c, new ArrayList<Integer>());
+        assertThat(finder.getBestCliqueSize(), is(3));
+    }
+
+    /** 1-2-3 are c-connected and 4 is c-connected to 3 and d-connected to 1 and 2. */
+    @Test public void dEdges() {
+        List<Integer> c = Arrays.asList(1, 2, 2, 3, 1, 3, 3, 4);
+        List<Integer> d = Arrays.asList(1, 4, 2, 4);
+        assertSameCliques("d-edges", nodes(4), c, d);
+    }
+
+    /** A clique only connected by d-edges is not a c-clique. */
+    @Test public void dClique() {
+        List<Integer> c = Arrays.asList(1, 2);
+        List<Integer> d = Arrays.asList(1, 3, 2, 3);
+        BitSetCliqueFinder finder = assertSameCliques("d-clique", nodes(3), c, d);
+        assertThat(finder.getBestCliqueSize(), is(2));
+    }
+
+    /** Without c-edges every vertex is a clique on its own. */
+    @Test public void noCEdges() {
+        assertSameCliques("no c-edges", nodes(4), new ArrayList<Integer>(), Arrays.asList(1, 2, 3, 4));
+    }
+
+    @Test public void cancelled() {
+        SearchContext context = new SearchContext();
+        context.cancel();
+        List<Integer> nodes = nodes(5);
+        List<Integer> c = Arrays.asList(1, 2, 2, 3, 1, 3, 3, 4, 4, 5);
+        BitSetCliqueFinder finder = new BitSetCliqueFinder(nodes, c, new ArrayList<Integer>(), context);
+        assertThat(finder.getBestCliqueSize(), is(0));
+    }
+
+    /** The same cliques, in the same order, as BKKCKCF. */
+    @Test public void compatibilityGraphs() throws Exception {
+        for (String[] pair : PAIRS) {
+            for (boolean matchBonds : new boolean[]{true, false}) {
+                GenerateCompatibilityGraph gcg = new GenerateCompatibilityGraph(sp.parseSmiles(pair[0]),
+                                                                                sp.parseSmiles(pair[1]),
+                                                                                matchBonds);
+                assertSameCliques(Arrays.toString(pair), gcg.getCompGraphNodes(), gcg.getCEgdes(), gcg.getDEgdes());
+            }
+        }
+    }
+
+    /** Random graphs with c- and d-edges, more than 64 vertices in some. */
+    @Test public void randomGraphs() {
+        Random rand = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int n = 2 + rand.nextInt(i < 150 ? 20 : 90);
+            double pc = 0.1 + 0.4 * rand.nextDouble(), pd = 0.3 * rand.nextDouble();
+            List<Integer> c = new ArrayList<Integer>(), d = new ArrayList<Integer>();
+            for (int u = 1; u <= n; u++) {
+                for (int v = u + 1; v <= n; v++) {
+                    double p = rand.nextDouble();
+                    if (p < pc)
+                        c.addAll(rand.nextBoolean() ? Arrays.asList(u, v) : Arrays.asList(v, u));
+                    else if (p < pc + pd)
+                        d.addAll(rand.nextBoolean() ? Arrays.asList(u, v) : Arrays.asList(v, u));
+                }
+            }
+            assertSameCliques("graph " + i, nodes(n), shuffle(c, rand), shuffle(d, rand));
+        }
+    }
+
+    /** The same cliques as BKKCKCF on the compatibility graph of two steroids. */
+    @Test(timeout = 60000) public void steroids() throws Exception {
+        Assume.assumeTrue(runSlowTests());
+        IAtomContainer query  = sp.parseSmiles("CC12CCC3C(CCC4=CC(=O)CCC34C)C1CCC2O");
+        IAtomContainer target = sp.parseSmiles("CC12CCC3c4ccc(O)cc4CCC3C1CCC2O");
+        GenerateCompatibilityGraph gcg = new GenerateCompatibilityGraph(query, target, true);
+        assertSameCliques("steroids", gcg.getCompGraphNodes(), gcg.getCEgdes(), gcg.getDEgdes());
+    }
+
+    private static BitSetCliqueFinder assertSameCliques(String mesg, List<Integer> nodes, List<Integer> c,
+                                                        List<Integer> d) {
+        BKKCKCF expected = new BKKCKCF(nodes, c, d);
+        BitSetCliqueFinder actual = new BitSetCliqueFinder(nodes, c, d);
+        assertThat(mesg, actual.getBestCliqueSize(), is(expected.getBestCliqueSize()));
+        assertThat(mesg, actual.getMaxCliqueSet(), is(expected.getMaxCliqueSet()));
+        return actual;
+    }
+
+    /** Shuffle the pairs of an edge list. */
+    private static List<Integer> shuffle(List<Integer> edges, Random rand) {
+        List<List<Integer>> pairs = new ArrayList<List<Integer>>();
+        for (int i = 0; i < edges.size(); i += 2)
+            pairs.add(edges.subList(i, i + 2));
+        Collections.shuffle(pairs, rand);
+        List<Integer> shuffled = new ArrayList<Integer>();
+        for (List<Integer> pair : pairs)
+            shuffled.addAll(pair);
+        return shuffled;
+    }
+
+    private static List<Integer> nodes(int n) {
+        List<Integer> nodes = new ArrayList<Integer>();
+        for (int i = 1; i <= n; i++)
+            nodes.addAll(Arrays.asList(i, i, i));
+        return nodes;
+    }
+}
@@ -417,13 +417,22 @@ public class CDKMCSTest extends CDKTestCase {
     }
 
     /**
-     * Test of setTimeManager method, of class CDKMCS.
+     * Test of setTimeManager method, of class CDKMCS. The clock of a search
+     * is held by its SearchContext.
      */
-    @Test
+    @Test(expected = UnsupportedOperationException.class)
     public void testSetTimeManager() {
         System.out.println("setTimeManager");
         TimeManager aTimeManager = new TimeManager();
         CDKMCS.setTimeManager(aTimeManager);
-        Assert.assertNotNull(CDKMCS.getTimeManager().getElapsedTimeInSeconds());
+    }
+
+    /**
+     * The process wide time out is no longer used, the time out of a search
+     * is held by its SearchContext.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIsTimeOut() {
+        CDKMCS.isTimeOut();
     }
 }
@@ -0,0 +1,137 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.algorithm.vflib;
+
+import org.junit.Test;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smsd.algorithm.vflib.map.VFMatcher;
+import org.openscience.cdk.smsd.algorithm.vflib.query.QueryCompiler;
+import org.openscience.cdk.smsd.global.SearchContext;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-smsd
+ */
+public class VFMatcherTest extends CDKTestCase {
+
+    private static final SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+
+    @Test public void testHasMatch() throws Exception {
+        VFMatcher matcher = matcher("CC(=O)O", true);
+        assertTrue(matcher.hasMatch(sp.parseSmiles("CC(=O)Oc1ccccc1C(=O)O")));
+        assertFalse(matcher.hasMatch(sp.parseSmiles("CCCO")));
+        assertFalse(matcher.hasMatch(sp.parseSmiles("CO")));
+    }
+
+    /** The 6 automorphisms of isobutane, a branched query. */
+    @Test public void testMatches() throws Exception {
+        VFMatcher matcher = matcher("CC(C)C", true);
+        Set<List<Integer>> matches = collect(matcher.matches(sp.parseSmiles("CC(C)C")));
+        assertThat(matches.size(), is(6));
+        for (List<Integer> match : matches)
+            assertThat(match.get(1), is(1));
+    }
+
+    /** A query of two components, each may match anywhere. */
+    @Test public void disconnected() throws Exception {
+        VFMatcher matcher = matcher("CC.O", true);
+        Set<List<Integer>> matches = collect(matcher.matches(sp.parseSmiles("CCO")));
+        assertThat(matches, is(set(Arrays.asList(0, 1, 2), Arrays.asList(1, 0, 2))));
+    }
+
+    @Test public void bondOrders() throws Exception {
+        assertFalse(matcher("C=C", true).hasMatch(sp.parseSmiles("CCC")));
+        assertTrue(matcher("C=C", false).hasMatch(sp.parseSmiles("CCC")));
+    }
+
+    @Test public void testMaxHits() throws Exception {
+        VFMatcher matcher = matcher("c1ccccc1", true);
+        IAtomContainer target = sp.parseSmiles("c1ccccc1");
+        assertThat(collect(matcher.matches(target)).size(), is(12));
+        Iterator<int[]> it = matcher.matches(target, 3, new SearchContext());
+        assertThat(collect(it).size(), is(3));
+        assertFalse(it.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void noMoreMatches() throws Exception {
+        Iterator<int[]> it = matcher("CN", true).matches(sp.parseSmiles("CCO"));
+        assertFalse(it.hasNext());
+        it.next();
+    }
+
+    @Test public void testCancelled() throws Exception {
+        SearchContext context = new SearchContext();
+        Iterator<int[]> it = matcher("CC", true).matches(sp.parseSmiles("CCCCCC"), Integer.MAX_VALUE, context);
+        assertTrue(it.hasNext());
+        it.next();
+        context.cancel();
+        assertFalse(it.hasNext());
+    }
+
+    /** The compiled query is used for each target. */
+    @Test public void testReuse() throws Exception {
+        VFMatcher matcher = matcher("OC=O", true);
+        assertThat(collect(matcher.matches(sp.parseSmiles("CC(=O)O"))).size(), is(1));
+        assertThat(collect(matcher.matches(sp.parseSmiles("OC(=O)CC(=O)O"))).size(), is(2));
+        assertThat(collect(matcher.matches(sp.parseSmiles("CCO"))).size(), is(0));
+        assertThat(matcher.getQuery().countNodes(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxHits() throws Exception {
+        matcher("CC", true).matches(sp.parseSmiles("CC"), 0, new SearchContext());
+    }
+
+    private static VFMatcher matcher(String smi, boolean matchBonds) throws Exception {
+        return new VFMatcher(new QueryCompiler(sp.parseSmiles(smi), matchBonds).compile());
+    }
+
+    private static Set<List<Integer>> collect(Iterator<int[]> it) {
+        Set<List<Integer>> matches = new HashSet<List<Integer>>();
+        while (it.hasNext()) {
+            int[] match = it.next();
+            Integer[] boxed = new Integer[match.length];
+            for (int i = 0; i < match.length; i++)
+                boxed[i] = match[i];
+            assertTrue(matches.add(Arrays.asList(boxed)));
+        }
+        return matches;
+    }
+
+    private static Set<List<Integer>> set(List<Integer>... matches) {
+        return new HashSet<List<Integer>>(Arrays.asList(matches));
+    }
+}
@@ -41,7 +41,8 @@ import org.junit.runners.Suite;
     org.openscience.cdk.smsd.algorithm.vflib.VFlibMCSHandlerTest.class,
     org.openscience.cdk.smsd.algorithm.vflib.VFlibTurboHandlerTest.class,
     org.openscience.cdk.smsd.algorithm.vflib.VFLibTest.class,
-    org.openscience.cdk.smsd.algorithm.vflib.VFMapperTest.class})
+    org.openscience.cdk.smsd.algorithm.vflib.VFMapperTest.class,
+    org.openscience.cdk.smsd.algorithm.vflib.VFMatcherTest.class})
 public class VflibSuite {
 
     @BeforeClass
@@ -24,6 +24,13 @@ package org.openscience.cdk.smsd.factory;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.openscience.cdk.DefaultChemObjectBuilder;
@@ -33,7 +40,9 @@ import org.openscience.cdk.exception.InvalidSmilesException;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.smiles.SmilesParser;
 import org.openscience.cdk.smsd.Isomorphism;
+import org.openscience.cdk.smsd.global.SearchContext;
 import org.openscience.cdk.smsd.interfaces.Algorithm;
+import org.openscience.cdk.smsd.tools.MolHandler;
 import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
 
 /**
@@ -395,4 +404,116 @@ public class SubStructureSearchAlgorithmsTest {
 
         assertEquals(score, smsd2.getEuclideanDistance(), 0.005);
     }
+
+    /**
+     * Test of init method with prepared molecules, of class Isomorphism.
+     * @throws Exception
+     */
+    @Test
+    public void testInit_MolHandler() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer target = sp.parseSmiles("C\\C=C/Nc1cccc(c1)N(O)\\C=C\\C\\C=C\\C=C/C");
+        IAtomContainer queryac = sp.parseSmiles("Nc1ccccc1");
+
+        Isomorphism smsd1 = new Isomorphism(Algorithm.DEFAULT, true);
+        smsd1.init(queryac, target, true, true);
+
+        MolHandler query = new MolHandler(queryac, true, true);
+        Isomorphism smsd2 = new Isomorphism(Algorithm.DEFAULT, true);
+        smsd2.init(query, new MolHandler(target, true, true));
+        assertEquals(smsd1.getFirstMapping(), smsd2.getFirstMapping());
+        assertEquals(smsd1.getTanimotoSimilarity(), smsd2.getTanimotoSimilarity(), 0.0001);
+    }
+
+    /**
+     * Test of getSearchContext and setSearchContext methods, of class Isomorphism.
+     * @throws Exception
+     */
+    @Test
+    public void testSearchContext() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer target = sp.parseSmiles("C\\C=C/Nc1cccc(c1)N(O)\\C=C\\C\\C=C\\C=C/C");
+        IAtomContainer queryac = sp.parseSmiles("Nc1ccccc1");
+
+        Isomorphism smsd1 = new Isomorphism(Algorithm.DEFAULT, true);
+        assertEquals(smsd1.getBondSensitiveTimeOut(), smsd1.getSearchContext().getTimeOut(), 0.0001);
+        SearchContext context = new SearchContext(1);
+        smsd1.setSearchContext(context);
+        smsd1.init(queryac, target, true, true);
+        assertEquals(7, smsd1.getFirstMapping().size());
+        Assert.assertTrue(context.getNodeCount() > 0);
+        Assert.assertFalse(smsd1.isTimeOut());
+    }
+
+    /**
+     * Changing the time out updates the installed search context, a search
+     * can still be cancelled through it.
+     * @throws Exception
+     */
+    @Test
+    public void testSearchContext_setTimeOut() throws Exception {
+        SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        IAtomContainer target = sp.parseSmiles("C\\C=C/Nc1cccc(c1)N(O)\\C=C\\C\\C=C\\C=C/C");
+        IAtomContainer queryac = sp.parseSmiles("Nc1ccccc1");
+
+        for (Algorithm algorithm : new Algorithm[]{Algorithm.MCSPlus, Algorithm.CDKMCS}) {
+            Isomorphism smsd0 = new Isomorphism(algorithm, true);
+            smsd0.init(queryac, target, true, true);
+            long nodes = smsd0.getSearchContext().getNodeCount();
+
+            Isomorphism smsd1 = new Isomorphism(algorithm, true);
+            SearchContext context = new SearchContext(1);
+            smsd1.setSearchContext(context);
+            smsd1.setBondSensitiveTimeOut(0.5);
+            smsd1.setBondInSensitiveTimeOut(0.25);
+            Assert.assertSame(context, smsd1.getSearchContext());
+            assertEquals(0.5, context.getTimeOut(), 0.0001);
+
+            context.cancel();
+            smsd1.init(queryac, target, true, true);
+            Assert.assertTrue(context.getNodeCount() < nodes);
+        }
+    }
+
+    /**
+     * Searches running concurrently do not share their results or time out.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        final SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+        final String[] smiles = {"Nc1ccccc1", "CCOC(=O)c1ccccc1", "OC1CCCCC1", "c1ccc2ccccc2c1"};
+        final String targetSmiles = "C\\C=C/Nc1cccc(c1)N(O)\\C=C\\C\\C=C\\C=C/C";
+        final Algorithm[] algorithms = {Algorithm.DEFAULT, Algorithm.MCSPlus, Algorithm.VFLibMCS, Algorithm.CDKMCS};
+
+        final int[] expected = new int[smiles.length * algorithms.length];
+        for (int i = 0; i < expected.length; i++) {
+            Isomorphism smsd = new Isomorphism(algorithms[i % algorithms.length], false);
+            smsd.init(sp.parseSmiles(smiles[i / algorithms.length]), sp.parseSmiles(targetSmiles), true, true);
+            expected[i] = smsd.getFirstMapping().size();
+        }
+
+        final int[] actual = new int[expected.length];
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            for (int i = 0; i < expected.length; i++) {
+                final int j = i;
+                tasks.add(executor.submit(new Callable<Object>() {
+                    @Override public Object call() throws Exception {
+                        SmilesParser parser = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+                        Isomorphism smsd = new Isomorphism(algorithms[j % algorithms.length], false);
+                        smsd.init(parser.parseSmiles(smiles[j / algorithms.length]), parser.parseSmiles(targetSmiles), true, true);
+                        actual[j] = smsd.getFirstMapping().size();
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> task : tasks)
+                task.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertArrayEquals(expected, actual);
+    }
 }
@@ -0,0 +1,92 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.global;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-smsd
+ */
+public class SearchContextTest {
+
+    @Test public void testUnlimited() throws Exception {
+        SearchContext context = new SearchContext();
+        assertThat(context.getTimeOut(), is(-1d));
+        Thread.sleep(5);
+        assertThat(context.isTimeOut(), is(false));
+        assertThat(context.isTimeOutFlag(), is(false));
+    }
+
+    @Test public void testTimeOut() throws Exception {
+        SearchContext context = new SearchContext(1e-6); // 60 us
+        assertThat(context.getTimeOut(), is(1e-6));
+        Thread.sleep(5);
+        assertThat(context.getElapsedTimeInMinutes() > 1e-6, is(true));
+        assertThat(context.isTimeOut(), is(true));
+        assertThat(context.isTimeOutFlag(), is(true));
+        context.resetTimeOutFlag();
+        assertThat(context.isTimeOutFlag(), is(false));
+
+        // a new stage has a new budget
+        context = new SearchContext(1);
+        Thread.sleep(5);
+        context.start();
+        assertThat(context.isTimeOut(), is(false));
+        assertThat(context.isTimeOutFlag(), is(false));
+    }
+
+    @Test public void testSetTimeOut() throws Exception {
+        SearchContext context = new SearchContext(1);
+        Thread.sleep(5);
+        context.setTimeOut(1e-6);
+        assertThat(context.getTimeOut(), is(1e-6));
+        assertThat(context.isTimeOut(), is(true));
+        context.setTimeOut(-1);
+        context.resetTimeOutFlag();
+        assertThat(context.isTimeOut(), is(false));
+    }
+
+    @Test public void testCancel() throws Exception {
+        SearchContext context = new SearchContext();
+        assertThat(context.isCancelled(), is(false));
+        context.cancel();
+        assertThat(context.isCancelled(), is(true));
+        assertThat(context.isTimeOut(), is(true));
+        assertThat(context.isTimeOutFlag(), is(true));
+        // stays cancelled
+        context.start();
+        assertThat(context.isCancelled(), is(true));
+        assertThat(context.isTimeOut(), is(true));
+    }
+
+    @Test public void testNodeCount() throws Exception {
+        SearchContext context = new SearchContext();
+        assertThat(context.getNodeCount(), is(0L));
+        context.visit();
+        context.visit();
+        context.start();
+        context.visit();
+        assertThat(context.getNodeCount(), is(3L));
+    }
+}
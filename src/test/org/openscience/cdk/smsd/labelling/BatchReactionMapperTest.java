@@ -0,0 +1,214 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.smsd.labelling;
+
+import org.junit.Test;
+import org.openscience.cdk.DefaultChemObjectBuilder;
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.CDKTestCase;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IMapping;
+import org.openscience.cdk.interfaces.IReaction;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.smsd.interfaces.Algorithm;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @cdk.module test-smsd
+ */
+public class BatchReactionMapperTest extends CDKTestCase {
+
+    private static final SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+
+    private static final String[] REACTIONS = {
+            "CC(=O)O.OCC>>CC(=O)OCC.O",
+            "CC(=O)Cl.NC>>CC(=O)NC.Cl",
+            "c1ccccc1Br.OB(O)c1ccccc1>>c1ccc(cc1)-c1ccccc1",
+            "CC(=O)O.OC>>CC(=O)OC.O",
+            "CCO>>CC=O"
+    };
+
+    /** The acetyl and ethyl groups of an esterification are mapped. */
+    @Test public void map() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        IReaction reaction = mapper.map(sp.parseReactionSmiles("CC(=O)O.OCC>>CC(=O)OCC.O"));
+        assertThat(reaction.getReactantCount(), is(2));
+        assertThat(reaction.getProductCount(), is(2));
+        assertTrue(reaction.getMappingCount() >= 7);
+        for (IMapping mapping : reaction.mappings()) {
+            IAtom a = (IAtom) mapping.getChemObject(0), b = (IAtom) mapping.getChemObject(1);
+            assertThat(a.getSymbol(), is(b.getSymbol()));
+            assertThat(a.getProperty(CDKConstants.ATOM_ATOM_MAPPING),
+                       is(b.getProperty(CDKConstants.ATOM_ATOM_MAPPING)));
+        }
+        assertThat(mapper.getProcessed(), is(1L));
+    }
+
+    /** An atom is mapped at most once. */
+    @Test public void unique() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, false);
+        for (String smi : REACTIONS) {
+            IReaction reaction = mapper.map(sp.parseReactionSmiles(smi));
+            List<IAtom> seen = new ArrayList<IAtom>();
+            for (IMapping mapping : reaction.mappings()) {
+                for (int i = 0; i < 2; i++) {
+                    IAtom atom = (IAtom) mapping.getChemObject(i);
+                    assertFalse(smi, seen.contains(atom));
+                    seen.add(atom);
+                }
+            }
+        }
+    }
+
+    /** Components seen before are not labelled again. */
+    @Test public void cache() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        mapper.map(reactions(REACTIONS).iterator(), 1, new BatchReactionMapper.Listener() {
+            @Override public void mapped(int index, IReaction reaction) {
+            }
+        });
+        // CC(=O)O and O are repeated
+        assertThat(mapper.getCacheHits(), is(2L));
+        assertThat(mapper.getCacheMisses(), is(15L));
+
+        mapper.map(reactions(REACTIONS).iterator(), 1, new BatchReactionMapper.Listener() {
+            @Override public void mapped(int index, IReaction reaction) {
+            }
+        });
+        assertThat(mapper.getCacheHits(), is(17L));
+
+        mapper.setMaxCacheSize(0);
+        mapper.map(reactions(REACTIONS).iterator(), 1, new BatchReactionMapper.Listener() {
+            @Override public void mapped(int index, IReaction reaction) {
+            }
+        });
+        assertThat(mapper.getCacheHits(), is(0L));
+        assertThat(mapper.getCacheMisses(), is(17L));
+    }
+
+    /** The least recently used permutation is evicted from a full cache. */
+    @Test public void lru() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        mapper.setMaxCacheSize(2);
+        mapper.map(sp.parseReactionSmiles("CCO>>CC=O"));
+        assertThat(mapper.getCacheMisses(), is(2L));
+        // CCO is used, CC=O is evicted for CCN
+        mapper.map(sp.parseReactionSmiles("CCO>>CCN"));
+        assertThat(mapper.getCacheHits(), is(1L));
+        assertThat(mapper.getCacheMisses(), is(3L));
+        // CC=O is labelled again and evicts CCO, CCN is still cached
+        mapper.map(sp.parseReactionSmiles("CC=O>>CCN"));
+        assertThat(mapper.getCacheHits(), is(2L));
+        assertThat(mapper.getCacheMisses(), is(4L));
+    }
+
+    /** Reactions are passed on in input order and map the same on any thread. */
+    @Test public void order() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        List<IReaction> input = new ArrayList<IReaction>();
+        for (int i = 0; i < 8; i++)
+            input.addAll(reactions(REACTIONS));
+
+        final List<String> expected = new ArrayList<String>(), actual = new ArrayList<String>();
+        for (IReaction reaction : input)
+            expected.add(describe(mapper.map(reaction)));
+
+        mapper.map(input.iterator(), 3, new BatchReactionMapper.Listener() {
+            @Override public void mapped(int index, IReaction reaction) {
+                assertThat(index, is(actual.size()));
+                actual.add(describe(reaction));
+            }
+        });
+        assertThat(actual, is(expected));
+        assertThat(mapper.getProcessed(), is((long) input.size()));
+    }
+
+    @Test public void smilesToRxn() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        StringBuilder smi = new StringBuilder();
+        for (String reaction : REACTIONS)
+            smi.append(reaction).append(" title\n\n");
+        StringWriter rxn = new StringWriter();
+        assertThat(mapper.map(DefaultChemObjectBuilder.getInstance(),
+                              new BufferedReader(new StringReader(smi.toString())), rxn, 2),
+                   is(REACTIONS.length));
+        String output = rxn.toString();
+        assertThat(output.split("\\$RXN", -1).length - 1, is(REACTIONS.length));
+        assertTrue(output.contains("title"));
+        assertTrue(mapper.getThroughput() > 0);
+        assertTrue(mapper.getReadNanos() > 0);
+        assertTrue(mapper.getCanonicalisationNanos() > 0);
+        assertTrue(mapper.getMappingNanos() > 0);
+        assertTrue(mapper.getWriteNanos() > 0);
+    }
+
+    @Test(expected = CDKException.class)
+    public void invalidSmiles() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        mapper.map(DefaultChemObjectBuilder.getInstance(), new BufferedReader(new StringReader("CCO>>CC=O\nC1CC>>CC\n")), new StringWriter(), 1);
+    }
+
+    @Test public void cancel() throws Exception {
+        final BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        final int[] count = new int[1];
+        mapper.map(reactions(REACTIONS).iterator(), 1, new BatchReactionMapper.Listener() {
+            @Override public void mapped(int index, IReaction reaction) {
+                count[0]++;
+                mapper.cancel();
+            }
+        });
+        assertThat(count[0], is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreads() throws Exception {
+        BatchReactionMapper mapper = new BatchReactionMapper(new CanonicalLabellingAdaptor(), Algorithm.DEFAULT, true);
+        mapper.map(reactions(REACTIONS).iterator(), 0, null);
+    }
+
+    /** The symbols and map numbers of the reactant and product atoms. */
+    private static String describe(IReaction reaction) {
+        StringBuilder sb = new StringBuilder();
+        for (IMapping mapping : reaction.mappings()) {
+            IAtom a = (IAtom) mapping.getChemObject(0);
+            sb.append(a.getSymbol()).append(a.getProperty(CDKConstants.ATOM_ATOM_MAPPING)).append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static List<IReaction> reactions(String... smis) throws Exception {
+        List<IReaction> reactions = new ArrayList<IReaction>();
+        for (String smi : smis)
+            reactions.add(sp.parseReactionSmiles(smi));
+        return reactions;
+    }
+}
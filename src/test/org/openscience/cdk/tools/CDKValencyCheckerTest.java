@@ -31,6 +31,7 @@ import org.openscience.cdk.CDKConstants;
 import org.openscience.cdk.CDKTestCase;
 import org.openscience.cdk.DefaultChemObjectBuilder;
 import org.openscience.cdk.atomtype.CDKAtomTypeMatcher;
+import org.openscience.cdk.exception.NoSuchAtomTypeException;
 import org.openscience.cdk.interfaces.IAtom;
 import org.openscience.cdk.interfaces.IAtomContainer;
 import org.openscience.cdk.interfaces.IAtomType;
@@ -268,6 +269,48 @@ public class CDKValencyCheckerTest extends CDKTestCase {
 		Assert.assertFalse(checker.isSaturated(mol));
 	}
 
+	/**
+	 * The whole container is saturated when each atom is, the bonds are
+	 * only summed once for the container.
+	 */
+	@Test public void testIsSaturated_IAtomContainer_perAtom() throws Exception {
+		IAtomContainer mol = new AtomContainer();
+		CDKValencyChecker checker = CDKValencyChecker.getInstance(mol.getBuilder());
+		Atom c1 = new Atom("C");
+		Atom c2 = new Atom("C");
+		Atom o = new Atom("O");
+		c1.setImplicitHydrogenCount(3);
+		c2.setImplicitHydrogenCount(1);
+		o.setImplicitHydrogenCount(0);
+		mol.addAtom(c1);
+		mol.addAtom(c2);
+		mol.addAtom(o);
+		mol.addBond(new Bond(c1, c2, CDKConstants.BONDORDER_SINGLE));
+		IBond carbonyl = new Bond(c2, o, CDKConstants.BONDORDER_DOUBLE);
+		mol.addBond(carbonyl);
+		findAndConfigureAtomTypesForAllAtoms(mol);
+		Assert.assertTrue(checker.isSaturated(mol));
+		for (IAtom atom : mol.atoms())
+			Assert.assertTrue(checker.isSaturated(atom, mol));
+
+		// the types are kept, the carbonyl is now too low
+		carbonyl.setOrder(CDKConstants.BONDORDER_SINGLE);
+		Assert.assertFalse(checker.isSaturated(mol));
+		Assert.assertTrue(checker.isSaturated(c1, mol));
+		Assert.assertFalse(checker.isSaturated(c2, mol));
+		Assert.assertFalse(checker.isSaturated(o, mol));
+	}
+
+	@Test(expected=NoSuchAtomTypeException.class)
+	public void testIsSaturated_unknownType() throws Exception {
+		IAtomContainer mol = new AtomContainer();
+		CDKValencyChecker checker = CDKValencyChecker.getInstance(mol.getBuilder());
+		Atom c = new Atom("C");
+		c.setAtomTypeName("X.unknown");
+		mol.addAtom(c);
+		checker.isSaturated(mol);
+	}
+
 	private void findAndConfigureAtomTypesForAllAtoms(IAtomContainer container) throws Exception {
     	CDKAtomTypeMatcher matcher = CDKAtomTypeMatcher.getInstance(container.getBuilder());
     	Iterator<IAtom> atoms = container.atoms().iterator();
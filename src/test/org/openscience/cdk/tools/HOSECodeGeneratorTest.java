@@ -615,5 +615,48 @@ public class HOSECodeGeneratorTest extends CDKTestCase {
   		Assert.assertEquals("Br", ((IAtom)atoms.get(1)).getSymbol());
 	}
 
-}
 
+	/**
+	 * The codes of all atoms are the same as the codes of each atom.
+	 */
+	@Test public void testGetHOSECodes() throws Exception {
+		assertSameCodes(false);
+	}
+
+	@Test public void testGetHOSECodes_ringsize() throws Exception {
+		assertSameCodes(true);
+	}
+
+	private void assertSameCodes(boolean ringsize) throws Exception {
+		String[] smiles = {"CC=CBr", "C([H])([H])([H])C([H])=C([H])Br", "CC(=O)OC1=CC=CC=C1C(O)=O",
+		                   "C1CCC2(CC1)CCCCC2", "CN1C=NC2=C1C(=O)N(C)C(=O)N2C", "[O-][N+](=O)C1=CC=CC=C1",
+		                   "C1=CC=C2C=CC=CC2=C1", "ClC(Br)(I)[Si](C)(C)C"};
+		SmilesParser sp = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+		for (String smi : smiles) {
+			IAtomContainer molecule = sp.parseSmiles(smi);
+			AtomContainerManipulator.percieveAtomTypesAndConfigureAtoms(molecule);
+			CDKHueckelAromaticityDetector.detectAromaticity(molecule);
+			HOSECodeGenerator hcg = new HOSECodeGenerator();
+			for (int spheres = 1; spheres <= 4; spheres++) {
+				String[] codes = hcg.getHOSECodes(molecule, spheres, ringsize);
+				Assert.assertEquals(molecule.getAtomCount(), codes.length);
+				for (int i = 0; i < codes.length; i++)
+					Assert.assertEquals(smi + " " + i, new HOSECodeGenerator().getHOSECode(molecule, molecule.getAtom(i), spheres, ringsize), codes[i]);
+			}
+		}
+	}
+
+	@Test public void testEncode() throws Exception {
+		IAtomContainer molecule = (new SmilesParser(DefaultChemObjectBuilder.getInstance())).parseSmiles("CC(=O)OC1=CC=CC=C1C(O)=O");
+		AtomContainerManipulator.percieveAtomTypesAndConfigureAtoms(molecule);
+		CDKHueckelAromaticityDetector.detectAromaticity(molecule);
+		String[] codes = new HOSECodeGenerator().getHOSECodes(molecule, 4, false);
+		for (int i = 0; i < codes.length; i++) {
+			Assert.assertEquals(HOSECodeGenerator.encode(codes[i]), HOSECodeGenerator.encode(new String(codes[i])));
+			for (int j = 0; j < codes.length; j++)
+				Assert.assertEquals(codes[i].equals(codes[j]), HOSECodeGenerator.encode(codes[i]) == HOSECodeGenerator.encode(codes[j]));
+		}
+		Assert.assertFalse(HOSECodeGenerator.encode("C-4;C(//)") == HOSECodeGenerator.encode("C-4;O(//)"));
+	}
+
+}
@@ -0,0 +1,196 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.openscience.cdk.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openscience.cdk.exception.CDKException;
+
+/**
+ * @author agent
+ * @cdk.module test-core
+ */
+public class ParallelTasksTest {
+
+    @Test public void forEachIndex() throws Exception {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+        ParallelTasks.forEach(counts.length(), 4, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) {
+                counts.incrementAndGet(i);
+            }
+        });
+        for (int i = 0; i < counts.length(); i++)
+            Assert.assertEquals(1, counts.get(i));
+    }
+
+    @Test public void forEachIndex_sequential() throws Exception {
+        final List<Integer> indices = new ArrayList<Integer>();
+        ParallelTasks.forEach(5, 1, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) {
+                indices.add(i);
+            }
+        });
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), indices);
+    }
+
+    @Test public void forEachIndex_failure() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        try {
+            ParallelTasks.forEach(10000, 4, new ParallelTasks.IndexedTask() {
+                @Override public void run(int i) throws CDKException {
+                    count.incrementAndGet();
+                    if (i == 10)
+                        throw new CDKException("index 10");
+                }
+            });
+            Assert.fail("the failure was not reported");
+        } catch (CDKException e) {
+            Assert.assertEquals("index 10", e.getMessage());
+        }
+        // the remaining indices were not run
+        Assert.assertTrue(count.get() < 10000);
+    }
+
+    /** The exception of a task does not depend on the number of threads. */
+    @Test public void forEachIndex_runtimeFailure() throws Exception {
+        for (int nThreads : new int[]{1, 4}) {
+            try {
+                ParallelTasks.forEach(100, nThreads, new ParallelTasks.IndexedTask() {
+                    @Override public void run(int i) {
+                        if (i == 10)
+                            throw new IllegalStateException("index 10");
+                    }
+                });
+                Assert.fail("the failure was not reported");
+            } catch (IllegalStateException e) {
+                Assert.assertEquals("index 10", e.getMessage());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreads() throws Exception {
+        ParallelTasks.forEach(10, 0, new ParallelTasks.IndexedTask() {
+            @Override public void run(int i) {
+            }
+        });
+    }
+
+    @Test public void forEachTask_ordered() throws Exception {
+        final List<Integer> results = new ArrayList<Integer>();
+        ParallelTasks.forEach(tasks(200, -1).iterator(), 4, true, new ParallelTasks.Handler<Integer>() {
+            @Override public boolean handle(Integer result) {
+                results.add(result);
+                return true;
+            }
+        });
+        Assert.assertEquals(200, results.size());
+        for (int i = 0; i < results.size(); i++)
+            Assert.assertEquals(Integer.valueOf(i), results.get(i));
+    }
+
+    @Test public void forEachTask_unordered() throws Exception {
+        for (int nThreads : new int[]{1, 4}) {
+            final Set<Integer> results = Collections.synchronizedSet(new HashSet<Integer>());
+            ParallelTasks.forEach(tasks(200, -1).iterator(), nThreads, false, new ParallelTasks.Handler<Integer>() {
+                @Override public boolean handle(Integer result) {
+                    results.add(result);
+                    return true;
+                }
+            });
+            Assert.assertEquals(200, results.size());
+        }
+    }
+
+    @Test public void forEachTask_stop() throws Exception {
+        for (int nThreads : new int[]{1, 4}) {
+            final List<Integer> results = new ArrayList<Integer>();
+            ParallelTasks.forEach(tasks(200, -1).iterator(), nThreads, true, new ParallelTasks.Handler<Integer>() {
+                @Override public boolean handle(Integer result) {
+                    results.add(result);
+                    return results.size() < 3;
+                }
+            });
+            Assert.assertEquals(Arrays.asList(0, 1, 2), results);
+        }
+    }
+
+    @Test public void forEachTask_failure() throws Exception {
+        for (int nThreads : new int[]{1, 4}) {
+            try {
+                ParallelTasks.forEach(tasks(200, 50).iterator(), nThreads, true, new ParallelTasks.Handler<Integer>() {
+                    @Override public boolean handle(Integer result) {
+                        return true;
+                    }
+                });
+                Assert.fail("the failure was not reported");
+            } catch (CDKException e) {
+                Assert.assertEquals("task 50", e.getMessage());
+            }
+        }
+    }
+
+    /** The exception of a task does not depend on the number of threads. */
+    @Test public void forEachTask_runtimeFailure() throws Exception {
+        for (int nThreads : new int[]{1, 4}) {
+            List<Callable<Integer>> tasks = tasks(200, -1);
+            tasks.set(50, new Callable<Integer>() {
+                @Override public Integer call() {
+                    throw new IllegalStateException("task 50");
+                }
+            });
+            try {
+                ParallelTasks.forEach(tasks.iterator(), nThreads, false, new ParallelTasks.Handler<Integer>() {
+                    @Override public boolean handle(Integer result) {
+                        return true;
+                    }
+                });
+                Assert.fail("the failure was not reported");
+            } catch (IllegalStateException e) {
+                Assert.assertEquals("task 50", e.getMessage());
+            }
+        }
+    }
+
+    /** Tasks returning their index, the task 'failure' throws an exception. */
+    private static List<Callable<Integer>> tasks(int n, final int failure) {
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < n; i++) {
+            final int index = i;
+            tasks.add(new Callable<Integer>() {
+                @Override public Integer call() throws Exception {
+                    if (index == failure)
+                        throw new CDKException("task " + index);
+                    return index;
+                }
+            });
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,175 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.tools;
+
+import org.junit.Test;
+import org.openscience.cdk.CDKConstants;
+import org.openscience.cdk.aromaticity.Aromaticity;
+import org.openscience.cdk.aromaticity.ElectronDonation;
+import org.openscience.cdk.exception.CDKException;
+import org.openscience.cdk.graph.Cycles;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+import org.openscience.cdk.tools.manipulator.AtomContainerManipulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-valencycheck
+ */
+public class PerceptionPipelineTest {
+
+    private static final SmilesParser sp = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    private static final String[] SMILES = {
+            "C1=CC=CC=C1",
+            "C1=CC=CN1",
+            "O=C1C=CC(=O)C=C1",
+            "C1=CC=C2C=CC=CC2=C1",
+            "CC(=O)OC1=CC=CC=C1C(O)=O",
+            "CN1C=NC2=C1C(=O)N(C)C(=O)N2C",
+            "C1CCC2(CC1)CCCCC2",
+            "[Na+].[O-]C(=O)C1=CC=CC=C1",
+            "C=1C=CC=2C=CC=CC=2C=1",
+            "OC1=CC=CC2=CC=CC=C12"
+    };
+
+    @Test public void benzene() throws Exception {
+        IAtomContainer container = smi("C1=CC=CC=C1");
+        new PerceptionPipeline().perceive(container);
+        for (IAtom atom : container.atoms()) {
+            assertThat(atom.getAtomTypeName(), is("C.sp2"));
+            assertThat(atom.getImplicitHydrogenCount(), is(1));
+            assertThat(atom.getFlag(CDKConstants.ISAROMATIC), is(true));
+            assertThat(atom.getFlag(CDKConstants.ISINRING), is(true));
+        }
+        for (IBond bond : container.bonds())
+            assertThat(bond.getFlag(CDKConstants.ISAROMATIC), is(true));
+    }
+
+    @Test public void pyrrole() throws Exception {
+        IAtomContainer container = smi("C1=CC=CN1C");
+        new PerceptionPipeline().perceive(container);
+        assertThat(container.getAtom(4).getAtomTypeName(), is("N.planar3"));
+        assertThat(container.getAtom(4).getImplicitHydrogenCount(), is(0));
+        assertThat(container.getAtom(5).getImplicitHydrogenCount(), is(3));
+        assertThat(container.getAtom(4).getFlag(CDKConstants.ISAROMATIC), is(true));
+        assertThat(container.getAtom(5).getFlag(CDKConstants.ISAROMATIC), is(false));
+        assertThat(container.getAtom(5).getFlag(CDKConstants.ISINRING), is(false));
+        assertThat(container.getBond(4).getFlag(CDKConstants.ISINRING), is(true));
+        assertThat(container.getBond(5).getFlag(CDKConstants.ISINRING), is(false));
+    }
+
+    /** The single pass gives the same result as the separate passes. */
+    @Test public void sameAsSeparatePasses() throws Exception {
+        Aromaticity        aromaticity = new Aromaticity(ElectronDonation.cdk(), Cycles.cdkAromaticSet());
+        PerceptionPipeline pipeline    = new PerceptionPipeline(aromaticity);
+        for (String smi : SMILES) {
+            IAtomContainer expected = smi(smi);
+            IAtomContainer actual   = smi(smi);
+            AtomContainerManipulator.percieveAtomTypesAndConfigureAtoms(expected);
+            CDKHydrogenAdder.getInstance(expected.getBuilder()).addImplicitHydrogens(expected);
+            aromaticity.apply(expected);
+            pipeline.perceive(actual);
+            assertSamePerception(smi, expected, actual);
+        }
+    }
+
+    @Test public void daylight() throws Exception {
+        IAtomContainer container = smi("O=C1C=CC(=O)C=C1");
+        new PerceptionPipeline().perceive(container);
+        assertThat(container.getFlag(CDKConstants.ISAROMATIC), is(false));
+        new PerceptionPipeline(new Aromaticity(ElectronDonation.daylight(), Cycles.all())).perceive(container);
+        assertThat(container.getFlag(CDKConstants.ISAROMATIC), is(false));
+        container = smi("C1=CC=CN1");
+        new PerceptionPipeline(new Aromaticity(ElectronDonation.daylight(), Cycles.all())).perceive(container);
+        assertThat(container.getFlag(CDKConstants.ISAROMATIC), is(true));
+    }
+
+    /** Atoms which were not typed keep the existing behaviour of the adder. */
+    @Test(expected = CDKException.class)
+    public void untyped() throws Exception {
+        IAtomContainer container = smi("[Ne+]");
+        new PerceptionPipeline().perceive(container);
+    }
+
+    @Test public void batch() throws Exception {
+        List<IAtomContainer> expected = new ArrayList<IAtomContainer>();
+        List<IAtomContainer> actual   = new ArrayList<IAtomContainer>();
+        for (int i = 0; i < 5; i++) {
+            for (String smi : SMILES) {
+                expected.add(smi(smi));
+                actual.add(smi(smi));
+            }
+        }
+        PerceptionPipeline pipeline = new PerceptionPipeline();
+        pipeline.perceive(expected, 1);
+        pipeline.perceive(actual, 4);
+        for (int i = 0; i < expected.size(); i++)
+            assertSamePerception(Integer.toString(i), expected.get(i), actual.get(i));
+    }
+
+    @Test(expected = CDKException.class)
+    public void batch_error() throws Exception {
+        List<IAtomContainer> containers = new ArrayList<IAtomContainer>();
+        for (String smi : SMILES)
+            containers.add(smi(smi));
+        containers.add(smi("[Ne+]"));
+        new PerceptionPipeline().perceive(containers, 3);
+    }
+
+    @Test public void times() throws Exception {
+        PerceptionPipeline pipeline = new PerceptionPipeline();
+        for (PerceptionPipeline.Stage stage : PerceptionPipeline.Stage.values())
+            assertThat(pipeline.getTime(stage), is(0L));
+        pipeline.perceive(smi("C1=CC=C2C=CC=CC2=C1"));
+        for (PerceptionPipeline.Stage stage : PerceptionPipeline.Stage.values())
+            assertThat(pipeline.getTime(stage) > 0, is(true));
+        pipeline.resetTimes();
+        for (PerceptionPipeline.Stage stage : PerceptionPipeline.Stage.values())
+            assertThat(pipeline.getTime(stage), is(0L));
+    }
+
+    private static void assertSamePerception(String msg, IAtomContainer expected, IAtomContainer actual) {
+        assertThat(msg, actual.getFlag(CDKConstants.ISAROMATIC), is(expected.getFlag(CDKConstants.ISAROMATIC)));
+        for (int i = 0; i < expected.getAtomCount(); i++) {
+            IAtom a = expected.getAtom(i), b = actual.getAtom(i);
+            assertThat(msg, b.getAtomTypeName(), is(a.getAtomTypeName()));
+            assertThat(msg, b.getImplicitHydrogenCount(), is(a.getImplicitHydrogenCount()));
+            assertThat(msg, b.getHybridization(), is(a.getHybridization()));
+            assertThat(msg, b.getFlag(CDKConstants.ISAROMATIC), is(a.getFlag(CDKConstants.ISAROMATIC)));
+        }
+        for (int i = 0; i < expected.getBondCount(); i++)
+            assertThat(msg, actual.getBond(i).getFlag(CDKConstants.ISAROMATIC),
+                       is(expected.getBond(i).getFlag(CDKConstants.ISAROMATIC)));
+    }
+
+    private static IAtomContainer smi(String smi) throws Exception {
+        return sp.parseSmiles(smi);
+    }
+}
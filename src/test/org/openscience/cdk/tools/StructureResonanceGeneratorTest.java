@@ -1543,6 +1543,192 @@ public class StructureResonanceGeneratorTest  extends CDKTestCase{
 		
 	}
 	
+	@Test public void testGetMaximalTime() throws Exception {
+		StructureResonanceGenerator gRI = new StructureResonanceGenerator();
+		Assert.assertEquals(0,gRI.getMaximalTime());
+	}
+
+	@Test public void testSetMaximalTime_long() throws Exception {
+		StructureResonanceGenerator gRI = new StructureResonanceGenerator();
+		gRI.setMaximalTime(1000);
+		Assert.assertEquals(1000,gRI.getMaximalTime());
+
+		/* the structures are the same when the time is not exceeded */
+		IAtomContainer molecule = pentadienylCation();
+		Assert.assertEquals(new StructureResonanceGenerator().getStructures(molecule).getAtomContainerCount(),
+		                    gRI.getStructures(molecule).getAtomContainerCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMaximalTime_negative() throws Exception {
+		new StructureResonanceGenerator().setMaximalTime(-1);
+	}
+
+	@Test public void testSetCaching_boolean() throws Exception {
+		StructureResonanceGenerator gRI = new StructureResonanceGenerator();
+		Assert.assertFalse(gRI.isCaching());
+		gRI.setCaching(true);
+		Assert.assertTrue(gRI.isCaching());
+
+		IAtomContainer molecule = pentadienylCation();
+		IAtomContainerSet setOfMolecules1 = gRI.getStructures(molecule);
+		IAtomContainerSet setOfMolecules2 = gRI.getStructures(molecule);
+		Assert.assertNotSame(setOfMolecules1, setOfMolecules2);
+		Assert.assertEquals(setOfMolecules1.getAtomContainerCount(), setOfMolecules2.getAtomContainerCount());
+		Assert.assertSame(molecule, setOfMolecules2.getAtomContainer(0));
+		for (int i = 1; i < setOfMolecules1.getAtomContainerCount(); i++) {
+			IAtomContainer a = setOfMolecules1.getAtomContainer(i);
+			IAtomContainer b = setOfMolecules2.getAtomContainer(i);
+			/* the callers do not share the cached structures */
+			Assert.assertNotSame(a, b);
+			for (int j = 0; j < a.getAtomCount(); j++)
+				Assert.assertEquals(a.getAtom(j).getFormalCharge(), b.getAtom(j).getFormalCharge());
+			for (int j = 0; j < a.getBondCount(); j++)
+				Assert.assertEquals(a.getBond(j).getOrder(), b.getBond(j).getOrder());
+		}
+
+		/* modifying a returned structure does not modify the cached structures */
+		IAtomContainer structure = setOfMolecules2.getAtomContainer(1);
+		Integer charge = structure.getAtom(0).getFormalCharge();
+		structure.getAtom(0).setFormalCharge(charge + 1);
+		Assert.assertEquals(charge, gRI.getStructures(molecule).getAtomContainer(1).getAtom(0).getFormalCharge());
+
+		/* the molecule was modified (C=C[CH+]C=C), the structures are generated again */
+		molecule.getAtom(0).setFormalCharge(0);
+		molecule.getAtom(2).setFormalCharge(1);
+		molecule.getBond(0).setOrder(IBond.Order.DOUBLE);
+		molecule.getBond(1).setOrder(IBond.Order.SINGLE);
+		IAtomContainerSet setOfMolecules3 = gRI.getStructures(molecule);
+		Assert.assertTrue(setOfMolecules3.getAtomContainerCount() > 1);
+		Assert.assertNotSame(setOfMolecules1.getAtomContainer(1), setOfMolecules3.getAtomContainer(1));
+
+		gRI.setCaching(false);
+		Assert.assertFalse(gRI.isCaching());
+		Assert.assertNotSame(setOfMolecules3.getAtomContainer(1), gRI.getStructures(molecule).getAtomContainer(1));
+	}
+
+	@Test public void testClearCache() throws Exception {
+		StructureResonanceGenerator gRI = new StructureResonanceGenerator();
+		gRI.setCaching(true);
+		IAtomContainer molecule = pentadienylCation();
+		IAtomContainerSet setOfMolecules1 = gRI.getStructures(molecule);
+		gRI.clearCache();
+		IAtomContainerSet setOfMolecules2 = gRI.getStructures(molecule);
+		Assert.assertEquals(setOfMolecules1.getAtomContainerCount(), setOfMolecules2.getAtomContainerCount());
+		Assert.assertNotSame(setOfMolecules1.getAtomContainer(1), setOfMolecules2.getAtomContainer(1));
+	}
+
+	/**
+	 * Moving a radical or adding a lone pair changes the molecule, the cached
+	 * structures are not reused.
+	 */
+	@Test public void testCaching_RadicalsAndLonePairs() throws Exception {
+		StructureResonanceGenerator gRI = new StructureResonanceGenerator();
+		gRI.setCaching(true);
+		IAtomContainer molecule = pentadienylCation();
+		molecule.addSingleElectron(new SingleElectron(molecule.getAtom(4)));
+		assertSameStructures(new StructureResonanceGenerator().getStructures(molecule),
+		                     gRI.getStructures(molecule));
+
+		molecule.removeSingleElectron(0);
+		molecule.addSingleElectron(new SingleElectron(molecule.getAtom(0)));
+		assertSameStructures(new StructureResonanceGenerator().getStructures(molecule),
+		                     gRI.getStructures(molecule));
+
+		molecule.addLonePair(new LonePair(molecule.getAtom(1)));
+		assertSameStructures(new StructureResonanceGenerator().getStructures(molecule),
+		                     gRI.getStructures(molecule));
+	}
+
+	/**
+	 * The structures have the same charges, bond orders, radicals and lone
+	 * pairs.
+	 */
+	private static void assertSameStructures(IAtomContainerSet expected, IAtomContainerSet actual) {
+		Assert.assertEquals(expected.getAtomContainerCount(), actual.getAtomContainerCount());
+		for (int i = 0; i < expected.getAtomContainerCount(); i++) {
+			IAtomContainer a = expected.getAtomContainer(i);
+			IAtomContainer b = actual.getAtomContainer(i);
+			for (int j = 0; j < a.getAtomCount(); j++) {
+				Assert.assertEquals(a.getAtom(j).getFormalCharge(), b.getAtom(j).getFormalCharge());
+				Assert.assertEquals(a.getConnectedSingleElectronsCount(a.getAtom(j)),
+				                    b.getConnectedSingleElectronsCount(b.getAtom(j)));
+				Assert.assertEquals(a.getConnectedLonePairsCount(a.getAtom(j)),
+				                    b.getConnectedLonePairsCount(b.getAtom(j)));
+			}
+			for (int j = 0; j < a.getBondCount(); j++)
+				Assert.assertEquals(a.getBond(j).getOrder(), b.getBond(j).getOrder());
+		}
+	}
+
+	/** The cache may be used from several threads. */
+	@Test public void testCaching_Threads() throws Exception {
+		final StructureResonanceGenerator gRI = new StructureResonanceGenerator();
+		gRI.setCaching(true);
+		final int expected = gRI.getStructures(pentadienylCation()).getAtomContainerCount();
+		final List<IAtomContainer> molecules = new ArrayList<IAtomContainer>();
+		for (int i = 0; i < 16; i++)
+			molecules.add(pentadienylCation());
+		final int[] counts = new int[4 * molecules.size()];
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int offset = t * molecules.size();
+			threads[t] = new Thread() {
+				@Override public void run() {
+					for (int i = 0; i < molecules.size(); i++)
+						counts[offset + i] = gRI.getStructures(molecules.get(i)).getAtomContainerCount();
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		for (int count : counts)
+			Assert.assertEquals(expected, count);
+	}
+
+	/**
+	 * The structures are found once, the identical structures produced by
+	 * different reactions are removed.
+	 */
+	@Test public void testGetStructures_NoDuplicates() throws Exception {
+		IAtomContainer molecule = pentadienylCation();
+		IAtomContainerSet setOfMolecules = new StructureResonanceGenerator().getStructures(molecule);
+		for (int i = 0; i < setOfMolecules.getAtomContainerCount(); i++) {
+			for (int j = i + 1; j < setOfMolecules.getAtomContainerCount(); j++) {
+				IAtomContainer a = setOfMolecules.getAtomContainer(i);
+				IAtomContainer b = setOfMolecules.getAtomContainer(j);
+				boolean same = a.getBondCount() == b.getBondCount();
+				for (int k = 0; same && k < a.getAtomCount(); k++)
+					same = a.getAtom(k).getFormalCharge().equals(b.getAtom(k).getFormalCharge());
+				for (int k = 0; same && k < a.getBondCount(); k++)
+					same = a.getBond(k).getOrder() == b.getBond(k).getOrder();
+				Assert.assertFalse(same);
+			}
+		}
+	}
+
+	/**
+	 * [CH2+]C=CC=C with explicit hydrogens.
+	 */
+	private IAtomContainer pentadienylCation() throws Exception {
+		IAtomContainer molecule = builder.newInstance(IAtomContainer.class);
+		molecule.addAtom(builder.newInstance(IAtom.class,"C"));
+		molecule.getAtom(0).setFormalCharge(1);
+		molecule.addAtom(builder.newInstance(IAtom.class,"C"));
+		molecule.addBond(0, 1, IBond.Order.SINGLE);
+		molecule.addAtom(builder.newInstance(IAtom.class,"C"));
+		molecule.addBond(1, 2, IBond.Order.DOUBLE);
+		molecule.addAtom(builder.newInstance(IAtom.class,"C"));
+		molecule.addBond(2, 3, IBond.Order.SINGLE);
+		molecule.addAtom(builder.newInstance(IAtom.class,"C"));
+		molecule.addBond(3, 4, IBond.Order.DOUBLE);
+		addExplicitHydrogens(molecule);
+		AtomContainerManipulator.percieveAtomTypesAndConfigureAtoms(molecule);
+		lpcheck.saturate(molecule);
+		return molecule;
+	}
+
 	/**
 	 * A unit test suite for JUnit: c1ccccc1CN
 	 *  
@@ -0,0 +1,154 @@
+/* Copyright (C) 2026  agent <agent@local>
+ *
+ * Contact: cdk-devel@lists.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.openscience.cdk.tools;
+
+import org.junit.Test;
+import org.openscience.cdk.interfaces.IAtom;
+import org.openscience.cdk.interfaces.IAtomContainer;
+import org.openscience.cdk.interfaces.IAtomContainerSet;
+import org.openscience.cdk.interfaces.IBond;
+import org.openscience.cdk.silent.SilentChemObjectBuilder;
+import org.openscience.cdk.smiles.SmilesParser;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ * @cdk.module test-valencycheck
+ */
+public class ValenceValidatorTest {
+
+    private static final SmilesParser sp = new SmilesParser(SilentChemObjectBuilder.getInstance());
+
+    private static final String[] SMILES = {
+            "O", "C", "[CH3+]", "[CH5]", "CC(=O)O", "C#N", "[O-]C(=O)C", "C[N+](C)(C)C",
+            "CS(=O)(=O)O", "CS(C)=O", "CP(C)C", "OP(=O)(O)O", "FC(Cl)(Br)I", "[Na+].[Cl-]",
+            "[Se]", "C[Si](C)(C)C", "C1=CC=CC=C1", "C=[N+]=[N-]", "[Fe]", "CC(=O)OC1=CC=CC=C1C(O)=O"
+    };
+
+    @Test public void instance() throws Exception {
+        ValenceValidator validator = ValenceValidator.getInstance(SilentChemObjectBuilder.getInstance());
+        assertThat(validator == ValenceValidator.getInstance(SilentChemObjectBuilder.getInstance()), is(true));
+    }
+
+    @Test public void oxygen() throws Exception {
+        IAtomContainer container = sp.parseSmiles("O");
+        ValenceValidator validator = validator();
+        int[] codes = new int[1];
+        assertThat(validator.validate(container, codes), is(0));
+        assertThat(codes[0], is(ValenceValidator.VALID));
+        assertThat(validator.validate(container.getAtom(0), container), is(ValenceValidator.VALID));
+        assertThat(validator.isValid(container), is(true));
+    }
+
+    @Test public void methane() throws Exception {
+        IAtomContainer container = sp.parseSmiles("C");
+        ValenceValidator validator = validator();
+        container.getAtom(0).setImplicitHydrogenCount(3);
+        assertThat(validator.validate(container.getAtom(0), container), is(ValenceValidator.UNSATURATED));
+        assertThat(validator.isValid(container), is(false));
+        container.getAtom(0).setImplicitHydrogenCount(null);
+        assertThat(validator.validate(container.getAtom(0), container), is(ValenceValidator.UNSATURATED));
+        container.getAtom(0).setImplicitHydrogenCount(4);
+        assertThat(validator.validate(container.getAtom(0), container), is(ValenceValidator.VALID));
+        assertThat(validator.isValid(container), is(true));
+    }
+
+    @Test public void carbocation() throws Exception {
+        IAtomContainer container = sp.parseSmiles("[CH3+]");
+        int[] codes = new int[1];
+        assertThat(validator().validate(container, codes), is(1));
+        assertThat(codes[0], is(ValenceValidator.UNSATURATED));
+        assertThat(validator().isValid(container), is(false));
+    }
+
+    @Test public void oversaturated() throws Exception {
+        IAtomContainer container = sp.parseSmiles("CC(C)(C)(C)C");
+        int[] codes = new int[6];
+        assertThat(validator().validate(container, codes), is(1));
+        assertThat(codes[1], is(ValenceValidator.OVERSATURATED));
+        assertThat(codes[0], is(ValenceValidator.VALID));
+    }
+
+    /** Sulphur has a valence of 4 but may not have a triple bond. */
+    @Test public void bondOrder() throws Exception {
+        IAtomContainer container = SilentChemObjectBuilder.getInstance().newInstance(IAtomContainer.class);
+        container.addAtom(SilentChemObjectBuilder.getInstance().newInstance(IAtom.class, "S"));
+        container.addAtom(SilentChemObjectBuilder.getInstance().newInstance(IAtom.class, "C"));
+        container.addBond(0, 1, IBond.Order.TRIPLE);
+        container.getAtom(0).setImplicitHydrogenCount(1);
+        container.getAtom(1).setImplicitHydrogenCount(1);
+        int[] codes = new int[2];
+        assertThat(validator().validate(container, codes), is(1));
+        assertThat(codes[0], is(ValenceValidator.BOND_ORDER));
+        assertThat(codes[1], is(ValenceValidator.VALID));
+    }
+
+    @Test public void unchecked() throws Exception {
+        IAtomContainer container = sp.parseSmiles("[Fe]");
+        int[] codes = new int[1];
+        assertThat(validator().validate(container, codes), is(0));
+        assertThat(codes[0], is(ValenceValidator.UNCHECKED));
+        assertThat(validator().isValid(container), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewCodes() throws Exception {
+        validator().validate(sp.parseSmiles("CC"), new int[1]);
+    }
+
+    /** The atoms are valid when the SaturationChecker finds them saturated. */
+    @Test public void sameAsSaturationChecker() throws Exception {
+        SaturationChecker checker = new SaturationChecker();
+        ValenceValidator validator = validator();
+        for (String smi : SMILES) {
+            IAtomContainer container = sp.parseSmiles(smi);
+            int[] codes = new int[container.getAtomCount()];
+            validator.validate(container, codes);
+            for (int i = 0; i < container.getAtomCount(); i++) {
+                boolean valid = codes[i] == ValenceValidator.VALID || codes[i] == ValenceValidator.UNCHECKED;
+                assertThat(smi + " " + i, valid, is(checker.isSaturated(container.getAtom(i), container)));
+                assertThat(smi + " " + i, validator.validate(container.getAtom(i), container), is(codes[i]));
+            }
+            assertThat(smi, validator.isValid(container), is(checker.allSaturated(container)));
+        }
+    }
+
+    @Test public void batch() throws Exception {
+        IAtomContainerSet containers = SilentChemObjectBuilder.getInstance().newInstance(IAtomContainerSet.class);
+        for (int i = 0; i < 5; i++)
+            for (String smi : SMILES)
+                containers.addAtomContainer(sp.parseSmiles(smi));
+        int[][] sequential = validator().validate(containers, 1);
+        int[][] parallel   = validator().validate(containers, 4);
+        assertThat(parallel.length, is(containers.getAtomContainerCount()));
+        for (int i = 0; i < sequential.length; i++) {
+            int[] codes = new int[containers.getAtomContainer(i).getAtomCount()];
+            validator().validate(containers.getAtomContainer(i), codes);
+            assertThat(sequential[i], is(codes));
+            assertThat(parallel[i], is(codes));
+        }
+    }
+
+    private static ValenceValidator validator() {
+        return ValenceValidator.getInstance(SilentChemObjectBuilder.getInstance());
+    }
+}